@@ -0,0 +1,56 @@
+package fr.sncf.osrd.envelope_sim;
+
+import fr.sncf.osrd.envelope.Envelope;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the integration of max effort envelopes, where most of the time is spent in the integrator */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TrainPhysicsIntegratorBenchmark {
+    @Param({"10000", "100000"})
+    public double length;
+
+    @Param({"0.1", "4"})
+    public double timeStep;
+
+    private EnvelopeSimContext context;
+
+    private double[] stops;
+
+    @Setup
+    public void setup() {
+        // change the grade every 100m, so that grade lookups are part of the measure
+        var gradeCount = (int) (length / 100);
+        var gradePositions = new double[gradeCount + 1];
+        var gradeValues = new double[gradeCount];
+        for (int i = 0; i < gradeCount; i++) {
+            gradePositions[i] = i * 100;
+            gradeValues[i] = (i % 7) - 3;
+        }
+        gradePositions[gradeCount] = length;
+        var path = EnvelopeSimPathBuilder.buildNonElectrified(length, gradePositions, gradeValues);
+        context = new EnvelopeSimContext(
+                SimpleRollingStock.STANDARD_TRAIN, path, timeStep, SimpleRollingStock.LINEAR_EFFORT_CURVE_MAP);
+        stops = new double[] {length / 2, length};
+    }
+
+    @Benchmark
+    public Envelope maxEffortEnvelope() {
+        return MaxEffortEnvelopeBuilder.makeSimpleMaxEffortEnvelope(context, 44.4, stops);
+    }
+}
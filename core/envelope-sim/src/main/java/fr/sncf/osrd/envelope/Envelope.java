@@ -31,9 +31,10 @@ public final class Envelope implements Iterable<EnvelopePart>, SearchableEnvelop
 
     /**
      * The time from the start of the envelope to envelope part transitions, in milliseconds. Only
-     * read using getTotalTimes.
+     * read using getTotalTimes. Envelopes may be shared between threads, so the cache is volatile:
+     * it is computed at most once per thread, and always fully initialized when read.
      */
-    private long[] cumulativeTimesCache = null;
+    private volatile long[] cumulativeTimesCache = null;
 
     // endregion
 
@@ -185,6 +186,29 @@ public final class Envelope implements Iterable<EnvelopePart>, SearchableEnvelop
         return ((double) interpolateTotalTimeMS(position)) / 1000;
     }
 
+    /**
+     * Computes the first position reached at a given time, with a single lookup in the cumulative
+     * times. The time is clamped to the [0, total time] range.
+     */
+    @Override
+    public double interpolatePositionFromTime(double time) {
+        assert continuous : "interpolating positions on a non continuous envelope is a risky business";
+        var timeMS = time * 1000;
+        var cumulativeTimes = getCumulativeTimesMS();
+        // find the first part which ends at or after the given time
+        var lowerBound = 0;
+        var upperBound = parts.length - 1;
+        while (lowerBound < upperBound) {
+            var i = (lowerBound + upperBound) / 2;
+            if (cumulativeTimes[i + 1] >= timeMS) {
+                upperBound = i;
+            } else {
+                lowerBound = i + 1;
+            }
+        }
+        return parts[lowerBound].interpolatePositionFromTimeMS(timeMS - cumulativeTimes[lowerBound]);
+    }
+
     // endregion
 
     // region CACHING
@@ -64,6 +64,12 @@ public class EnvelopeConcat implements EnvelopeTimeInterpolate {
         return interpolateTotalTime(clamped);
     }
 
+    @Override
+    public double interpolatePositionFromTime(double time) {
+        var envelope = findEnvelopeAtTime(time);
+        return envelope.startOffset + envelope.envelope.interpolatePositionFromTime(time - envelope.startTime);
+    }
+
     @Override
     public double getBeginPos() {
         return 0;
@@ -112,5 +118,24 @@ public class EnvelopeConcat implements EnvelopeTimeInterpolate {
         return null;
     }
 
+    /**
+     * Returns the first envelope which ends at or after the given time, or the last one if the time
+     * is after the end.
+     */
+    private LocatedEnvelope findEnvelopeAtTime(double time) {
+        var lowerBound = 0;
+        var upperBound = envelopes.size() - 1;
+        while (lowerBound < upperBound) {
+            var i = (lowerBound + upperBound) / 2;
+            var envelope = envelopes.get(i);
+            if (time <= envelope.startTime + envelope.envelope.getTotalTime()) {
+                upperBound = i;
+            } else {
+                lowerBound = i + 1;
+            }
+        }
+        return envelopes.get(lowerBound);
+    }
+
     public record LocatedEnvelope(EnvelopeTimeInterpolate envelope, double startOffset, double startTime) {}
 }
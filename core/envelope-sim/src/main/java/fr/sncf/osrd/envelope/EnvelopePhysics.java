@@ -54,6 +54,18 @@ public class EnvelopePhysics {
         return Math.abs((nextSpeed - lastSpeed) / acceleration);
     }
 
+    /**
+     * Compute the position offset reached after timeDelta inside the given range. This is the
+     * inverse of interpolateStepTime, the result is clamped to the range.
+     */
+    public static double interpolateStepPosition(
+            double lastPos, double nextPos, double lastSpeed, double nextSpeed, double timeDelta) {
+        var positionDelta = nextPos - lastPos;
+        var acceleration = stepAcceleration(lastPos, nextPos, lastSpeed, nextSpeed);
+        var res = lastSpeed * timeDelta + acceleration * timeDelta * timeDelta / 2;
+        return Math.max(0, Math.min(positionDelta, res));
+    }
+
     /** a and b are two 1D segments, and val is clamped to their intersections */
     private static double clamp1D(double val, double a1, double a2, double b1, double b2) {
         var minA = Math.min(a1, a2);
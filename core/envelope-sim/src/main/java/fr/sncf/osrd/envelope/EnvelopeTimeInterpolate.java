@@ -16,6 +16,12 @@ public interface EnvelopeTimeInterpolate {
      */
     double interpolateTotalTimeClamp(double position);
 
+    /**
+     * Computes the first position reached at a given time, clamping the time to [0, total time]
+     * first. This is the inverse of interpolateTotalTime.
+     */
+    double interpolatePositionFromTime(double time);
+
     /** Returns the start position of the envelope */
     double getBeginPos();
 
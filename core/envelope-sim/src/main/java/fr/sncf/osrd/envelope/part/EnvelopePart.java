@@ -53,16 +53,18 @@ public final class EnvelopePart implements SearchableEnvelope {
 
     /* Cache fields must not be public, and must also be lazily computed.
     This ensures intrinsic data fields can be modified while constructing
-    the envelope part. */
+    the envelope part. They are volatile as envelope parts may be shared
+    between threads: concurrent readers may both compute the same value,
+    but never see a torn double or a partially filled array. */
 
     /** The highest speed */
-    private double maxSpeedCache = Double.NaN;
+    private volatile double maxSpeedCache = Double.NaN;
 
     /** The smallest speed */
-    private double minSpeedCache = Double.NaN;
+    private volatile double minSpeedCache = Double.NaN;
 
     /** The time from the start of the envelope, in milliseconds. Only read using getTotalTimes. */
-    private long[] cumulativeMSTimesCache = null;
+    private volatile long[] cumulativeMSTimesCache = null;
 
     // endregion
 
@@ -409,6 +411,35 @@ public final class EnvelopePart implements SearchableEnvelope {
         return ((double) interpolateTotalTimeMS(position)) / 1000;
     }
 
+    /**
+     * Returns the first position reached at the given time from the start of the envelope part, in
+     * milliseconds. The time is clamped to the duration of the part.
+     */
+    public double interpolatePositionFromTimeMS(double timeMS) {
+        var totalTimes = getTotalTimesMS();
+        // find the first step which ends at or after the given time
+        var lowerBound = 0;
+        var upperBound = stepCount() - 1;
+        while (lowerBound < upperBound) {
+            var i = (lowerBound + upperBound) / 2;
+            if (totalTimes[i + 1] >= timeMS) {
+                upperBound = i;
+            } else {
+                lowerBound = i + 1;
+            }
+        }
+        var stepIndex = lowerBound;
+        var stepTimeMS = totalTimes[stepIndex + 1] - totalTimes[stepIndex];
+        var timeDeltaMS = Math.max(0, Math.min(stepTimeMS, timeMS - totalTimes[stepIndex]));
+        return positions[stepIndex]
+                + EnvelopePhysics.interpolateStepPosition(
+                        positions[stepIndex],
+                        positions[stepIndex + 1],
+                        speeds[stepIndex],
+                        speeds[stepIndex + 1],
+                        timeDeltaMS / 1000);
+    }
+
     /** Compute the time deltas between positions */
     private static double[] computeTimes(double[] positions, double[] speeds) {
         var timeDeltas = new double[positions.length - 1];
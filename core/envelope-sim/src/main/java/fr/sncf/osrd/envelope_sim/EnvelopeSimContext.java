@@ -7,6 +7,8 @@ public final class EnvelopeSimContext {
     public final PhysicsPath path;
     public final double timeStep;
     public final RangeMap<Double, PhysicsRollingStock.TractiveEffortPoint[]> tractiveEffortCurveMap;
+    /** A copy of tractiveEffortCurveMap which is faster to query during integration */
+    public final TractiveEffortLookup tractiveEffortLookup;
 
     /** Creates a context suitable to run simulations on envelopes */
     public EnvelopeSimContext(
@@ -19,6 +21,7 @@ public final class EnvelopeSimContext {
         this.timeStep = timeStep;
         assert tractiveEffortCurveMap != null;
         this.tractiveEffortCurveMap = tractiveEffortCurveMap;
+        this.tractiveEffortLookup = new TractiveEffortLookup(tractiveEffortCurveMap);
     }
 
     public EnvelopeSimContext updateCurves(
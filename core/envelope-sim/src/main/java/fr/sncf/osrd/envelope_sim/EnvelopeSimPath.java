@@ -85,28 +85,61 @@ public final class EnvelopeSimPath implements PhysicsPath {
         return length;
     }
 
-    private double getCumGrade(double position) {
+    private double clampPosition(double position) {
         if (position > length && arePositionsEqual(position, length)) position = length;
         assert position <= length && position >= 0;
-        var pointIndex = Arrays.binarySearch(gradePositions, position);
-        if (pointIndex >= 0) return gradeCumSum[pointIndex];
+        return position;
+    }
+
+    /** Returns the index of the grade range containing the position, checking the hint first */
+    private int findGradeRange(double position, int hint) {
+        if (isInGradeRange(hint, position)) return hint;
+        if (isInGradeRange(hint + 1, position)) return hint + 1;
 
+        var pointIndex = Arrays.binarySearch(gradePositions, position);
         // when the position isn't found, binarySearch returns -(insertion point) - 1
-        var insertionPoint = -(pointIndex + 1);
+        var gradeRangeIndex = pointIndex >= 0 ? pointIndex : -(pointIndex + 1) - 1;
+        // the end of the path belongs to the last grade range
+        return Math.min(gradeRangeIndex, gradeValues.length - 1);
+    }
+
+    private boolean isInGradeRange(int gradeRangeIndex, double position) {
+        return gradeRangeIndex < gradeValues.length
+                && position >= gradePositions[gradeRangeIndex]
+                && position < gradePositions[gradeRangeIndex + 1];
+    }
 
-        // return the cumulative gradient at the point before the given position, plus the gradient
-        // change since then
-        var gradeRangeIndex = insertionPoint - 1;
+    /**
+     * Returns the cumulative gradient at the start of the grade range, plus the gradient change
+     * since then
+     */
+    private double getCumGrade(int gradeRangeIndex, double position) {
         var gradeRangeStart = gradePositions[gradeRangeIndex];
         return gradeCumSum[gradeRangeIndex] + gradeValues[gradeRangeIndex] * (position - gradeRangeStart);
     }
 
+    private double getCumGrade(double position) {
+        position = clampPosition(position);
+        return getCumGrade(findGradeRange(position, 0), position);
+    }
+
     @Override
     public double getAverageGrade(double begin, double end) {
         if (begin == end) return getCumGrade(begin);
         return (getCumGrade(end) - getCumGrade(begin)) / (end - begin);
     }
 
+    @Override
+    public double getAverageGrade(double begin, double end, LookupHints hints) {
+        var clampedBegin = clampPosition(begin);
+        hints.beginGradeRange = findGradeRange(clampedBegin, hints.beginGradeRange);
+        var beginCumGrade = getCumGrade(hints.beginGradeRange, clampedBegin);
+        if (begin == end) return beginCumGrade;
+        var clampedEnd = clampPosition(end);
+        hints.endGradeRange = findGradeRange(clampedEnd, hints.endGradeRange);
+        return (getCumGrade(hints.endGradeRange, clampedEnd) - beginCumGrade) / (end - begin);
+    }
+
     private RangeMap<Double, Electrification> getModeAndProfileMap(
             String powerClass, Range<Double> range, boolean ignoreElectricalProfiles) {
         if (ignoreElectricalProfiles) powerClass = null;
@@ -0,0 +1,18 @@
+package fr.sncf.osrd.envelope_sim;
+
+/**
+ * The ranges found by the last lookups of a simulation. Simulations mostly query nearby positions,
+ * so these ranges are checked before searching the whole curves. Hints are owned by a single
+ * simulation loop, which keeps paths and simulation contexts immutable and safe to share between
+ * threads. A stale hint only makes lookups slower.
+ */
+public final class LookupHints {
+    /** The index of the last tractive effort curve range found */
+    int tractiveEffortRange = 0;
+
+    /** The index of the grade range of the last begin position of an average grade lookup */
+    int beginGradeRange = 0;
+
+    /** The index of the grade range of the last end position of an average grade lookup */
+    int endGradeRange = 0;
+}
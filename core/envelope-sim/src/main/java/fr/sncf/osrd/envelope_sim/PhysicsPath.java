@@ -6,4 +6,9 @@ public interface PhysicsPath {
 
     /** The average slope on a given range, in meters per kilometers */
     double getAverageGrade(double begin, double end);
+
+    /** The average slope on a given range, using and updating the hints of the simulation */
+    default double getAverageGrade(double begin, double end, LookupHints hints) {
+        return getAverageGrade(begin, end);
+    }
 }
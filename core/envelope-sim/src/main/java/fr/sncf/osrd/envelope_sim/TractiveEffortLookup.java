@@ -0,0 +1,98 @@
+package fr.sncf.osrd.envelope_sim;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.RangeMap;
+
+/**
+ * A flattened copy of a tractive effort curve map, which finds the curve used at a given position
+ * without allocating nor boxing.
+ *
+ * <p>Simulations query positions which are close to each other, so the range found by the last
+ * lookup of the simulation and its neighbours are checked before falling back to a binary search.
+ * That range is kept in the hints of the simulation, and the lookup itself is immutable.
+ */
+public final class TractiveEffortLookup {
+    private final double[] lowerEndpoints;
+    private final boolean[] lowerClosed;
+    private final double[] upperEndpoints;
+    private final boolean[] upperClosed;
+    private final PhysicsRollingStock.TractiveEffortPoint[][] curves;
+
+    /** Creates a lookup structure with the same content as the given range map */
+    public TractiveEffortLookup(RangeMap<Double, PhysicsRollingStock.TractiveEffortPoint[]> curveMap) {
+        var ranges = curveMap.asMapOfRanges();
+        var size = ranges.size();
+        lowerEndpoints = new double[size];
+        lowerClosed = new boolean[size];
+        upperEndpoints = new double[size];
+        upperClosed = new boolean[size];
+        curves = new PhysicsRollingStock.TractiveEffortPoint[size][];
+        int i = 0;
+        // ranges are iterated in ascending order, and don't overlap
+        for (var entry : ranges.entrySet()) {
+            var range = entry.getKey();
+            if (range.hasLowerBound()) {
+                lowerEndpoints[i] = range.lowerEndpoint();
+                lowerClosed[i] = range.lowerBoundType() == BoundType.CLOSED;
+            } else {
+                lowerEndpoints[i] = Double.NEGATIVE_INFINITY;
+                lowerClosed[i] = true;
+            }
+            if (range.hasUpperBound()) {
+                upperEndpoints[i] = range.upperEndpoint();
+                upperClosed[i] = range.upperBoundType() == BoundType.CLOSED;
+            } else {
+                upperEndpoints[i] = Double.POSITIVE_INFINITY;
+                upperClosed[i] = true;
+            }
+            curves[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    private boolean isAfterLowerBound(int i, double position) {
+        return lowerEndpoints[i] < position || (lowerClosed[i] && lowerEndpoints[i] == position);
+    }
+
+    private boolean isBeforeUpperBound(int i, double position) {
+        return position < upperEndpoints[i] || (upperClosed[i] && upperEndpoints[i] == position);
+    }
+
+    private boolean contains(int i, double position) {
+        return isAfterLowerBound(i, position) && isBeforeUpperBound(i, position);
+    }
+
+    /** Returns the curve used at the given position, or null if there is none */
+    public PhysicsRollingStock.TractiveEffortPoint[] get(double position) {
+        return get(position, new LookupHints());
+    }
+
+    /** Returns the curve used at the given position, or null if there is none */
+    public PhysicsRollingStock.TractiveEffortPoint[] get(double position, LookupHints hints) {
+        var size = curves.length;
+        if (size == 0) return null;
+        var i = hints.tractiveEffortRange;
+        if (i < size && contains(i, position)) return curves[i];
+        if (i + 1 < size && contains(i + 1, position)) {
+            hints.tractiveEffortRange = i + 1;
+            return curves[i + 1];
+        }
+        if (i > 0 && i - 1 < size && contains(i - 1, position)) {
+            hints.tractiveEffortRange = i - 1;
+            return curves[i - 1];
+        }
+
+        // look for the last range which starts before the position
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            var mid = (lo + hi) >>> 1;
+            if (isAfterLowerBound(mid, position)) lo = mid + 1;
+            else hi = mid;
+        }
+        var index = lo - 1;
+        if (index < 0 || !isBeforeUpperBound(index, position)) return null;
+        hints.tractiveEffortRange = index;
+        return curves[index];
+    }
+}
@@ -1,7 +1,5 @@
 package fr.sncf.osrd.envelope_sim;
 
-import com.google.common.collect.RangeMap;
-
 /**
  * An utility class to help simulate the train, using numerical integration. It's used when
  * simulating the train, and it is passed to speed controllers so they can take decisions about what
@@ -24,19 +22,22 @@ public final class TrainPhysicsIntegrator {
     private final Action action;
     private final double directionSign;
 
-    private final RangeMap<Double, PhysicsRollingStock.TractiveEffortPoint[]> tractiveEffortCurveMap;
+    private final TractiveEffortLookup tractiveEffortLookup;
+    private final LookupHints hints;
 
     private TrainPhysicsIntegrator(
             PhysicsRollingStock rollingStock,
             PhysicsPath path,
             Action action,
             double directionSign,
-            RangeMap<Double, PhysicsRollingStock.TractiveEffortPoint[]> tractiveEffortCurveMap) {
+            TractiveEffortLookup tractiveEffortLookup,
+            LookupHints hints) {
         this.rollingStock = rollingStock;
         this.path = path;
         this.action = action;
         this.directionSign = directionSign;
-        this.tractiveEffortCurveMap = tractiveEffortCurveMap;
+        this.tractiveEffortLookup = tractiveEffortLookup;
+        this.hints = hints;
     }
 
     /** Simulates train movement */
@@ -46,8 +47,21 @@ public final class TrainPhysicsIntegrator {
             double initialSpeed,
             Action action,
             double directionSign) {
+        return step(context, new LookupHints(), initialLocation, initialSpeed, action, directionSign);
+    }
+
+    /**
+     * Simulates train movement. The hints are updated, and should be shared by the consecutive steps of a simulation.
+     */
+    public static IntegrationStep step(
+            EnvelopeSimContext context,
+            LookupHints hints,
+            double initialLocation,
+            double initialSpeed,
+            Action action,
+            double directionSign) {
         var integrator = new TrainPhysicsIntegrator(
-                context.rollingStock, context.path, action, directionSign, context.tractiveEffortCurveMap);
+                context.rollingStock, context.path, action, directionSign, context.tractiveEffortLookup, hints);
         return integrator.step(context.timeStep, initialLocation, initialSpeed, directionSign);
     }
 
@@ -67,11 +81,11 @@ public final class TrainPhysicsIntegrator {
     private IntegrationStep step(double timeStep, double position, double speed) {
         double tractionForce = 0;
         double brakingForce = 0;
-        var tractiveEffortCurve = tractiveEffortCurveMap.get(Math.min(Math.max(0, position), path.getLength()));
+        var tractiveEffortCurve = tractiveEffortLookup.get(Math.min(Math.max(0, position), path.getLength()), hints);
         assert tractiveEffortCurve != null;
         double maxTractionForce = PhysicsRollingStock.getMaxEffort(speed, tractiveEffortCurve);
         double rollingResistance = rollingStock.getRollingResistance(speed);
-        double weightForce = getWeightForce(rollingStock, path, position);
+        double weightForce = getWeightForce(rollingStock, path, position, hints);
 
         if (action == Action.ACCELERATE) tractionForce = maxTractionForce;
 
@@ -90,9 +104,14 @@ public final class TrainPhysicsIntegrator {
 
     /** Compute the weight force of a rolling stock at a given position on a given path */
     public static double getWeightForce(PhysicsRollingStock rollingStock, PhysicsPath path, double headPosition) {
+        return getWeightForce(rollingStock, path, headPosition, new LookupHints());
+    }
+
+    private static double getWeightForce(
+            PhysicsRollingStock rollingStock, PhysicsPath path, double headPosition, LookupHints hints) {
         var tailPosition = Math.min(Math.max(0, headPosition - rollingStock.getLength()), path.getLength());
         headPosition = Math.min(Math.max(0, headPosition), path.getLength());
-        var averageGrade = path.getAverageGrade(tailPosition, headPosition);
+        var averageGrade = path.getAverageGrade(tailPosition, headPosition, hints);
         // get an angle from a meter per km elevation difference
         // the curve's radius is taken into account in meanTrainGrade
         var angle = Math.atan(averageGrade / 1000.0); // from m/km to m/m
@@ -21,11 +21,12 @@ import fr.sncf.osrd.envelope.part.constraints.PositionConstraint;
 import fr.sncf.osrd.envelope_sim.EnvelopeProfile;
 import fr.sncf.osrd.envelope_sim.EnvelopeSimContext;
 import fr.sncf.osrd.envelope_sim.PhysicsRollingStock;
+import fr.sncf.osrd.envelope_sim.allowances.utils.AllowanceConvergenceMetrics;
 import fr.sncf.osrd.envelope_sim.allowances.utils.AllowanceRange;
 import fr.sncf.osrd.envelope_sim.allowances.utils.AllowanceValue;
 import fr.sncf.osrd.envelope_sim.overlays.EnvelopeAcceleration;
 import fr.sncf.osrd.envelope_sim.overlays.EnvelopeDeceleration;
-import fr.sncf.osrd.envelope_utils.DoubleBinarySearch;
+import fr.sncf.osrd.envelope_utils.DoubleSecantSearch;
 import fr.sncf.osrd.reporting.exceptions.ErrorType;
 import fr.sncf.osrd.reporting.exceptions.OSRDError;
 import java.util.ArrayList;
@@ -39,6 +40,12 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractAllowanceWithRanges implements Allowance {
     public static final Logger logger = LoggerFactory.getLogger(Allowance.class);
 
+    /**
+     * The maximum number of envelopes computed for each section. The search may lag behind a binary
+     * search by a few iterations, which are added to the 20 iterations of a binary search.
+     */
+    private static final int MAX_ITERATIONS = 20 + DoubleSecantSearch.BISECTION_SLACK;
+
     public final double beginPos;
     public final double endPos;
 
@@ -106,7 +113,7 @@ public abstract class AbstractAllowanceWithRanges implements Allowance {
         return res;
     }
 
-    private static RuntimeException makeError(DoubleBinarySearch search) {
+    private static RuntimeException makeError(DoubleSecantSearch search) {
         if (!search.hasRaisedLowBound()) throw new OSRDError(ErrorType.AllowanceConvergenceTooMuchTime);
         else if (!search.hasLoweredHighBound()) throw new OSRDError(ErrorType.AllowanceConvergenceNotEnoughTime);
         else throw new OSRDError(ErrorType.AllowanceConvergenceDiscontinuity);
@@ -234,6 +241,8 @@ public abstract class AbstractAllowanceWithRanges implements Allowance {
         if (splitPoints.get(splitPoints.size() - 1) != rangeEndPos) splitPoints.add(rangeEndPos);
 
         var builder = new EnvelopeBuilder();
+        // the solution of each section is used as the first guess of the next one
+        var previousSolution = NaN;
         // apply the allowance on each section of the allowance range
         for (int i = 0; i < splitPoints.size() - 1; i++) {
             double sectionBeginPos = splitPoints.get(i);
@@ -252,35 +261,51 @@ public abstract class AbstractAllowanceWithRanges implements Allowance {
             logger.debug("  computing section n°{}", i + 1);
             var distributedTolerance = tolerance * sectionRatio;
             var allowanceSection = computeAllowanceSection(
-                    section, context, targetTime, imposedBeginSpeed, imposedEndSpeed, distributedTolerance);
-            assert abs(allowanceSection.getTotalTime() - targetTime) <= context.timeStep;
-            builder.addEnvelope(allowanceSection);
+                    section,
+                    context,
+                    targetTime,
+                    imposedBeginSpeed,
+                    imposedEndSpeed,
+                    distributedTolerance,
+                    previousSolution);
+            assert abs(allowanceSection.envelope.getTotalTime() - targetTime) <= context.timeStep;
+            builder.addEnvelope(allowanceSection.envelope);
+            previousSolution = allowanceSection.input;
         }
         return builder.build();
     }
 
-    /** Iteratively apply the allowance on the given section, until the target time is reached */
-    private Envelope computeAllowanceSection(
+    /** An allowance section, with the input of the iteration which computed it */
+    private record AllowanceSection(Envelope envelope, double input) {}
+
+    /**
+     * Iteratively apply the allowance on the given section, until the target time is reached. The
+     * search starts from initialGuess if it's within the bounds.
+     */
+    private AllowanceSection computeAllowanceSection(
             Envelope envelopeSection,
             EnvelopeSimContext context,
             double targetTime,
             double imposedBeginSpeed,
             double imposedEndSpeed,
-            double tolerance) {
-        // perform a binary search
+            double tolerance,
+            double initialGuess) {
+        // search the input using the observed times
         var initialLowBound = computeInitialLowBound(envelopeSection);
         var initialHighBound = computeInitialHighBound(envelopeSection, context.rollingStock);
         if (initialLowBound > initialHighBound) {
             // This can happen when capacity speed limit > max speed. We know in advance no solution
             // can be found.
+            AllowanceConvergenceMetrics.recordSection(0, false);
             throw new OSRDError(ErrorType.AllowanceConvergenceTooMuchTime);
         }
 
         Envelope res = null;
         OSRDError lastError = null;
-        var search = new DoubleBinarySearch(initialLowBound, initialHighBound, targetTime, tolerance, true);
+        var search =
+                new DoubleSecantSearch(initialLowBound, initialHighBound, targetTime, tolerance, true, initialGuess);
         logger.debug("  target time = {}", targetTime);
-        for (int i = 1; i < 21 && !search.complete(); i++) {
+        for (int i = 1; i <= MAX_ITERATIONS && !search.complete(); i++) {
             var input = search.getInput();
             logger.debug("    starting attempt {}", i);
             try {
@@ -293,22 +318,26 @@ public abstract class AbstractAllowanceWithRanges implements Allowance {
                 lastError = allowanceError;
                 if (allowanceError.osrdErrorType.equals(ErrorType.AllowanceConvergenceTooMuchTime))
                     // Can't go slow enough to even build a valid envelope: we need to go faster
-                    search.feedback(Double.POSITIVE_INFINITY);
+                    search.feedbackAboveTarget();
                 else if (allowanceError.osrdErrorType.equals(ErrorType.AllowanceConvergenceNotEnoughTime))
                     // Can't go fast enough to even build a valid envelope: we need to go slower
-                    search.feedback(0);
-                else
+                    search.feedbackBelowTarget();
+                else {
                     // Internal error, can't be handled here, rethrown
+                    AllowanceConvergenceMetrics.recordSection(search.getIterations(), false);
                     throw allowanceError;
+                }
             }
         }
 
+        logger.debug("  search done in {} iterations", search.getIterations());
+        AllowanceConvergenceMetrics.recordSection(search.getIterations(), search.complete());
         if (!search.complete()) {
             if (lastError != null) throw lastError; // If we couldn't converge and an error happened, it has more info
             // than a generic error
             throw makeError(search);
         }
-        return res;
+        return new AllowanceSection(res, search.getResult());
     }
 
     /** Compute one iteration of the binary search */
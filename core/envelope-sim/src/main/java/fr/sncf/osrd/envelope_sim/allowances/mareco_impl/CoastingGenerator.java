@@ -47,8 +47,9 @@ public final class CoastingGenerator {
         var initInter = constrainedBuilder.initEnvelopePart(position, speed, -1);
         assert initInter;
         boolean reachedLowLimit = false;
+        var hints = new LookupHints();
         while (true) {
-            var step = TrainPhysicsIntegrator.step(context, position, speed, Action.COAST, -1);
+            var step = TrainPhysicsIntegrator.step(context, hints, position, speed, Action.COAST, -1);
             position += step.positionDelta;
             speed = step.endSpeed;
             if (!areSpeedsEqual(speed, lowSpeedLimit) && speed < lowSpeedLimit) {
@@ -0,0 +1,34 @@
+package fr.sncf.osrd.envelope_sim.allowances.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Process-wide counters of the iterative search run on each allowance section */
+public final class AllowanceConvergenceMetrics {
+    private static final LongAdder sections = new LongAdder();
+    private static final LongAdder iterations = new LongAdder();
+    private static final LongAdder failures = new LongAdder();
+
+    private AllowanceConvergenceMetrics() {}
+
+    /** Records the search of one allowance section, which took the given number of iterations */
+    public static void recordSection(int sectionIterations, boolean converged) {
+        sections.increment();
+        iterations.add(sectionIterations);
+        if (!converged) failures.increment();
+    }
+
+    /** Returns the number of allowance sections computed */
+    public static long getSections() {
+        return sections.sum();
+    }
+
+    /** Returns the total number of envelopes computed while searching allowance sections */
+    public static long getIterations() {
+        return iterations.sum();
+    }
+
+    /** Returns the number of allowance sections for which no solution was found */
+    public static long getFailures() {
+        return failures.sum();
+    }
+}
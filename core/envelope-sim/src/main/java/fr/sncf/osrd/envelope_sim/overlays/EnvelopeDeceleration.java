@@ -3,6 +3,7 @@ package fr.sncf.osrd.envelope_sim.overlays;
 import fr.sncf.osrd.envelope.part.InteractiveEnvelopePartConsumer;
 import fr.sncf.osrd.envelope_sim.Action;
 import fr.sncf.osrd.envelope_sim.EnvelopeSimContext;
+import fr.sncf.osrd.envelope_sim.LookupHints;
 import fr.sncf.osrd.envelope_sim.TrainPhysicsIntegrator;
 
 public class EnvelopeDeceleration {
@@ -16,8 +17,9 @@ public class EnvelopeDeceleration {
         if (!consumer.initEnvelopePart(startPosition, startSpeed, direction)) return;
         double position = startPosition;
         double speed = startSpeed;
+        var hints = new LookupHints();
         while (true) {
-            var step = TrainPhysicsIntegrator.step(context, position, speed, Action.BRAKE, direction);
+            var step = TrainPhysicsIntegrator.step(context, hints, position, speed, Action.BRAKE, direction);
             position += step.positionDelta;
             speed = step.endSpeed;
             if (!consumer.addStep(position, speed, step.timeDelta)) break;
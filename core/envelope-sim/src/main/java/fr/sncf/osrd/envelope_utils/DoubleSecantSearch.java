@@ -0,0 +1,193 @@
+package fr.sncf.osrd.envelope_utils;
+
+/**
+ * A root finding helper, used like DoubleBinarySearch. The next input is interpolated from the
+ * outputs observed at both ends of the current bounds (regula falsi), which converges much faster
+ * than a binary search on smooth functions.
+ *
+ * <p>Interpolation is safeguarded: the interpolated input is kept away from the bounds, and the
+ * middle point is used when the output at one of the bounds is unknown. The input is then moved
+ * towards the middle point just enough for the bounds range, whatever the output, to stay within
+ * the range a binary search would have reached {@link #BISECTION_SLACK} iterations earlier. When
+ * interpolation works, the range shrinks much faster than that and inputs aren't moved.
+ *
+ * <pre>
+ *     var search = new DoubleSecantSearch(0, 10, 4, 0.001, false, NaN);
+ *     while (!search.complete()) {
+ *         var input = search.getInput();
+ *         var output = input * input * input;
+ *         search.feedback(output);
+ *     }
+ * </pre>
+ */
+public final class DoubleSecantSearch {
+    /** The minimum distance between an interpolated input and the bounds, relative to the range */
+    private static final double BOUNDS_MARGIN = 0.05;
+
+    /** The number of iterations the search may lag behind a binary search, in the worst case */
+    public static final int BISECTION_SLACK = 3;
+
+    /** The current low bound estimate */
+    private double lowBound;
+
+    /** The current high bound estimate */
+    private double highBound;
+
+    /** The output at the low bound, or NaN if unknown */
+    private double lowBoundOutput = Double.NaN;
+
+    /** The output at the high bound, or NaN if unknown */
+    private double highBoundOutput = Double.NaN;
+
+    /** The initial bounds range */
+    private final double initialRange;
+
+    /** The current input */
+    private double input;
+
+    /** The target output value */
+    public final double target;
+
+    /** The acceptable distance to the target */
+    public final double targetErrorMargin;
+
+    /** Positive if increasing, negative if decreasing */
+    private final double direction;
+
+    /** Whether the search is complete */
+    private boolean isComplete = false;
+
+    /** Whether we have lowered the high bound at least once */
+    private boolean hasLoweredHighBound = false;
+
+    /** Whether we have raised the low bound at least once */
+    private boolean hasRaisedLowBound = false;
+
+    /** The number of outputs fed back */
+    private int iterations = 0;
+
+    /**
+     * Returns a search helper.
+     *
+     * @param lowBound The low initial estimate
+     * @param highBound The high initial estimate
+     * @param target The target output value
+     * @param targetErrorMargin The acceptable error for stopping the search
+     * @param decreasing Whether the output decreases when the input increases
+     * @param initialGuess The first input to try, such as a previous solution of a similar search.
+     *     The middle point is used if it's NaN or outside the bounds.
+     */
+    public DoubleSecantSearch(
+            double lowBound,
+            double highBound,
+            double target,
+            double targetErrorMargin,
+            boolean decreasing,
+            double initialGuess) {
+        this.lowBound = lowBound;
+        this.highBound = highBound;
+        this.target = target;
+        this.targetErrorMargin = targetErrorMargin;
+        this.direction = decreasing ? -1 : 1;
+        this.initialRange = highBound - lowBound;
+        if (initialGuess > lowBound && initialGuess < highBound) this.input = initialGuess;
+        else this.input = (lowBound + highBound) / 2;
+    }
+
+    /** Returns true when the search is complete */
+    public boolean complete() {
+        return isComplete;
+    }
+
+    /** Returns the next input of the search */
+    public double getInput() {
+        assert !isComplete;
+        return input;
+    }
+
+    /** Return the result of the search (the input which satisfied the goal) */
+    public double getResult() {
+        assert isComplete;
+        return input;
+    }
+
+    /** Returns the number of outputs fed back so far */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /** Feeds back the output of the tested function for the current input */
+    public void feedback(double output) {
+        assert !isComplete;
+        iterations++;
+
+        var delta = output - target;
+        if (Math.abs(delta) <= targetErrorMargin) {
+            isComplete = true;
+            return;
+        }
+        updateBounds(DoubleUtils.conditionalNegate(delta, direction) < 0, output);
+    }
+
+    /**
+     * Feeds back that the output for the current input is above the target, without a usable value
+     * (for example when the function couldn't be evaluated)
+     */
+    public void feedbackAboveTarget() {
+        assert !isComplete;
+        iterations++;
+        updateBounds(direction < 0, Double.NaN);
+    }
+
+    /** Feeds back that the output for the current input is below the target, without a usable value */
+    public void feedbackBelowTarget() {
+        assert !isComplete;
+        iterations++;
+        updateBounds(direction > 0, Double.NaN);
+    }
+
+    private void updateBounds(boolean raiseLowBound, double output) {
+        if (raiseLowBound) {
+            lowBound = input;
+            lowBoundOutput = output;
+            hasRaisedLowBound = true;
+        } else {
+            highBound = input;
+            highBoundOutput = output;
+            hasLoweredHighBound = true;
+        }
+
+        var middle = (lowBound + highBound) / 2;
+        var interpolated = interpolateInput();
+        if (Double.isNaN(interpolated)) {
+            input = middle;
+            return;
+        }
+        // whichever bound the next input replaces, the range must not exceed the range of a binary
+        // search after the same number of iterations, plus the slack
+        var maxRange = Math.scalb(initialRange, BISECTION_SLACK - iterations - 1);
+        var maxDistanceToMiddle = Math.max(0, maxRange - (highBound - lowBound) / 2);
+        input = Math.max(middle - maxDistanceToMiddle, Math.min(middle + maxDistanceToMiddle, interpolated));
+    }
+
+    /** Returns the input interpolated between the bounds, or NaN if the outputs don't allow it */
+    private double interpolateInput() {
+        if (!Double.isFinite(lowBoundOutput) || !Double.isFinite(highBoundOutput)) return Double.NaN;
+        if (lowBoundOutput == highBoundOutput) return Double.NaN;
+        var range = highBound - lowBound;
+        var res = lowBound + (target - lowBoundOutput) * range / (highBoundOutput - lowBoundOutput);
+        if (!Double.isFinite(res)) return Double.NaN;
+        var margin = range * BOUNDS_MARGIN;
+        return Math.max(lowBound + margin, Math.min(highBound - margin, res));
+    }
+
+    /** Returns true if we have lowered the high bound at least once */
+    public boolean hasLoweredHighBound() {
+        return hasLoweredHighBound;
+    }
+
+    /** Returns true if we have raised the low bound at least once */
+    public boolean hasRaisedLowBound() {
+        return hasRaisedLowBound;
+    }
+}
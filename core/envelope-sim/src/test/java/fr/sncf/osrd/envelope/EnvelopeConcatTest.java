@@ -24,6 +24,8 @@ public class EnvelopeConcatTest {
                 in -> (double) in.interpolateTotalTimeMS(1.5),
                 in -> in.interpolateTotalTimeClamp(-1),
                 in -> in.interpolateTotalTimeClamp(0.5),
+                in -> in.interpolatePositionFromTime(0.5),
+                in -> in.interpolatePositionFromTime(3),
                 EnvelopeTimeInterpolate::getBeginPos,
                 EnvelopeTimeInterpolate::getEndPos,
                 EnvelopeTimeInterpolate::getTotalTime);
@@ -60,5 +62,10 @@ public class EnvelopeConcatTest {
         assertEquals(firstEnvelopeTime, secondEnvelopeTime, lastPoint.time());
         assertEquals(4, lastPoint.position());
         assertEquals(5, lastPoint.speed());
+
+        for (double position = 0; position <= 4; position += 0.25) {
+            var time = concatenated.interpolateTotalTime(position);
+            assertEquals(position, concatenated.interpolatePositionFromTime(time), 0.01);
+        }
     }
 }
@@ -69,4 +69,20 @@ public class EnvelopeTest {
         assertEquals(3.5, envelope.interpolateTotalTime(3.5));
         assertEquals(4, envelope.interpolateTotalTime(4));
     }
+
+    @Test
+    void testInterpolatePositionFromTime() {
+        var partA = EnvelopeTestUtils.generateTimes(new double[] {0, 2}, new double[] {1, 1});
+        var partB = EnvelopeTestUtils.generateTimes(new double[] {2, 4, 6}, new double[] {1, 3, 0});
+        var envelope = Envelope.make(partA, partB);
+
+        assertEquals(0, envelope.interpolatePositionFromTime(-1));
+        assertEquals(1, envelope.interpolatePositionFromTime(1));
+        assertEquals(2, envelope.interpolatePositionFromTime(2));
+        assertEquals(6, envelope.interpolatePositionFromTime(envelope.getTotalTime() + 1));
+        for (double position = 0; position <= 6; position += 0.25) {
+            var time = envelope.interpolateTotalTime(position);
+            assertEquals(position, envelope.interpolatePositionFromTime(time), 0.01);
+        }
+    }
 }
@@ -39,6 +39,19 @@ public class EnvelopeSimPathTest {
         assertEquals(1, path.getAverageGrade(2, 4));
     }
 
+    @Test
+    void averageGradeDoesNotDependOnQueryOrder() {
+        var gradePositions = new double[] {0, 3, 6, 9, 10};
+        var gradeValues = new double[] {0, 2, -2, 0};
+        var path = buildNonElectrified(10, gradePositions, gradeValues);
+        var hints = new LookupHints();
+        for (double x = 10; x >= 0; x -= 0.5) {
+            for (double y = 0; y <= x; y += 0.5) {
+                assertEquals(path.getAverageGrade(y, x), path.getAverageGrade(y, x, hints));
+            }
+        }
+    }
+
     @Test
     void getElectrificationModeAndProfileOnlyModes() {
         var modes = TreeRangeMap.<Double, Electrification>create();
@@ -0,0 +1,42 @@
+package fr.sncf.osrd.envelope_sim;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.google.common.collect.Range;
+import com.google.common.collect.TreeRangeMap;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class TractiveEffortLookupTest {
+    @Test
+    void sameCurvesAsRangeMap() {
+        var random = new Random(42);
+        var curveMap = TreeRangeMap.<Double, PhysicsRollingStock.TractiveEffortPoint[]>create();
+        // alternate bound types, and leave a few gaps between ranges
+        double position = 0;
+        for (int i = 0; i < 20; i++) {
+            var length = 1 + random.nextInt(10);
+            var range = (i % 2 == 0)
+                    ? Range.closedOpen(position, position + length)
+                    : Range.openClosed(position, position + length);
+            curveMap.put(range, new PhysicsRollingStock.TractiveEffortPoint[0]);
+            position += length + (i % 5 == 0 ? 1 : 0);
+        }
+        var lookup = new TractiveEffortLookup(curveMap);
+        var hints = new LookupHints();
+
+        // increasing positions, as during a simulation
+        for (double x = -1; x < position + 1; x += 0.25) {
+            assertSame(curveMap.get(x), lookup.get(x, hints));
+        }
+        // decreasing positions, as during a backward integration
+        for (double x = position + 1; x > -1; x -= 0.25) {
+            assertSame(curveMap.get(x), lookup.get(x, hints));
+        }
+        // random positions, including range bounds
+        for (int i = 0; i < 1000; i++) {
+            double x = random.nextInt((int) position + 2) - 1 + (random.nextBoolean() ? 0 : random.nextDouble());
+            assertSame(curveMap.get(x), lookup.get(x, hints));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package fr.sncf.osrd.envelope_sim.allowances;
+
+import static fr.sncf.osrd.envelope_sim.MaxEffortEnvelopeBuilder.makeSimpleMaxEffortEnvelope;
+import static fr.sncf.osrd.envelope_sim.SimpleContextBuilder.makeSimpleContext;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import fr.sncf.osrd.envelope.Envelope;
+import fr.sncf.osrd.envelope_sim.allowances.utils.AllowanceConvergenceMetrics;
+import fr.sncf.osrd.envelope_sim.allowances.utils.AllowanceRange;
+import fr.sncf.osrd.envelope_sim.allowances.utils.AllowanceValue;
+import fr.sncf.osrd.envelope_utils.DoubleBinarySearch;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class AllowanceSearchTest {
+    private static final double LENGTH = 100_000;
+    private static final List<AllowanceRange> RANGES =
+            List.of(new AllowanceRange(0, LENGTH, new AllowanceValue.Percentage(10)));
+
+    @Test
+    public void marecoSearchIsFasterThanBinarySearch() {
+        testFasterThanBinarySearch(new MarecoAllowance(0, LENGTH, 1, RANGES));
+    }
+
+    @Test
+    public void linearSearchIsFasterThanBinarySearch() {
+        testFasterThanBinarySearch(new LinearAllowance(0, LENGTH, 1, RANGES));
+    }
+
+    /**
+     * Applies the allowance on a single section, and compares it with the result of a binary search
+     * on the allowance input, as it used to be computed
+     */
+    private static void testFasterThanBinarySearch(AbstractAllowanceWithRanges allowance) {
+        var context = makeSimpleContext(LENGTH, 0);
+        var base = makeSimpleMaxEffortEnvelope(context, 44.4, new double[] {LENGTH});
+        var targetTime = allowance.getTargetTime(base);
+
+        var sectionsBefore = AllowanceConvergenceMetrics.getSections();
+        var iterationsBefore = AllowanceConvergenceMetrics.getIterations();
+        var res = allowance.apply(base, context);
+        var iterations = AllowanceConvergenceMetrics.getIterations() - iterationsBefore;
+        assertEquals(1, AllowanceConvergenceMetrics.getSections() - sectionsBefore);
+
+        var search = new DoubleBinarySearch(
+                allowance.computeInitialLowBound(base),
+                allowance.computeInitialHighBound(base, context.rollingStock),
+                targetTime,
+                context.timeStep,
+                true);
+        Envelope binarySearchRes = null;
+        var binarySearchIterations = 0;
+        for (int i = 0; i < 20 && !search.complete(); i++) {
+            binarySearchIterations++;
+            binarySearchRes = allowance.computeIteration(
+                    base, context, search.getInput(), base.getBeginSpeed(), base.getEndSpeed());
+            search.feedback(binarySearchRes.getTotalTime());
+        }
+        assertTrue(search.complete());
+
+        assertTrue(iterations < binarySearchIterations);
+        assertEquals(targetTime, res.getTotalTime(), context.timeStep);
+        assertEquals(binarySearchRes.getTotalTime(), res.getTotalTime(), context.timeStep);
+        for (double position = 0; position < LENGTH; position += 1_000)
+            assertEquals(binarySearchRes.interpolateSpeed(position), res.interpolateSpeed(position), 0.5);
+    }
+}
@@ -0,0 +1,89 @@
+package fr.sncf.osrd.envelope_utils;
+
+import static java.lang.Double.NaN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.DoubleUnaryOperator;
+import org.junit.jupiter.api.Test;
+
+public class DoubleSecantSearchTest {
+    @Test
+    public void increasingTest() {
+        var search = new DoubleSecantSearch(0, 10, 4, 0.001, false, NaN);
+        run(search, input -> input * input * input);
+        assertEquals(1.59, search.getResult(), 0.01);
+    }
+
+    @Test
+    public void decreasingTest() {
+        var search = new DoubleSecantSearch(0, 10, 0, 0.001, true, NaN);
+        run(search, input -> 4 - input * input * input);
+        assertEquals(1.59, search.getResult(), 0.01);
+    }
+
+    @Test
+    public void fasterThanBinarySearch() {
+        // the running time of a train at a given speed
+        DoubleUnaryOperator function = speed -> 1000 / speed;
+        var search = new DoubleSecantSearch(1, 80, 50, 0.01, true, NaN);
+        run(search, function);
+        assertEquals(20, search.getResult(), 0.01);
+
+        var binarySearch = new DoubleBinarySearch(1, 80, 50, 0.01, true);
+        var binaryIterations = 0;
+        while (!binarySearch.complete()) {
+            binaryIterations++;
+            binarySearch.feedback(function.applyAsDouble(binarySearch.getInput()));
+        }
+        assertTrue(search.getIterations() < binaryIterations);
+
+        // starting close to the solution is even faster
+        var warmSearch = new DoubleSecantSearch(1, 80, 50, 0.01, true, 19);
+        run(warmSearch, function);
+        assertTrue(warmSearch.getIterations() < search.getIterations());
+    }
+
+    @Test
+    public void discontinuityTest() {
+        var search = new DoubleSecantSearch(1, 80, 50, 0.01, true, NaN);
+        run(search, speed -> 1000 / speed + (speed < 30 ? 5 : 0));
+        assertEquals(22.22, search.getResult(), 0.01);
+    }
+
+    @Test
+    public void worstCaseFollowsBinarySearch() {
+        // a very convex function, on which interpolated inputs barely move the high bound
+        var search = new DoubleSecantSearch(0, 1, 2, 1e-12, false, NaN);
+        double lowBound = 0;
+        double highBound = 1;
+        for (int i = 1; i <= 30 && !search.complete(); i++) {
+            var input = search.getInput();
+            var output = Math.exp(30 * input);
+            if (output < 2) lowBound = input;
+            else highBound = input;
+            search.feedback(output);
+            assertTrue(highBound - lowBound <= Math.scalb(1., DoubleSecantSearch.BISECTION_SLACK - i));
+        }
+    }
+
+    @Test
+    public void unknownOutputsTest() {
+        var search = new DoubleSecantSearch(0, 10, 4, 0.001, false, NaN);
+        for (int i = 0; i < 1000 && !search.complete(); i++) {
+            var input = search.getInput();
+            // the function can't be evaluated outside [1, 2]
+            if (input < 1) search.feedbackBelowTarget();
+            else if (input > 2) search.feedbackAboveTarget();
+            else search.feedback(input * input * input);
+        }
+        assertTrue(search.complete());
+        assertTrue(search.hasLoweredHighBound());
+        assertEquals(1.59, search.getResult(), 0.01);
+    }
+
+    private static void run(DoubleSecantSearch search, DoubleUnaryOperator function) {
+        for (int i = 0; i < 1000 && !search.complete(); i++) search.feedback(function.applyAsDouble(search.getInput()));
+        assertTrue(search.complete());
+    }
+}
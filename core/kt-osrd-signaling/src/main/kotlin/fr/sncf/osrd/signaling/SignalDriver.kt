@@ -1,5 +1,6 @@
 package fr.sncf.osrd.signaling
 
+import fr.sncf.osrd.reporting.exceptions.OSRDError
 import fr.sncf.osrd.sim_infra.api.*
 import fr.sncf.osrd.utils.units.Distance
 import fr.sncf.osrd.utils.units.OffsetList
@@ -79,6 +80,57 @@ interface SignalDriver {
     fun checkSignal(reporter: SignalDiagReporter, signal: SigSettings, block: SigBlock)
 }
 
+/**
+ * A signal driver with its field names resolved to slots of the schemas it was compiled for. It
+ * evaluates signals exactly like the driver it was compiled from.
+ */
+fun interface CompiledSignalDriver {
+    fun evalSignal(
+        signal: SigSettings,
+        parameters: SigParameters,
+        maView: MovementAuthorityView?,
+        limitView: SpeedLimitView?
+    ): SigState
+}
+
+/**
+ * A signal driver which can be compiled once its signaling systems are known. The signaling module
+ * manager then uses the compiled driver, and evalSignal is only the reference implementation.
+ */
+interface CompilableSignalDriver : SignalDriver {
+    /**
+     * The state, settings and parameters schemas are the ones of the output signaling system, and
+     * the input state schema is the one of the next signal.
+     */
+    fun compile(
+        stateSchema: SigStateSchema,
+        settingsSchema: SigSettingsSchema,
+        parametersSchema: SigParametersSchema,
+        inputStateSchema: SigStateSchema,
+    ): CompiledSignalDriver
+}
+
+/** An enum field of a schema, resolved to its slot */
+class SigEnumSlot(schema: SigSchema<*>, fieldName: String) {
+    val slot = schema.slot(fieldName)
+    val values = (schema.sortedFields[slot] as SigEnumField).values
+
+    /** Returns the index of the field value in the given data */
+    fun read(data: SigData<*>): Int {
+        return data.getEncoded(slot)
+    }
+}
+
+/** All the states of a schema made of a single enum field, built once */
+class SigEnumStates(schema: SigStateSchema, fieldName: String) {
+    private val states =
+        SigEnumSlot(schema, fieldName).values.associateWith { schema { value(fieldName, it) } }
+
+    operator fun get(value: String): SigState {
+        return states[value] ?: throw OSRDError.newSigSchemaUnknownFieldError(value)
+    }
+}
+
 interface BlockDiagReporter {
     fun reportBlock(errorType: String)
 
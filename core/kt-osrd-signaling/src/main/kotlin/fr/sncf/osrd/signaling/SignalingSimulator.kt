@@ -57,4 +57,33 @@ interface SignalingSimulator {
         zoneStates: List<ZoneStatus>,
         followingZoneState: ZoneStatus,
     ): Map<LogicalSignalId, SigState>
+
+    /**
+     * Evaluates the signals of the path like evaluate, and returns an evaluator which keeps signal
+     * states up to date when zone statuses change
+     */
+    fun evaluateIncrementally(
+        infra: RawInfra,
+        loadedSignalInfra: LoadedSignalInfra,
+        blocks: BlockInfra,
+        fullPath: StaticIdxList<Block>,
+        routes: List<RouteId>,
+        evaluatedPathEnd: Int,
+        zoneStates: List<ZoneStatus>,
+        followingZoneState: ZoneStatus,
+    ): IncrementalSignalEvaluator
+}
+
+interface IncrementalSignalEvaluator {
+    /**
+     * Changes the status of a zone of the evaluated path, given by its index, and re-evaluates the
+     * signals which depend on it. Returns the signals whose state changed.
+     */
+    fun setZoneStatus(zoneIndex: Int, status: ZoneStatus): List<LogicalSignalId>
+
+    /** Returns the current state of a signal, or null if it isn't evaluated */
+    fun getState(signal: LogicalSignalId): SigState?
+
+    /** Returns the current state of all evaluated signals, like SignalingSimulator.evaluate */
+    fun getStates(): Map<LogicalSignalId, SigState>
 }
@@ -1,7 +1,6 @@
 package fr.sncf.osrd.signaling.impl
 
 import fr.sncf.osrd.sim_infra.api.*
-import fr.sncf.osrd.sim_infra.impl.BlockInfraBuilder
 import fr.sncf.osrd.sim_infra.impl.blockInfraBuilder
 import fr.sncf.osrd.utils.indexing.IdxMap
 import fr.sncf.osrd.utils.indexing.MutableStaticIdxArrayList
@@ -13,91 +12,123 @@ private val logger = KotlinLogging.logger {}
 internal fun internalBuildBlocks(
     sigModuleManager: InfraSigSystemManager,
     rawSignalingInfra: RawSignalingInfra,
-    loadedSignalInfra: LoadedSignalInfra
+    loadedSignalInfra: LoadedSignalInfra,
+    parallel: Boolean = false,
 ): BlockInfra {
     // Step 1) associate DirDetectorIds to a list of delimiting logical signals
     val signalDelimiters = findSignalDelimiters(rawSignalingInfra, loadedSignalInfra)
     val detectorEntrySignals = makeDetectorEntrySignals(loadedSignalInfra, signalDelimiters)
+
+    // Step 2) find the blocks of each route. Routes are independent from one another, which
+    // enables processing them in parallel.
+    val routes = rawSignalingInfra.routes
+    val routeBlocks =
+        mapIndices(routes.size.toInt(), parallel) {
+            findRouteBlocks(
+                sigModuleManager,
+                rawSignalingInfra,
+                loadedSignalInfra,
+                detectorEntrySignals,
+                routes[it]
+            )
+        }
+
+    // Step 3) register blocks in route order, so that block ids don't depend on parallelism
     return blockInfraBuilder(loadedSignalInfra, rawSignalingInfra) {
-        // Step 2) iterate on zone paths along the route path.
-        //   - maintain a list of currently active blocks
-        //   - At each signal, add it to compatible current blocks.
-        //   - if the signal is delimiting, stop and create the block (deduplicate it too)
-        for (route in rawSignalingInfra.routes) {
-            val routeEntryDet = rawSignalingInfra.getRouteEntry(route)
-            val routeExitDet = rawSignalingInfra.getRouteExit(route)
-            val entrySignals = detectorEntrySignals[routeEntryDet]
-            var currentBlocks =
-                getInitPartialBlocks(
-                    sigModuleManager,
-                    rawSignalingInfra,
-                    loadedSignalInfra,
-                    entrySignals,
-                    routeEntryDet
+        for (blocks in routeBlocks) {
+            for (finishedBlock in blocks) {
+                val block = finishedBlock.block
+                block(
+                    block.startAtBufferStop,
+                    finishedBlock.stopsAtBufferStop,
+                    block.zonePaths,
+                    block.signals,
+                    block.signalPositions
                 )
-            // while inside the route, we maintain a list of currently active blocks.
-            // each block either expect any signaling system (when starting from a buffer stop or
-            // wildcard
-            // signal),
-            // or expects a given signaling system. blocks can therefore tell whether a signal
-            // belongs
-            // there.
-            // if a signal is not part of a block, it is ignored
-            // if a signal delimits a block, it ends the block and starts a new ones, one per driver
-            // if a signal does not delimit a block and has a single driver, it continues the block
-            // if a signal does not delimit a block and has multiple drivers, it duplicates the
-            // block
+            }
+        }
+    }
+}
 
-            for (zonePath in rawSignalingInfra.getRoutePath(route)) {
-                val zonePathLength = rawSignalingInfra.getZonePathLength(zonePath)
-                for (block in currentBlocks) block.addZonePath(zonePath, zonePathLength)
+/** A partial block which no longer gets extended */
+private class FinishedBlock(val block: PartialBlock, val stopsAtBufferStop: Boolean)
 
-                // iterate over signals which are between the block entry and the block exit
-                val signals = rawSignalingInfra.getSignals(zonePath)
-                val signalsPositions = rawSignalingInfra.getSignalPositions(zonePath)
-                for ((physicalSignal, position) in signals.zip(signalsPositions)) {
-                    val distanceToZonePathEnd = zonePathLength - position
-                    assert(distanceToZonePathEnd >= Distance.ZERO)
-                    assert(distanceToZonePathEnd <= zonePathLength.distance)
-                    for (signal in loadedSignalInfra.getLogicalSignals(physicalSignal)) {
-                        currentBlocks =
-                            updatePartialBlocks(
-                                sigModuleManager,
-                                currentBlocks,
-                                loadedSignalInfra,
-                                signal,
-                                distanceToZonePathEnd,
-                            )
-                    }
-                }
-            }
+private fun findRouteBlocks(
+    sigModuleManager: InfraSigSystemManager,
+    rawSignalingInfra: RawSignalingInfra,
+    loadedSignalInfra: LoadedSignalInfra,
+    detectorEntrySignals: IdxMap<DirDetectorId, IdxMap<SignalingSystemId, AssociatedSignal>>,
+    route: RouteId,
+): List<FinishedBlock> {
+    val finishedBlocks = mutableListOf<FinishedBlock>()
+    // iterate on zone paths along the route path.
+    //   - maintain a list of currently active blocks
+    //   - At each signal, add it to compatible current blocks.
+    //   - if the signal is delimiting, stop and create the block (deduplicate it too)
+    val routeEntryDet = rawSignalingInfra.getRouteEntry(route)
+    val routeExitDet = rawSignalingInfra.getRouteExit(route)
+    val entrySignals = detectorEntrySignals[routeEntryDet]
+    var currentBlocks =
+        getInitPartialBlocks(
+            sigModuleManager,
+            rawSignalingInfra,
+            loadedSignalInfra,
+            entrySignals,
+            routeEntryDet
+        )
+    // while inside the route, we maintain a list of currently active blocks.
+    // each block either expect any signaling system (when starting from a buffer stop or wildcard
+    // signal), or expects a given signaling system. blocks can therefore tell whether a signal
+    // belongs there.
+    // if a signal is not part of a block, it is ignored
+    // if a signal delimits a block, it ends the block and starts a new ones, one per driver
+    // if a signal does not delimit a block and has a single driver, it continues the block
+    // if a signal does not delimit a block and has multiple drivers, it duplicates the block
 
-            // when a route ends at a buffer stop, unterminated blocks are expected,
-            // as the buffer stop sort of acts as a closed signal. when a route does not
-            // end with a buffer stop, blocks are expected to end with the route.
-            // such blocks are not valid, and can be fixed by adding a delimiter signal
-            // right before the end of the route.
-            val routeEndsAtBufferStop = rawSignalingInfra.isBufferStop(routeExitDet.value)
-            for (curBlock in currentBlocks) {
-                if (curBlock.zonePaths.size == 0) continue
-                if (curBlock.signals.size == 0) continue
+    for (zonePath in rawSignalingInfra.getRoutePath(route)) {
+        val zonePathLength = rawSignalingInfra.getZonePathLength(zonePath)
+        for (block in currentBlocks) block.addZonePath(zonePath, zonePathLength)
 
-                val lastZonePath = curBlock.zonePaths[curBlock.zonePaths.size - 1]
-                assert(routeExitDet == rawSignalingInfra.getZonePathExit(lastZonePath))
-                if (!routeEndsAtBufferStop)
-                    logger.debug {
-                        "unterminated block at end of route ${rawSignalingInfra.getRouteName(route)}"
-                    }
-                block(
-                    curBlock.startAtBufferStop,
-                    true,
-                    curBlock.zonePaths,
-                    curBlock.signals,
-                    curBlock.signalPositions
-                )
+        // iterate over signals which are between the block entry and the block exit
+        val signals = rawSignalingInfra.getSignals(zonePath)
+        val signalsPositions = rawSignalingInfra.getSignalPositions(zonePath)
+        for ((physicalSignal, position) in signals.zip(signalsPositions)) {
+            val distanceToZonePathEnd = zonePathLength - position
+            assert(distanceToZonePathEnd >= Distance.ZERO)
+            assert(distanceToZonePathEnd <= zonePathLength.distance)
+            for (signal in loadedSignalInfra.getLogicalSignals(physicalSignal)) {
+                currentBlocks =
+                    updatePartialBlocks(
+                        sigModuleManager,
+                        currentBlocks,
+                        finishedBlocks,
+                        loadedSignalInfra,
+                        signal,
+                        distanceToZonePathEnd,
+                    )
             }
         }
     }
+
+    // when a route ends at a buffer stop, unterminated blocks are expected,
+    // as the buffer stop sort of acts as a closed signal. when a route does not
+    // end with a buffer stop, blocks are expected to end with the route.
+    // such blocks are not valid, and can be fixed by adding a delimiter signal
+    // right before the end of the route.
+    val routeEndsAtBufferStop = rawSignalingInfra.isBufferStop(routeExitDet.value)
+    for (curBlock in currentBlocks) {
+        if (curBlock.zonePaths.size == 0) continue
+        if (curBlock.signals.size == 0) continue
+
+        val lastZonePath = curBlock.zonePaths[curBlock.zonePaths.size - 1]
+        assert(routeExitDet == rawSignalingInfra.getZonePathExit(lastZonePath))
+        if (!routeEndsAtBufferStop)
+            logger.debug {
+                "unterminated block at end of route ${rawSignalingInfra.getRouteName(route)}"
+            }
+        finishedBlocks.add(FinishedBlock(curBlock, true))
+    }
+    return finishedBlocks
 }
 
 data class AssociatedDetector(val detector: DirDetectorId, val distance: Distance)
@@ -274,9 +305,10 @@ private fun evalSignalBlockRel(
     return SignalBlockRel.END_OF
 }
 
-private fun BlockInfraBuilder.updatePartialBlocks(
+private fun updatePartialBlocks(
     sigModuleManager: InfraSigSystemManager,
     currentBlocks: MutableList<PartialBlock>,
+    finishedBlocks: MutableList<FinishedBlock>,
     loadedSignalInfra: LoadedSignalInfra,
     signal: LogicalSignalId,
     distanceToZonePathEnd: Distance,
@@ -305,13 +337,7 @@ private fun BlockInfraBuilder.updatePartialBlocks(
             }
             SignalBlockRel.END_OF -> {
                 curBlock.addSignal(signal, blockPosition)
-                block(
-                    curBlock.startAtBufferStop,
-                    false,
-                    curBlock.zonePaths,
-                    curBlock.signals,
-                    curBlock.signalPositions
-                )
+                finishedBlocks.add(FinishedBlock(curBlock, false))
                 val drivers = loadedSignalInfra.getDrivers(signal)
                 if (drivers.size == 0) {
                     val newBlock =
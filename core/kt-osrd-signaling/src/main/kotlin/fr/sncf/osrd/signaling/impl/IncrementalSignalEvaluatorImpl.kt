@@ -0,0 +1,196 @@
+package fr.sncf.osrd.signaling.impl
+
+import fr.sncf.osrd.signaling.*
+import fr.sncf.osrd.sim_infra.api.*
+import fr.sncf.osrd.utils.indexing.StaticIdxList
+
+internal class MovementAuthorityViewImpl(
+    override val protectionStatus: ProtectionStatus,
+    private val _nextSignalState: SigState?,
+    private val _nextSignalSettings: SigSettings?
+) : MovementAuthorityView {
+    init {
+        assert((_nextSignalState == null) == (_nextSignalSettings == null))
+    }
+
+    override val hasNextSignal
+        get() = _nextSignalState != null
+
+    override val nextSignalState
+        get() = _nextSignalState!!
+
+    override val nextSignalSettings
+        get() = _nextSignalSettings!!
+}
+
+/**
+ * Signals are evaluated in sequence, from the end of the path to its start: the state of each
+ * signal only depends on the state of the signal after it, and on the zones it protects. When a
+ * zone changes, only the signals from the entry signal of its block up to the first signal whose
+ * state doesn't change need to be evaluated again.
+ *
+ * Drivers, schemas and parameters are resolved once, when the evaluation sequence is built.
+ */
+internal class IncrementalSignalEvaluatorImpl(
+    private val sigModuleManager: SigSystemManager,
+    loadedSignalInfra: LoadedSignalInfra,
+    blocks: BlockInfra,
+    fullPath: StaticIdxList<Block>,
+    routes: List<RouteId>,
+    evaluatedPathEnd: Int,
+    zoneStates: List<ZoneStatus>,
+    private val followingZoneState: ZoneStatus,
+) : IncrementalSignalEvaluator {
+    // region evaluation sequence
+    private val signals = ArrayList<LogicalSignalId>()
+    private val settings = ArrayList<SigSettings>()
+    private val parameters = ArrayList<SigParameters>()
+    private val drivers = ArrayList<SignalDriverId>()
+    private val schemas = ArrayList<SigStateSchema>()
+
+    /**
+     * The zones protected by each evaluated signal, as [start, end) ranges of zone indices. Signals
+     * without protected zones have an empty range, except the last signal of the path, which is
+     * protected by the following zone state and has a [-1, -1) range.
+     */
+    private val protectedZonesStart = ArrayList<Int>()
+    private val protectedZonesEnd = ArrayList<Int>()
+    // endregion
+
+    /** For each zone of the evaluated path, the index of the signal which protects it, or -1 */
+    private val zoneSignal: IntArray
+    private val zoneStates = zoneStates.toMutableList()
+    private val states = ArrayList<SigState>()
+
+    /** The index of the last evaluation of each signal, which gives its state */
+    private val lastSignalEvaluation = HashMap<LogicalSignalId, Int>()
+
+    init {
+        assert(evaluatedPathEnd > 0)
+        assert(evaluatedPathEnd <= fullPath.size)
+        val routeSet = routes.toSet()
+
+        // compute the offset of each block's first zone inside the partial path
+        val blockZoneMap = IntArray(evaluatedPathEnd + 1)
+        var blockZoneOffset = 0
+        for (i in 0 until evaluatedPathEnd) {
+            blockZoneMap[i] = blockZoneOffset
+            blockZoneOffset += blocks.getBlockPath(fullPath[i]).size
+        }
+        blockZoneMap[evaluatedPathEnd] = blockZoneOffset
+        zoneSignal = IntArray(blockZoneOffset) { -1 }
+
+        fun addSignal(signal: LogicalSignalId, zonesStart: Int, zonesEnd: Int) {
+            val signalingSystem = loadedSignalInfra.getSignalingSystem(signal)
+            val nextSignalingSystem =
+                if (signals.isEmpty()) signalingSystem
+                else loadedSignalInfra.getSignalingSystem(signals.last())
+            for (zone in zonesStart until zonesEnd) zoneSignal[zone] = signals.size
+            lastSignalEvaluation[signal] = signals.size
+            signals.add(signal)
+            settings.add(loadedSignalInfra.getSettings(signal))
+            parameters.add(resolveParameters(loadedSignalInfra, signal, routeSet))
+            drivers.add(sigModuleManager.findDriver(signalingSystem, nextSignalingSystem))
+            schemas.add(sigModuleManager.getStateSchema(signalingSystem))
+            protectedZonesStart.add(zonesStart)
+            protectedZonesEnd.add(zonesEnd)
+        }
+
+        // find all the signals we need to evaluate, in evaluation order
+        val lastBlock = fullPath[evaluatedPathEnd - 1]
+        if (!blocks.blockStopAtBufferStop(lastBlock)) {
+            val blockSignals = blocks.getBlockSignals(lastBlock)
+            addSignal(blockSignals[blockSignals.size - 1], -1, -1)
+        }
+        for (blockIndex in (0 until evaluatedPathEnd).reversed()) {
+            val curBlock = fullPath[blockIndex]
+            val startAtBufferStop = blocks.blockStartAtBufferStop(curBlock)
+            val endsAtBufferStop = blocks.blockStopAtBufferStop(curBlock)
+            val blockSignals = blocks.getBlockSignals(curBlock)
+            // the end signal was already processed at the last iteration,
+            // or in the last path signal special case
+
+            // intermediary signals
+            val interRangeStart = if (startAtBufferStop) 0 else 1
+            val interRangeEnd = if (endsAtBufferStop) blockSignals.size else blockSignals.size - 1
+            for (signalIndex in (interRangeStart until interRangeEnd).reversed()) addSignal(
+                blockSignals[signalIndex],
+                0,
+                0
+            )
+
+            // entry signal
+            if (!startAtBufferStop)
+                addSignal(blockSignals[0], blockZoneMap[blockIndex], blockZoneMap[blockIndex + 1])
+        }
+
+        for (i in signals.indices) states.add(evalSignal(i))
+    }
+
+    override fun setZoneStatus(zoneIndex: Int, status: ZoneStatus): List<LogicalSignalId> {
+        if (zoneStates[zoneIndex] == status) return listOf()
+        zoneStates[zoneIndex] = status
+        val changedSignals = mutableListOf<LogicalSignalId>()
+        val firstChangedSignal = zoneSignal[zoneIndex]
+        if (firstChangedSignal == -1) return changedSignals
+        for (i in firstChangedSignal until signals.size) {
+            val state = evalSignal(i)
+            if (state == states[i]) break
+            states[i] = state
+            if (lastSignalEvaluation[signals[i]] == i) changedSignals.add(signals[i])
+        }
+        return changedSignals
+    }
+
+    override fun getState(signal: LogicalSignalId): SigState? {
+        return lastSignalEvaluation[signal]?.let { states[it] }
+    }
+
+    override fun getStates(): Map<LogicalSignalId, SigState> {
+        val res = mutableMapOf<LogicalSignalId, SigState>()
+        for (i in signals.indices) res[signals[i]] = states[i]
+        return res
+    }
+
+    private fun protectionStatus(signalIndex: Int): ProtectionStatus {
+        val zonesStart = protectedZonesStart[signalIndex]
+        val zonesEnd = protectedZonesEnd[signalIndex]
+        if (zonesStart == -1) return followingZoneState.toProtectionStatus()
+        if (zonesStart == zonesEnd) return ProtectionStatus.NO_PROTECTED_ZONES
+        var zoneStatus = zoneStates[zonesStart]
+        for (i in zonesStart + 1 until zonesEnd) zoneStatus = zoneStatus.reduce(zoneStates[i])
+        return zoneStatus.toProtectionStatus()
+    }
+
+    private fun evalSignal(signalIndex: Int): SigState {
+        val protectionStatus = protectionStatus(signalIndex)
+        val mav =
+            if (signalIndex == 0) MovementAuthorityViewImpl(protectionStatus, null, null)
+            else
+                MovementAuthorityViewImpl(
+                    protectionStatus,
+                    states[signalIndex - 1],
+                    settings[signalIndex - 1]
+                )
+        return sigModuleManager.evalSignal(
+            drivers[signalIndex],
+            settings[signalIndex],
+            parameters[signalIndex],
+            schemas[signalIndex],
+            mav,
+            null // TODO: Handle speed limits
+        )
+    }
+
+    private fun resolveParameters(
+        loadedSignalInfra: LoadedSignalInfra,
+        signal: LogicalSignalId,
+        routeSet: Set<RouteId>
+    ): SigParameters {
+        val parameters = loadedSignalInfra.getParameters(signal)
+        for (route in parameters.conditional.keys) {
+            if (routeSet.contains(route)) return parameters.conditional[route]!!
+        }
+        return parameters.default
+    }
+}
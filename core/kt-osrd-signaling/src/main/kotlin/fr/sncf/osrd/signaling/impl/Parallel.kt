@@ -0,0 +1,22 @@
+package fr.sncf.osrd.signaling.impl
+
+import java.util.stream.Collectors
+import java.util.stream.IntStream
+
+/**
+ * Calls f on all indices from 0 until size. When parallel is set, calls are spread over the fork
+ * join common pool. Results are always returned in index order.
+ */
+internal fun <T> mapIndices(size: Int, parallel: Boolean, f: (Int) -> T): List<T> {
+    if (!parallel) return List(size, f)
+    return IntStream.range(0, size).parallel().mapToObj { f(it) }.collect(Collectors.toList())
+}
+
+/** Calls f on all indices from 0 until size, using the fork join common pool if parallel is set */
+internal fun forEachIndex(size: Int, parallel: Boolean, f: (Int) -> Unit) {
+    if (!parallel) {
+        for (i in 0 until size) f(i)
+        return
+    }
+    IntStream.range(0, size).parallel().forEach { f(it) }
+}
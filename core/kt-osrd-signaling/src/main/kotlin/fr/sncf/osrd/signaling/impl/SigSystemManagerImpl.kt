@@ -6,12 +6,17 @@ import fr.sncf.osrd.sim_infra.api.SignalDriver
 import fr.sncf.osrd.utils.indexing.StaticIdxSpace
 import fr.sncf.osrd.utils.indexing.StaticPool
 
-class SigSystemManagerImpl : SigSystemManager {
+/**
+ * When compileDrivers is set, drivers which can be compiled are compiled as they are added, and
+ * signals are evaluated using the compiled drivers.
+ */
+class SigSystemManagerImpl(private val compileDrivers: Boolean = true) : SigSystemManager {
     private val sigSystemMap = mutableMapOf<String, SignalingSystemId>()
     private val sigSystemPool = StaticPool<SignalingSystem, SignalingSystemDriver>()
     private val driverMap =
         mutableMapOf<Pair<SignalingSystemId, SignalingSystemId>, SignalDriverId>()
     private val driverPool = StaticPool<SignalDriver, fr.sncf.osrd.signaling.SignalDriver>()
+    private val compiledDrivers = ArrayList<CompiledSignalDriver?>()
 
     fun addSignalingSystem(sigSystem: SignalingSystemDriver): SignalingSystemId {
         val res = sigSystemPool.add(sigSystem)
@@ -21,11 +26,21 @@ class SigSystemManagerImpl : SigSystemManager {
 
     fun addSignalDriver(sigDriver: fr.sncf.osrd.signaling.SignalDriver): SignalDriverId {
         val res = driverPool.add(sigDriver)
-        driverMap[
-            Pair(
-                findSignalingSystem(sigDriver.outputSignalingSystem),
-                findSignalingSystem(sigDriver.inputSignalingSystem)
-            )] = res
+        val outputSig = findSignalingSystem(sigDriver.outputSignalingSystem)
+        val inputSig = findSignalingSystem(sigDriver.inputSignalingSystem)
+        driverMap[Pair(outputSig, inputSig)] = res
+        var compiledDriver: CompiledSignalDriver? = null
+        if (compileDrivers && sigDriver is CompilableSignalDriver) {
+            val outputSigSystem = sigSystemPool[outputSig]
+            compiledDriver =
+                sigDriver.compile(
+                    outputSigSystem.stateSchema,
+                    outputSigSystem.settingsSchema,
+                    outputSigSystem.parametersSchema,
+                    sigSystemPool[inputSig].stateSchema
+                )
+        }
+        compiledDrivers.add(compiledDriver)
         return res
     }
 
@@ -37,6 +52,9 @@ class SigSystemManagerImpl : SigSystemManager {
         maView: MovementAuthorityView?,
         limitView: SpeedLimitView?
     ): SigState {
+        val compiledDriver = compiledDrivers[driverId.index.toInt()]
+        if (compiledDriver != null)
+            return compiledDriver.evalSignal(signal, parameters, maView, limitView)
         val driver = driverPool[driverId]
         return driver.evalSignal(signal, parameters, stateSchema, maView, limitView)
     }
@@ -25,7 +25,25 @@ fun ZoneStatus.toProtectionStatus(): ProtectionStatus {
     }
 }
 
-class SignalingSimulatorImpl(override val sigModuleManager: SigSystemManager) : SignalingSimulator {
+/**
+ * The parsed content of a logical signal. Loading a signal only reads the raw infra, which allows
+ * loading signals in parallel before registering them in order.
+ */
+private class LoadedLogicalSignal(
+    val signalingSystemId: SignalingSystemId,
+    val settings: SigSettings,
+    val parameters: SignalParameters,
+    val drivers: List<SignalDriverId>,
+)
+
+/**
+ * When parallelLoading is set, signals are loaded and blocks are built and checked using the fork
+ * join common pool. The resulting infra is identical to the one built sequentially.
+ */
+class SignalingSimulatorImpl(
+    override val sigModuleManager: SigSystemManager,
+    private val parallelLoading: Boolean = false,
+) : SignalingSimulator {
     private fun loadSignalSetting(
         rawSettings: Map<String, String>,
         schema: SigSettingsSchema
@@ -42,34 +60,54 @@ class SignalingSimulatorImpl(override val sigModuleManager: SigSystemManager) :
         return SignalParameters(default, conditional)
     }
 
+    private fun loadLogicalSignal(
+        unloadedSignalInfra: RawSignalingInfra,
+        oldLogicalSignal: LogicalSignalId
+    ): LoadedLogicalSignal {
+        val oldSignalingSystemId = unloadedSignalInfra.getSignalingSystemId(oldLogicalSignal)
+        val signalingSystemId = sigModuleManager.findSignalingSystem(oldSignalingSystemId)
+
+        val settingsSchema = sigModuleManager.getSettingsSchema(signalingSystemId)
+        val rawSettings = unloadedSignalInfra.getRawSettings(oldLogicalSignal)
+        val parametersSchema = sigModuleManager.getParametersSchema(signalingSystemId)
+        val rawParameters = unloadedSignalInfra.getRawParameters(oldLogicalSignal)
+
+        val drivers =
+            unloadedSignalInfra.getNextSignalingSystemIds(oldLogicalSignal).map { oldNextSS ->
+                val oldNextSSId = sigModuleManager.findSignalingSystem(oldNextSS)
+                sigModuleManager.findDriver(signalingSystemId, oldNextSSId)
+            }
+        return LoadedLogicalSignal(
+            signalingSystemId,
+            loadSignalSetting(rawSettings, settingsSchema),
+            loadSignalParameters(rawParameters, parametersSchema),
+            drivers,
+        )
+    }
+
     override fun loadSignals(unloadedSignalInfra: RawSignalingInfra): LoadedSignalInfra {
+        val oldLogicalSignals = mutableListOf<LogicalSignalId>()
+        for (oldPhysicalSignal in unloadedSignalInfra.physicalSignals) {
+            for (oldLogicalSignal in unloadedSignalInfra.getLogicalSignals(oldPhysicalSignal))
+                oldLogicalSignals.add(oldLogicalSignal)
+        }
+        val loadedLogicalSignals =
+            mapIndices(oldLogicalSignals.size, parallelLoading) {
+                loadLogicalSignal(unloadedSignalInfra, oldLogicalSignals[it])
+            }
+
+        var nextLogicalSignal = 0
         return loadedSignalInfra(sigModuleManager) {
             for (oldPhysicalSignal in unloadedSignalInfra.physicalSignals) {
                 physicalSignal {
                     for (oldLogicalSignal in
                         unloadedSignalInfra.getLogicalSignals(oldPhysicalSignal)) {
+                        val loaded = loadedLogicalSignals[nextLogicalSignal++]
                         logicalSignal {
-                            val oldSignalingSystemId =
-                                unloadedSignalInfra.getSignalingSystemId(oldLogicalSignal)
-                            val signalingSystemId =
-                                sigModuleManager.findSignalingSystem(oldSignalingSystemId)
-                            signalingSystemId(signalingSystemId)
-
-                            val settingsSchema =
-                                sigModuleManager.getSettingsSchema(signalingSystemId)
-                            val rawSettings = unloadedSignalInfra.getRawSettings(oldLogicalSignal)
-                            sigSettings(loadSignalSetting(rawSettings, settingsSchema))
-                            val parametersSchema =
-                                sigModuleManager.getParametersSchema(signalingSystemId)
-                            val rawParameters =
-                                unloadedSignalInfra.getRawParameters(oldLogicalSignal)
-                            sigParameters(loadSignalParameters(rawParameters, parametersSchema))
-
-                            for (oldNextSS in
-                                unloadedSignalInfra.getNextSignalingSystemIds(oldLogicalSignal)) {
-                                val oldNextSSId = sigModuleManager.findSignalingSystem(oldNextSS)
-                                driver(sigModuleManager.findDriver(signalingSystemId, oldNextSSId))
-                            }
+                            signalingSystemId(loaded.signalingSystemId)
+                            sigSettings(loaded.settings)
+                            sigParameters(loaded.parameters)
+                            for (driver in loaded.drivers) driver(driver)
                         }
                     }
                 }
@@ -81,52 +119,67 @@ class SignalingSimulatorImpl(override val sigModuleManager: SigSystemManager) :
         rawSignalingInfra: RawSignalingInfra,
         loadedSignalInfra: LoadedSignalInfra
     ): BlockInfra {
-        val blockInfra = internalBuildBlocks(sigModuleManager, rawSignalingInfra, loadedSignalInfra)
-        for (block in blockInfra.blocks) {
-            val sigSystem = blockInfra.getBlockSignalingSystem(block)
-            val path = blockInfra.getBlockPath(block)
-            val length =
-                Distance(
-                    path
-                        .map { rawSignalingInfra.getZonePathLength(it) }
-                        .sumOf { it.distance.millimeters }
-                )
-            val startAtBufferStop = blockInfra.blockStartAtBufferStop(block)
-            val stopAtBufferStop = blockInfra.blockStopAtBufferStop(block)
-            val signals = blockInfra.getBlockSignals(block)
-            val signalTypes = signals.map { rawSignalingInfra.getSignalingSystemId(it) }
-            val signalSettings = signals.map { loadedSignalInfra.getSettings(it) }
-            val signalsPositions = blockInfra.getSignalsPositions(block)
-            val sigBlock =
-                SigBlock(
-                    startAtBufferStop,
-                    stopAtBufferStop,
-                    signalTypes,
-                    signalSettings,
-                    signalsPositions,
-                    length
-                )
-            val reporter =
-                object : BlockDiagReporter {
-                    override fun reportBlock(errorType: String) {
-                        logger.debug {
-                            val entrySignal = rawSignalingInfra.getLogicalSignalName(signals[0])
-                            val exitSignal =
-                                rawSignalingInfra.getLogicalSignalName(signals[signals.size - 1])
-                            "error in block from $entrySignal to $exitSignal: $errorType"
-                        }
+        val blockInfra =
+            internalBuildBlocks(
+                sigModuleManager,
+                rawSignalingInfra,
+                loadedSignalInfra,
+                parallelLoading
+            )
+        forEachIndex(blockInfra.blocks.size.toInt(), parallelLoading) {
+            checkBlock(rawSignalingInfra, loadedSignalInfra, blockInfra, BlockId(it.toUInt()))
+        }
+        return blockInfra
+    }
+
+    private fun checkBlock(
+        rawSignalingInfra: RawSignalingInfra,
+        loadedSignalInfra: LoadedSignalInfra,
+        blockInfra: BlockInfra,
+        block: BlockId,
+    ) {
+        val sigSystem = blockInfra.getBlockSignalingSystem(block)
+        val path = blockInfra.getBlockPath(block)
+        val length =
+            Distance(
+                path
+                    .map { rawSignalingInfra.getZonePathLength(it) }
+                    .sumOf { it.distance.millimeters }
+            )
+        val startAtBufferStop = blockInfra.blockStartAtBufferStop(block)
+        val stopAtBufferStop = blockInfra.blockStopAtBufferStop(block)
+        val signals = blockInfra.getBlockSignals(block)
+        val signalTypes = signals.map { rawSignalingInfra.getSignalingSystemId(it) }
+        val signalSettings = signals.map { loadedSignalInfra.getSettings(it) }
+        val signalsPositions = blockInfra.getSignalsPositions(block)
+        val sigBlock =
+            SigBlock(
+                startAtBufferStop,
+                stopAtBufferStop,
+                signalTypes,
+                signalSettings,
+                signalsPositions,
+                length
+            )
+        val reporter =
+            object : BlockDiagReporter {
+                override fun reportBlock(errorType: String) {
+                    logger.debug {
+                        val entrySignal = rawSignalingInfra.getLogicalSignalName(signals[0])
+                        val exitSignal =
+                            rawSignalingInfra.getLogicalSignalName(signals[signals.size - 1])
+                        "error in block from $entrySignal to $exitSignal: $errorType"
                     }
+                }
 
-                    override fun reportSignal(sigIndex: Int, errorType: String) {
-                        logger.debug {
-                            val signal = rawSignalingInfra.getLogicalSignalName(signals[sigIndex])
-                            "error at signal $signal: $errorType"
-                        }
+                override fun reportSignal(sigIndex: Int, errorType: String) {
+                    logger.debug {
+                        val signal = rawSignalingInfra.getLogicalSignalName(signals[sigIndex])
+                        "error at signal $signal: $errorType"
                     }
                 }
-            sigModuleManager.checkSignalingSystemBlock(reporter, sigSystem, sigBlock)
-        }
-        return blockInfra
+            }
+        sigModuleManager.checkSignalingSystemBlock(reporter, sigSystem, sigBlock)
     }
 
     override fun evaluate(
@@ -139,126 +192,38 @@ class SignalingSimulatorImpl(override val sigModuleManager: SigSystemManager) :
         zoneStates: List<ZoneStatus>,
         followingZoneState: ZoneStatus,
     ): Map<LogicalSignalId, SigState> {
-        assert(evaluatedPathEnd > 0)
-        assert(evaluatedPathEnd <= fullPath.size)
-        val routeSet = routes.toSet()
-
-        // compute the offset of each block's first zone inside the partial path
-        val blockZoneMap = IntArray(evaluatedPathEnd + 1)
-        var blockZoneOffset = 0
-        for (i in 0 until evaluatedPathEnd) {
-            blockZoneMap[i] = blockZoneOffset
-            blockZoneOffset += blocks.getBlockPath(fullPath[i]).size
-        }
-        blockZoneMap[evaluatedPathEnd] = blockZoneOffset
-
-        // region compute each signal's protection status
-        // first, find all the signals we need to evaluate in this call, and which block they belong
-        // to
-        data class SignalEvalTask(
-            val signal: LogicalSignalId,
-            val protectionStatus: ProtectionStatus,
-        )
-
-        val signalEvalSequence = ArrayDeque<SignalEvalTask>()
-        val lastBlock = fullPath[evaluatedPathEnd - 1]
-        val lastBlockEndsAtBufferStop = blocks.blockStopAtBufferStop(lastBlock)
-        if (!lastBlockEndsAtBufferStop) {
-            val blockSignals = blocks.getBlockSignals(lastBlock)
-            val lastSignal = blockSignals[blockSignals.size - 1]
-            signalEvalSequence.add(
-                SignalEvalTask(lastSignal, followingZoneState.toProtectionStatus())
+        return evaluateIncrementally(
+                infra,
+                loadedSignalInfra,
+                blocks,
+                fullPath,
+                routes,
+                evaluatedPathEnd,
+                zoneStates,
+                followingZoneState
             )
-        }
-
-        for (blockIndex in (0 until evaluatedPathEnd).reversed()) {
-            val curBlock = fullPath[blockIndex]
-            val startAtBufferStop = blocks.blockStartAtBufferStop(curBlock)
-            val endsAtBufferStop = blocks.blockStopAtBufferStop(curBlock)
-            val blockSignals = blocks.getBlockSignals(curBlock)
-            // the end signal was already processed at the last iteration,
-            // or in the last path signal special case
-
-            // intermediary signals
-            val interRangeStart = if (startAtBufferStop) 0 else 1
-            val interRangeEnd = if (endsAtBufferStop) blockSignals.size else blockSignals.size - 1
-            for (signalIndex in (interRangeStart until interRangeEnd).reversed()) signalEvalSequence
-                .add(SignalEvalTask(blockSignals[signalIndex], ProtectionStatus.NO_PROTECTED_ZONES))
-
-            // entry signal
-            if (!startAtBufferStop) {
-                val entrySignal = blockSignals[0]
-                val protectedZonesStart = blockZoneMap[blockIndex]
-                val protectedZonesEnd = blockZoneMap[blockIndex + 1]
-                var zoneStatus = zoneStates[protectedZonesStart]
-                for (i in protectedZonesStart + 1 until protectedZonesEnd) zoneStatus =
-                    zoneStatus.reduce(zoneStates[i])
-                signalEvalSequence.add(SignalEvalTask(entrySignal, zoneStatus.toProtectionStatus()))
-            }
-        }
-        // endregion
-
-        // region evaluate
-        class MovementAuthorityViewImpl(
-            override val protectionStatus: ProtectionStatus,
-            private val _nextSignalState: SigState?,
-            private val _nextSignalSettings: SigSettings?
-        ) : MovementAuthorityView {
-            init {
-                assert((_nextSignalState == null) == (_nextSignalSettings == null))
-            }
-
-            override val hasNextSignal
-                get() = _nextSignalState != null
-
-            override val nextSignalState
-                get() = _nextSignalState!!
-
-            override val nextSignalSettings
-                get() = _nextSignalSettings!!
-        }
-
-        val res = mutableMapOf<LogicalSignalId, SigState>()
-        var lastSignalState: SigState? = null
-        var lastSignalSettings: SigSettings? = null
-        var lastSignalSSId: SignalingSystemId? = null
-        for (task in signalEvalSequence) {
-            val signal = task.signal
-            val protectionStatus = task.protectionStatus
-            val mav =
-                MovementAuthorityViewImpl(protectionStatus, lastSignalState, lastSignalSettings)
-            val currentSSId = loadedSignalInfra.getSignalingSystem(signal)
-            val currentSignalSettings = loadedSignalInfra.getSettings(signal)
-            val driver = sigModuleManager.findDriver(currentSSId, lastSignalSSId ?: currentSSId)
-            val schema = sigModuleManager.getStateSchema(currentSSId)
-
-            val parameters = loadedSignalInfra.getParameters(signal)
-            var resolvedParameters: SigParameters? = null
-            for (route in parameters.conditional.keys) {
-                if (routeSet.contains(route)) {
-                    resolvedParameters = parameters.conditional[route]
-                    break
-                }
-            }
-            resolvedParameters = resolvedParameters ?: parameters.default
-
-            val state =
-                sigModuleManager.evalSignal(
-                    driver,
-                    currentSignalSettings,
-                    resolvedParameters,
-                    schema,
-                    mav,
-                    null // TODO: Handle speed limits
-                )
-
-            res[signal] = state
-            lastSignalState = state
-            lastSignalSettings = currentSignalSettings
-            lastSignalSSId = currentSSId
-        }
-        // endregion
+            .getStates()
+    }
 
-        return res
+    override fun evaluateIncrementally(
+        infra: RawInfra,
+        loadedSignalInfra: LoadedSignalInfra,
+        blocks: BlockInfra,
+        fullPath: StaticIdxList<Block>,
+        routes: List<RouteId>,
+        evaluatedPathEnd: Int,
+        zoneStates: List<ZoneStatus>,
+        followingZoneState: ZoneStatus,
+    ): IncrementalSignalEvaluator {
+        return IncrementalSignalEvaluatorImpl(
+            sigModuleManager,
+            loadedSignalInfra,
+            blocks,
+            fullPath,
+            routes,
+            evaluatedPathEnd,
+            zoneStates,
+            followingZoneState
+        )
     }
 }
@@ -27,6 +27,16 @@ data class TrackLocation(
 
 sealed interface Path // Used for typing Length and Offset
 
+/**
+ * Finds the track locations of path offsets. Queries with increasing offsets take amortized
+ * constant time, others take logarithmic time in the number of track chunks.
+ */
+@Suppress("INAPPLICABLE_JVM_NAME")
+interface PathTrackLocator {
+    @JvmName("getTrackLocationAtOffset")
+    fun getTrackLocationAtOffset(pathOffset: Offset<Path>): TrackLocation
+}
+
 @Suppress("INAPPLICABLE_JVM_NAME")
 interface PathProperties {
     fun getSlopes(): DistanceRangeMap<Double>
@@ -55,6 +65,9 @@ interface PathProperties {
     @JvmName("getTrackLocationOffset")
     fun getTrackLocationOffset(location: TrackLocation): Offset<Path>?
 
+    /** Returns a new locator, to use when looking up many offsets in increasing order */
+    fun getTrackLocator(): PathTrackLocator
+
     fun <T> getRangeMapFromUndirected(
         getData: (chunkId: TrackChunkId) -> DistanceRangeMap<T>
     ): DistanceRangeMap<T>
@@ -108,6 +108,11 @@ class SigSchema<MarkerT>(
         return fieldIndexMap[fieldName] ?: -1
     }
 
+    /** Returns the slot of a field, which allows reading it from data without a name lookup */
+    fun slot(fieldName: String): Int {
+        return fieldIndexMap[fieldName] ?: throw OSRDError.newSigSchemaUnknownFieldError(fieldName)
+    }
+
     operator fun invoke(init: SigDataBuilder.() -> Unit): SigData<MarkerT> {
         val initializedFields = BooleanArray(sortedFields.size)
         val data = IntArray(sortedFields.size)
@@ -167,6 +172,16 @@ data class SigData<MarkerT>(val schema: SigSchema<MarkerT>, private val data: In
         return field.decodeBool(data[fieldIndex])
     }
 
+    /** Returns the value of a flag, given its slot in the schema */
+    fun getFlag(slot: Int): Boolean {
+        return data[slot] != 0
+    }
+
+    /** Returns the encoded value of a field, given its slot in the schema */
+    fun getEncoded(slot: Int): Int {
+        return data[slot]
+    }
+
     fun getEnum(fieldName: String): String {
         val fieldIndex = schema.find(fieldName)
         if (fieldIndex == -1) throw OSRDError.newSigSchemaUnknownFieldError(fieldName)
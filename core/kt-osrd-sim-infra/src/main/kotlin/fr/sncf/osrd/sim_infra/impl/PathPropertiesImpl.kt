@@ -20,76 +20,164 @@ data class ChunkPath(
     val endOffset: Offset<Path>
 )
 
+/**
+ * Path properties are computed from the track chunks the first time they're requested, and cached
+ * afterward. The returned maps are shared between calls, and must not be modified.
+ */
 data class PathPropertiesImpl(val infra: TrackProperties, val chunkPath: ChunkPath) :
     PathProperties {
-    override fun getSlopes(): DistanceRangeMap<Double> {
-        return getRangeMap { dirChunkId -> infra.getTrackChunkSlope(dirChunkId) }
+    private val slopes by lazy {
+        getRangeMap { dirChunkId -> infra.getTrackChunkSlope(dirChunkId) }
     }
 
-    override fun getOperationalPointParts(): List<IdxWithPathOffset<OperationalPointPart>> {
-        return getElementsOnPath { dirChunkId ->
+    private val operationalPointParts by lazy {
+        getElementsOnPath { dirChunkId ->
             infra.getTrackChunkOperationalPointParts(dirChunkId.value).map { opId ->
                 IdxWithOffset(opId, infra.getOperationalPointPartChunkOffset(opId))
             }
         }
     }
 
+    private val gradients by lazy {
+        getRangeMap { dirChunkId -> infra.getTrackChunkGradient(dirChunkId) }
+    }
+
+    private val curves by lazy {
+        getRangeMap { dirChunkId -> infra.getTrackChunkCurve(dirChunkId) }
+    }
+
+    private val geo by lazy { projectLineString { chunkId -> infra.getTrackChunkGeom(chunkId) } }
+
+    private val loadingGauge by lazy {
+        getRangeMapFromUndirected { chunkId -> infra.getTrackChunkLoadingGaugeConstraints(chunkId) }
+    }
+
+    private val electrification by lazy {
+        getRangeMapFromUndirected { chunkId -> infra.getTrackChunkElectrificationVoltage(chunkId) }
+    }
+
+    private val neutralSections by lazy {
+        getRangeMap { dirChunkId -> infra.getTrackChunkNeutralSections(dirChunkId) }
+    }
+
+    /** Speed limits for each train tag, guarded by its own lock */
+    private val speedLimits = HashMap<String?, DistanceRangeMap<Speed>>()
+
+    override fun getSlopes(): DistanceRangeMap<Double> {
+        return slopes
+    }
+
+    override fun getOperationalPointParts(): List<IdxWithPathOffset<OperationalPointPart>> {
+        return operationalPointParts
+    }
+
     override fun getGradients(): DistanceRangeMap<Double> {
-        return getRangeMap { dirChunkId -> infra.getTrackChunkGradient(dirChunkId) }
+        return gradients
     }
 
     override fun getCurves(): DistanceRangeMap<Double> {
-        return getRangeMap { dirChunkId -> infra.getTrackChunkCurve(dirChunkId) }
+        return curves
     }
 
     override fun getGeo(): LineString {
-        return projectLineString { chunkId -> infra.getTrackChunkGeom(chunkId) }
+        return geo
     }
 
     override fun getLoadingGauge(): DistanceRangeMap<LoadingGaugeConstraint> {
-        return getRangeMapFromUndirected { chunkId ->
-            infra.getTrackChunkLoadingGaugeConstraints(chunkId)
-        }
+        return loadingGauge
     }
 
     override fun getElectrification(): DistanceRangeMap<String> {
-        return getRangeMapFromUndirected { chunkId ->
-            infra.getTrackChunkElectrificationVoltage(chunkId)
-        }
+        return electrification
     }
 
     override fun getNeutralSections(): DistanceRangeMap<NeutralSection> {
-        return getRangeMap { dirChunkId -> infra.getTrackChunkNeutralSections(dirChunkId) }
+        return neutralSections
     }
 
     override fun getSpeedLimits(trainTag: String?): DistanceRangeMap<Speed> {
-        return getRangeMap { dirChunkId -> infra.getTrackChunkSpeedSections(dirChunkId, trainTag) }
+        synchronized(speedLimits) {
+            return speedLimits.getOrPut(trainTag) {
+                getRangeMap { dirChunkId -> infra.getTrackChunkSpeedSections(dirChunkId, trainTag) }
+            }
+        }
     }
 
     override fun getLength(): Length<Path> {
         return Length(chunkPath.endOffset - chunkPath.beginOffset)
     }
 
-    override fun getTrackLocationAtOffset(pathOffset: Offset<Path>): TrackLocation {
-        val offset: Offset<Path> = pathOffset + chunkPath.beginOffset.distance
-        var lengthPrevChunks = 0.meters
+    /**
+     * The cumulative length of the chunks, from the start of the first chunk to the end of each
+     * chunk
+     */
+    private val chunkEnds: DistanceList by lazy {
+        val res = mutableDistanceArrayListOf()
+        var length = 0.meters
         for (chunk in chunkPath.chunks) {
-            val chunkLength = infra.getTrackChunkLength(chunk.value)
-            if (lengthPrevChunks + chunkLength.distance >= offset.distance) {
-                val trackId = infra.getTrackFromChunk(chunk.value)
-                val startChunkOffset: Offset<TrackSection> = infra.getTrackChunkOffset(chunk.value)
-                val offsetOnChunk: Offset<TrackChunk> = Offset((offset - lengthPrevChunks).distance)
-                return if (chunk.direction == Direction.INCREASING)
-                    TrackLocation(trackId, startChunkOffset + offsetOnChunk.distance)
-                else
-                    TrackLocation(
-                        trackId,
-                        startChunkOffset + chunkLength.distance - offsetOnChunk.distance
-                    )
+            length += infra.getTrackChunkLength(chunk.value).distance
+            res.add(length)
+        }
+        res
+    }
+
+    override fun getTrackLocationAtOffset(pathOffset: Offset<Path>): TrackLocation {
+        val offset = pathOffset.distance + chunkPath.beginOffset.distance
+        return getTrackLocationOnChunk(findChunk(offset), offset)
+    }
+
+    override fun getTrackLocator(): PathTrackLocator {
+        return object : PathTrackLocator {
+            /** The index of the chunk of the last query */
+            var chunkIndex = 0
+
+            override fun getTrackLocationAtOffset(pathOffset: Offset<Path>): TrackLocation {
+                val offset = pathOffset.distance + chunkPath.beginOffset.distance
+                val chunkStart = if (chunkIndex == 0) 0.meters else chunkEnds[chunkIndex - 1]
+                if (offset > chunkStart) {
+                    // Increasing offsets: walk forward from the last chunk
+                    while (chunkIndex < chunkEnds.size && chunkEnds[chunkIndex] < offset)
+                        chunkIndex++
+                    if (chunkIndex == chunkEnds.size) throw offsetOutOfPath()
+                } else {
+                    chunkIndex = findChunk(offset)
+                }
+                return getTrackLocationOnChunk(chunkIndex, offset)
             }
-            lengthPrevChunks += chunkLength.distance
         }
-        throw RuntimeException("The given path offset is larger than the path length")
+    }
+
+    /**
+     * Returns the index of the first chunk ending at or after the given offset from the start of
+     * the chunk path
+     */
+    private fun findChunk(offset: Distance): Int {
+        var lower = 0
+        var upper = chunkEnds.size
+        while (lower < upper) {
+            val mid = (lower + upper) ushr 1
+            if (chunkEnds[mid] < offset) lower = mid + 1 else upper = mid
+        }
+        if (lower == chunkEnds.size) throw offsetOutOfPath()
+        return lower
+    }
+
+    /** Returns the track location of an offset from the start of the chunk path */
+    private fun getTrackLocationOnChunk(chunkIndex: Int, offset: Distance): TrackLocation {
+        val chunk = chunkPath.chunks[chunkIndex]
+        val chunkLength = infra.getTrackChunkLength(chunk.value)
+        val lengthPrevChunks = chunkEnds[chunkIndex] - chunkLength.distance
+        val trackId = infra.getTrackFromChunk(chunk.value)
+        val startChunkOffset: Offset<TrackSection> = infra.getTrackChunkOffset(chunk.value)
+        val offsetOnChunk: Offset<TrackChunk> = Offset(offset - lengthPrevChunks)
+        return if (chunk.direction == Direction.INCREASING)
+            TrackLocation(trackId, startChunkOffset + offsetOnChunk.distance)
+        else
+            TrackLocation(trackId, startChunkOffset + chunkLength.distance - offsetOnChunk.distance)
+    }
+
+    private fun offsetOutOfPath(): RuntimeException {
+        return RuntimeException("The given path offset is larger than the path length")
     }
 
     override fun getTrackLocationOffset(location: TrackLocation): Offset<Path>? {
@@ -4,6 +4,7 @@ import fr.sncf.osrd.geom.LineString
 import fr.sncf.osrd.reporting.exceptions.ErrorType
 import fr.sncf.osrd.reporting.exceptions.OSRDError
 import fr.sncf.osrd.sim_infra.api.*
+import fr.sncf.osrd.utils.Direction
 import fr.sncf.osrd.utils.DirectionalMap
 import fr.sncf.osrd.utils.DistanceRangeMap
 import fr.sncf.osrd.utils.distanceRangeMapOf
@@ -254,14 +255,9 @@ class RawInfraImpl(
         trackChunk: DirTrackChunkId,
         trainTag: String?
     ): DistanceRangeMap<Speed> {
-        val res = distanceRangeMapOf<Speed>()
-        for (entry in trackChunkPool[trackChunk.value].speedSections.get(trackChunk.direction)) {
-            val speedSection = entry.value
-            val allowedSpeed =
-                speedSection.speedByTrainTag.getOrDefault(trainTag, speedSection.default)
-            res.put(entry.lower, entry.upper, allowedSpeed)
-        }
-        return res
+        val speedLimits = chunkSpeedLimits[trackChunk.value]!!.get(trackChunk.direction)
+        if (trainTag == null) return speedLimits.default
+        return speedLimits.byTrainTag[trainTag] ?: speedLimits.default
     }
 
     override fun getRoutesOnTrackChunk(trackChunk: DirTrackChunkId): StaticIdxList<Route> {
@@ -276,6 +272,22 @@ class RawInfraImpl(
         return dirDetExitToRouteMap.getOrDefault(dirDetector, MutableStaticIdxArrayList())
     }
 
+    /**
+     * The speed limits of a directional track chunk: the default ones, and those of each train tag
+     * which has specific limits on the chunk. Other train tags use the default limits.
+     */
+    private class ChunkSpeedLimits(
+        val default: DistanceRangeMap<Speed>,
+        val byTrainTag: Map<String, DistanceRangeMap<Speed>>,
+    )
+
+    /** The speed limits of each directional track chunk, built once for all train tags */
+    private val chunkSpeedLimits: IdxMap<TrackChunkId, DirectionalMap<ChunkSpeedLimits>> = IdxMap()
+
+    /** The number of entries of the speed limit maps of all track chunks */
+    var speedLimitEntryCount = 0L
+        private set
+
     private val zoneDetectors: IdxMap<ZoneId, MutableList<DirDetectorId>> = IdxMap()
     private val parentSignalMap: IdxMap<LogicalSignalId, PhysicalSignalId> = IdxMap()
 
@@ -299,12 +311,46 @@ class RawInfraImpl(
             zoneNameMap[zonePool[zone].name] = zone
         }
 
+        // build the speed limits of each chunk
+        for (trackChunk in trackChunkPool) {
+            val speedSections = trackChunkPool[trackChunk].speedSections
+            chunkSpeedLimits[trackChunk] =
+                DirectionalMap(
+                    makeSpeedLimits(speedSections.get(Direction.INCREASING)),
+                    makeSpeedLimits(speedSections.get(Direction.DECREASING))
+                )
+        }
+
         // initialize the physical signal to logical signal map
         for (physicalSignal in physicalSignalPool) for (child in
             physicalSignalPool[physicalSignal].logicalSignals) parentSignalMap[child] =
             physicalSignal
     }
 
+    private fun makeSpeedLimits(speedSections: DistanceRangeMap<SpeedSection>): ChunkSpeedLimits {
+        val trainTags = HashSet<String>()
+        for (entry in speedSections) trainTags.addAll(entry.value.speedByTrainTag.keys)
+        val byTrainTag = HashMap<String, DistanceRangeMap<Speed>>()
+        for (trainTag in trainTags) byTrainTag[trainTag] = makeSpeedLimits(speedSections, trainTag)
+        return ChunkSpeedLimits(makeSpeedLimits(speedSections, null), byTrainTag)
+    }
+
+    private fun makeSpeedLimits(
+        speedSections: DistanceRangeMap<SpeedSection>,
+        trainTag: String?
+    ): DistanceRangeMap<Speed> {
+        val res = distanceRangeMapOf<Speed>()
+        for (entry in speedSections) {
+            val speedSection = entry.value
+            val allowedSpeed =
+                if (trainTag == null) speedSection.default
+                else speedSection.speedByTrainTag.getOrDefault(trainTag, speedSection.default)
+            res.put(entry.lower, entry.upper, allowedSpeed)
+        }
+        speedLimitEntryCount += res.asList().size
+        return res
+    }
+
     override fun getTrackNodeConfigs(trackNode: TrackNodeId): StaticIdxSpace<TrackNodeConfig> {
         return trackNodePool[trackNode].configs.space()
     }
@@ -70,6 +70,15 @@ data class PathPropertiesView(
         return base.getTrackLocationAtOffset(pathOffset - startOffset.distance)
     }
 
+    override fun getTrackLocator(): PathTrackLocator {
+        val baseLocator = base.getTrackLocator()
+        return object : PathTrackLocator {
+            override fun getTrackLocationAtOffset(pathOffset: Offset<Path>): TrackLocation {
+                return baseLocator.getTrackLocationAtOffset(pathOffset - startOffset.distance)
+            }
+        }
+    }
+
     override fun getTrackLocationOffset(location: TrackLocation): Offset<Path>? {
         val baseResult = base.getTrackLocationOffset(location) ?: return null
         if (baseResult < startOffset || baseResult > endOffset) return null
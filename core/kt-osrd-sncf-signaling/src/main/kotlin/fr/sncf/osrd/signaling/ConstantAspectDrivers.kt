@@ -0,0 +1,12 @@
+package fr.sncf.osrd.signaling
+
+import fr.sncf.osrd.sim_infra.api.SigStateSchema
+
+/** Returns a compiled driver which always outputs the given aspect, whatever the input state */
+fun constantAspectCompiledDriver(
+    stateSchema: SigStateSchema,
+    aspect: String
+): CompiledSignalDriver {
+    val state = stateSchema { value("aspect", aspect) }
+    return CompiledSignalDriver { _, _, _, _ -> state }
+}
@@ -5,20 +5,22 @@ import fr.sncf.osrd.reporting.exceptions.OSRDError
 import fr.sncf.osrd.signaling.*
 import fr.sncf.osrd.signaling.ProtectionStatus.*
 import fr.sncf.osrd.sim_infra.api.SigParameters
+import fr.sncf.osrd.sim_infra.api.SigParametersSchema
 import fr.sncf.osrd.sim_infra.api.SigSettings
+import fr.sncf.osrd.sim_infra.api.SigSettingsSchema
 import fr.sncf.osrd.sim_infra.api.SigState
 import fr.sncf.osrd.sim_infra.api.SigStateSchema
 
-object BALtoBAL : SignalDriver {
+object BALtoBAL : CompilableSignalDriver {
     override val name = "BAL-BAL"
     override val inputSignalingSystem = "BAL"
     override val outputSignalingSystem = "BAL"
 
-    private fun cascadePrimaryAspect(aspect: String, parameters: SigParameters): String {
+    private fun cascadePrimaryAspect(aspect: String, jauneCli: Boolean): String? {
         return when (aspect) {
             "VL" -> "VL"
             "A" ->
-                if (parameters.getFlag("jaune_cli")) {
+                if (jauneCli) {
                     "(A)"
                 } else {
                     "VL"
@@ -26,7 +28,7 @@ object BALtoBAL : SignalDriver {
             "(A)" -> "VL"
             "S" -> "A"
             "C" -> "A"
-            else -> throw OSRDError.newAspectError(aspect)
+            else -> null
         }
     }
 
@@ -52,7 +54,50 @@ object BALtoBAL : SignalDriver {
                     } else {
                         val nextSignalState = maView.nextSignalState
                         val nextAspect = nextSignalState.getEnum("aspect")
-                        value("aspect", cascadePrimaryAspect(nextAspect, parameters))
+                        val jauneCli = parameters.getFlag("jaune_cli")
+                        value(
+                            "aspect",
+                            cascadePrimaryAspect(nextAspect, jauneCli)
+                                ?: throw OSRDError.newAspectError(nextAspect)
+                        )
+                    }
+                }
+            }
+        }
+    }
+
+    override fun compile(
+        stateSchema: SigStateSchema,
+        settingsSchema: SigSettingsSchema,
+        parametersSchema: SigParametersSchema,
+        inputStateSchema: SigStateSchema
+    ): CompiledSignalDriver {
+        val states = SigEnumStates(stateSchema, "aspect")
+        val nf = settingsSchema.slot("Nf")
+        val jauneCli = parametersSchema.slot("jaune_cli")
+        val nextAspect = SigEnumSlot(inputStateSchema, "aspect")
+        // the state of a clear signal for each next aspect, without and with jaune_cli
+        val cascades =
+            listOf(false, true).map { flag ->
+                nextAspect.values.map { aspect ->
+                    cascadePrimaryAspect(aspect, flag)?.let { states[it] }
+                }
+            }
+        val warning = states["A"]
+        val stop = states["S"]
+        val closed = states["C"]
+        return CompiledSignalDriver { signal, parameters, maView, _ ->
+            when (maView!!.protectionStatus) {
+                NO_PROTECTED_ZONES -> throw OSRDError(ErrorType.BALUnprotectedZones)
+                INCOMPATIBLE -> if (!signal.getFlag(nf)) stop else closed
+                OCCUPIED -> stop
+                CLEAR -> {
+                    if (!maView.hasNextSignal) {
+                        warning
+                    } else {
+                        val next = nextAspect.read(maView.nextSignalState)
+                        val cascade = cascades[if (parameters.getFlag(jauneCli)) 1 else 0]
+                        cascade[next] ?: throw OSRDError.newAspectError(nextAspect.values[next])
                     }
                 }
             }
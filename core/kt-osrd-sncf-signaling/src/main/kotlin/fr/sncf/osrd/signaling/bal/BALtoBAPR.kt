@@ -5,16 +5,18 @@ import fr.sncf.osrd.reporting.exceptions.OSRDError
 import fr.sncf.osrd.signaling.*
 import fr.sncf.osrd.signaling.ProtectionStatus.*
 import fr.sncf.osrd.sim_infra.api.SigParameters
+import fr.sncf.osrd.sim_infra.api.SigParametersSchema
 import fr.sncf.osrd.sim_infra.api.SigSettings
+import fr.sncf.osrd.sim_infra.api.SigSettingsSchema
 import fr.sncf.osrd.sim_infra.api.SigState
 import fr.sncf.osrd.sim_infra.api.SigStateSchema
 
-object BALtoBAPR : SignalDriver {
+object BALtoBAPR : CompilableSignalDriver {
     override val name = "BAL-BAPR"
     override val inputSignalingSystem = "BAPR"
     override val outputSignalingSystem = "BAL"
 
-    private fun cascadePrimaryAspect(aspect: String): String {
+    private fun cascadePrimaryAspect(aspect: String): String? {
         return when (aspect) {
             "VL" -> "VL"
             "S" -> "A"
@@ -23,7 +25,7 @@ object BALtoBAPR : SignalDriver {
             // (as the BAPR signal should not be distant), we still have to handle it
             // until the infrastructure gets a fix
             "A" -> "VL"
-            else -> throw OSRDError.newAspectError(aspect)
+            else -> null
         }
     }
 
@@ -43,7 +45,37 @@ object BALtoBAPR : SignalDriver {
                 CLEAR -> {
                     val nextSignalState = maView.nextSignalState
                     val nextAspect = nextSignalState.getEnum("aspect")
-                    value("aspect", cascadePrimaryAspect(nextAspect))
+                    value(
+                        "aspect",
+                        cascadePrimaryAspect(nextAspect)
+                            ?: throw OSRDError.newAspectError(nextAspect)
+                    )
+                }
+            }
+        }
+    }
+
+    override fun compile(
+        stateSchema: SigStateSchema,
+        settingsSchema: SigSettingsSchema,
+        parametersSchema: SigParametersSchema,
+        inputStateSchema: SigStateSchema
+    ): CompiledSignalDriver {
+        val states = SigEnumStates(stateSchema, "aspect")
+        val nextAspect = SigEnumSlot(inputStateSchema, "aspect")
+        val cascade =
+            nextAspect.values.map { aspect -> cascadePrimaryAspect(aspect)?.let { states[it] } }
+        val stop = states["S"]
+        val closed = states["C"]
+        return CompiledSignalDriver { _, _, maView, _ ->
+            assert(maView!!.hasNextSignal)
+            when (maView.protectionStatus) {
+                NO_PROTECTED_ZONES -> throw OSRDError(ErrorType.BALUnprotectedZones)
+                INCOMPATIBLE -> closed
+                OCCUPIED -> stop
+                CLEAR -> {
+                    val next = nextAspect.read(maView.nextSignalState)
+                    cascade[next] ?: throw OSRDError.newAspectError(nextAspect.values[next])
                 }
             }
         }
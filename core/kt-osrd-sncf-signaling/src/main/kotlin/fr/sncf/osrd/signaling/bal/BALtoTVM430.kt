@@ -2,11 +2,13 @@ package fr.sncf.osrd.signaling.bal
 
 import fr.sncf.osrd.signaling.*
 import fr.sncf.osrd.sim_infra.api.SigParameters
+import fr.sncf.osrd.sim_infra.api.SigParametersSchema
 import fr.sncf.osrd.sim_infra.api.SigSettings
+import fr.sncf.osrd.sim_infra.api.SigSettingsSchema
 import fr.sncf.osrd.sim_infra.api.SigState
 import fr.sncf.osrd.sim_infra.api.SigStateSchema
 
-object BALtoTVM430 : SignalDriver {
+object BALtoTVM430 : CompilableSignalDriver {
     override val name = "BAL-TVM430"
     override val inputSignalingSystem = "BAL"
     override val outputSignalingSystem = "TVM430"
@@ -21,5 +23,14 @@ object BALtoTVM430 : SignalDriver {
         return stateSchema { value("aspect", "VL") }
     }
 
+    override fun compile(
+        stateSchema: SigStateSchema,
+        settingsSchema: SigSettingsSchema,
+        parametersSchema: SigParametersSchema,
+        inputStateSchema: SigStateSchema
+    ): CompiledSignalDriver {
+        return constantAspectCompiledDriver(stateSchema, "VL")
+    }
+
     override fun checkSignal(reporter: SignalDiagReporter, signal: SigSettings, block: SigBlock) {}
 }
@@ -3,22 +3,24 @@ package fr.sncf.osrd.signaling.bapr
 import fr.sncf.osrd.reporting.exceptions.OSRDError
 import fr.sncf.osrd.signaling.*
 import fr.sncf.osrd.sim_infra.api.SigParameters
+import fr.sncf.osrd.sim_infra.api.SigParametersSchema
 import fr.sncf.osrd.sim_infra.api.SigSettings
+import fr.sncf.osrd.sim_infra.api.SigSettingsSchema
 import fr.sncf.osrd.sim_infra.api.SigState
 import fr.sncf.osrd.sim_infra.api.SigStateSchema
 
-object BAPRtoBAL : SignalDriver {
+object BAPRtoBAL : CompilableSignalDriver {
     override val name = "BAPR-BAL"
     override val inputSignalingSystem = "BAL"
     override val outputSignalingSystem = "BAPR"
 
-    private fun cascadePrimaryAspect(aspect: String): String {
+    private fun cascadePrimaryAspect(aspect: String): String? {
         return when (aspect) {
             "VL" -> "VL"
             "S" -> "A"
             "C" -> "A"
             "A" -> "VL"
-            else -> throw OSRDError.newAspectError(aspect)
+            else -> null
         }
     }
 
@@ -31,7 +33,28 @@ object BAPRtoBAL : SignalDriver {
     ): SigState {
         return stateSchema {
             assert(maView!!.hasNextSignal)
-            value("aspect", cascadePrimaryAspect(maView.nextSignalState.getEnum("aspect")))
+            val nextAspect = maView.nextSignalState.getEnum("aspect")
+            value(
+                "aspect",
+                cascadePrimaryAspect(nextAspect) ?: throw OSRDError.newAspectError(nextAspect)
+            )
+        }
+    }
+
+    override fun compile(
+        stateSchema: SigStateSchema,
+        settingsSchema: SigSettingsSchema,
+        parametersSchema: SigParametersSchema,
+        inputStateSchema: SigStateSchema
+    ): CompiledSignalDriver {
+        val states = SigEnumStates(stateSchema, "aspect")
+        val nextAspect = SigEnumSlot(inputStateSchema, "aspect")
+        val cascade =
+            nextAspect.values.map { aspect -> cascadePrimaryAspect(aspect)?.let { states[it] } }
+        return CompiledSignalDriver { _, _, maView, _ ->
+            assert(maView!!.hasNextSignal)
+            val next = nextAspect.read(maView.nextSignalState)
+            cascade[next] ?: throw OSRDError.newAspectError(nextAspect.values[next])
         }
     }
 
@@ -5,16 +5,18 @@ import fr.sncf.osrd.reporting.exceptions.OSRDError
 import fr.sncf.osrd.signaling.*
 import fr.sncf.osrd.signaling.ProtectionStatus.*
 import fr.sncf.osrd.sim_infra.api.SigParameters
+import fr.sncf.osrd.sim_infra.api.SigParametersSchema
 import fr.sncf.osrd.sim_infra.api.SigSettings
+import fr.sncf.osrd.sim_infra.api.SigSettingsSchema
 import fr.sncf.osrd.sim_infra.api.SigState
 import fr.sncf.osrd.sim_infra.api.SigStateSchema
 
-object BAPRtoBAPR : SignalDriver {
+object BAPRtoBAPR : CompilableSignalDriver {
     override val name = "BAPR-BAPR"
     override val inputSignalingSystem = "BAPR"
     override val outputSignalingSystem = "BAPR"
 
-    private fun cascadePrimaryAspect(aspect: String): String {
+    private fun cascadePrimaryAspect(aspect: String): String? {
         return when (aspect) {
             "VL" -> "VL"
             "S" -> "A"
@@ -25,7 +27,7 @@ object BAPRtoBAPR : SignalDriver {
             // infrastructure,
             // we cannot be sure it won't happen, and still have to do something.
             "A" -> "VL"
-            else -> throw OSRDError.newAspectError(aspect)
+            else -> null
         }
     }
 
@@ -38,9 +40,14 @@ object BAPRtoBAPR : SignalDriver {
     ): SigState {
         return stateSchema {
             if (signal.getFlag("distant")) {
-                if (maView!!.hasNextSignal)
-                    value("aspect", cascadePrimaryAspect(maView.nextSignalState.getEnum("aspect")))
-                else value("aspect", "A")
+                if (maView!!.hasNextSignal) {
+                    val nextAspect = maView.nextSignalState.getEnum("aspect")
+                    value(
+                        "aspect",
+                        cascadePrimaryAspect(nextAspect)
+                            ?: throw OSRDError.newAspectError(nextAspect)
+                    )
+                } else value("aspect", "A")
             } else {
                 when (maView!!.protectionStatus) {
                     NO_PROTECTED_ZONES -> throw OSRDError(ErrorType.BAPRUnprotectedZones)
@@ -52,5 +59,37 @@ object BAPRtoBAPR : SignalDriver {
         }
     }
 
+    override fun compile(
+        stateSchema: SigStateSchema,
+        settingsSchema: SigSettingsSchema,
+        parametersSchema: SigParametersSchema,
+        inputStateSchema: SigStateSchema
+    ): CompiledSignalDriver {
+        val states = SigEnumStates(stateSchema, "aspect")
+        val distant = settingsSchema.slot("distant")
+        val nextAspect = SigEnumSlot(inputStateSchema, "aspect")
+        val cascade =
+            nextAspect.values.map { aspect -> cascadePrimaryAspect(aspect)?.let { states[it] } }
+        val clear = states["VL"]
+        val warning = states["A"]
+        val stop = states["S"]
+        val closed = states["C"]
+        return CompiledSignalDriver { signal, _, maView, _ ->
+            if (signal.getFlag(distant)) {
+                if (maView!!.hasNextSignal) {
+                    val next = nextAspect.read(maView.nextSignalState)
+                    cascade[next] ?: throw OSRDError.newAspectError(nextAspect.values[next])
+                } else warning
+            } else {
+                when (maView!!.protectionStatus) {
+                    NO_PROTECTED_ZONES -> throw OSRDError(ErrorType.BAPRUnprotectedZones)
+                    INCOMPATIBLE -> closed
+                    OCCUPIED -> stop
+                    CLEAR -> clear
+                }
+            }
+        }
+    }
+
     override fun checkSignal(reporter: SignalDiagReporter, signal: SigSettings, block: SigBlock) {}
 }
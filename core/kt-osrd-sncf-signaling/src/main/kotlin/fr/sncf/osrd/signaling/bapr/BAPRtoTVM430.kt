@@ -2,11 +2,13 @@ package fr.sncf.osrd.signaling.bapr
 
 import fr.sncf.osrd.signaling.*
 import fr.sncf.osrd.sim_infra.api.SigParameters
+import fr.sncf.osrd.sim_infra.api.SigParametersSchema
 import fr.sncf.osrd.sim_infra.api.SigSettings
+import fr.sncf.osrd.sim_infra.api.SigSettingsSchema
 import fr.sncf.osrd.sim_infra.api.SigState
 import fr.sncf.osrd.sim_infra.api.SigStateSchema
 
-object BAPRtoTVM430 : SignalDriver {
+object BAPRtoTVM430 : CompilableSignalDriver {
     override val name = "BAPR-TVM430"
     override val inputSignalingSystem = "BAPR"
     override val outputSignalingSystem = "TVM430"
@@ -21,5 +23,14 @@ object BAPRtoTVM430 : SignalDriver {
         return stateSchema { value("aspect", "VL") }
     }
 
+    override fun compile(
+        stateSchema: SigStateSchema,
+        settingsSchema: SigSettingsSchema,
+        parametersSchema: SigParametersSchema,
+        inputStateSchema: SigStateSchema
+    ): CompiledSignalDriver {
+        return constantAspectCompiledDriver(stateSchema, "VL")
+    }
+
     override fun checkSignal(reporter: SignalDiagReporter, signal: SigSettings, block: SigBlock) {}
 }
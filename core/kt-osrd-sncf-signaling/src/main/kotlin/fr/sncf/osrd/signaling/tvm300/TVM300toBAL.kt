@@ -2,11 +2,13 @@ package fr.sncf.osrd.signaling.tvm300
 
 import fr.sncf.osrd.signaling.*
 import fr.sncf.osrd.sim_infra.api.SigParameters
+import fr.sncf.osrd.sim_infra.api.SigParametersSchema
 import fr.sncf.osrd.sim_infra.api.SigSettings
+import fr.sncf.osrd.sim_infra.api.SigSettingsSchema
 import fr.sncf.osrd.sim_infra.api.SigState
 import fr.sncf.osrd.sim_infra.api.SigStateSchema
 
-object TVM300toBAL : SignalDriver {
+object TVM300toBAL : CompilableSignalDriver {
     override val name = "TVM300-BAL"
     override val inputSignalingSystem = "TVM300"
     override val outputSignalingSystem = "BAL"
@@ -21,5 +23,14 @@ object TVM300toBAL : SignalDriver {
         return stateSchema { value("aspect", "VL") }
     }
 
+    override fun compile(
+        stateSchema: SigStateSchema,
+        settingsSchema: SigSettingsSchema,
+        parametersSchema: SigParametersSchema,
+        inputStateSchema: SigStateSchema
+    ): CompiledSignalDriver {
+        return constantAspectCompiledDriver(stateSchema, "VL")
+    }
+
     override fun checkSignal(reporter: SignalDiagReporter, signal: SigSettings, block: SigBlock) {}
 }
@@ -0,0 +1,111 @@
+package fr.sncf.osrd.signaling
+
+import fr.sncf.osrd.signaling.bal.*
+import fr.sncf.osrd.signaling.bapr.*
+import fr.sncf.osrd.signaling.tvm300.*
+import fr.sncf.osrd.signaling.tvm430.*
+import fr.sncf.osrd.sim_infra.api.SigData
+import fr.sncf.osrd.sim_infra.api.SigEnumField
+import fr.sncf.osrd.sim_infra.api.SigFlagField
+import fr.sncf.osrd.sim_infra.api.SigSchema
+import fr.sncf.osrd.sim_infra.api.SigSettings
+import fr.sncf.osrd.sim_infra.api.SigState
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class TestCompiledDrivers {
+    private val systems = listOf(BAL, BAPR, TVM300, TVM430).associateBy { it.id }
+
+    private val drivers =
+        listOf(
+            BALtoBAL,
+            BALtoBAPR,
+            BALtoTVM300,
+            BALtoTVM430,
+            BAPRtoBAL,
+            BAPRtoBAPR,
+            BAPRtoTVM300,
+            BAPRtoTVM430,
+            TVM300toBAL,
+            TVM300toBAPR,
+            TVM300toTVM300,
+            TVM300toTVM430,
+            TVM430toBAL,
+            TVM430toBAPR,
+            TVM430toTVM300,
+            TVM430toTVM430,
+        )
+
+    private class MAView(
+        override val protectionStatus: ProtectionStatus,
+        private val next: Pair<SigState, SigSettings>?,
+    ) : MovementAuthorityView {
+        override val nextSignalState
+            get() = next!!.first
+
+        override val nextSignalSettings
+            get() = next!!.second
+
+        override val hasNextSignal
+            get() = next != null
+    }
+
+    /** Compiled drivers must give the same states as the interpreted ones, for all inputs */
+    @Test
+    fun testCompiledDriversMatchInterpreted() {
+        for (driver in drivers) {
+            driver as CompilableSignalDriver
+            val output = systems[driver.outputSignalingSystem]!!
+            val input = systems[driver.inputSignalingSystem]!!
+            val compiled =
+                driver.compile(
+                    output.stateSchema,
+                    output.settingsSchema,
+                    output.parametersSchema,
+                    input.stateSchema
+                )
+            val nextSignals =
+                listOf(null) +
+                    allValues(input.stateSchema).flatMap { state ->
+                        allValues(input.settingsSchema).map { settings -> Pair(state, settings) }
+                    }
+            for (settings in allValues(output.settingsSchema)) {
+                for (parameters in allValues(output.parametersSchema)) {
+                    for (protectionStatus in ProtectionStatus.values()) {
+                        for (next in nextSignals) {
+                            val maView = MAView(protectionStatus, next)
+                            val expected = runCatching {
+                                driver.evalSignal(
+                                    settings,
+                                    parameters,
+                                    output.stateSchema,
+                                    maView,
+                                    null
+                                )
+                            }
+                            val res = runCatching {
+                                compiled.evalSignal(settings, parameters, maView, null)
+                            }
+                            assertEquals(expected.getOrNull(), res.getOrNull())
+                            assertEquals(expected.isFailure, res.isFailure)
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Returns all the possible values of a schema */
+    private fun <MarkerT> allValues(schema: SigSchema<MarkerT>): List<SigData<MarkerT>> {
+        var values = listOf(mapOf<String, String>())
+        for (field in schema.fields) {
+            val fieldValues =
+                when (field) {
+                    is SigEnumField -> field.values
+                    is SigFlagField -> listOf("false", "true")
+                }
+            values = values.flatMap { value -> fieldValues.map { value + Pair(field.name, it) } }
+        }
+        return values.map { schema(it) }
+    }
+}
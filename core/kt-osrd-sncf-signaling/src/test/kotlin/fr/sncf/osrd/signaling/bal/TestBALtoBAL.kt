@@ -141,5 +141,47 @@ class TestBALtoBAL {
             "A",
             res[loadedSignalInfra.getLogicalSignals(signalV).first()]!!.getEnum("aspect")
         )
+
+        // The incremental evaluation gives the same states as a full evaluation
+        val evaluator =
+            simulator.evaluateIncrementally(
+                infra,
+                loadedSignalInfra,
+                blockInfra,
+                fullPath,
+                listOf(),
+                fullPath.size,
+                zoneStates,
+                ZoneStatus.INCOMPATIBLE
+            )
+        assertEquals(res, evaluator.getStates())
+        for ((zone, status) in
+            listOf(
+                Pair(1, ZoneStatus.OCCUPIED),
+                Pair(0, ZoneStatus.OCCUPIED),
+                Pair(1, ZoneStatus.CLEAR),
+                Pair(2, ZoneStatus.OCCUPIED),
+                Pair(0, ZoneStatus.CLEAR),
+            )) {
+            val previousStates = evaluator.getStates()
+            zoneStates[zone] = status
+            val changedSignals = evaluator.setZoneStatus(zone, status)
+            val expected =
+                simulator.evaluate(
+                    infra,
+                    loadedSignalInfra,
+                    blockInfra,
+                    fullPath,
+                    listOf(),
+                    fullPath.size,
+                    zoneStates,
+                    ZoneStatus.INCOMPATIBLE
+                )
+            assertEquals(expected, evaluator.getStates())
+            assertEquals(
+                expected.filter { previousStates[it.key] != it.value }.keys,
+                changedSignals.toSet()
+            )
+        }
     }
 }
@@ -0,0 +1,187 @@
+package fr.sncf.osrd.utils
+
+private const val BITS = 5
+private const val WIDTH = 1 shl BITS
+private const val MASK = WIDTH - 1
+
+/**
+ * Append-only list with structural sharing, stored as a 32-way trie of immutable arrays.
+ *
+ * The main use-case for this class is to store data about several diverging paths: copies share
+ * all the underlying arrays, so we can have several lists that diverge from some point without
+ * duplicating the shared elements. Unlike a linked list, elements can be accessed anywhere in the
+ * list in O(log32(n)).
+ *
+ * The last elements are kept in a separate tail array, which is copied when an element is added.
+ * Once the tail is full, it's inserted into the trie, copying the arrays on the path to it. Adding
+ * an element thus copies a bounded number of references.
+ *
+ * The list itself is mutable: `add` replaces the arrays it refers to, but never changes them.
+ */
+class PersistentVector<T>
+private constructor(
+    private var root: Array<Any?>,
+    /** The bit shift of the root level. Leaves are at level 0 */
+    private var shift: Int,
+    private var tail: Array<Any?>,
+    size: Int,
+) {
+    var size = size
+        private set
+
+    constructor() : this(arrayOfNulls(WIDTH), BITS, arrayOfNulls(0), 0)
+
+    /** The index of the first element of the tail */
+    private val tailOffset
+        get() = size - tail.size
+
+    /** Get the element at the given index. */
+    @Suppress("UNCHECKED_CAST")
+    operator fun get(index: Int): T {
+        if (index >= size || index < 0) throw IndexOutOfBoundsException()
+        return leafFor(index)[index and MASK] as T
+    }
+
+    fun isEmpty(): Boolean {
+        return size == 0
+    }
+
+    fun isNotEmpty(): Boolean {
+        return size != 0
+    }
+
+    /** Returns a copy of the list. The underlying arrays are *not* copied. */
+    fun shallowCopy(): PersistentVector<T> {
+        return PersistentVector(root, shift, tail, size)
+    }
+
+    /** Add an element to the end of the list. */
+    fun add(element: T) {
+        if (tail.size == WIDTH) {
+            pushTail()
+            tail = arrayOf<Any?>(element)
+        } else {
+            val newTail = tail.copyOf(tail.size + 1)
+            newTail[tail.size] = element
+            tail = newTail
+        }
+        size++
+    }
+
+    /** Add all elements to the end of the list, in order. */
+    fun addAll(elements: Iterable<T>) {
+        for (e in elements) add(e)
+    }
+
+    /** Converts the list into a standard list */
+    @Suppress("UNCHECKED_CAST")
+    fun toList(): List<T> {
+        val res = ArrayList<T>(size)
+        var leafStart = 0
+        while (leafStart < size) {
+            val leaf = leafFor(leafStart)
+            val leafEnd = minOf(size - leafStart, leaf.size)
+            for (i in 0 until leafEnd) res.add(leaf[i] as T)
+            leafStart += WIDTH
+        }
+        return res
+    }
+
+    /**
+     * Returns a read-only random access view of the list, which isn't affected by elements added
+     * later on. Nothing is copied.
+     */
+    fun asList(): List<T> {
+        val snapshot = shallowCopy()
+        return object : AbstractList<T>(), RandomAccess {
+            override val size = snapshot.size
+
+            override fun get(index: Int): T {
+                return snapshot[index]
+            }
+        }
+    }
+
+    /** Returns the last element of the list */
+    @Suppress("UNCHECKED_CAST")
+    fun last(): T {
+        if (size == 0) throw NoSuchElementException()
+        return tail[tail.size - 1] as T
+    }
+
+    /** Returns a sub list from 0 to untilIndex (excluded). */
+    fun subList(untilIndex: Int): PersistentVector<T> {
+        if (untilIndex > size || untilIndex < 0) throw IndexOutOfBoundsException()
+        if (untilIndex == 0) return persistentVectorOf()
+        // the new tail is the (partial) leaf of the last element. The elements after it
+        // stay in the trie, but can't be reached: they get replaced when adding elements.
+        val newTailOffset = ((untilIndex - 1) ushr BITS) shl BITS
+        val newTail = leafFor(newTailOffset).copyOf(untilIndex - newTailOffset)
+        return PersistentVector(root, shift, newTail, untilIndex)
+    }
+
+    /** Utility function for debugger views. */
+    override fun toString(): String {
+        return toList().toString()
+    }
+
+    /** Returns the array which contains the element at the given index */
+    @Suppress("UNCHECKED_CAST")
+    private fun leafFor(index: Int): Array<Any?> {
+        if (index >= tailOffset) return tail
+        var node = root
+        var level = shift
+        while (level > 0) {
+            node = node[(index ushr level) and MASK] as Array<Any?>
+            level -= BITS
+        }
+        return node
+    }
+
+    /** Inserts the full tail in the trie */
+    private fun pushTail() {
+        if ((size ushr BITS) > (1 shl shift)) {
+            // the root is full, add a level
+            val newRoot = arrayOfNulls<Any?>(WIDTH)
+            newRoot[0] = root
+            newRoot[1] = newPath(shift, tail)
+            root = newRoot
+            shift += BITS
+        } else {
+            root = pushTail(shift, root)
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun pushTail(level: Int, parent: Array<Any?>): Array<Any?> {
+        val subIndex = ((size - 1) ushr level) and MASK
+        val res = parent.copyOf()
+        if (level == BITS) {
+            res[subIndex] = tail
+        } else {
+            val child = parent[subIndex] as Array<Any?>?
+            res[subIndex] =
+                if (child != null) pushTail(level - BITS, child) else newPath(level - BITS, tail)
+        }
+        return res
+    }
+
+    private fun newPath(level: Int, leaf: Array<Any?>): Array<Any?> {
+        if (level == 0) return leaf
+        val res = arrayOfNulls<Any?>(WIDTH)
+        res[0] = newPath(level - BITS, leaf)
+        return res
+    }
+}
+
+/** Returns a new empty list */
+fun <T> persistentVectorOf(): PersistentVector<T> {
+    return PersistentVector()
+}
+
+/** Returns a new list with the given element */
+fun <T> persistentVectorOf(element: T): PersistentVector<T> {
+    val res = PersistentVector<T>()
+    res.add(element)
+    return res
+}
@@ -0,0 +1,75 @@
+package fr.sncf.osrd.utils
+
+import kotlin.random.Random
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+class TestPersistentVector {
+    @Test
+    fun testAddAndGet() {
+        val vector = persistentVectorOf<Int>()
+        for (i in 0 until 40_000) vector.add(i)
+        assertEquals(40_000, vector.size)
+        assertEquals(39_999, vector.last())
+        for (i in 0 until 40_000) assertEquals(i, vector[i])
+        assertEquals((0 until 40_000).toList(), vector.toList())
+        assertFailsWith<IndexOutOfBoundsException> { vector[40_000] }
+        assertFailsWith<IndexOutOfBoundsException> { vector[-1] }
+    }
+
+    @Test
+    fun testSubList() {
+        val vector = persistentVectorOf<Int>()
+        for (i in 0 until 2_000) vector.add(i)
+        for (untilIndex in listOf(0, 1, 31, 32, 33, 1_024, 1_500, 2_000)) {
+            val subList = vector.subList(untilIndex)
+            assertEquals((0 until untilIndex).toList(), subList.toList())
+            // adding elements to the sub list must not change the original list
+            for (i in 0 until 1_000) subList.add(-i)
+            assertEquals((0 until untilIndex) + (0 until 1_000).map { -it }, subList.toList())
+        }
+        assertEquals((0 until 2_000).toList(), vector.toList())
+    }
+
+    @Test
+    fun testAsList() {
+        val vector = persistentVectorOf<Int>()
+        for (i in 0 until 100) vector.add(i)
+        val list = vector.asList()
+        vector.add(100)
+        assertEquals((0 until 100).toList(), list)
+        assertEquals(42, list[42])
+        assertFailsWith<IndexOutOfBoundsException> { list[100] }
+    }
+
+    /** Diverging copies must keep their own elements, as checked against standard lists */
+    @Test
+    fun testDivergingCopies() {
+        val random = Random(42)
+        val lists = mutableListOf(Pair(persistentVectorOf<Int>(), mutableListOf<Int>()))
+        repeat(20_000) {
+            val (vector, expected) = lists[random.nextInt(lists.size)]
+            when (random.nextInt(10)) {
+                in 0..5 -> {
+                    val value = random.nextInt()
+                    vector.add(value)
+                    expected.add(value)
+                }
+                in 6..7 -> lists.add(Pair(vector.shallowCopy(), expected.toMutableList()))
+                8 -> {
+                    val untilIndex = random.nextInt(expected.size + 1)
+                    val expectedSubList = expected.subList(0, untilIndex).toMutableList()
+                    lists.add(Pair(vector.subList(untilIndex), expectedSubList))
+                }
+                else -> {
+                    if (expected.isNotEmpty()) {
+                        val index = random.nextInt(expected.size)
+                        assertEquals(expected[index], vector[index])
+                    }
+                }
+            }
+        }
+        for ((vector, expected) in lists) assertEquals(expected, vector.toList())
+    }
+}
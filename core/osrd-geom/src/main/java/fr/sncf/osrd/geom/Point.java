@@ -13,10 +13,15 @@ public record Point(
      * latitude
      */
     public double distanceAsMeters(Point other) {
+        return distanceAsMeters(x, y, other.x, other.y);
+    }
+
+    /** Returns the distance in meters between two points given as (longitude, latitude) pairs */
+    public static double distanceAsMeters(double x1, double y1, double x2, double y2) {
         GeodeticCalculator geoCalc = new GeodeticCalculator();
         Ellipsoid reference = Ellipsoid.WGS84;
-        GlobalPosition thisPosition = new GlobalPosition(y, x, 0.0);
-        GlobalPosition otherPosition = new GlobalPosition(other.y, other.x, 0.0);
+        GlobalPosition thisPosition = new GlobalPosition(y1, x1, 0.0);
+        GlobalPosition otherPosition = new GlobalPosition(y2, x2, 0.0);
         return geoCalc.calculateGeodeticCurve(reference, thisPosition, otherPosition)
                 .getEllipsoidalDistance();
     }
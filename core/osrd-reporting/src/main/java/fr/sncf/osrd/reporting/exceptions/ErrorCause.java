@@ -2,5 +2,7 @@ package fr.sncf.osrd.reporting.exceptions;
 
 public enum ErrorCause {
     INTERNAL,
-    USER
+    USER,
+    /** The service can't handle the request yet, and the same request should be retried later */
+    TEMPORARY
 }
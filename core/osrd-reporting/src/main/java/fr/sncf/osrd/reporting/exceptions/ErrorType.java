@@ -33,6 +33,11 @@ public enum ErrorType {
     InfraInvalidStatusWhileWaitingStable(
             "infra_loading:invalid_status_waiting_stable", "invalid status after waitUntilStable", ErrorCause.INTERNAL),
     InfraNotLoadedException("infra:not_loaded", "Infra not loaded", ErrorCause.USER),
+    TimetableConflictsNotLoaded(
+            "timetable_conflicts:not_loaded",
+            "The timetable isn't known by this worker, the whole timetable must be sent again",
+            ErrorCause.USER),
+    InfraLoadingInProgress("infra_loading:in_progress", "Infra is being loaded, retry later", ErrorCause.TEMPORARY),
     InfraInvalidVersionException("infra:invalid_version", "Invalid infra version", ErrorCause.USER),
     PathfindingGenericError("no_path_found", "No path could be found", ErrorCause.USER),
     PathfindingGaugeError("no_path_found:gauge", "No path could be found with compatible Gauge", ErrorCause.USER),
@@ -0,0 +1,50 @@
+package fr.sncf.osrd.conflicts
+
+import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+
+/** Compares timetable-wide conflict detection strategies on synthetic timetables */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = ["-Xmx8g"])
+open class ConflictDetectionBenchmark {
+    @Param("1000", "10000", "50000") var trainCount = 0
+
+    private lateinit var timetable: List<TrainRequirements>
+
+    @Setup
+    fun setup() {
+        timetable = makeSyntheticTimetable(trainCount, Random(42))
+    }
+
+    /** The detection used before zones were interned and processed in parallel */
+    @Benchmark
+    fun incrementalDetector(): List<Conflict> {
+        return mergeConflicts(incrementalConflictDetector(timetable).checkConflicts())
+    }
+
+    @Benchmark
+    fun batchSequential(): List<Conflict> {
+        return BatchConflictDetector(timetable, parallel = false).detectConflicts()
+    }
+
+    @Benchmark
+    fun batchParallel(): List<Conflict> {
+        return BatchConflictDetector(timetable).detectConflicts()
+    }
+}
@@ -0,0 +1,52 @@
+package fr.sncf.osrd.conflicts
+
+import fr.sncf.osrd.standalone_sim.result.ResultTrain.RoutingRequirement
+import fr.sncf.osrd.standalone_sim.result.ResultTrain.RoutingZoneRequirement
+import fr.sncf.osrd.standalone_sim.result.ResultTrain.SpacingRequirement
+import kotlin.random.Random
+
+/**
+ * Generates the requirements of a timetable over a network of independent lines. Each train runs
+ * over a sequence of consecutive zones of a line during a day. Routes span ZONES_PER_ROUTE zones,
+ * and some zones contain a switch whose position depends on the train, so that both spacing and
+ * routing conflicts occur.
+ */
+fun makeSyntheticTimetable(trainCount: Int, random: Random): List<TrainRequirements> {
+    val lineCount = maxOf(1, trainCount / 100)
+    return (0 until trainCount).map { makeTrain(it.toLong(), random.nextInt(lineCount), random) }
+}
+
+private const val ZONES_PER_LINE = 120
+private const val ZONES_PER_ROUTE = 3
+private const val DAY = 24 * 3600.0
+
+private fun makeTrain(trainId: Long, line: Int, random: Random): TrainRequirements {
+    val zoneCount = random.nextInt(10, 60)
+    val firstZone = random.nextInt(ZONES_PER_LINE - zoneCount)
+    val switchPosition = if (random.nextBoolean()) "A" else "B"
+    var time = random.nextDouble(DAY)
+    val spacingRequirements = ArrayList<SpacingRequirement>()
+    val routingRequirements = ArrayList<RoutingRequirement>()
+    var routeZones = ArrayList<RoutingZoneRequirement>()
+    var routeBeginTime = time
+    for (zoneIndex in firstZone until firstZone + zoneCount) {
+        val zone = "line$line.zone$zoneIndex"
+        val zoneTime = random.nextDouble(40.0, 120.0)
+        // a zone is required from the moment its signal is seen until the train leaves it
+        spacingRequirements.add(SpacingRequirement(zone, time - 60.0, time + zoneTime, true))
+        val switches =
+            if (zoneIndex % 7 == 0) mapOf("line$line.switch$zoneIndex" to switchPosition)
+            else mapOf()
+        val entryDetector = "line$line.det$zoneIndex"
+        val exitDetector = "line$line.det${zoneIndex + 1}"
+        time += zoneTime
+        routeZones.add(RoutingZoneRequirement(zone, entryDetector, exitDetector, switches, time))
+        if (routeZones.size == ZONES_PER_ROUTE || zoneIndex == firstZone + zoneCount - 1) {
+            val route = "line$line.route${zoneIndex / ZONES_PER_ROUTE}"
+            routingRequirements.add(RoutingRequirement(route, routeBeginTime, routeZones))
+            routeZones = ArrayList()
+            routeBeginTime = time
+        }
+    }
+    return TrainRequirements(trainId, spacingRequirements, routingRequirements)
+}
@@ -0,0 +1,101 @@
+package fr.sncf.osrd.pathfinding
+
+import fr.sncf.osrd.api.FullInfra
+import fr.sncf.osrd.api.makeSignalingSimulator
+import fr.sncf.osrd.api.pathfinding.makeHeuristics
+import fr.sncf.osrd.graph.BidirectionalBlockPathfinding
+import fr.sncf.osrd.graph.BlockPathfinding
+import fr.sncf.osrd.graph.GraphAdapter
+import fr.sncf.osrd.graph.Pathfinding
+import fr.sncf.osrd.graph.Pathfinding.EdgeLocation
+import fr.sncf.osrd.graph.PathfindingEdgeLocationId
+import fr.sncf.osrd.railjson.schema.infra.RJSInfra
+import fr.sncf.osrd.reporting.warnings.DiagnosticRecorderImpl
+import fr.sncf.osrd.sim_infra.api.Block
+import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.utils.moshi.MoshiUtils
+import fr.sncf.osrd.utils.units.Offset
+import fr.sncf.osrd.utils.units.meters
+import java.nio.file.Path
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import org.openjdk.jmh.infra.Blackhole
+
+/**
+ * Compares the generic pathfinding with the forward and bidirectional block pathfindings, on random
+ * origin / destination pairs. Allocation rates are reported when running with the gc profiler
+ * (-PjmhProfilers=gc). Larger infras can be used with -p infraPath=<path to a railjson infra>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = ["-Xmx8g"])
+open class BlockPathfindingBenchmark {
+    @Param("../tests/data/infras/small_infra/infra.json") var infraPath = ""
+
+    @Param("100") var pairCount = 0
+
+    private lateinit var infra: FullInfra
+    private lateinit var pairs: List<List<Collection<PathfindingEdgeLocationId<Block>>>>
+
+    @Setup
+    fun setup() {
+        val rjsInfra = MoshiUtils.deserialize(RJSInfra.adapter, Path.of(infraPath))
+        val diagnosticRecorder = DiagnosticRecorderImpl(false)
+        infra = FullInfra.fromRJSInfra(rjsInfra, diagnosticRecorder, makeSignalingSimulator())
+
+        val random = Random(42)
+        val blocks = infra.blockInfra.blocks
+        fun randomLocation(): Collection<PathfindingEdgeLocationId<Block>> {
+            val block: BlockId = blocks[random.nextInt(blocks.size.toInt())]
+            return listOf(EdgeLocation(block, Offset(0.meters)))
+        }
+        pairs = (0 until pairCount).map { listOf(randomLocation(), randomLocation()) }
+    }
+
+    @Benchmark
+    fun genericPathfinding(blackhole: Blackhole) {
+        for (waypoints in pairs) {
+            val path =
+                Pathfinding(GraphAdapter(infra.blockInfra, infra.rawInfra))
+                    .setEdgeToLength { block -> infra.blockInfra.getBlockLength(block) }
+                    .setRemainingDistanceEstimator(makeHeuristics(infra, waypoints))
+                    .runPathfinding(waypoints)
+            blackhole.consume(path)
+        }
+    }
+
+    @Benchmark
+    fun blockPathfinding(blackhole: Blackhole) {
+        for (waypoints in pairs) {
+            val path =
+                BlockPathfinding(infra.blockInfra, infra.rawInfra)
+                    .setRemainingDistanceEstimator(makeHeuristics(infra, waypoints))
+                    .runPathfinding(waypoints)
+            blackhole.consume(path)
+        }
+    }
+
+    @Benchmark
+    fun bidirectionalPathfinding(blackhole: Blackhole) {
+        for (waypoints in pairs) {
+            val path =
+                BidirectionalBlockPathfinding(infra.blockInfra, infra.rawInfra)
+                    .runPathfinding(waypoints)
+            blackhole.consume(path)
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package fr.sncf.osrd.pathfinding
+
+import fr.sncf.osrd.api.FullInfra
+import fr.sncf.osrd.api.makeSignalingSimulator
+import fr.sncf.osrd.api.pathfinding.BlockLandmarks
+import fr.sncf.osrd.api.pathfinding.makeHeuristics
+import fr.sncf.osrd.graph.AStarHeuristic
+import fr.sncf.osrd.graph.GraphAdapter
+import fr.sncf.osrd.graph.Pathfinding
+import fr.sncf.osrd.graph.Pathfinding.EdgeLocation
+import fr.sncf.osrd.graph.PathfindingEdgeLocationId
+import fr.sncf.osrd.railjson.schema.infra.RJSInfra
+import fr.sncf.osrd.reporting.warnings.DiagnosticRecorderImpl
+import fr.sncf.osrd.sim_infra.api.Block
+import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.utils.moshi.MoshiUtils
+import fr.sncf.osrd.utils.units.Offset
+import fr.sncf.osrd.utils.units.meters
+import java.nio.file.Path
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.random.Random
+import org.openjdk.jmh.annotations.AuxCounters
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+
+/**
+ * Compares the geo heuristic with the landmark heuristic on random origin / destination pairs. The
+ * queued steps counter tells how much of the graph each heuristic explores. Larger infras can be
+ * used with -p infraPath=<path to a railjson infra>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = ["-Xmx8g"])
+open class PathfindingHeuristicBenchmark {
+    @Param("../tests/data/infras/small_infra/infra.json") var infraPath = ""
+
+    @Param("8") var landmarkCount = 0
+
+    @Param("100") var pairCount = 0
+
+    private lateinit var geoInfra: FullInfra
+    private lateinit var landmarkInfra: FullInfra
+    private lateinit var pairs: List<List<Collection<PathfindingEdgeLocationId<Block>>>>
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    open class Counters {
+        @JvmField var queuedSteps = 0L
+        @JvmField var pathsFound = 0L
+    }
+
+    @Setup
+    fun setup() {
+        val rjsInfra = MoshiUtils.deserialize(RJSInfra.adapter, Path.of(infraPath))
+        val diagnosticRecorder = DiagnosticRecorderImpl(false)
+        geoInfra = FullInfra.fromRJSInfra(rjsInfra, diagnosticRecorder, makeSignalingSimulator())
+        val landmarks =
+            BlockLandmarks.compute(geoInfra.blockInfra, geoInfra.rawInfra, landmarkCount)
+        landmarkInfra =
+            FullInfra(
+                geoInfra.rawInfra,
+                geoInfra.loadedSignalInfra,
+                geoInfra.blockInfra,
+                geoInfra.signalingSimulator,
+                geoInfra.blockGeometry,
+                geoInfra.constraintIndex,
+                AtomicReference(landmarks)
+            )
+
+        val random = Random(42)
+        val blocks = geoInfra.blockInfra.blocks
+        fun randomLocation(): Collection<PathfindingEdgeLocationId<Block>> {
+            val block: BlockId = blocks[random.nextInt(blocks.size.toInt())]
+            return listOf(EdgeLocation(block, Offset(0.meters)))
+        }
+        pairs = (0 until pairCount).map { listOf(randomLocation(), randomLocation()) }
+    }
+
+    @Benchmark
+    fun geoHeuristic(counters: Counters) {
+        runPairs(geoInfra, counters)
+    }
+
+    @Benchmark
+    fun landmarkHeuristic(counters: Counters) {
+        runPairs(landmarkInfra, counters)
+    }
+
+    private fun runPairs(infra: FullInfra, counters: Counters) {
+        for (waypoints in pairs) {
+            val heuristics =
+                makeHeuristics(infra, waypoints).map { heuristic ->
+                    AStarHeuristic<BlockId, Block> { block, offset ->
+                        counters.queuedSteps++
+                        heuristic.apply(block, offset)
+                    }
+                }
+            val path =
+                Pathfinding(GraphAdapter(infra.blockInfra, infra.rawInfra))
+                    .setEdgeToLength { block -> infra.blockInfra.getBlockLength(block) }
+                    .setRemainingDistanceEstimator(heuristics)
+                    .runPathfinding(waypoints)
+            if (path != null) counters.pathsFound++
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package fr.sncf.osrd.utils
+
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import org.openjdk.jmh.infra.Blackhole
+
+/**
+ * Reproduces the way STDCM explores long paths: each step clones the path of its parent, extends
+ * it, and reads elements anywhere in the path, as the spacing requirement automaton does. The
+ * persistent vector is compared with copying array lists at each clone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = ["-Xmx8g"])
+open class PersistentVectorBenchmark {
+    @Param("100", "1000", "10000") var pathLength = 0
+
+    /** The number of elements read after each extension */
+    @Param("20") var readsPerStep = 0
+
+    @Benchmark
+    fun persistentVector(blackhole: Blackhole) {
+        val random = Random(42)
+        var path = persistentVectorOf<Int>()
+        for (i in 0 until pathLength) {
+            path = path.shallowCopy()
+            path.add(i)
+            for (j in 0 until readsPerStep) blackhole.consume(path[random.nextInt(path.size)])
+        }
+    }
+
+    @Benchmark
+    fun copiedArrayList(blackhole: Blackhole) {
+        val random = Random(42)
+        var path = ArrayList<Int>()
+        for (i in 0 until pathLength) {
+            path = ArrayList(path)
+            path.add(i)
+            for (j in 0 until readsPerStep) blackhole.consume(path[random.nextInt(path.size)])
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package fr.sncf.osrd.api;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import fr.sncf.osrd.envelope_sim.allowances.utils.AllowanceConvergenceMetrics;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.rs.RsJson;
+import org.takes.rs.RsWithBody;
+
+/** Reports the counters of the searches run to apply allowances, since the service started */
+public final class AllowanceStatsEndpoint implements Take {
+    public static final JsonAdapter<SerializedAllowanceStats> adapter =
+            new Moshi.Builder().build().adapter(SerializedAllowanceStats.class);
+
+    @Override
+    public Response act(Request req) {
+        try {
+            return new RsJson(new RsWithBody(adapter.toJson(new SerializedAllowanceStats())));
+        } catch (Throwable ex) {
+            return ExceptionHandler.handle(ex);
+        }
+    }
+
+    @SuppressFBWarnings("URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD")
+    public static final class SerializedAllowanceStats {
+        /** The number of allowance sections computed */
+        public long sections;
+
+        /** The number of envelopes computed while searching allowance sections */
+        public long iterations;
+
+        /** The number of allowance sections for which no solution was found */
+        public long failures;
+
+        SerializedAllowanceStats() {
+            this.sections = AllowanceConvergenceMetrics.getSections();
+            this.iterations = AllowanceConvergenceMetrics.getIterations();
+            this.failures = AllowanceConvergenceMetrics.getFailures();
+        }
+    }
+}
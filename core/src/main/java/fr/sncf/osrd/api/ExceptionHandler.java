@@ -6,24 +6,36 @@ import io.sentry.Sentry;
 import org.takes.Response;
 import org.takes.rs.RsJson;
 import org.takes.rs.RsWithBody;
+import org.takes.rs.RsWithHeader;
 import org.takes.rs.RsWithStatus;
 
 public class ExceptionHandler {
+    /** The delay after which clients should retry requests which failed with a temporary error, in seconds */
+    static final int RETRY_AFTER_SECONDS = 5;
 
     /** Handles an exception, returns an HTTP response with all relevant information */
     public static Response handle(Throwable ex) {
         ex.printStackTrace();
         Sentry.captureException(ex);
-        if (ex instanceof OSRDError) return toResponse((OSRDError) ex);
-        else if (ex instanceof AssertionError) return toResponse(OSRDError.newAssertionWrapper((AssertionError) ex));
+        return toResponse(toOSRDError(ex));
+    }
+
+    /** Wraps an exception into an OSRD error, unless it already is one */
+    public static OSRDError toOSRDError(Throwable ex) {
+        if (ex instanceof OSRDError) return (OSRDError) ex;
+        else if (ex instanceof AssertionError) return OSRDError.newAssertionWrapper((AssertionError) ex);
         else {
-            return toResponse(OSRDError.newUnknownError(ex));
+            return OSRDError.newUnknownError(ex);
         }
     }
 
     /** Converts an OSRD error to a server response */
     public static Response toResponse(OSRDError ex) {
+        var response = new RsJson(new RsWithBody(OSRDError.adapter.toJson(ex)));
+        if (ex.cause == ErrorCause.TEMPORARY)
+            return new RsWithStatus(
+                    new RsWithHeader(response, "Retry-After", String.valueOf(RETRY_AFTER_SECONDS)), 503);
         int code = ex.cause == ErrorCause.USER ? 400 : 500;
-        return new RsWithStatus(new RsJson(new RsWithBody(OSRDError.adapter.toJson(ex))), code);
+        return new RsWithStatus(response, code);
     }
 }
@@ -2,6 +2,9 @@ package fr.sncf.osrd.api;
 
 import static fr.sncf.osrd.sim_infra_adapter.RawInfraAdapterKt.adaptRawInfra;
 
+import fr.sncf.osrd.api.pathfinding.BlockGeometryTable;
+import fr.sncf.osrd.api.pathfinding.BlockLandmarks;
+import fr.sncf.osrd.api.pathfinding.constraints.BlockConstraintIndex;
 import fr.sncf.osrd.infra.implementation.signaling.SignalingInfraBuilder;
 import fr.sncf.osrd.infra.implementation.signaling.modules.bal3.BAL3;
 import fr.sncf.osrd.railjson.schema.infra.RJSInfra;
@@ -11,6 +14,7 @@ import fr.sncf.osrd.sim_infra.api.BlockInfra;
 import fr.sncf.osrd.sim_infra.api.LoadedSignalInfra;
 import fr.sncf.osrd.sim_infra.api.RawSignalingInfra;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,10 +22,32 @@ public record FullInfra(
         RawSignalingInfra rawInfra,
         LoadedSignalInfra loadedSignalInfra,
         BlockInfra blockInfra,
-        SignalingSimulator signalingSimulator) {
+        SignalingSimulator signalingSimulator,
+        BlockGeometryTable blockGeometry,
+        BlockConstraintIndex constraintIndex,
+        // set once the landmarks of the block graph are computed, after the infra is loaded
+        AtomicReference<BlockLandmarks> landmarks) {
 
     static final Logger logger = LoggerFactory.getLogger(FullInfra.class);
 
+    /**
+     * Creates a full infra, whose block geometries and constraints are computed lazily, and without landmarks
+     */
+    public FullInfra(
+            RawSignalingInfra rawInfra,
+            LoadedSignalInfra loadedSignalInfra,
+            BlockInfra blockInfra,
+            SignalingSimulator signalingSimulator) {
+        this(
+                rawInfra,
+                loadedSignalInfra,
+                blockInfra,
+                signalingSimulator,
+                new BlockGeometryTable(blockInfra, rawInfra),
+                new BlockConstraintIndex(blockInfra, rawInfra),
+                new AtomicReference<>());
+    }
+
     /** Builds a full infra from a railjson infra */
     public static FullInfra fromRJSInfra(
             RJSInfra rjsInfra, DiagnosticRecorder diagnosticRecorder, SignalingSimulator signalingSimulator) {
@@ -10,6 +10,7 @@ import fr.sncf.osrd.api.InfraManager.InfraStatus;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
@@ -69,13 +70,78 @@ public final class InfraCacheStatusEndpoint implements Take {
         @Json(name = "last_status")
         public InfraStatus lastStatus;
 
-        public SerializedInfraCache(InfraStatus status, InfraStatus lastStatus) {
+        /** The time spent in each loading stage, in milliseconds. Includes the ongoing stage while loading. */
+        @Json(name = "stage_durations")
+        public Map<String, Long> stageDurations;
+
+        /** The estimated heap size retained by the infra, in bytes */
+        @Json(name = "estimated_size")
+        public long estimatedSize;
+
+        /** Create a SerializedInfraCache */
+        public SerializedInfraCache(
+                InfraStatus status, InfraStatus lastStatus, Map<String, Long> stageDurations, long estimatedSize) {
             this.status = status;
             this.lastStatus = lastStatus;
+            this.stageDurations = stageDurations;
+            this.estimatedSize = estimatedSize;
+        }
+
+        public SerializedInfraCache(InfraStatus status, InfraStatus lastStatus) {
+            this(status, lastStatus, null, 0);
         }
 
         static SerializedInfraCache from(InfraCacheEntry entry) {
-            return new SerializedInfraCache(entry.status, entry.lastStatus);
+            var stageDurations = new TreeMap<String, Long>();
+            for (var stage : entry.stageDurations.entrySet())
+                stageDurations.put(stage.getKey().name(), stage.getValue());
+            var status = entry.status;
+            if (!status.isStable) stageDurations.put(status.name(), entry.currentStatusDuration());
+            return new SerializedInfraCache(status, entry.lastStatus, stageDurations, entry.estimatedSize);
+        }
+    }
+
+    /** Reports the counters of the whole infra cache */
+    public static final class Stats implements Take {
+        public static final JsonAdapter<SerializedCacheStats> adapter =
+                new Moshi.Builder().build().adapter(SerializedCacheStats.class);
+
+        private final InfraManager infraManager;
+
+        public Stats(InfraManager infraManager) {
+            this.infraManager = infraManager;
+        }
+
+        @Override
+        public Response act(Request req) {
+            try {
+                var stats = infraManager.getCacheStats();
+                return new RsJson(new RsWithBody(adapter.toJson(new SerializedCacheStats(stats))));
+            } catch (Throwable ex) {
+                return ExceptionHandler.handle(ex);
+            }
+        }
+    }
+
+    @SuppressFBWarnings("URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD")
+    public static final class SerializedCacheStats {
+        public long hits;
+        public long misses;
+        public long evictions;
+
+        /** The estimated heap size retained by all cached infras, in bytes */
+        @Json(name = "estimated_size")
+        public long estimatedSize;
+
+        /** The maximum estimated size of cached infras, in bytes. Zero if unbounded. */
+        public long budget;
+
+        SerializedCacheStats(InfraManager.CacheStats stats) {
+            this.hits = stats.hits();
+            this.misses = stats.misses();
+            this.evictions = stats.evictions();
+            this.estimatedSize = stats.estimatedSize();
+            this.budget = stats.budget();
         }
     }
 
@@ -30,6 +30,11 @@ public class InfraLoadEndpoint implements Take {
             if (request == null) return new RsWithStatus(new RsText("missing request body"), 400);
 
             // load infra
+            if (request.noWait) {
+                var load = infraManager.loadAsync(request.infra, request.expectedVersion, recorder);
+                // the load goes on in the background, its progress can be followed using /cache_status
+                if (!load.isDone()) return new RsWithStatus(202);
+            }
             infraManager.load(request.infra, request.expectedVersion, recorder);
 
             return new RsWithStatus(204);
@@ -47,10 +52,20 @@ public class InfraLoadEndpoint implements Take {
         @Json(name = "expected_version")
         public String expectedVersion;
 
+        /** If set, respond with 202 while the infra is loading, instead of waiting for the load to complete */
+        @Json(name = "no_wait")
+        public boolean noWait;
+
         /** Create InfraLoadRequest */
         public InfraLoadRequest(String infra, String expectedVersion) {
+            this(infra, expectedVersion, false);
+        }
+
+        /** Create InfraLoadRequest */
+        public InfraLoadRequest(String infra, String expectedVersion, boolean noWait) {
             this.infra = infra;
             this.expectedVersion = expectedVersion;
+            this.noWait = noWait;
         }
     }
 }
@@ -1,12 +1,16 @@
 package fr.sncf.osrd.api;
 
+import static fr.sncf.osrd.api.InfraSizeEstimationKt.estimateRetainedSize;
 import static fr.sncf.osrd.api.SignalingSimulatorKt.makeSignalingSimulator;
 import static fr.sncf.osrd.sim_infra_adapter.RawInfraAdapterKt.adaptRawInfra;
 
 import com.squareup.moshi.JsonDataException;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import fr.sncf.osrd.api.pathfinding.BlockLandmarks;
 import fr.sncf.osrd.infra.implementation.signaling.SignalingInfraBuilder;
 import fr.sncf.osrd.infra.implementation.signaling.modules.bal3.BAL3;
+import fr.sncf.osrd.infra.implementation.tracks.undirected.UndirectedInfraBuilder;
+import fr.sncf.osrd.railjson.parser.RJSInfraStreamReader;
 import fr.sncf.osrd.railjson.schema.infra.RJSInfra;
 import fr.sncf.osrd.reporting.exceptions.ErrorType;
 import fr.sncf.osrd.reporting.exceptions.OSRDError;
@@ -14,8 +18,15 @@ import fr.sncf.osrd.reporting.warnings.DiagnosticRecorder;
 import fr.sncf.osrd.signaling.SignalingSimulator;
 import fr.sncf.osrd.utils.jacoco.ExcludeFromGeneratedCodeCoverage;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
@@ -25,8 +36,42 @@ public class InfraManager extends APIClient {
     static final Logger logger = LoggerFactory.getLogger(InfraManager.class);
 
     private final ConcurrentHashMap<String, InfraCacheEntry> infraCache = new ConcurrentHashMap<>();
-    private final SignalingSimulator signalingSimulator = makeSignalingSimulator();
+    private final SignalingSimulator signalingSimulator;
     private final boolean loadIfMissing;
+    private final InfraSnapshotStore snapshotStore;
+    private final long cacheBudget;
+    private final int landmarkCount;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong cacheEvictions = new AtomicLong();
+
+    /**
+     * Infras are loaded outside of request threads, so that requests never wait on a lock held during a load. The
+     * number of concurrent loads is limited, as each of them needs a lot of memory.
+     */
+    private static final int MAX_CONCURRENT_LOADS = 2;
+
+    private final ExecutorService loadingExecutor =
+            Executors.newFixedThreadPool(MAX_CONCURRENT_LOADS, InfraManager::newLoadingThread);
+
+    /**
+     * Landmarks are computed on their own low priority thread, so that they never delay infra loads nor compete with
+     * request threads for the CPU.
+     */
+    private final ExecutorService landmarkExecutor = Executors.newSingleThreadExecutor(InfraManager::newLandmarkThread);
+
+    private static Thread newLoadingThread(Runnable runnable) {
+        var thread = new Thread(runnable, "infra-loader");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static Thread newLandmarkThread(Runnable runnable) {
+        var thread = new Thread(runnable, "infra-landmarks");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    }
 
     public void forEach(BiConsumer<String, InfraCacheEntry> action) {
         infraCache.forEach(action);
@@ -47,7 +92,8 @@ public class InfraManager extends APIClient {
 
         static {
             INITIALIZING.transitions = new InfraStatus[] {DOWNLOADING};
-            DOWNLOADING.transitions = new InfraStatus[] {PARSING_JSON, ERROR, TRANSIENT_ERROR};
+            // straight to CACHED when the built infra is restored from a snapshot
+            DOWNLOADING.transitions = new InfraStatus[] {PARSING_JSON, CACHED, ERROR, TRANSIENT_ERROR};
             PARSING_JSON.transitions = new InfraStatus[] {PARSING_INFRA, ERROR, TRANSIENT_ERROR};
             PARSING_INFRA.transitions = new InfraStatus[] {ADAPTING_KOTLIN, ERROR, TRANSIENT_ERROR};
             ADAPTING_KOTLIN.transitions = new InfraStatus[] {LOADING_SIGNALS, ERROR, TRANSIENT_ERROR};
@@ -75,11 +121,26 @@ public class InfraManager extends APIClient {
     }
 
     public static final class InfraCacheEntry {
-        public InfraStatus status = InfraStatus.INITIALIZING;
-        public InfraStatus lastStatus = null;
-        public Throwable lastError = null;
-        public FullInfra infra = null;
-        public String version = null;
+        // The entry is written by the loading thread, and read by request threads without locking
+        public volatile InfraStatus status = InfraStatus.INITIALIZING;
+        public volatile InfraStatus lastStatus = null;
+        public volatile Throwable lastError = null;
+        public volatile FullInfra infra = null;
+        public volatile String version = null;
+
+        /** The estimated heap size retained by the infra, in bytes */
+        public volatile long estimatedSize = 0;
+
+        /** The last time the infra was requested, as given by System.nanoTime() */
+        volatile long lastAccessTime = System.nanoTime();
+
+        /** The ongoing load of this infra, if any. Guarded by the entry lock. */
+        private PendingLoad pendingLoad = null;
+
+        /** The time spent in each loading stage of the last load, in milliseconds */
+        public final Map<InfraStatus, Long> stageDurations = new ConcurrentHashMap<>();
+
+        private volatile long statusStartTime = System.nanoTime();
 
         void transitionTo(InfraStatus newStatus) {
             transitionTo(newStatus, null);
@@ -87,15 +148,83 @@ public class InfraManager extends APIClient {
 
         void transitionTo(InfraStatus newStatus, Throwable error) {
             assert status.canTransitionTo(newStatus) : String.format("cannot switch from %s to %s", status, newStatus);
+            var now = System.nanoTime();
+            if (newStatus == InfraStatus.DOWNLOADING) stageDurations.clear();
+            else stageDurations.put(status, TimeUnit.NANOSECONDS.toMillis(now - statusStartTime));
+            this.statusStartTime = now;
             this.lastStatus = this.status;
             this.lastError = error;
             this.status = newStatus;
         }
+
+        /** Returns whether the infra is being loaded */
+        public synchronized boolean isLoading() {
+            return pendingLoad != null;
+        }
+
+        /** Returns how long the entry has been in its current status, in milliseconds */
+        public long currentStatusDuration() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - statusStartTime);
+        }
+    }
+
+    /** A load of a given version of an infra, whose result is shared by all callers asking for this version */
+    private static final class PendingLoad {
+        final String expectedVersion;
+        final CompletableFuture<FullInfra> future = new CompletableFuture<>();
+
+        PendingLoad(String expectedVersion) {
+            this.expectedVersion = expectedVersion;
+        }
+    }
+
+    /**
+     * The settings of an infra manager.
+     *
+     * @param loadIfMissing if set, infras which aren't cached are loaded when requested, instead of failing
+     * @param snapshotStore if not null, loaded infras are saved to and restored from this store
+     * @param parallelLoading if set, signal loading and block building use all available cores
+     * @param cacheBudget the estimated heap size cached infras may use, in bytes. When a newly loaded infra exceeds it,
+     *     the least recently used infras are evicted. No limit is enforced if zero.
+     * @param landmarkCount the number of pathfinding landmarks computed once an infra is cached. Pathfinding only uses
+     *     the geo heuristic if zero.
+     */
+    public record Options(
+            boolean loadIfMissing,
+            InfraSnapshotStore snapshotStore,
+            boolean parallelLoading,
+            long cacheBudget,
+            int landmarkCount) {
+        public static final Options DEFAULT = new Options(false, null, false, 0, 0);
+
+        public Options withLoadIfMissing(boolean loadIfMissing) {
+            return new Options(loadIfMissing, snapshotStore, parallelLoading, cacheBudget, landmarkCount);
+        }
+
+        public Options withSnapshotStore(InfraSnapshotStore snapshotStore) {
+            return new Options(loadIfMissing, snapshotStore, parallelLoading, cacheBudget, landmarkCount);
+        }
+
+        public Options withParallelLoading(boolean parallelLoading) {
+            return new Options(loadIfMissing, snapshotStore, parallelLoading, cacheBudget, landmarkCount);
+        }
+
+        public Options withCacheBudget(long cacheBudget) {
+            return new Options(loadIfMissing, snapshotStore, parallelLoading, cacheBudget, landmarkCount);
+        }
+
+        public Options withLandmarkCount(int landmarkCount) {
+            return new Options(loadIfMissing, snapshotStore, parallelLoading, cacheBudget, landmarkCount);
+        }
     }
 
-    public InfraManager(String baseUrl, String authorizationToken, OkHttpClient httpClient, boolean loadIfMissing) {
+    public InfraManager(String baseUrl, String authorizationToken, OkHttpClient httpClient, Options options) {
         super(baseUrl, authorizationToken, httpClient);
-        this.loadIfMissing = loadIfMissing;
+        this.loadIfMissing = options.loadIfMissing();
+        this.snapshotStore = options.snapshotStore();
+        this.signalingSimulator = makeSignalingSimulator(options.parallelLoading());
+        this.cacheBudget = options.cacheBudget();
+        this.landmarkCount = options.landmarkCount();
     }
 
     @ExcludeFromGeneratedCodeCoverage
@@ -104,28 +233,34 @@ public class InfraManager extends APIClient {
         "NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE",
         "DM_GC"
     })
-    private FullInfra downloadInfra(InfraCacheEntry cacheEntry, String infraId, DiagnosticRecorder diagnosticRecorder)
+    private FullInfra downloadInfra(
+            InfraCacheEntry cacheEntry, String infraId, String expectedVersion, DiagnosticRecorder diagnosticRecorder)
             throws OSRDError {
         // create a request
         var endpointPath = String.format("infra/%s/railjson/", infraId);
         var request = buildRequest(endpointPath);
 
         try {
-            // use the client to send the request
-            logger.info("starting to download {}", request.url());
             cacheEntry.transitionTo(InfraStatus.DOWNLOADING);
 
+            // Skip the download and the whole build if this version of the infra was already saved on disk
+            var snapshot = restoreSnapshot(infraId, expectedVersion);
+            if (snapshot != null) return cacheInfra(cacheEntry, infraId, expectedVersion, snapshot);
+
+            // use the client to send the request
+            logger.info("starting to download {}", request.url());
+            var trackInfraBuilder = new UndirectedInfraBuilder(diagnosticRecorder);
             RJSInfra rjsInfra;
             String version;
             try (var response = httpClient.newCall(request).execute()) {
                 if (!response.isSuccessful()) throw new UnexpectedHttpResponse(response);
+                version = response.header("x-infra-version");
+                assert version != null : "missing x-infra-version header in railjson response";
 
-                // Parse the response
+                // Parse the response, streaming the track objects into the track infra builder
                 logger.info("parsing the JSON of {}", request.url());
                 cacheEntry.transitionTo(InfraStatus.PARSING_JSON);
-                version = response.header("x-infra-version");
-                assert version != null : "missing x-infra-version header in railjson response";
-                rjsInfra = RJSInfra.adapter.fromJson(response.body().source());
+                rjsInfra = RJSInfraStreamReader.read(response.body().source(), trackInfraBuilder.streamHandlers());
             }
 
             if (rjsInfra == null) throw new JsonDataException("RJSInfra is null");
@@ -133,12 +268,13 @@ public class InfraManager extends APIClient {
             // Parse railjson into a proper infra
             logger.info("parsing the infra of {}", request.url());
             cacheEntry.transitionTo(InfraStatus.PARSING_INFRA);
-            final var infra = SignalingInfraBuilder.fromRJSInfra(
-                    rjsInfra, Set.of(new BAL3(diagnosticRecorder)), diagnosticRecorder);
+            final var infra = SignalingInfraBuilder.fromTrackInfra(
+                    rjsInfra, trackInfraBuilder.build(), Set.of(new BAL3(diagnosticRecorder)), diagnosticRecorder);
 
             // Attempt to ease memory pressure by making the RailJSON deserialized copy
             // orphan, and calling the garbage collector.
             rjsInfra = null;
+            trackInfraBuilder = null;
             System.gc();
 
             logger.info("adaptation to kotlin of {}", request.url());
@@ -153,10 +289,10 @@ public class InfraManager extends APIClient {
 
             // Cache the infra
             logger.info("successfully cached {}", request.url());
-            cacheEntry.infra = new FullInfra(rawInfra, loadedSignalInfra, blockInfra, signalingSimulator);
-            cacheEntry.version = version;
-            cacheEntry.transitionTo(InfraStatus.CACHED);
-            return cacheEntry.infra;
+            var fullInfra = new FullInfra(rawInfra, loadedSignalInfra, blockInfra, signalingSimulator);
+            cacheInfra(cacheEntry, infraId, version, fullInfra);
+            saveSnapshot(infraId, version, fullInfra);
+            return fullInfra;
         } catch (IOException | UnexpectedHttpResponse | VirtualMachineError e) {
             cacheEntry.transitionTo(InfraStatus.TRANSIENT_ERROR, e);
             throw OSRDError.newInfraLoadingError(ErrorType.InfraSoftLoadingError, cacheEntry.lastStatus.name(), e);
@@ -166,38 +302,196 @@ public class InfraManager extends APIClient {
         }
     }
 
-    /** Load an infra given an id. Cache infra for optimized future call */
+    private FullInfra cacheInfra(InfraCacheEntry cacheEntry, String infraId, String version, FullInfra infra) {
+        cacheEntry.infra = infra;
+        cacheEntry.version = version;
+        cacheEntry.estimatedSize = estimateRetainedSize(infra);
+        cacheEntry.lastAccessTime = System.nanoTime();
+        cacheEntry.transitionTo(InfraStatus.CACHED);
+        enforceCacheBudget(infraId);
+        if (landmarkCount > 0) computeLandmarksAsync(infraId, infra);
+        return infra;
+    }
+
+    /**
+     * Reads the snapshot of the expected infra version, if there is one. Returns null if the infra has to be
+     * downloaded.
+     *
+     * <p>Snapshots are only used when the caller gives the expected version: otherwise, there's no telling which
+     * version editoast would serve, and a stale snapshot could be restored.
+     */
+    private FullInfra restoreSnapshot(String infraId, String expectedVersion) {
+        if (snapshotStore == null) return null;
+        if (expectedVersion == null) {
+            logger.info("no expected version given for infra {}, ignoring its snapshots", infraId);
+            return null;
+        }
+        if (!snapshotStore.contains(infraId, expectedVersion)) return null;
+        try {
+            logger.info("restoring the snapshot of infra {} version {}", infraId, expectedVersion);
+            return snapshotStore.load(infraId, expectedVersion, signalingSimulator);
+        } catch (IOException e) {
+            // don't keep a broken snapshot around, the infra is downloaded again instead
+            logger.warn("failed to restore the snapshot of infra {} version {}", infraId, expectedVersion, e);
+            snapshotStore.delete(infraId);
+            return null;
+        }
+    }
+
+    /** Saves a snapshot of a newly built infra. Failures are only logged, as the infra is already cached. */
+    private void saveSnapshot(String infraId, String version, FullInfra infra) {
+        if (snapshotStore == null) return;
+        try {
+            logger.info("saving a snapshot of infra {} version {}", infraId, version);
+            snapshotStore.save(infraId, version, infra);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("failed to save a snapshot of infra {} version {}", infraId, version, e);
+        }
+    }
+
+    /**
+     * Computes the pathfinding landmarks of a cached infra in the background. Until they are available, pathfinding
+     * requests use the geo heuristic alone.
+     */
+    private void computeLandmarksAsync(String infraId, FullInfra infra) {
+        landmarkExecutor.execute(() -> {
+            // the infra may have been evicted or replaced while waiting for earlier landmark computations
+            var cacheEntry = infraCache.get(infraId);
+            if (cacheEntry == null || cacheEntry.infra != infra) return;
+            try {
+                var start = System.nanoTime();
+                var landmarks = BlockLandmarks.compute(infra.blockInfra(), infra.rawInfra(), landmarkCount);
+                infra.landmarks().set(landmarks);
+                var duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                logger.info("computed the pathfinding landmarks of {} in {}ms", infraId, duration);
+                addRetainedSize(infraId, cacheEntry, estimateRetainedSize(landmarks));
+            } catch (Throwable e) {
+                // landmarks only speed up pathfinding, the infra stays usable without them
+                logger.error("failed to compute the pathfinding landmarks of {}", infraId, e);
+            }
+        });
+    }
+
+    /** Adds data computed after an infra was cached, such as landmarks, to its size and enforces the cache budget */
+    @SuppressFBWarnings(value = "VO_VOLATILE_INCREMENT", justification = "only the landmark thread updates it")
+    private void addRetainedSize(String infraId, InfraCacheEntry cacheEntry, long size) {
+        cacheEntry.estimatedSize += size;
+        enforceCacheBudget(infraId);
+    }
+
+    /**
+     * Load an infra given an id, and wait until it is loaded. Cache infra for optimized future call. Concurrent calls
+     * for the same infra version share the same loading process.
+     */
     @ExcludeFromGeneratedCodeCoverage
-    @SuppressFBWarnings({"REC_CATCH_EXCEPTION"})
     public FullInfra load(String infraId, String expectedVersion, DiagnosticRecorder diagnosticRecorder)
             throws OSRDError, InterruptedException {
         try {
-            infraCache.putIfAbsent(infraId, new InfraCacheEntry());
-            var cacheEntry = infraCache.get(infraId);
+            return loadAsync(infraId, expectedVersion, diagnosticRecorder).get();
+        } catch (ExecutionException e) {
+            var cause = e.getCause();
+            logger.error("exception while loading infra", cause);
+            if (cause instanceof OSRDError osrdError) throw osrdError;
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new RuntimeException(cause);
+        }
+    }
 
-            // /!\ the cache entry lock is held while a download / parse process is in progress
-            synchronized (cacheEntry) {
-                // try downloading the infra again if:
-                //  - the existing cache entry hasn't reached a stable state
-                //  - we don't have the right version
+    /**
+     * Starts loading an infra given an id, unless it is already cached or being loaded. Returns a future which
+     * completes when the infra is loaded. The future is shared by all callers asking for the same infra version.
+     */
+    public CompletableFuture<FullInfra> loadAsync(
+            String infraId, String expectedVersion, DiagnosticRecorder diagnosticRecorder) {
+        var cacheEntry = infraCache.computeIfAbsent(infraId, k -> new InfraCacheEntry());
+
+        // the entry lock is only held while deciding whether to start a new load, never during the load itself
+        synchronized (cacheEntry) {
+            // join the ongoing load if it is for the requested version
+            var ongoingLoad = cacheEntry.pendingLoad;
+            if (ongoingLoad != null && (expectedVersion == null || expectedVersion.equals(ongoingLoad.expectedVersion)))
+                return ongoingLoad.future;
+
+            if (ongoingLoad == null) {
                 var obsoleteVersion = expectedVersion != null && !expectedVersion.equals(cacheEntry.version);
-                if (!cacheEntry.status.isStable || obsoleteVersion)
-                    return downloadInfra(cacheEntry, infraId, diagnosticRecorder);
-
-                // otherwise, wait for the infra to reach a stable state
-                if (cacheEntry.status == InfraStatus.CACHED) return cacheEntry.infra;
-                if (cacheEntry.status == InfraStatus.ERROR)
-                    throw OSRDError.newInfraLoadingError(
-                            ErrorType.InfraLoadingCacheException, cacheEntry.lastStatus.name(), cacheEntry.lastError);
-                throw OSRDError.newInfraLoadingError(
-                        ErrorType.InfraInvalidStatusWhileWaitingStable, cacheEntry.status.name());
+                if (cacheEntry.status == InfraStatus.CACHED && !obsoleteVersion)
+                    return CompletableFuture.completedFuture(cacheHit(cacheEntry));
+                if (cacheEntry.status == InfraStatus.ERROR && !obsoleteVersion)
+                    return CompletableFuture.failedFuture(OSRDError.newInfraLoadingError(
+                            ErrorType.InfraLoadingCacheException, cacheEntry.lastStatus.name(), cacheEntry.lastError));
+            }
+
+            // otherwise, start a new load. If another version is being loaded, wait for it to complete first.
+            cacheMisses.incrementAndGet();
+            var load = new PendingLoad(expectedVersion);
+            cacheEntry.pendingLoad = load;
+            CompletableFuture<?> previousLoad =
+                    ongoingLoad == null ? CompletableFuture.completedFuture(null) : ongoingLoad.future;
+            previousLoad.whenCompleteAsync(
+                    (result, error) -> runLoad(cacheEntry, infraId, load, diagnosticRecorder), loadingExecutor);
+            return load.future;
+        }
+    }
+
+    private void runLoad(
+            InfraCacheEntry cacheEntry, String infraId, PendingLoad load, DiagnosticRecorder diagnosticRecorder) {
+        try {
+            load.future.complete(downloadInfra(cacheEntry, infraId, load.expectedVersion, diagnosticRecorder));
+        } catch (Throwable e) {
+            load.future.completeExceptionally(e);
+        } finally {
+            synchronized (cacheEntry) {
+                if (cacheEntry.pendingLoad == load) cacheEntry.pendingLoad = null;
             }
-        } catch (Exception e) {
-            logger.error("exception while loading infra", e);
-            throw e;
         }
     }
 
+    private FullInfra cacheHit(InfraCacheEntry cacheEntry) {
+        cacheHits.incrementAndGet();
+        cacheEntry.lastAccessTime = System.nanoTime();
+        return cacheEntry.infra;
+    }
+
+    /** Evicts the least recently used infras until cached infras fit in the budget, except for the given infra */
+    private synchronized void enforceCacheBudget(String keptInfraId) {
+        if (cacheBudget <= 0) return;
+        while (true) {
+            long totalSize = 0;
+            String lruInfraId = null;
+            InfraCacheEntry lruEntry = null;
+            for (var cacheItem : infraCache.entrySet()) {
+                var entry = cacheItem.getValue();
+                if (entry.status != InfraStatus.CACHED) continue;
+                totalSize += entry.estimatedSize;
+                if (cacheItem.getKey().equals(keptInfraId)) continue;
+                if (lruEntry == null || entry.lastAccessTime < lruEntry.lastAccessTime) {
+                    lruInfraId = cacheItem.getKey();
+                    lruEntry = entry;
+                }
+            }
+            if (totalSize <= cacheBudget || lruEntry == null) return;
+            if (infraCache.remove(lruInfraId, lruEntry)) {
+                cacheEvictions.incrementAndGet();
+                logger.info(
+                        "evicted infra {} ({} MiB) from the cache, {} MiB used out of {} MiB",
+                        lruInfraId,
+                        lruEntry.estimatedSize >> 20,
+                        (totalSize - lruEntry.estimatedSize) >> 20,
+                        cacheBudget >> 20);
+            }
+        }
+    }
+
+    /** Returns a snapshot of the cache counters */
+    public CacheStats getCacheStats() {
+        long totalSize = 0;
+        for (var entry : infraCache.values()) if (entry.status == InfraStatus.CACHED) totalSize += entry.estimatedSize;
+        return new CacheStats(cacheHits.get(), cacheMisses.get(), cacheEvictions.get(), totalSize, cacheBudget);
+    }
+
+    public record CacheStats(long hits, long misses, long evictions, long estimatedSize, long budget) {}
+
     public InfraCacheEntry getInfraCache(String infraId) {
         return infraCache.get(infraId);
     }
@@ -215,14 +509,21 @@ public class InfraManager extends APIClient {
                 if (loadIfMissing) {
                     // download the infra for tests
                     return load(infraId, expectedVersion, diagnosticRecorder);
-                } else throw new OSRDError(ErrorType.InfraNotLoadedException);
+                }
+                // don't wait for ongoing loads, the caller should retry later
+                cacheMisses.incrementAndGet();
+                if (cacheEntry != null && cacheEntry.isLoading())
+                    throw OSRDError.newInfraLoadingError(ErrorType.InfraLoadingInProgress, cacheEntry.status.name());
+                throw new OSRDError(ErrorType.InfraNotLoadedException);
             }
             var obsoleteVersion = expectedVersion != null && !expectedVersion.equals(cacheEntry.version);
             if (obsoleteVersion) {
+                cacheMisses.incrementAndGet();
                 deleteFromInfraCache(infraId);
                 throw new OSRDError(ErrorType.InfraInvalidVersionException);
             }
-            if (cacheEntry.status == InfraStatus.CACHED) return cacheEntry.infra;
+            if (cacheEntry.status == InfraStatus.CACHED) return cacheHit(cacheEntry);
+            cacheMisses.incrementAndGet();
             throw OSRDError.newInfraLoadingError(ErrorType.InfraLoadingInvalidStatusException, cacheEntry.status);
         } catch (RuntimeException e) {
             throw e;
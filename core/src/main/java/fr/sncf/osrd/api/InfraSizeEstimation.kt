@@ -0,0 +1,66 @@
+package fr.sncf.osrd.api
+
+import fr.sncf.osrd.api.pathfinding.BlockLandmarks
+import fr.sncf.osrd.sim_infra.impl.RawInfraImpl
+
+// Rough retained heap sizes per infra object, in bytes. These account for both the kotlin infra
+// and the legacy java infra it is adapted from, and err on the side of overestimating. They assume
+// a 64-bit JVM with compressed references: 12 bytes object headers, 4 bytes references, 16 bytes
+// array headers, and about 100 bytes per range map entry (entry, cuts, boxed bounds and value).
+
+// Legacy track: 11 range maps of a few entries (curves, slopes, speed limits, neutral sections
+// and announcements per direction, voltages) ~2200, geo and sch line strings of ~20 points ~700,
+// graph node and edge entries ~600, directed and reservation wrappers ~300, name and chunks ~200
+private const val TRACK_SECTION_SIZE = 4_000L
+// Chunk: geometry ~400, slopes and curves per direction ~800, speed sections per direction ~400,
+// electrification, neutral sections and loading gauge maps ~500, operational point parts and
+// routes on the chunk ~300, and the speed limit maps of both directions without their entries ~200
+private const val TRACK_CHUNK_SIZE = 2_600L
+// Speed limit map entry, built for each direction and train tag with specific limits on a chunk
+private const val SPEED_LIMIT_ENTRY_SIZE = 100L
+// Detector: legacy detector and its two directed detectors ~150, graph entries ~200, name and
+// next zones in both directions ~250
+private const val DETECTOR_SIZE = 600L
+// Zone: detectors and movable element lists ~200, name and zone path index entries ~200
+private const val ZONE_SIZE = 400L
+// Zone path: chunk, detector and movable element arrays ~500, signal positions ~300
+private const val ZONE_PATH_SIZE = 800L
+// Route: legacy route with its detector path and release points ~1000, track ranges ~600, zone
+// path list and name ~400
+private const val ROUTE_SIZE = 2_000L
+// Logical signal: legacy signal ~300, settings and parameters maps ~600, drivers ~300, physical
+// signal and name ~300
+private const val LOGICAL_SIGNAL_SIZE = 1_500L
+// Block: path and signal arrays ~250, signal positions and length ~150
+private const val BLOCK_SIZE = 400L
+
+/**
+ * Estimates the heap size retained by a loaded infra, in bytes. This is an approximation based on
+ * object counts, which is cheap to compute and good enough to enforce a cache budget.
+ */
+fun estimateRetainedSize(infra: FullInfra): Long {
+    val rawInfra = infra.rawInfra
+    var trackChunkCount = 0L
+    for (trackSection in rawInfra.trackSections) {
+        trackChunkCount += rawInfra.getTrackSectionChunks(trackSection).size
+    }
+    val speedLimitEntryCount = (rawInfra as? RawInfraImpl)?.speedLimitEntryCount ?: 0L
+    return rawInfra.trackSections.size.toLong() * TRACK_SECTION_SIZE +
+        trackChunkCount * TRACK_CHUNK_SIZE +
+        speedLimitEntryCount * SPEED_LIMIT_ENTRY_SIZE +
+        rawInfra.detectors.size.toLong() * DETECTOR_SIZE +
+        rawInfra.zones.size.toLong() * ZONE_SIZE +
+        rawInfra.zonePaths.size.toLong() * ZONE_PATH_SIZE +
+        rawInfra.routes.size.toLong() * ROUTE_SIZE +
+        infra.loadedSignalInfra.logicalSignals.size.toLong() * LOGICAL_SIGNAL_SIZE +
+        infra.blockInfra.blocks.size.toLong() * BLOCK_SIZE
+}
+
+/**
+ * Estimates the heap size retained by the pathfinding landmarks of an infra, in bytes: two int
+ * distance tables per landmark, with an entry per block.
+ */
+fun estimateRetainedSize(landmarks: BlockLandmarks): Long {
+    val tableSize = 16L + 4L * landmarks.blockCount
+    return 16L + 4L * landmarks.landmarks.size + 2L * landmarks.landmarks.size * tableSize
+}
@@ -0,0 +1,668 @@
+package fr.sncf.osrd.api
+
+import com.google.common.collect.HashBiMap
+import com.google.common.collect.ImmutableSet
+import fr.sncf.osrd.geom.LineString
+import fr.sncf.osrd.infra.implementation.tracks.undirected.LoadingGaugeConstraintImpl
+import fr.sncf.osrd.railjson.schema.common.graph.EdgeDirection
+import fr.sncf.osrd.railjson.schema.infra.trackobjects.RJSSignal
+import fr.sncf.osrd.railjson.schema.rollingstock.RJSLoadingGaugeType
+import fr.sncf.osrd.signaling.SignalingSimulator
+import fr.sncf.osrd.sim_infra.api.*
+import fr.sncf.osrd.sim_infra.impl.NeutralSection
+import fr.sncf.osrd.sim_infra.impl.RawInfraBuilder
+import fr.sncf.osrd.sim_infra.impl.RawInfraImpl
+import fr.sncf.osrd.sim_infra.impl.SignalParameters
+import fr.sncf.osrd.sim_infra.impl.SpeedSection
+import fr.sncf.osrd.sim_infra.impl.blockInfraBuilder
+import fr.sncf.osrd.sim_infra.impl.loadedSignalInfra
+import fr.sncf.osrd.sim_infra_adapter.SimInfraAdapter
+import fr.sncf.osrd.utils.Direction
+import fr.sncf.osrd.utils.DirectionalMap
+import fr.sncf.osrd.utils.DistanceRangeMap
+import fr.sncf.osrd.utils.distanceRangeMapOf
+import fr.sncf.osrd.utils.indexing.DirStaticIdx
+import fr.sncf.osrd.utils.indexing.DirStaticIdxList
+import fr.sncf.osrd.utils.indexing.EndpointStaticIdx
+import fr.sncf.osrd.utils.indexing.StaticIdx
+import fr.sncf.osrd.utils.indexing.StaticIdxList
+import fr.sncf.osrd.utils.indexing.mutableDirStaticIdxArrayListOf
+import fr.sncf.osrd.utils.indexing.mutableStaticIdxArrayListOf
+import fr.sncf.osrd.utils.indexing.mutableStaticIdxArraySetOf
+import fr.sncf.osrd.utils.units.Distance
+import fr.sncf.osrd.utils.units.Offset
+import fr.sncf.osrd.utils.units.OffsetList
+import fr.sncf.osrd.utils.units.Speed
+import fr.sncf.osrd.utils.units.mutableOffsetArrayListOf
+import java.io.DataInput
+import java.io.DataOutput
+import java.io.IOException
+import kotlin.time.Duration.Companion.nanoseconds
+
+/** The first bytes of snapshot files, which tell them apart from other files */
+private const val SNAPSHOT_MAGIC = 0x4f535244 // "OSRD"
+
+/**
+ * Writes a loaded infra in a compact binary form, which can be read back with `readInfraSnapshot`.
+ *
+ * The snapshot holds the content of the raw infra arenas, the parsed signal settings and the
+ * blocks. Reading it back replays these into the infra builders in the same order, which yields
+ * the same ids, without parsing RailJSON or building the legacy infra. Cross references between
+ * objects which the builders resolve on their own, such as the routes of each track chunk, aren't
+ * written.
+ */
+fun writeInfraSnapshot(out: DataOutput, infra: FullInfra, formatVersion: Int) {
+    val adapter = infra.rawInfra as SimInfraAdapter
+    val rawInfra = adapter.simInfra as RawInfraImpl
+    out.writeInt(SNAPSHOT_MAGIC)
+    out.writeInt(formatVersion)
+    out.writeString(signalingFingerprint(infra.signalingSimulator))
+    writeRawInfra(out, rawInfra, adapter)
+    writeLoadedSignals(out, infra.loadedSignalInfra)
+    writeBlocks(out, infra.blockInfra)
+}
+
+/**
+ * Reads an infra written by `writeInfraSnapshot`. Throws an IOException if the snapshot was written
+ * with another format version, or for other signaling systems.
+ */
+@Throws(IOException::class)
+fun readInfraSnapshot(
+    input: DataInput,
+    signalingSimulator: SignalingSimulator,
+    formatVersion: Int
+): FullInfra {
+    if (input.readInt() != SNAPSHOT_MAGIC) throw IOException("not an infra snapshot")
+    val snapshotVersion = input.readInt()
+    if (snapshotVersion != formatVersion)
+        throw IOException("unsupported infra snapshot format version $snapshotVersion")
+    if (input.readString() != signalingFingerprint(signalingSimulator))
+        throw IOException("infra snapshot written for other signaling systems")
+    val rawInfra = readRawInfra(input)
+    val loadedSignalInfra = readLoadedSignals(input, rawInfra, signalingSimulator)
+    val blockInfra = readBlocks(input, rawInfra, loadedSignalInfra)
+    return FullInfra(rawInfra, loadedSignalInfra, blockInfra, signalingSimulator)
+}
+
+/**
+ * Describes the schemas of the signaling systems. Signal settings are stored in their encoded
+ * form, which is only valid for the same schemas.
+ */
+private fun signalingFingerprint(signalingSimulator: SignalingSimulator): String {
+    val manager = signalingSimulator.sigModuleManager
+    val res = StringBuilder()
+    for (sigSystem in manager.signalingSystems) {
+        for (schema in
+            listOf(manager.getSettingsSchema(sigSystem), manager.getParametersSchema(sigSystem))) {
+            for (field in schema.fields) {
+                res.append(field.name)
+                if (field is SigEnumField) res.append(field.values)
+                res.append(';')
+            }
+            res.append('|')
+        }
+    }
+    return res.toString()
+}
+
+// region RAW INFRA
+
+private fun writeRawInfra(out: DataOutput, infra: RawInfraImpl, adapter: SimInfraAdapter) {
+    out.writeInt(infra.trackNodePool.size.toInt())
+    for (trackNode in infra.trackNodePool) {
+        val descriptor = infra.trackNodePool[trackNode]
+        out.writeString(descriptor.name)
+        out.writeLong(descriptor.delay.inWholeNanoseconds)
+        out.writeInt(descriptor.ports.size.toInt())
+        for (port in descriptor.ports) out.writeInt(descriptor.ports[port].data.toInt())
+        out.writeInt(descriptor.configs.size.toInt())
+        for (config in descriptor.configs) {
+            val configDescriptor = descriptor.configs[config]
+            out.writeString(configDescriptor.name)
+            out.writeInt(configDescriptor.portLinks.size)
+            for (link in configDescriptor.portLinks) {
+                out.writeIdx(link.first)
+                out.writeIdx(link.second)
+            }
+        }
+    }
+
+    out.writeInt(infra.detectorPool.size.toInt())
+    for (detector in infra.detectorPool) out.writeNullableString(infra.detectorPool[detector])
+
+    out.writeInt(infra.zonePool.size.toInt())
+    for (zone in infra.zonePool) {
+        val movableElements = infra.zonePool[zone].movableElements
+        out.writeInt(movableElements.size)
+        for (movableElement in movableElements) out.writeIdx(movableElement)
+    }
+    for (detector in infra.detectorPool) {
+        for (dirDetector in listOf(detector.increasing, detector.decreasing))
+            out.writeInt(infra.getNextZone(dirDetector)?.index?.toInt() ?: -1)
+    }
+
+    out.writeInt(infra.trackChunkPool.size.toInt())
+    val loadingGaugeWriter = LoadingGaugeCodec()
+    for (chunk in infra.trackChunkPool) {
+        val descriptor = infra.trackChunkPool[chunk]
+        val points = descriptor.geo.points
+        out.writeInt(points.size)
+        for (point in points) {
+            out.writeDouble(point.x)
+            out.writeDouble(point.y)
+        }
+        out.writeDirectional(descriptor.slopes) { writeRangeMap(it, DataOutput::writeDouble) }
+        out.writeLong(descriptor.length.distance.millimeters)
+        out.writeLong(descriptor.offset.distance.millimeters)
+        out.writeDirectional(descriptor.curves) { writeRangeMap(it, DataOutput::writeDouble) }
+        out.writeDirectional(descriptor.gradients) { writeRangeMap(it, DataOutput::writeDouble) }
+        out.writeRangeMap(descriptor.loadingGaugeConstraints) {
+            writeInt(loadingGaugeWriter.encode(it))
+        }
+        out.writeRangeMap(descriptor.electrificationVoltage, DataOutput::writeString)
+        out.writeDirectional(descriptor.neutralSections) {
+            writeRangeMap(it) { section ->
+                writeBoolean(section.lowerPantograph)
+                writeBoolean(section.isAnnouncement)
+            }
+        }
+        out.writeDirectional(descriptor.speedSections) {
+            writeRangeMap(it) { section ->
+                writeLong(section.default.millimetersPerSecond.toLong())
+                writeInt(section.speedByTrainTag.size)
+                for ((tag, speed) in section.speedByTrainTag) {
+                    writeString(tag)
+                    writeLong(speed.millimetersPerSecond.toLong())
+                }
+            }
+        }
+    }
+
+    out.writeInt(infra.trackSectionPool.size.toInt())
+    for (track in infra.trackSectionPool) {
+        val descriptor = infra.trackSectionPool[track]
+        out.writeString(descriptor.name)
+        out.writeIdxList(descriptor.chunks)
+    }
+
+    out.writeInt(infra.operationalPointPartPool.size.toInt())
+    for (part in infra.operationalPointPartPool) {
+        val descriptor = infra.operationalPointPartPool[part]
+        out.writeString(descriptor.name)
+        out.writeLong(descriptor.chunkOffset.distance.millimeters)
+        out.writeIdx(descriptor.chunk)
+    }
+
+    out.writeInt(infra.physicalSignalPool.size.toInt())
+    for (physicalSignal in infra.physicalSignalPool) {
+        val descriptor = infra.physicalSignalPool[physicalSignal]
+        out.writeNullableString(descriptor.name)
+        out.writeLong(descriptor.sightDistance.millimeters)
+        out.writeInt(descriptor.logicalSignals.size)
+        for (logicalSignal in descriptor.logicalSignals) {
+            val logicalDescriptor = infra.logicalSignalPool[logicalSignal]
+            out.writeString(logicalDescriptor.signalingSystemId)
+            out.writeInt(logicalDescriptor.nextSignalingSystemIds.size)
+            for (sigSystem in logicalDescriptor.nextSignalingSystemIds) out.writeString(sigSystem)
+            out.writeStringMap(logicalDescriptor.rawSettings)
+            out.writeStringMap(logicalDescriptor.rawParameters.default)
+            out.writeInt(logicalDescriptor.rawParameters.conditional.size)
+            for ((route, parameters) in logicalDescriptor.rawParameters.conditional) {
+                out.writeIdx(route)
+                out.writeStringMap(parameters)
+            }
+        }
+        // the position of signals is read from railjson when projecting signals
+        val rjsSignal = descriptor.name?.let { adapter.rjsSignalMap[it] }
+        out.writeBoolean(rjsSignal != null)
+        if (rjsSignal != null) {
+            out.writeString(rjsSignal.track)
+            out.writeDouble(rjsSignal.position)
+            out.writeInt(rjsSignal.direction.ordinal)
+        }
+    }
+
+    out.writeInt(infra.zonePathPool.size.toInt())
+    for (zonePath in infra.zonePathPool) {
+        val descriptor = infra.zonePathPool[zonePath]
+        out.writeInt(descriptor.entry.data.toInt())
+        out.writeInt(descriptor.exit.data.toInt())
+        out.writeLong(descriptor.length.distance.millimeters)
+        out.writeIdxList(descriptor.movableElements)
+        out.writeIdxList(descriptor.movableElementsConfigs)
+        out.writeOffsetList(descriptor.movableElementsPositions)
+        out.writeIdxList(descriptor.signals)
+        out.writeOffsetList(descriptor.signalPositions)
+        out.writeDirIdxList(descriptor.chunks)
+    }
+
+    // the chunks and length of routes are deduced from their zone paths when building
+    out.writeInt(infra.routeDescriptors.size.toInt())
+    for (route in infra.routeDescriptors) {
+        val descriptor = infra.routeDescriptors[route]
+        out.writeNullableString(descriptor.name)
+        out.writeIdxList(descriptor.path)
+        out.writeInt(descriptor.releaseZones.size)
+        for (releaseZone in descriptor.releaseZones) out.writeInt(releaseZone)
+        out.writeIdxList(descriptor.speedLimits)
+        out.writeOffsetList(descriptor.speedLimitStarts)
+        out.writeOffsetList(descriptor.speedLimitEnds)
+    }
+}
+
+private fun readRawInfra(input: DataInput): SimInfraAdapter {
+    val builder = RawInfraBuilder()
+
+    repeat(input.readInt()) {
+        val name = input.readString()
+        val delay = input.readLong().nanoseconds
+        builder.movableElement(name, delay) {
+            repeat(input.readInt()) {
+                port(EndpointStaticIdx(input.readInt().toUInt()))
+            }
+            repeat(input.readInt()) {
+                val configName = input.readString()
+                repeat(input.readInt()) {
+                    config(configName, Pair(input.readIdx(), input.readIdx()))
+                }
+            }
+        }
+    }
+
+    val detectorCount = input.readInt()
+    repeat(detectorCount) { builder.detector(input.readNullableString()) }
+
+    repeat(input.readInt()) {
+        val movableElements = mutableStaticIdxArraySetOf<TrackNode>()
+        repeat(input.readInt()) { movableElements.add(input.readIdx()) }
+        builder.zone(movableElements)
+    }
+    for (detectorIndex in 0 until detectorCount) {
+        val detector = DetectorId(detectorIndex.toUInt())
+        for (dirDetector in listOf(detector.increasing, detector.decreasing)) {
+            val zone = input.readInt()
+            if (zone != -1) builder.setNextZone(dirDetector, ZoneId(zone.toUInt()))
+        }
+    }
+
+    val loadingGaugeReader = LoadingGaugeCodec()
+    repeat(input.readInt()) {
+        val pointCount = input.readInt()
+        val xs = DoubleArray(pointCount)
+        val ys = DoubleArray(pointCount)
+        for (i in 0 until pointCount) {
+            xs[i] = input.readDouble()
+            ys[i] = input.readDouble()
+        }
+        val slopes = input.readDirectional { readRangeMap(DataInput::readDouble) }
+        val length = Offset<TrackChunk>(Distance(input.readLong()))
+        val offset = Offset<TrackSection>(Distance(input.readLong()))
+        val curves = input.readDirectional { readRangeMap(DataInput::readDouble) }
+        val gradients = input.readDirectional { readRangeMap(DataInput::readDouble) }
+        val loadingGauge = input.readRangeMap { loadingGaugeReader.decode(readInt()) }
+        val electrification = input.readRangeMap(DataInput::readString)
+        val neutralSections =
+            input.readDirectional { readRangeMap { NeutralSection(readBoolean(), readBoolean()) } }
+        val speedSections =
+            input.readDirectional {
+                readRangeMap {
+                    val default = Speed(readLong().toULong())
+                    val speedByTrainTag = HashMap<String, Speed>()
+                    repeat(readInt()) {
+                        speedByTrainTag[readString()] = Speed(readLong().toULong())
+                    }
+                    SpeedSection(default, speedByTrainTag)
+                }
+            }
+        builder.trackChunk(
+            LineString.make(xs, ys),
+            slopes,
+            length,
+            offset,
+            curves,
+            gradients,
+            loadingGauge,
+            electrification,
+            neutralSections,
+            speedSections
+        )
+    }
+
+    repeat(input.readInt()) {
+        val name = input.readString()
+        val chunks = input.readIdxList<TrackChunk>()
+        builder.trackSection(name) { for (chunk in chunks) chunk(chunk) }
+    }
+
+    repeat(input.readInt()) {
+        val name = input.readString()
+        val chunkOffset = Offset<TrackChunk>(Distance(input.readLong()))
+        builder.operationalPointPart(name, chunkOffset, input.readIdx())
+    }
+
+    val signalMap = HashBiMap.create<String, PhysicalSignalId>()
+    val rjsSignalMap = HashBiMap.create<String, RJSSignal>()
+    repeat(input.readInt()) {
+        val name = input.readNullableString()
+        val sightDistance = Distance(input.readLong())
+        val signal =
+            builder.physicalSignal(name, sightDistance) {
+                repeat(input.readInt()) {
+                    val signalingSystem = input.readString()
+                    val nextSignalingSystems = List(input.readInt()) { input.readString() }
+                    val settings = input.readStringMap()
+                    val defaultParameters = input.readStringMap()
+                    val conditionalParameters = LinkedHashMap<RouteId, Map<String, String>>()
+                    repeat(input.readInt()) {
+                        conditionalParameters[input.readIdx()] = input.readStringMap()
+                    }
+                    logicalSignal(
+                        signalingSystem,
+                        nextSignalingSystems,
+                        settings,
+                        RawSignalParameters(defaultParameters, conditionalParameters)
+                    )
+                }
+            }
+        if (name != null) signalMap[name] = signal
+        if (input.readBoolean()) {
+            val track = input.readString()
+            val position = input.readDouble()
+            val direction = EdgeDirection.entries[input.readInt()]
+            rjsSignalMap[name!!] =
+                RJSSignal(track, position, name, direction, sightDistance.meters, null)
+        }
+    }
+
+    repeat(input.readInt()) {
+        builder.zonePath(
+            DirStaticIdx(input.readInt().toUInt()),
+            DirStaticIdx(input.readInt().toUInt()),
+            Offset(Distance(input.readLong())),
+            input.readIdxList(),
+            input.readIdxList(),
+            input.readOffsetList(),
+            input.readIdxList(),
+            input.readOffsetList(),
+            input.readDirIdxList(),
+        )
+    }
+
+    repeat(input.readInt()) {
+        val name = input.readNullableString()
+        val path = input.readIdxList<ZonePath>()
+        val releaseZones = IntArray(input.readInt()) { input.readInt() }
+        val speedLimits = input.readIdxList<SpeedLimit>()
+        val speedLimitStarts = input.readOffsetList<Route>()
+        val speedLimitEnds = input.readOffsetList<Route>()
+        builder.route(name) {
+            for (zonePath in path) zonePath(zonePath)
+            for (releaseZone in releaseZones) releaseZone(releaseZone)
+            for (i in 0 until speedLimits.size)
+                speedLimit(speedLimits[i], speedLimitStarts[i], speedLimitEnds[i])
+        }
+    }
+
+    // objects of the legacy infra can't be restored, only the maps used once the infra is loaded
+    return SimInfraAdapter(
+        builder.build(),
+        HashBiMap.create(),
+        HashBiMap.create(),
+        HashBiMap.create(),
+        HashMap(),
+        HashBiMap.create(),
+        signalMap,
+        rjsSignalMap
+    )
+}
+
+/**
+ * Loading gauge constraints are written as a bit set of blocked loading gauge types. Constraints
+ * are shared by all the ranges with the same bit set when reading.
+ */
+private class LoadingGaugeCodec {
+    private val types = RJSLoadingGaugeType.entries
+    private val constraints = HashMap<Int, LoadingGaugeConstraint>()
+
+    fun encode(constraint: LoadingGaugeConstraint): Int {
+        var res = 0
+        for (type in types) {
+            if (!constraint.isCompatibleWith(LoadingGaugeTypeId(type.ordinal.toUInt())))
+                res = res or (1 shl type.ordinal)
+        }
+        return res
+    }
+
+    fun decode(blockedTypes: Int): LoadingGaugeConstraint {
+        return constraints.getOrPut(blockedTypes) {
+            LoadingGaugeConstraintImpl(
+                ImmutableSet.copyOf(types.filter { (blockedTypes and (1 shl it.ordinal)) != 0 })
+            )
+        }
+    }
+}
+
+// endregion
+
+// region SIGNALS AND BLOCKS
+
+private fun writeLoadedSignals(out: DataOutput, infra: LoadedSignalInfra) {
+    for (logicalSignal in infra.logicalSignals) {
+        out.writeSigData(infra.getSettings(logicalSignal))
+        val parameters = infra.getParameters(logicalSignal)
+        out.writeSigData(parameters.default)
+        out.writeInt(parameters.conditional.size)
+        for ((route, routeParameters) in parameters.conditional) {
+            out.writeIdx(route)
+            out.writeSigData(routeParameters)
+        }
+    }
+}
+
+/**
+ * Reads the parsed settings of signals. Signaling systems and drivers are looked up from the raw
+ * infra, the same way signals are loaded.
+ */
+private fun readLoadedSignals(
+    input: DataInput,
+    rawInfra: RawSignalingInfra,
+    signalingSimulator: SignalingSimulator
+): LoadedSignalInfra {
+    val manager = signalingSimulator.sigModuleManager
+    return loadedSignalInfra(manager) {
+        for (physicalSignal in rawInfra.physicalSignals) {
+            physicalSignal {
+                for (logicalSignal in rawInfra.getLogicalSignals(physicalSignal)) {
+                    val sigSystem =
+                        manager.findSignalingSystem(rawInfra.getSignalingSystemId(logicalSignal))
+                    val settingsSchema = manager.getSettingsSchema(sigSystem)
+                    val parametersSchema = manager.getParametersSchema(sigSystem)
+                    val settings = input.readSigData(settingsSchema)
+                    val defaultParameters = input.readSigData(parametersSchema)
+                    val conditionalParameters = LinkedHashMap<RouteId, SigParameters>()
+                    repeat(input.readInt()) {
+                        conditionalParameters[input.readIdx()] = input.readSigData(parametersSchema)
+                    }
+                    logicalSignal {
+                        signalingSystemId(sigSystem)
+                        sigSettings(settings)
+                        sigParameters(SignalParameters(defaultParameters, conditionalParameters))
+                        for (nextSigSystem in rawInfra.getNextSignalingSystemIds(logicalSignal))
+                            driver(
+                                manager.findDriver(
+                                    sigSystem,
+                                    manager.findSignalingSystem(nextSigSystem)
+                                )
+                            )
+                    }
+                }
+            }
+        }
+    }
+}
+
+private fun writeBlocks(out: DataOutput, infra: BlockInfra) {
+    out.writeInt(infra.blocks.size.toInt())
+    for (block in infra.blocks) {
+        out.writeBoolean(infra.blockStartAtBufferStop(block))
+        out.writeBoolean(infra.blockStopAtBufferStop(block))
+        out.writeIdxList(infra.getBlockPath(block))
+        out.writeIdxList(infra.getBlockSignals(block))
+        out.writeOffsetList(infra.getSignalsPositions(block))
+    }
+}
+
+private fun readBlocks(
+    input: DataInput,
+    rawInfra: RawInfra,
+    loadedSignalInfra: LoadedSignalInfra
+): BlockInfra {
+    return blockInfraBuilder(loadedSignalInfra, rawInfra) {
+        repeat(input.readInt()) {
+            block(
+                input.readBoolean(),
+                input.readBoolean(),
+                input.readIdxList(),
+                input.readIdxList(),
+                input.readOffsetList(),
+            )
+        }
+    }
+}
+
+// endregion
+
+// region PRIMITIVES
+
+private fun DataOutput.writeString(value: String) {
+    val bytes = value.toByteArray(Charsets.UTF_8)
+    writeInt(bytes.size)
+    write(bytes)
+}
+
+private fun DataInput.readString(): String {
+    val bytes = ByteArray(readInt())
+    readFully(bytes)
+    return String(bytes, Charsets.UTF_8)
+}
+
+private fun DataOutput.writeNullableString(value: String?) {
+    writeBoolean(value != null)
+    if (value != null) writeString(value)
+}
+
+private fun DataInput.readNullableString(): String? {
+    return if (readBoolean()) readString() else null
+}
+
+private fun DataOutput.writeStringMap(map: Map<String, String>) {
+    writeInt(map.size)
+    for ((key, value) in map) {
+        writeString(key)
+        writeString(value)
+    }
+}
+
+private fun DataInput.readStringMap(): Map<String, String> {
+    val res = LinkedHashMap<String, String>()
+    repeat(readInt()) { res[readString()] = readString() }
+    return res
+}
+
+private fun <T> DataOutput.writeIdx(idx: StaticIdx<T>) {
+    writeInt(idx.index.toInt())
+}
+
+private fun <T> DataInput.readIdx(): StaticIdx<T> {
+    return StaticIdx(readInt().toUInt())
+}
+
+private fun <T> DataOutput.writeIdxList(list: StaticIdxList<T>) {
+    writeInt(list.size)
+    for (idx in list) writeIdx(idx)
+}
+
+private fun <T> DataInput.readIdxList(): StaticIdxList<T> {
+    val size = readInt()
+    val res = mutableStaticIdxArrayListOf<T>()
+    res.ensureCapacity(size)
+    repeat(size) { res.add(readIdx()) }
+    return res
+}
+
+private fun <T> DataOutput.writeDirIdxList(list: DirStaticIdxList<T>) {
+    writeInt(list.size)
+    for (idx in list) writeInt(idx.data.toInt())
+}
+
+private fun <T> DataInput.readDirIdxList(): DirStaticIdxList<T> {
+    val size = readInt()
+    val res = mutableDirStaticIdxArrayListOf<T>()
+    res.ensureCapacity(size)
+    repeat(size) { res.add(DirStaticIdx(readInt().toUInt())) }
+    return res
+}
+
+private fun <T> DataOutput.writeOffsetList(list: OffsetList<T>) {
+    writeInt(list.size)
+    for (offset in list) writeLong(offset.distance.millimeters)
+}
+
+private fun <T> DataInput.readOffsetList(): OffsetList<T> {
+    val size = readInt()
+    val res = mutableOffsetArrayListOf<T>()
+    res.ensureCapacity(size)
+    repeat(size) { res.add(Offset(Distance(readLong()))) }
+    return res
+}
+
+private fun <T> DataOutput.writeRangeMap(
+    map: DistanceRangeMap<T>,
+    writeValue: DataOutput.(T) -> Unit
+) {
+    val entries = map.asList()
+    writeInt(entries.size)
+    for (entry in entries) {
+        writeLong(entry.lower.millimeters)
+        writeLong(entry.upper.millimeters)
+        writeValue(entry.value)
+    }
+}
+
+private fun <T> DataInput.readRangeMap(readValue: DataInput.() -> T): DistanceRangeMap<T> {
+    val entries =
+        List(readInt()) {
+            val lower = Distance(readLong())
+            val upper = Distance(readLong())
+            DistanceRangeMap.RangeMapEntry(lower, upper, readValue())
+        }
+    return distanceRangeMapOf(entries)
+}
+
+private fun <T> DataOutput.writeDirectional(
+    map: DirectionalMap<T>,
+    writeValue: DataOutput.(T) -> Unit
+) {
+    writeValue(map.get(Direction.INCREASING))
+    writeValue(map.get(Direction.DECREASING))
+}
+
+private fun <T> DataInput.readDirectional(readValue: DataInput.() -> T): DirectionalMap<T> {
+    val forwards = readValue()
+    val backwards = readValue()
+    return DirectionalMap(forwards, backwards)
+}
+
+private fun <MarkerT> DataOutput.writeSigData(data: SigData<MarkerT>) {
+    val fieldCount = data.schema.fields.size
+    writeInt(fieldCount)
+    for (slot in 0 until fieldCount) writeInt(data.getEncoded(slot))
+}
+
+private fun <MarkerT> DataInput.readSigData(schema: SigSchema<MarkerT>): SigData<MarkerT> {
+    val fieldCount = readInt()
+    if (fieldCount != schema.fields.size) throw IOException("invalid signal data in infra snapshot")
+    return SigData(schema, IntArray(fieldCount) { readInt() })
+}
+
+// endregion
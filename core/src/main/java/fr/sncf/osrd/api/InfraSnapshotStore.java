@@ -0,0 +1,116 @@
+package fr.sncf.osrd.api;
+
+import static fr.sncf.osrd.api.InfraSnapshotCodecKt.readInfraSnapshot;
+import static fr.sncf.osrd.api.InfraSnapshotCodecKt.writeInfraSnapshot;
+
+import fr.sncf.osrd.signaling.SignalingSimulator;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps an on-disk binary copy of each loaded infra, keyed by infra id and version. When a worker restarts, infras are
+ * read back from this copy instead of being downloaded from editoast, parsed and built again.
+ *
+ * <p>Snapshots hold the built kotlin infra only, see {@link InfraSnapshotCodecKt}: the legacy signaling infra isn't
+ * kept once an infra is loaded.
+ */
+public final class InfraSnapshotStore {
+    static final Logger logger = LoggerFactory.getLogger(InfraSnapshotStore.class);
+
+    /** Bump this whenever the layout of snapshot files changes, so that stale snapshots are ignored */
+    static final int FORMAT_VERSION = 2;
+
+    private static final String EXTENSION = ".infra";
+    private static final Pattern UNSAFE_CHARS = Pattern.compile("[^a-zA-Z0-9_.-]");
+
+    private final Path directory;
+
+    public InfraSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    private static String sanitize(String key) {
+        return UNSAFE_CHARS.matcher(key).replaceAll("_");
+    }
+
+    private String infraPrefix(String infraId) {
+        return String.format("v%d-%s-", FORMAT_VERSION, sanitize(infraId));
+    }
+
+    private Path snapshotPath(String infraId, String version) {
+        return directory.resolve(infraPrefix(infraId) + sanitize(version) + EXTENSION);
+    }
+
+    /** Returns whether a snapshot exists for this version of the infra */
+    public boolean contains(String infraId, String version) {
+        return version != null && Files.isRegularFile(snapshotPath(infraId, version));
+    }
+
+    /**
+     * Reads the snapshot of the given infra version. Throws an IOException if the snapshot can't be read, for example
+     * if it was written for other signaling systems.
+     */
+    public FullInfra load(String infraId, String version, SignalingSimulator signalingSimulator) throws IOException {
+        var path = snapshotPath(infraId, version);
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return readInfraSnapshot(input, signalingSimulator, FORMAT_VERSION);
+        } catch (RuntimeException e) {
+            // a truncated or inconsistent snapshot can fail anywhere while rebuilding the infra
+            throw new IOException("invalid infra snapshot", e);
+        }
+    }
+
+    /**
+     * Writes the snapshot of the given infra version, and removes the snapshots of older versions of the same infra.
+     * The snapshot is written to a temporary file first, so that a crash never leaves a partial snapshot behind.
+     */
+    public void save(String infraId, String version, FullInfra infra) throws IOException {
+        Files.createDirectories(directory);
+        var target = snapshotPath(infraId, version);
+        var tmp = Files.createTempFile(directory, infraPrefix(infraId), ".tmp");
+        try {
+            try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                writeInfraSnapshot(output, infra, FORMAT_VERSION);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        deleteOtherVersions(infraId, target);
+    }
+
+    /** Removes all the snapshots of an infra */
+    public void delete(String infraId) {
+        deleteOtherVersions(infraId, null);
+    }
+
+    private void deleteOtherVersions(String infraId, Path kept) {
+        if (!Files.isDirectory(directory)) return;
+        var prefix = infraPrefix(infraId);
+        try (var files = Files.list(directory)) {
+            files.filter(path -> !path.equals(kept))
+                    .filter(path -> {
+                        var name = path.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(EXTENSION);
+                    })
+                    .forEach(path -> {
+                        try {
+                            Files.deleteIfExists(path);
+                        } catch (IOException e) {
+                            logger.warn("failed to delete obsolete infra snapshot {}", path, e);
+                        }
+                    });
+        } catch (IOException e) {
+            logger.warn("failed to list infra snapshots of {}", infraId, e);
+        }
+    }
+}
@@ -10,9 +10,11 @@ import fr.sncf.osrd.signaling.tvm430.*
 
 /**
  * Configure the signaling simulator for all the supported signaling systems Mainly useful because
- * we can't do it directly from java due to compiler issues
+ * we can't do it directly from java due to compiler issues. When parallelLoading is set, signal
+ * loading and block building are spread over the fork join common pool.
  */
-fun makeSignalingSimulator(): SignalingSimulator {
+@JvmOverloads
+fun makeSignalingSimulator(parallelLoading: Boolean = false): SignalingSimulator {
     val sigSystemManager = SigSystemManagerImpl()
     sigSystemManager.addSignalingSystem(BAL)
     sigSystemManager.addSignalingSystem(BAPR)
@@ -36,5 +38,5 @@ fun makeSignalingSimulator(): SignalingSimulator {
     sigSystemManager.addSignalDriver(TVM430toTVM300)
     sigSystemManager.addSignalDriver(TVM430toTVM430)
 
-    return SignalingSimulatorImpl(sigSystemManager)
+    return SignalingSimulatorImpl(sigSystemManager, parallelLoading)
 }
@@ -0,0 +1,123 @@
+package fr.sncf.osrd.api;
+
+import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.kotlin.reflect.KotlinJsonAdapterFactory;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict;
+import fr.sncf.osrd.conflicts.TimetableConflictManager;
+import fr.sncf.osrd.conflicts.TrainRequirements;
+import fr.sncf.osrd.railjson.schema.common.ID;
+import fr.sncf.osrd.reporting.exceptions.ErrorType;
+import fr.sncf.osrd.reporting.exceptions.OSRDError;
+import java.util.ArrayList;
+import java.util.List;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.rq.RqPrint;
+import org.takes.rs.RsJson;
+import org.takes.rs.RsText;
+import org.takes.rs.RsWithBody;
+import org.takes.rs.RsWithStatus;
+
+/**
+ * Detects conflicts incrementally: the requirements of a timetable are kept between requests, and each request only
+ * sends the trains which were added, updated or removed. The response only contains the conflicts which changed.
+ *
+ * <p>The first request for a timetable must set reset, and send all its trains in add. If the worker doesn't know
+ * the timetable, which happens after a restart, a timetable_conflicts:not_loaded error is returned and the whole
+ * timetable must be sent again.
+ */
+public class TimetableConflictsEndpoint implements Take {
+    private final TimetableConflictManager manager;
+
+    public static final JsonAdapter<TimetableConflictsRequest> adapterRequest = new Moshi.Builder()
+            .add(ID.Adapter.FACTORY)
+            .addLast(new KotlinJsonAdapterFactory())
+            .build()
+            .adapter(TimetableConflictsRequest.class);
+
+    public TimetableConflictsEndpoint(TimetableConflictManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public Response act(Request req) throws Exception {
+        try {
+            // Parse request input
+            var body = new RqPrint(req).printBody();
+            var request = adapterRequest.fromJson(body);
+            if (request == null) return new RsWithStatus(new RsText("missing request body"), 400);
+
+            var state = request.reset ? manager.reset(request.timetableId) : manager.get(request.timetableId);
+            if (state == null) throw new OSRDError(ErrorType.TimetableConflictsNotLoaded);
+
+            // added and updated trains are handled the same way, their previous requirements are replaced
+            var updatedTrains = new ArrayList<TrainRequirements>();
+            if (request.add != null) updatedTrains.addAll(request.add);
+            if (request.update != null) updatedTrains.addAll(request.update);
+            var removedTrains = request.remove != null ? request.remove : List.<Long>of();
+
+            var changes = state.update(updatedTrains, removedTrains);
+            var result = new TimetableConflictsResult(changes.getAdded(), changes.getRemoved(), state.getTrainCount());
+            return new RsJson(new RsWithBody(TimetableConflictsResult.adapter.toJson(result)));
+        } catch (Throwable ex) {
+            return ExceptionHandler.handle(ex);
+        }
+    }
+
+    public static class TimetableConflictsRequest {
+        @Json(name = "timetable_id")
+        public final long timetableId;
+
+        /** Whether to forget the previous state of the timetable before applying the changes */
+        public final boolean reset;
+
+        public final List<TrainRequirements> add;
+
+        public final List<TrainRequirements> update;
+
+        /** The ids of the removed trains */
+        public final List<Long> remove;
+
+        public TimetableConflictsRequest(
+                long timetableId,
+                boolean reset,
+                List<TrainRequirements> add,
+                List<TrainRequirements> update,
+                List<Long> remove) {
+            this.timetableId = timetableId;
+            this.reset = reset;
+            this.add = add;
+            this.update = update;
+            this.remove = remove;
+        }
+    }
+
+    @SuppressFBWarnings("URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD")
+    public static class TimetableConflictsResult {
+        public static final JsonAdapter<TimetableConflictsResult> adapter =
+                new Moshi.Builder().build().adapter(TimetableConflictsResult.class);
+
+        /** The conflicts which appeared with this update */
+        @Json(name = "added_conflicts")
+        final List<Conflict> addedConflicts;
+
+        /** The conflicts which disappeared with this update */
+        @Json(name = "removed_conflicts")
+        final List<Conflict> removedConflicts;
+
+        /** The number of trains in the timetable after this update */
+        @Json(name = "train_count")
+        final int trainCount;
+
+        public TimetableConflictsResult(
+                List<Conflict> addedConflicts, List<Conflict> removedConflicts, int trainCount) {
+            this.addedConflicts = addedConflicts;
+            this.removedConflicts = removedConflicts;
+            this.trainCount = trainCount;
+        }
+    }
+}
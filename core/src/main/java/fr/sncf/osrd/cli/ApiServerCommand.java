@@ -3,10 +3,15 @@ package fr.sncf.osrd.cli;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import fr.sncf.osrd.api.*;
+import fr.sncf.osrd.api.pathfinding.PathfindingBatchEndpoint;
 import fr.sncf.osrd.api.pathfinding.PathfindingBlocksEndpoint;
+import fr.sncf.osrd.api.stdcm.STDCMCacheStatsEndpoint;
 import fr.sncf.osrd.api.stdcm.STDCMEndpoint;
+import fr.sncf.osrd.conflicts.TimetableConflictManager;
+import fr.sncf.osrd.stdcm.graph.BlockEnvelopeCache;
 import io.sentry.Sentry;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
 import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
@@ -26,6 +31,9 @@ import org.takes.tk.TkSlf4j;
 public final class ApiServerCommand implements CliCommand {
     static final Logger logger = LoggerFactory.getLogger(ApiServerCommand.class);
 
+    /** The number of timetables whose conflicts are kept between requests */
+    private static final int MAX_TIMETABLE_CONFLICT_STATES = 16;
+
     @Parameter(
             names = {"-p", "--port"},
             description = "The TCP port to listen on")
@@ -51,6 +59,38 @@ public final class ApiServerCommand implements CliCommand {
             description = "The number of threads to serve requests from")
     private int threads = 4;
 
+    @Parameter(
+            names = {"--infra-snapshot-dir"},
+            description = "A directory where built infras are saved, to restore them directly after a restart")
+    private String infraSnapshotDir;
+
+    @Parameter(
+            names = {"--parallel-infra-loading"},
+            description = "Use all available cores to load signals and build blocks when loading infras")
+    private boolean parallelInfraLoading = false;
+
+    @Parameter(
+            names = {"--infra-cache-budget"},
+            description = "The estimated heap size cached infras may use, in MiB. Unbounded if zero")
+    private long infraCacheBudget = 0;
+
+    @Parameter(
+            names = {"--stdcm-envelope-cache-budget"},
+            description = "The estimated heap size of block envelopes shared between STDCM requests, in MiB. "
+                    + "Disabled if zero")
+    private long stdcmEnvelopeCacheBudget = 64;
+
+    @Parameter(
+            names = {"--pathfinding-landmarks"},
+            description = "The number of landmarks used to guide pathfinding, computed once per infra. "
+                    + "Disabled by default")
+    private int pathfindingLandmarks = 0;
+
+    @Parameter(
+            names = {"--batch-pathfinding-threads"},
+            description = "The number of threads running the searches of batch pathfinding requests")
+    private int batchPathfindingThreads = Runtime.getRuntime().availableProcessors();
+
     private String getEditoastUrl() {
         if (editoastUrl == null) {
             System.err.println("The use of MIDDLEWARE_BASE_URL is deprecated. Use CORE_EDITOAST_URL instead.");
@@ -71,10 +111,20 @@ public final class ApiServerCommand implements CliCommand {
         var editoastUrl = getEditoastUrl();
         var httpClient =
                 new OkHttpClient.Builder().readTimeout(120, TimeUnit.SECONDS).build();
-        var infraManager = new InfraManager(editoastUrl, editoastAuthorization, httpClient, false);
+        var snapshotStore = infraSnapshotDir == null ? null : new InfraSnapshotStore(Path.of(infraSnapshotDir));
+        var infraManagerOptions = InfraManager.Options.DEFAULT
+                .withSnapshotStore(snapshotStore)
+                .withParallelLoading(parallelInfraLoading)
+                .withCacheBudget(infraCacheBudget << 20)
+                .withLandmarkCount(pathfindingLandmarks);
+        var infraManager = new InfraManager(editoastUrl, editoastAuthorization, httpClient, infraManagerOptions);
         var electricalProfileSetManager =
                 new ElectricalProfileSetManager(editoastUrl, editoastAuthorization, httpClient);
 
+        var envelopeCache =
+                stdcmEnvelopeCacheBudget > 0 ? new BlockEnvelopeCache(stdcmEnvelopeCacheBudget << 20) : null;
+        var timetableConflicts = new TimetableConflictManager(MAX_TIMETABLE_CONFLICT_STATES);
+
         var maxMemory = String.format("%.2f", Runtime.getRuntime().maxMemory() / (double) (1 << 30));
         logger.info("starting the API server with max {}Gi of java heap", maxMemory);
         try {
@@ -82,14 +132,21 @@ public final class ApiServerCommand implements CliCommand {
             var routes = new TkFork(
                     new FkRegex("/health", ""),
                     new FkRegex("/pathfinding/routes", new PathfindingBlocksEndpoint(infraManager)),
+                    new FkRegex(
+                            "/pathfinding/batch",
+                            new PathfindingBatchEndpoint(infraManager, batchPathfindingThreads)),
                     new FkRegex(
                             "/standalone_simulation",
                             new StandaloneSimulationEndpoint(infraManager, electricalProfileSetManager)),
                     new FkRegex("/project_signals", new SignalProjectionEndpoint(infraManager)),
                     new FkRegex("/detect_conflicts", new ConflictDetectionEndpoint()),
+                    new FkRegex("/timetable_conflicts", new TimetableConflictsEndpoint(timetableConflicts)),
                     new FkRegex("/cache_status", new InfraCacheStatusEndpoint(infraManager)),
+                    new FkRegex("/cache_stats", new InfraCacheStatusEndpoint.Stats(infraManager)),
                     new FkRegex("/version", new VersionEndpoint()),
-                    new FkRegex("/stdcm", new STDCMEndpoint(infraManager)),
+                    new FkRegex("/stdcm", new STDCMEndpoint(infraManager, envelopeCache)),
+                    new FkRegex("/stdcm_cache_stats", new STDCMCacheStatsEndpoint(envelopeCache)),
+                    new FkRegex("/allowance_stats", new AllowanceStatsEndpoint()),
                     new FkRegex("/infra_load", new InfraLoadEndpoint(infraManager)));
             var monitoringType = System.getenv("CORE_MONITOR_TYPE");
             Take monitoredRoutes = routes;
@@ -0,0 +1,119 @@
+package fr.sncf.osrd.conflicts
+
+import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict
+import fr.sncf.osrd.conflicts.IncrementalConflictDetectorImpl.RoutingZoneRequirement
+import fr.sncf.osrd.conflicts.IncrementalConflictDetectorImpl.SpacingZoneRequirement
+import java.util.Arrays
+import java.util.stream.IntStream
+import kotlin.math.max
+
+/**
+ * Detects the conflicts of a whole timetable at once.
+ *
+ * Zone names are interned to dense integers when the requirements are grouped, and zones are then
+ * processed in parallel on the fork-join pool. The result doesn't depend on the scheduling of
+ * zones: conflicts are merged and sorted by begin time, conflict type and trains.
+ */
+class BatchConflictDetector(
+    trainRequirements: List<TrainRequirements>,
+    private val parallel: Boolean = true
+) {
+    private val spacingZoneRequirements = ArrayList<MutableList<SpacingZoneRequirement>>()
+    private val routingZoneRequirements = ArrayList<MutableList<RoutingZoneRequirement>>()
+
+    init {
+        val spacingZoneIds = HashMap<String, Int>()
+        forEachSpacingZoneRequirement(trainRequirements) { zone, requirement ->
+            val zoneId =
+                spacingZoneIds.getOrPut(zone) {
+                    spacingZoneRequirements.add(ArrayList())
+                    spacingZoneRequirements.size - 1
+                }
+            spacingZoneRequirements[zoneId].add(requirement)
+        }
+        val routingZoneIds = HashMap<String, Int>()
+        forEachRoutingZoneRequirement(trainRequirements) { zone, requirement ->
+            val zoneId =
+                routingZoneIds.getOrPut(zone) {
+                    routingZoneRequirements.add(ArrayList())
+                    routingZoneRequirements.size - 1
+                }
+            routingZoneRequirements[zoneId].add(requirement)
+        }
+    }
+
+    /** Returns the merged conflicts of the timetable */
+    fun detectConflicts(): List<Conflict> {
+        val spacingConflicts =
+            mapZones(spacingZoneRequirements.size) {
+                detectSpacingConflicts(spacingZoneRequirements[it])
+            }
+        val routingConflicts =
+            mapZones(routingZoneRequirements.size) {
+                detectRoutingConflicts(routingZoneRequirements[it])
+            }
+        val res = ArrayList<SortedConflict>()
+        res.addAll(mergeSortedConflicts(spacingConflicts))
+        res.addAll(mergeSortedConflicts(routingConflicts))
+        res.sortWith { a, b ->
+            var order = a.conflict.startTime.compareTo(b.conflict.startTime)
+            if (order == 0) order = a.conflict.conflictType.compareTo(b.conflict.conflictType)
+            if (order == 0) order = Arrays.compare(a.trainIds, b.trainIds)
+            order
+        }
+        return res.map { it.conflict }
+    }
+
+    private fun mapZones(zoneCount: Int, detect: (Int) -> List<Conflict>): List<Conflict> {
+        var zones = IntStream.range(0, zoneCount)
+        if (parallel) zones = zones.parallel()
+        // the encounter order of the zones is kept, even when processed in parallel
+        return zones.mapToObj { detect(it) }.toList().flatten()
+    }
+}
+
+/** A conflict along with its sorted, distinct train ids */
+private class SortedConflict(val conflict: Conflict, val trainIds: LongArray) {
+    constructor(conflict: Conflict) : this(conflict, sortedDistinct(conflict.trainIds))
+}
+
+private fun sortedDistinct(values: Collection<Long>): LongArray {
+    val res = values.toLongArray()
+    res.sort()
+    var count = 0
+    for (value in res) if (count == 0 || value != res[count - 1]) res[count++] = value
+    return res.copyOf(count)
+}
+
+/**
+ * Merges the overlapping conflicts of the same set of trains, for conflicts of a single type. This
+ * is the same as mergeConflicts, but relies on sorting rather than hashing sets of trains.
+ */
+private fun mergeSortedConflicts(conflicts: List<Conflict>): List<SortedConflict> {
+    val sorted = conflicts.map { SortedConflict(it) }.toMutableList()
+    sorted.sortWith { a, b ->
+        val order = Arrays.compare(a.trainIds, b.trainIds)
+        if (order != 0) order else a.conflict.startTime.compareTo(b.conflict.startTime)
+    }
+    val res = ArrayList<SortedConflict>()
+    var i = 0
+    while (i < sorted.size) {
+        val trainIds = sorted[i].trainIds
+        val type = sorted[i].conflict.conflictType
+        val startTime = sorted[i].conflict.startTime
+        var endTime = sorted[i].conflict.endTime
+        i++
+        // conflicts which only touch each other are merged as well
+        while (
+            i < sorted.size &&
+                Arrays.equals(sorted[i].trainIds, trainIds) &&
+                sorted[i].conflict.startTime <= endTime
+        ) {
+            endTime = max(endTime, sorted[i].conflict.endTime)
+            i++
+        }
+        val conflict = Conflict(trainIds.toMutableList(), startTime, endTime, type)
+        res.add(SortedConflict(conflict, trainIds))
+    }
+    return res
+}
@@ -4,6 +4,9 @@ import com.carrotsearch.hppc.IntArrayList
 import com.squareup.moshi.Json
 import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict
 import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict.ConflictType
+import fr.sncf.osrd.conflicts.IncrementalConflictDetectorImpl.RoutingZoneConfig
+import fr.sncf.osrd.conflicts.IncrementalConflictDetectorImpl.RoutingZoneRequirement
+import fr.sncf.osrd.conflicts.IncrementalConflictDetectorImpl.SpacingZoneRequirement
 import fr.sncf.osrd.standalone_sim.result.ResultTrain.RoutingRequirement
 import fr.sncf.osrd.standalone_sim.result.ResultTrain.SpacingRequirement
 import kotlin.math.max
@@ -45,8 +48,7 @@ data class ConflictProperties(
 )
 
 fun detectConflicts(trainRequirements: List<TrainRequirements>): List<Conflict> {
-    val res = incrementalConflictDetector(trainRequirements).checkConflicts()
-    return mergeConflicts(res)
+    return BatchConflictDetector(trainRequirements).detectConflicts()
 }
 
 interface IncrementalConflictDetector {
@@ -88,16 +90,20 @@ fun incrementalConflictDetector(
     return IncrementalConflictDetectorImpl(trainRequirements)
 }
 
+/**
+ * The requirements of each zone are kept in a sorted, immutable RequirementIndex, so that checking
+ * the requirements of a new train doesn't scan nor copy all the requirements of the zone.
+ */
 class IncrementalConflictDetectorImpl(trainRequirements: List<TrainRequirements>) :
     IncrementalConflictDetector {
-    private val spacingZoneRequirements =
-        mutableMapOf<String, MutableList<SpacingZoneRequirement>>()
-    private val routingZoneRequirements =
-        mutableMapOf<String, MutableList<RoutingZoneRequirement>>()
+    private val spacingZoneRequirements: Map<String, RequirementIndex<SpacingZoneRequirement>>
+    private val routingZoneRequirements: Map<String, RequirementIndex<RoutingZoneRequirement>>
 
     init {
-        generateSpacingRequirements(trainRequirements)
-        generateRoutingRequirements(trainRequirements)
+        spacingZoneRequirements =
+            generateSpacingRequirements(trainRequirements).mapValues { RequirementIndex(it.value) }
+        routingZoneRequirements =
+            generateRoutingRequirements(trainRequirements).mapValues { RequirementIndex(it.value) }
     }
 
     data class SpacingZoneRequirement(
@@ -106,15 +112,15 @@ class IncrementalConflictDetectorImpl(trainRequirements: List<TrainRequirements>
         override val endTime: Double,
     ) : ResourceRequirement
 
-    private fun generateSpacingRequirements(trainRequirements: List<SpacingTrainRequirement>) {
+    private fun generateSpacingRequirements(
+        trainRequirements: List<SpacingTrainRequirement>
+    ): Map<String, List<SpacingZoneRequirement>> {
         // organize requirements by zone
-        for (req in trainRequirements) {
-            for (spacingReq in req.spacingRequirements) {
-                val zoneReq =
-                    SpacingZoneRequirement(req.trainId, spacingReq.beginTime, spacingReq.endTime)
-                spacingZoneRequirements.getOrPut(spacingReq.zone!!) { mutableListOf() }.add(zoneReq)
-            }
+        val spacingZoneRequirements = mutableMapOf<String, MutableList<SpacingZoneRequirement>>()
+        forEachSpacingZoneRequirement(trainRequirements) { zone, zoneReq ->
+            spacingZoneRequirements.getOrPut(zone) { mutableListOf() }.add(zoneReq)
         }
+        return spacingZoneRequirements
     }
 
     data class RoutingZoneConfig(
@@ -131,67 +137,23 @@ class IncrementalConflictDetectorImpl(trainRequirements: List<TrainRequirements>
         val config: RoutingZoneConfig,
     ) : ResourceRequirement
 
-    private fun generateRoutingRequirements(trainsRequirements: List<RoutingTrainRequirement>) {
+    private fun generateRoutingRequirements(
+        trainsRequirements: List<RoutingTrainRequirement>
+    ): Map<String, List<RoutingZoneRequirement>> {
         // reorganize requirements by zone
-        for (trainRequirements in trainsRequirements) {
-            val trainId = trainRequirements.trainId
-            for (routeRequirements in trainRequirements.routingRequirements) {
-                val route = routeRequirements.route!!
-                var beginTime = routeRequirements.beginTime
-                // TODO: make it a parameter
-                if (routeRequirements.zones.any { it.switches.isNotEmpty() }) beginTime -= 5.0
-                for (zoneRequirement in routeRequirements.zones) {
-                    val endTime = zoneRequirement.endTime
-                    val config =
-                        RoutingZoneConfig(
-                            zoneRequirement.entryDetector,
-                            zoneRequirement.exitDetector,
-                            zoneRequirement.switches!!
-                        )
-                    val requirement =
-                        RoutingZoneRequirement(trainId, route, beginTime, endTime, config)
-                    routingZoneRequirements
-                        .getOrPut(zoneRequirement.zone) { mutableListOf() }
-                        .add(requirement)
-                }
-            }
+        val routingZoneRequirements = mutableMapOf<String, MutableList<RoutingZoneRequirement>>()
+        forEachRoutingZoneRequirement(trainsRequirements) { zone, requirement ->
+            routingZoneRequirements.getOrPut(zone) { mutableListOf() }.add(requirement)
         }
+        return routingZoneRequirements
     }
 
     override fun checkConflicts(): List<Conflict> {
         val res = mutableListOf<Conflict>()
-        res.addAll(detectSpacingConflicts())
-        res.addAll(detectRoutingConflicts())
-        return res
-    }
-
-    private fun detectSpacingConflicts(): List<Conflict> {
-        // look for requirement times overlaps.
-        // as spacing requirements are exclusive, any overlap is a conflict
-        val res = mutableListOf<Conflict>()
-        for (requirements in spacingZoneRequirements.values) {
-            for (conflictGroup in detectRequirementConflicts(requirements) { _, _ -> true }) {
-                val trains = conflictGroup.map { it.trainId }
-                val beginTime = conflictGroup.minBy { it.beginTime }.beginTime
-                val endTime = conflictGroup.maxBy { it.endTime }.endTime
-                res.add(Conflict(trains, beginTime, endTime, ConflictType.SPACING))
-            }
-        }
-        return res
-    }
-
-    private fun detectRoutingConflicts(): List<Conflict> {
-        // for each zone, check compatibility of overlapping requirements
-        val res = mutableListOf<Conflict>()
-        for (requirements in routingZoneRequirements.values) {
-            for (conflictGroup in
-                detectRequirementConflicts(requirements) { a, b -> a.config != b.config }) {
-                val trains = conflictGroup.map { it.trainId }
-                val beginTime = conflictGroup.minBy { it.beginTime }.beginTime
-                val endTime = conflictGroup.maxBy { it.endTime }.endTime
-                res.add(Conflict(trains, beginTime, endTime, ConflictType.ROUTING))
-            }
-        }
+        for (index in spacingZoneRequirements.values)
+            res.addAll(detectSpacingConflicts(index.items.toMutableList()))
+        for (index in routingZoneRequirements.values)
+            res.addAll(detectRoutingConflicts(index.items.toMutableList()))
         return res
     }
 
@@ -210,8 +172,10 @@ class IncrementalConflictDetectorImpl(trainRequirements: List<TrainRequirements>
     }
 
     override fun checkSpacingRequirement(req: SpacingRequirement): List<Conflict> {
-        val requirements = (spacingZoneRequirements[req.zone!!] ?: return listOf()).toMutableList()
-        requirements.add(SpacingZoneRequirement(-1, req.beginTime, req.endTime))
+        val index = spacingZoneRequirements[req.zone!!] ?: return listOf()
+        // only the requirements overlapping the new one, directly or not, can conflict with it
+        val requirements =
+            index.clusterWith(SpacingZoneRequirement(-1, req.beginTime, req.endTime))
 
         val res = mutableListOf<Conflict>()
         for (conflictGroup in detectRequirementConflicts(requirements) { _, _ -> true }) {
@@ -230,20 +194,21 @@ class IncrementalConflictDetectorImpl(trainRequirements: List<TrainRequirements>
     override fun checkRoutingRequirement(req: RoutingRequirement): List<Conflict> {
         val res = mutableListOf<Conflict>()
         for (zoneReq in req.zones) {
-            val requirements = (routingZoneRequirements[zoneReq.zone!!] ?: continue).toMutableList()
-            requirements.add(
-                RoutingZoneRequirement(
-                    -1,
-                    req.route,
-                    req.beginTime,
-                    zoneReq.endTime,
-                    RoutingZoneConfig(
-                        zoneReq.entryDetector,
-                        zoneReq.exitDetector,
-                        zoneReq.switches!!
+            val index = routingZoneRequirements[zoneReq.zone!!] ?: continue
+            val requirements =
+                index.clusterWith(
+                    RoutingZoneRequirement(
+                        -1,
+                        req.route,
+                        req.beginTime,
+                        zoneReq.endTime,
+                        RoutingZoneConfig(
+                            zoneReq.entryDetector,
+                            zoneReq.exitDetector,
+                            zoneReq.switches!!
+                        )
                     )
                 )
-            )
 
             for (conflictGroup in
                 detectRequirementConflicts(requirements) { a, b -> a.config != b.config }) {
@@ -271,33 +236,27 @@ class IncrementalConflictDetectorImpl(trainRequirements: List<TrainRequirements>
             var maxDelay = Double.POSITIVE_INFINITY
             var timeOfNextConflict = Double.POSITIVE_INFINITY
             for (spacingRequirement in spacingRequirements) {
-                if (spacingZoneRequirements[spacingRequirement.zone!!] != null) {
-                    val endTime = spacingRequirement.endTime
-                    for (requirement in spacingZoneRequirements[spacingRequirement.zone!!]!!) {
-                        if (endTime <= requirement.beginTime) {
-                            maxDelay = min(maxDelay, requirement.beginTime - endTime)
-                            timeOfNextConflict = min(timeOfNextConflict, requirement.beginTime)
-                        }
-                    }
-                }
+                val index = spacingZoneRequirements[spacingRequirement.zone!!] ?: continue
+                val endTime = spacingRequirement.endTime
+                val nextBeginTime = index.nextBeginTime(endTime, anyRequirement)
+                if (nextBeginTime == Double.POSITIVE_INFINITY) continue
+                maxDelay = min(maxDelay, nextBeginTime - endTime)
+                timeOfNextConflict = min(timeOfNextConflict, nextBeginTime)
             }
             for (routingRequirement in routingRequirements) {
                 for (zoneReq in routingRequirement.zones) {
-                    if (routingZoneRequirements[zoneReq.zone!!] != null) {
-                        val endTime = zoneReq.endTime
-                        val config =
-                            RoutingZoneConfig(
-                                zoneReq.entryDetector,
-                                zoneReq.exitDetector,
-                                zoneReq.switches!!
-                            )
-                        for (requirement in routingZoneRequirements[zoneReq.zone!!]!!) {
-                            if (endTime <= requirement.beginTime && config != requirement.config) {
-                                maxDelay = min(maxDelay, requirement.beginTime - endTime)
-                                timeOfNextConflict = min(timeOfNextConflict, requirement.beginTime)
-                            }
-                        }
-                    }
+                    val index = routingZoneRequirements[zoneReq.zone!!] ?: continue
+                    val endTime = zoneReq.endTime
+                    val config =
+                        RoutingZoneConfig(
+                            zoneReq.entryDetector,
+                            zoneReq.exitDetector,
+                            zoneReq.switches!!
+                        )
+                    val nextBeginTime = index.nextBeginTime(endTime) { config != it.config }
+                    if (nextBeginTime == Double.POSITIVE_INFINITY) continue
+                    maxDelay = min(maxDelay, nextBeginTime - endTime)
+                    timeOfNextConflict = min(timeOfNextConflict, nextBeginTime)
                 }
             }
             return ConflictProperties(minDelayWithoutConflicts, maxDelay, timeOfNextConflict)
@@ -312,37 +271,31 @@ class IncrementalConflictDetectorImpl(trainRequirements: List<TrainRequirements>
         while (globalMinDelay.isFinite()) {
             var minDelay = 0.0
             for (spacingRequirement in spacingRequirements) {
-                if (spacingZoneRequirements[spacingRequirement.zone!!] != null) {
-                    val conflictingRequirements =
-                        spacingZoneRequirements[spacingRequirement.zone!!]!!.filter {
-                            !(spacingRequirement.beginTime >= it.endTime ||
-                                spacingRequirement.endTime <= it.beginTime)
-                        }
-                    if (conflictingRequirements.isNotEmpty()) {
-                        val latestEndTime = conflictingRequirements.maxOf { it.endTime }
-                        minDelay = max(minDelay, latestEndTime - spacingRequirement.beginTime)
-                    }
-                }
+                val index = spacingZoneRequirements[spacingRequirement.zone!!] ?: continue
+                val latestEndTime =
+                    index.maxOverlappingEndTime(
+                        spacingRequirement.beginTime,
+                        spacingRequirement.endTime,
+                        anyRequirement
+                    )
+                if (latestEndTime != Double.NEGATIVE_INFINITY)
+                    minDelay = max(minDelay, latestEndTime - spacingRequirement.beginTime)
             }
             for (routingRequirement in routingRequirements) {
                 for (zoneReq in routingRequirement.zones) {
-                    if (routingZoneRequirements[zoneReq.zone!!] != null) {
-                        val config =
-                            RoutingZoneConfig(
-                                zoneReq.entryDetector,
-                                zoneReq.exitDetector,
-                                zoneReq.switches!!
-                            )
-                        val conflictingRequirements =
-                            routingZoneRequirements[zoneReq.zone!!]!!.filter {
-                                !(routingRequirement.beginTime >= it.endTime ||
-                                    zoneReq.endTime <= it.beginTime) && config != it.config
-                            }
-                        if (conflictingRequirements.isNotEmpty()) {
-                            val latestEndTime = conflictingRequirements.maxOf { it.endTime }
-                            minDelay = max(minDelay, latestEndTime - routingRequirement.beginTime)
+                    val index = routingZoneRequirements[zoneReq.zone!!] ?: continue
+                    val config =
+                        RoutingZoneConfig(
+                            zoneReq.entryDetector,
+                            zoneReq.exitDetector,
+                            zoneReq.switches!!
+                        )
+                    val latestEndTime =
+                        index.maxOverlappingEndTime(routingRequirement.beginTime, zoneReq.endTime) {
+                            config != it.config
                         }
-                    }
+                    if (latestEndTime != Double.NEGATIVE_INFINITY)
+                        minDelay = max(minDelay, latestEndTime - routingRequirement.beginTime)
                 }
             }
             // No new conflicts
@@ -377,6 +330,81 @@ class IncrementalConflictDetectorImpl(trainRequirements: List<TrainRequirements>
     }
 }
 
+/** Calls action on the spacing requirements of each train, along with their zone */
+internal inline fun forEachSpacingZoneRequirement(
+    trainRequirements: List<SpacingTrainRequirement>,
+    action: (String, SpacingZoneRequirement) -> Unit
+) {
+    for (req in trainRequirements) {
+        for (spacingReq in req.spacingRequirements) {
+            val zoneReq =
+                SpacingZoneRequirement(req.trainId, spacingReq.beginTime, spacingReq.endTime)
+            action(spacingReq.zone!!, zoneReq)
+        }
+    }
+}
+
+/** Calls action on the routing requirements of each train, split by zone */
+internal inline fun forEachRoutingZoneRequirement(
+    trainsRequirements: List<RoutingTrainRequirement>,
+    action: (String, RoutingZoneRequirement) -> Unit
+) {
+    for (trainRequirements in trainsRequirements) {
+        val trainId = trainRequirements.trainId
+        for (routeRequirements in trainRequirements.routingRequirements) {
+            val route = routeRequirements.route!!
+            var beginTime = routeRequirements.beginTime
+            // TODO: make it a parameter
+            if (routeRequirements.zones.any { it.switches.isNotEmpty() }) beginTime -= 5.0
+            for (zoneRequirement in routeRequirements.zones) {
+                val endTime = zoneRequirement.endTime
+                val config =
+                    RoutingZoneConfig(
+                        zoneRequirement.entryDetector,
+                        zoneRequirement.exitDetector,
+                        zoneRequirement.switches!!
+                    )
+                val requirement = RoutingZoneRequirement(trainId, route, beginTime, endTime, config)
+                action(zoneRequirement.zone, requirement)
+            }
+        }
+    }
+}
+
+/** Returns the conflicts between the spacing requirements of a single zone */
+internal fun detectSpacingConflicts(
+    requirements: MutableList<SpacingZoneRequirement>
+): List<Conflict> {
+    // look for requirement times overlaps.
+    // as spacing requirements are exclusive, any overlap is a conflict
+    val res = mutableListOf<Conflict>()
+    for (conflictGroup in detectRequirementConflicts(requirements) { _, _ -> true }) {
+        val trains = conflictGroup.map { it.trainId }
+        val beginTime = conflictGroup.minBy { it.beginTime }.beginTime
+        val endTime = conflictGroup.maxBy { it.endTime }.endTime
+        res.add(Conflict(trains, beginTime, endTime, ConflictType.SPACING))
+    }
+    return res
+}
+
+/** Returns the conflicts between the routing requirements of a single zone */
+internal fun detectRoutingConflicts(
+    requirements: MutableList<RoutingZoneRequirement>
+): List<Conflict> {
+    // check compatibility of overlapping requirements
+    val res = mutableListOf<Conflict>()
+    for (conflictGroup in
+        detectRequirementConflicts(requirements) { a, b -> a.config != b.config }) {
+        val trains = conflictGroup.map { it.trainId }
+        val beginTime = conflictGroup.minBy { it.beginTime }.beginTime
+        val endTime = conflictGroup.maxBy { it.endTime }.endTime
+        res.add(Conflict(trains, beginTime, endTime, ConflictType.ROUTING))
+    }
+    return res
+}
+
+private val anyRequirement: (ResourceRequirement) -> Boolean = { true }
+
 /**
  * Return a list of requirement conflict groups. If requirements pairs (A, B) and (B, C) are
  * conflicting, then (A, B, C) are part of the same conflict group.
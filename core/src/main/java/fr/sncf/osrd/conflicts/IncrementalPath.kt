@@ -1,9 +1,9 @@
 package fr.sncf.osrd.conflicts
 
 import fr.sncf.osrd.sim_infra.api.*
-import fr.sncf.osrd.utils.AppendOnlyLinkedList
-import fr.sncf.osrd.utils.appendOnlyLinkedListOf
+import fr.sncf.osrd.utils.PersistentVector
 import fr.sncf.osrd.utils.indexing.StaticIdxList
+import fr.sncf.osrd.utils.persistentVectorOf
 import fr.sncf.osrd.utils.units.*
 
 class PathFragment(
@@ -47,7 +47,7 @@ interface IncrementalPath {
     val endBlockIndex: Int
     val endRouteIndex: Int
 
-    val routes: AppendOnlyLinkedList<RouteId>
+    val routes: PersistentVector<RouteId>
 
     fun getBlock(blockIndex: Int): BlockId
 
@@ -103,17 +103,17 @@ private class IncrementalPathImpl(
     private val blockInfra: BlockInfra,
 
     // objects
-    private var zonePaths: AppendOnlyLinkedList<ZonePathId> = appendOnlyLinkedListOf(),
-    override var routes: AppendOnlyLinkedList<RouteId> = appendOnlyLinkedListOf(),
-    private var blocks: AppendOnlyLinkedList<BlockId> = appendOnlyLinkedListOf(),
+    private var zonePaths: PersistentVector<ZonePathId> = persistentVectorOf(),
+    override var routes: PersistentVector<RouteId> = persistentVectorOf(),
+    private var blocks: PersistentVector<BlockId> = persistentVectorOf(),
 
     // lookup tables from blocks and routes to zone path bounds
-    private val blockZoneBounds: AppendOnlyLinkedList<Int> = appendOnlyLinkedListOf(),
-    private val routeZoneBounds: AppendOnlyLinkedList<Int> = appendOnlyLinkedListOf(0),
+    private val blockZoneBounds: PersistentVector<Int> = persistentVectorOf(),
+    private val routeZoneBounds: PersistentVector<Int> = persistentVectorOf(0),
 
     // a lookup table from zone index to zone start path offset
-    private var zonePathBounds: AppendOnlyLinkedList<Offset<Path>> =
-        appendOnlyLinkedListOf(Offset(0.meters)),
+    private var zonePathBounds: PersistentVector<Offset<Path>> =
+        persistentVectorOf(Offset(0.meters)),
     override var travelledPathBegin: Offset<Path> = Offset((-1).meters),
     override var travelledPathEnd: Offset<Path> = Offset((-1).meters),
 ) : IncrementalPath {
@@ -164,10 +164,8 @@ private class IncrementalPathImpl(
             val firstBlock = fragment.blocks[0]
             val firstBlockZonePath = blockInfra.getBlockPath(firstBlock)[0]
             var firstBlockZonePathIndex = -1
-            val zonePathList = zonePaths.toList()
-            for (zonePathIndex in zonePathList.indices) {
-                val zonePath = zonePathList[zonePathIndex]
-                if (zonePath == firstBlockZonePath) {
+            for (zonePathIndex in 0 until zonePaths.size) {
+                if (zonePaths[zonePathIndex] == firstBlockZonePath) {
                     firstBlockZonePathIndex = zonePathIndex
                     break
                 }
@@ -0,0 +1,168 @@
+package fr.sncf.osrd.conflicts
+
+import kotlin.math.max
+
+/**
+ * An immutable index of the requirements of a zone, used to answer incremental conflict queries
+ * without scanning all the requirements of the zone.
+ *
+ * Requirements are sorted by begin time, and seen as an implicit balanced binary tree: the root of
+ * the index range [lo, hi) is its middle index. Each node stores the maximum end time of its
+ * subtree, which makes it an augmented interval tree: overlap queries take O(log n + k).
+ *
+ * Requirements are also split into clusters: a cluster starts at a requirement which begins after
+ * all the previous ones have ended. Requirements of different clusters can never be part of the
+ * same conflict group.
+ */
+internal class RequirementIndex<ReqT : ResourceRequirement>(requirements: Collection<ReqT>) {
+    /** The requirements, sorted by begin time */
+    val items: List<ReqT> = requirements.sortedBy { it.beginTime }
+    val size = items.size
+
+    private val beginTimes = DoubleArray(size) { items[it].beginTime }
+    private val endTimes = DoubleArray(size) { items[it].endTime }
+    private val subtreeMaxEnd = DoubleArray(size)
+    private val prefixMaxEnd = DoubleArray(size)
+    private val clusterStart = IntArray(size)
+    private val clusterEnd = IntArray(size)
+
+    init {
+        fillSubtreeMaxEnd(0, size)
+        var maxEnd = Double.NEGATIVE_INFINITY
+        for (i in 0 until size) {
+            clusterStart[i] = if (i == 0 || maxEnd <= beginTimes[i]) i else clusterStart[i - 1]
+            maxEnd = max(maxEnd, endTimes[i])
+            prefixMaxEnd[i] = maxEnd
+        }
+        for (i in size - 1 downTo 0) {
+            clusterEnd[i] =
+                if (i == size - 1 || clusterStart[i + 1] != clusterStart[i]) i + 1
+                else clusterEnd[i + 1]
+        }
+    }
+
+    private fun fillSubtreeMaxEnd(lo: Int, hi: Int): Double {
+        if (lo >= hi) return Double.NEGATIVE_INFINITY
+        val mid = (lo + hi) ushr 1
+        val res =
+            max(endTimes[mid], max(fillSubtreeMaxEnd(lo, mid), fillSubtreeMaxEnd(mid + 1, hi)))
+        subtreeMaxEnd[mid] = res
+        return res
+    }
+
+    /** Returns the index of the first requirement which begins at or after the given time */
+    private fun firstBeginningAtOrAfter(time: Double): Int {
+        var lo = 0
+        var hi = size
+        while (lo < hi) {
+            val mid = (lo + hi) ushr 1
+            if (beginTimes[mid] < time) lo = mid + 1 else hi = mid
+        }
+        return lo
+    }
+
+    /** Returns the index of the first requirement which begins strictly after the given time */
+    private fun firstBeginningAfter(time: Double): Int {
+        var lo = 0
+        var hi = size
+        while (lo < hi) {
+            val mid = (lo + hi) ushr 1
+            if (beginTimes[mid] <= time) lo = mid + 1 else hi = mid
+        }
+        return lo
+    }
+
+    /**
+     * Returns the latest end time of the requirements overlapping [beginTime, endTime[ and matching
+     * the filter, or -inf if there are none.
+     */
+    fun maxOverlappingEndTime(
+        beginTime: Double,
+        endTime: Double,
+        filter: (ReqT) -> Boolean
+    ): Double {
+        return maxOverlappingEndTime(0, size, beginTime, endTime, Double.NEGATIVE_INFINITY, filter)
+    }
+
+    private fun maxOverlappingEndTime(
+        lo: Int,
+        hi: Int,
+        beginTime: Double,
+        endTime: Double,
+        currentMax: Double,
+        filter: (ReqT) -> Boolean
+    ): Double {
+        if (lo >= hi) return currentMax
+        val mid = (lo + hi) ushr 1
+        // none of the requirements of this subtree end after the query begins, or after the
+        // current best result
+        if (subtreeMaxEnd[mid] <= max(beginTime, currentMax)) return currentMax
+        var res = maxOverlappingEndTime(lo, mid, beginTime, endTime, currentMax, filter)
+        // the middle requirement and the right subtree all begin after the end of the query
+        if (beginTimes[mid] >= endTime) return res
+        if (endTimes[mid] > beginTime && endTimes[mid] > res && filter(items[mid]))
+            res = endTimes[mid]
+        return maxOverlappingEndTime(mid + 1, hi, beginTime, endTime, res, filter)
+    }
+
+    /**
+     * Returns the earliest begin time of the requirements beginning at or after the given time and
+     * matching the filter, or +inf if there are none.
+     */
+    fun nextBeginTime(time: Double, filter: (ReqT) -> Boolean): Double {
+        for (i in firstBeginningAtOrAfter(time) until size) {
+            if (filter(items[i])) return beginTimes[i]
+        }
+        return Double.POSITIVE_INFINITY
+    }
+
+    /**
+     * Returns the requirements which may end up in the same conflict group as a new requirement,
+     * along with the new requirement, sorted the same way the full requirement list would be.
+     * Requirements outside the returned list can't be part of a conflict group with the new one.
+     */
+    fun clusterWith(requirement: ReqT): MutableList<ReqT> {
+        // the new requirement would be sorted after the requirements beginning at the same time
+        val insertionIndex = firstBeginningAfter(requirement.beginTime)
+        val clusterBegin =
+            if (insertionIndex == 0 || prefixMaxEnd[insertionIndex - 1] <= requirement.beginTime)
+                insertionIndex
+            else clusterStart[insertionIndex - 1]
+        var maxEnd = requirement.endTime
+        if (insertionIndex > 0) maxEnd = max(maxEnd, prefixMaxEnd[insertionIndex - 1])
+        var clusterEnd = insertionIndex
+        while (clusterEnd < size && beginTimes[clusterEnd] < maxEnd) {
+            maxEnd = max(maxEnd, endTimes[clusterEnd])
+            clusterEnd++
+        }
+
+        val res = ArrayList<ReqT>(clusterEnd - clusterBegin + 1)
+        for (i in clusterBegin until insertionIndex) res.add(items[i])
+        res.add(requirement)
+        for (i in insertionIndex until clusterEnd) res.add(items[i])
+        return res
+    }
+
+    /**
+     * Returns the indices of the clusters overlapping [beginTime, endTime[, which is empty if there
+     * are none. As conflict groups never span several clusters, the conflicts of these requirements
+     * can be detected without looking at the other ones.
+     */
+    fun clustersOverlapping(beginTime: Double, endTime: Double): IntRange {
+        // the first requirement such that some requirement up to it ends after beginTime
+        var lo = 0
+        var hi = size
+        while (lo < hi) {
+            val mid = (lo + hi) ushr 1
+            if (prefixMaxEnd[mid] <= beginTime) lo = mid + 1 else hi = mid
+        }
+        val last = firstBeginningAtOrAfter(endTime) - 1
+        if (lo > last) return IntRange.EMPTY
+        return clusterStart[lo] until clusterEnd[last]
+    }
+
+    /** Returns the time range covered by the given requirements, which must be whole clusters */
+    fun timeSpan(indices: IntRange): ClosedFloatingPointRange<Double> {
+        return beginTimes[indices.first]..prefixMaxEnd[indices.last]
+    }
+}
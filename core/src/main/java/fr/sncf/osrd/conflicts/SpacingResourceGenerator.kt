@@ -5,6 +5,7 @@ import fr.sncf.osrd.signaling.ZoneStatus
 import fr.sncf.osrd.sim_infra.api.*
 import fr.sncf.osrd.standalone_sim.result.ResultTrain.SpacingRequirement
 import fr.sncf.osrd.utils.indexing.mutableStaticIdxArrayListOf
+import fr.sncf.osrd.utils.persistentVectorOf
 import fr.sncf.osrd.utils.units.Offset
 import kotlin.math.min
 import mu.KotlinLogging
@@ -54,6 +55,10 @@ class SpacingRequirementAutomaton(
     // requirements that need to be returned on the next successful pathUpdate
     private val pendingRequirements = ArrayDeque<PendingSpacingRequirement>()
 
+    // requirements which were complete at the end of a previous pathUpdate, in emission order.
+    // They can't change anymore, and are shared between clones
+    private var completedRequirements = persistentVectorOf<SpacingRequirement>()
+
     private fun registerPathExtension() {
         // if the path has not yet started, skip signal processing
         if (!incrementalPath.pathStarted) {
@@ -309,11 +314,27 @@ class SpacingRequirementAutomaton(
             }
 
         // remove complete requirements
-        for (i in 0 until firstIncompleteReq) pendingRequirements.removeFirst()
+        for (i in 0 until firstIncompleteReq) {
+            pendingRequirements.removeFirst()
+            completedRequirements.add(serializedRequirements[i])
+        }
 
         return SpacingRequirements(serializedRequirements)
     }
 
+    /**
+     * Returns all the requirements since the start of the path, as of the last pathUpdate.
+     * Requirements completed by previous updates are reused, only the pending ones are serialized.
+     */
+    fun getAllRequirements(): List<SpacingRequirement> {
+        val res = ArrayList<SpacingRequirement>()
+        res.addAll(completedRequirements.asList())
+        for (pendingRequirement in pendingRequirements) {
+            res.add(serializeRequirement(pendingRequirement))
+        }
+        return res
+    }
+
     private fun serializeRequirement(
         pendingRequirement: PendingSpacingRequirement
     ): SpacingRequirement {
@@ -366,6 +387,7 @@ class SpacingRequirementAutomaton(
         res.lastEmittedZone = lastEmittedZone
         res.pendingSignals.addAll(pendingSignals)
         res.pendingRequirements.addAll(pendingRequirements)
+        res.completedRequirements = completedRequirements.shallowCopy()
         return res
     }
 }
@@ -0,0 +1,263 @@
+package fr.sncf.osrd.conflicts
+
+import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict
+import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict.ConflictType
+import fr.sncf.osrd.conflicts.IncrementalConflictDetectorImpl.RoutingZoneRequirement
+import fr.sncf.osrd.conflicts.IncrementalConflictDetectorImpl.SpacingZoneRequirement
+import java.util.BitSet
+
+/** The conflicts which appeared and disappeared after an update of a timetable */
+data class ConflictChanges(val added: List<Conflict>, val removed: List<Conflict>)
+
+/**
+ * The requirements and conflicts of a zone, for a single type of requirement. Conflict groups never
+ * span several clusters of the requirement index, so when requirements change, only the conflicts
+ * of the clusters they overlap are detected again.
+ */
+private class ZoneRequirements<ReqT : ResourceRequirement>(
+    private val trainId: (ReqT) -> Long,
+    private val detect: (MutableList<ReqT>) -> List<Conflict>
+) {
+    private var index = RequirementIndex<ReqT>(listOf())
+    private var conflicts: List<Conflict> = listOf()
+
+    /**
+     * Removes the requirements of the given trains, adds new requirements, and updates the
+     * conflicts. Calls onRemoved and onAdded with the conflicts which were detected again.
+     */
+    fun update(
+        outdatedTrains: Set<Long>,
+        addedRequirements: List<ReqT>,
+        onRemoved: (Conflict) -> Unit,
+        onAdded: (Conflict) -> Unit
+    ) {
+        val changedRequirements = ArrayList(addedRequirements)
+        val requirements = ArrayList<ReqT>(index.size + addedRequirements.size)
+        for (requirement in index.items) {
+            if (trainId(requirement) in outdatedTrains) changedRequirements.add(requirement)
+            else requirements.add(requirement)
+        }
+        if (changedRequirements.isEmpty()) return
+        requirements.addAll(addedRequirements)
+        val newIndex = RequirementIndex(requirements)
+
+        // find the clusters of the new index which changed, and the time they cover
+        val clusters = ArrayList<IntRange>()
+        for (requirement in changedRequirements) {
+            val overlapping =
+                newIndex.clustersOverlapping(requirement.beginTime, requirement.endTime)
+            if (!overlapping.isEmpty()) clusters.add(overlapping)
+        }
+        val changedSpans = ArrayList<ClosedFloatingPointRange<Double>>()
+        for (requirement in changedRequirements)
+            changedSpans.add(requirement.beginTime..requirement.endTime)
+        val changedRequirementIndices = BitSet()
+        for (cluster in clusters) {
+            changedSpans.add(newIndex.timeSpan(cluster))
+            changedRequirementIndices.set(cluster.first, cluster.last + 1)
+        }
+
+        // conflicts of unchanged clusters are kept, the others are detected again
+        val newConflicts = ArrayList<Conflict>()
+        for (conflict in conflicts) {
+            if (changedSpans.any { overlaps(conflict, it) }) onRemoved(conflict)
+            else newConflicts.add(conflict)
+        }
+        val changedClusterRequirements = ArrayList<ReqT>()
+        forEachSetBit(changedRequirementIndices) {
+            changedClusterRequirements.add(newIndex.items[it])
+        }
+        for (conflict in detect(changedClusterRequirements)) {
+            onAdded(conflict)
+            newConflicts.add(conflict)
+        }
+        index = newIndex
+        conflicts = newConflicts
+    }
+
+    /** Conflicts always last a while, as touching requirements don't conflict */
+    private fun overlaps(conflict: Conflict, span: ClosedFloatingPointRange<Double>): Boolean {
+        return conflict.startTime < span.endInclusive && conflict.endTime > span.start
+    }
+}
+
+/**
+ * The requirements and conflicts of a timetable, kept between requests so that moving a single
+ * train doesn't require detecting the conflicts of the whole timetable again.
+ *
+ * Requirements are grouped by zone, the same way IncrementalConflictDetectorImpl does, and kept in
+ * a RequirementIndex. When trains change, only the conflicts of the requirement clusters they
+ * overlap are detected again, and only the merged conflicts of the affected sets of trains are
+ * compared with their previous value.
+ */
+class TimetableConflictState {
+    /** The set of trains and the type of a group of conflicts, which may get merged together */
+    private data class ConflictKey(val conflictType: ConflictType, val trainIds: List<Long>)
+
+    private val zoneIds = HashMap<String, Int>()
+    private val spacingZoneRequirements = ArrayList<ZoneRequirements<SpacingZoneRequirement>>()
+    private val routingZoneRequirements = ArrayList<ZoneRequirements<RoutingZoneRequirement>>()
+
+    /** For each train, the zones it has requirements in */
+    private val trainZones = HashMap<Long, IntArray>()
+
+    /** For each set of trains, the unmerged conflicts of each zone */
+    private val keyZoneConflicts = HashMap<ConflictKey, HashMap<Int, MutableList<Conflict>>>()
+
+    /** For each set of trains, the merged conflicts, sorted by start time */
+    private val mergedConflicts = HashMap<ConflictKey, List<Conflict>>()
+
+    val trainCount: Int
+        @Synchronized get() = trainZones.size
+
+    /** Returns all the merged conflicts of the timetable, sorted by start time */
+    @Synchronized
+    fun getConflicts(): List<Conflict> {
+        return mergedConflicts.values.flatten().sortedBy { it.startTime }
+    }
+
+    /**
+     * Adds or replaces the requirements of the given trains, removes the given trains, and returns
+     * the conflicts which changed.
+     */
+    @Synchronized
+    fun update(
+        updatedTrains: List<TrainRequirements>,
+        removedTrains: Collection<Long>
+    ): ConflictChanges {
+        val dirtyZones = BitSet()
+        val outdatedTrains = HashSet<Long>(removedTrains)
+        for (train in updatedTrains) outdatedTrains.add(train.trainId)
+
+        // the zones of the previous requirements of updated and removed trains
+        for (trainId in outdatedTrains) {
+            val zones = trainZones.remove(trainId) ?: continue
+            for (zone in zones) dirtyZones.set(zone)
+        }
+
+        // group the new requirements by zone
+        val addedSpacingRequirements = HashMap<Int, MutableList<SpacingZoneRequirement>>()
+        val addedRoutingRequirements = HashMap<Int, MutableList<RoutingZoneRequirement>>()
+        for (train in updatedTrains) {
+            val zones = BitSet()
+            forEachSpacingZoneRequirement(listOf(train)) { zoneName, requirement ->
+                val zone = getZoneId(zoneName)
+                addedSpacingRequirements.getOrPut(zone) { ArrayList() }.add(requirement)
+                zones.set(zone)
+            }
+            forEachRoutingZoneRequirement(listOf(train)) { zoneName, requirement ->
+                val zone = getZoneId(zoneName)
+                addedRoutingRequirements.getOrPut(zone) { ArrayList() }.add(requirement)
+                zones.set(zone)
+            }
+            dirtyZones.or(zones)
+            trainZones[train.trainId] = zones.stream().toArray()
+        }
+
+        // detect the conflicts of the zones which changed
+        val dirtyKeys = HashSet<ConflictKey>()
+        forEachSetBit(dirtyZones) { zone ->
+            val onRemoved: (Conflict) -> Unit = { conflict ->
+                val key = keyOf(conflict)
+                dirtyKeys.add(key)
+                val conflictsPerZone = keyZoneConflicts[key]!!
+                val zoneConflicts = conflictsPerZone[zone]!!
+                zoneConflicts.remove(conflict)
+                if (zoneConflicts.isEmpty()) conflictsPerZone.remove(zone)
+                if (conflictsPerZone.isEmpty()) keyZoneConflicts.remove(key)
+            }
+            val onAdded: (Conflict) -> Unit = { conflict ->
+                val key = keyOf(conflict)
+                dirtyKeys.add(key)
+                keyZoneConflicts
+                    .getOrPut(key) { HashMap() }
+                    .getOrPut(zone) { ArrayList() }
+                    .add(conflict)
+            }
+            spacingZoneRequirements[zone].update(
+                outdatedTrains,
+                addedSpacingRequirements[zone] ?: listOf(),
+                onRemoved,
+                onAdded
+            )
+            routingZoneRequirements[zone].update(
+                outdatedTrains,
+                addedRoutingRequirements[zone] ?: listOf(),
+                onRemoved,
+                onAdded
+            )
+        }
+
+        // merge the conflicts of the trains whose conflicts changed, and compare with the result
+        // of the previous update
+        val added = ArrayList<Conflict>()
+        val removed = ArrayList<Conflict>()
+        for (key in dirtyKeys) {
+            val oldConflicts = mergedConflicts[key] ?: listOf()
+            val unmergedConflicts = keyZoneConflicts[key]?.values?.flatten() ?: listOf()
+            val newConflicts = mergeConflicts(unmergedConflicts).sortedBy { it.startTime }
+            if (newConflicts.isEmpty()) mergedConflicts.remove(key)
+            else mergedConflicts[key] = newConflicts
+            added.addAll(newConflicts.filter { new -> oldConflicts.none { same(it, new) } })
+            removed.addAll(oldConflicts.filter { old -> newConflicts.none { same(it, old) } })
+        }
+        added.sortBy { it.startTime }
+        removed.sortBy { it.startTime }
+        return ConflictChanges(added, removed)
+    }
+
+    private fun getZoneId(zoneName: String): Int {
+        return zoneIds.getOrPut(zoneName) {
+            spacingZoneRequirements.add(ZoneRequirements({ it.trainId }, ::detectSpacingConflicts))
+            routingZoneRequirements.add(ZoneRequirements({ it.trainId }, ::detectRoutingConflicts))
+            spacingZoneRequirements.size - 1
+        }
+    }
+
+    private fun keyOf(conflict: Conflict): ConflictKey {
+        return ConflictKey(conflict.conflictType, conflict.trainIds.distinct().sorted())
+    }
+
+    /** Merged conflicts of the same key are the same if they span the same time */
+    private fun same(a: Conflict, b: Conflict): Boolean {
+        return a.startTime == b.startTime && a.endTime == b.endTime
+    }
+}
+
+private inline fun forEachSetBit(bits: BitSet, action: (Int) -> Unit) {
+    var bit = bits.nextSetBit(0)
+    while (bit >= 0) {
+        action(bit)
+        bit = bits.nextSetBit(bit + 1)
+    }
+}
+
+/**
+ * Keeps the conflict state of the most recently used timetables. The state of a timetable is lost
+ * when the worker restarts or when too many other timetables are used, in which case callers have
+ * to send the whole timetable again.
+ */
+class TimetableConflictManager(private val maxTimetables: Int) {
+    private val timetables =
+        object : LinkedHashMap<Long, TimetableConflictState>(16, 0.75f, true) {
+            override fun removeEldestEntry(
+                eldest: MutableMap.MutableEntry<Long, TimetableConflictState>
+            ): Boolean {
+                return size > maxTimetables
+            }
+        }
+
+    /** Returns the state of the timetable, or null if it isn't known by this worker */
+    @Synchronized
+    fun get(timetableId: Long): TimetableConflictState? {
+        return timetables[timetableId]
+    }
+
+    /** Replaces the state of the timetable by an empty one, and returns it */
+    @Synchronized
+    fun reset(timetableId: Long): TimetableConflictState {
+        val state = TimetableConflictState()
+        timetables[timetableId] = state
+        return state
+    }
+}
@@ -8,7 +8,9 @@ import fr.sncf.osrd.infra.api.reservation.DiDetector;
 import fr.sncf.osrd.infra.api.reservation.ReservationInfra;
 import fr.sncf.osrd.infra.api.reservation.ReservationRoute;
 import fr.sncf.osrd.infra.api.signaling.*;
+import fr.sncf.osrd.infra.api.tracks.undirected.TrackInfra;
 import fr.sncf.osrd.infra.implementation.reservation.ReservationInfraBuilder;
+import fr.sncf.osrd.infra.implementation.tracks.directed.DirectedInfraBuilder;
 import fr.sncf.osrd.railjson.schema.infra.RJSInfra;
 import fr.sncf.osrd.railjson.schema.infra.trackobjects.RJSSignal;
 import fr.sncf.osrd.reporting.warnings.DiagnosticRecorder;
@@ -57,6 +59,23 @@ public class SignalingInfraBuilder {
                 diagnosticRecorder);
     }
 
+    /**
+     * Creates a signaling infra from an already built track infra. Only the routes and signals of the railjson infra
+     * are used.
+     */
+    public static SignalingInfra fromTrackInfra(
+            RJSInfra rjsInfra,
+            TrackInfra trackInfra,
+            Set<SignalingModule> signalingModules,
+            DiagnosticRecorder diagnosticRecorder) {
+        var diTrackInfra = DirectedInfraBuilder.fromUndirected(trackInfra);
+        return fromReservationInfra(
+                rjsInfra,
+                ReservationInfraBuilder.fromDiTrackInfra(rjsInfra, diTrackInfra, diagnosticRecorder),
+                signalingModules,
+                diagnosticRecorder);
+    }
+
     /** Builds the signaling infra */
     private SignalingInfra build() {
         signalMap = makeSignalMap();
@@ -21,7 +21,7 @@ public class TrackSectionImpl implements TrackSection {
 
     private final double length;
     private final String id;
-    private final ImmutableSet<OperationalPoint> operationalPoints;
+    ImmutableSet<OperationalPoint> operationalPoints;
     EnumMap<Direction, RangeMap<Double, SpeedLimits>> speedSections;
     RangeMap<Double, String> electrificationVoltages = TreeRangeMap.create();
 
@@ -38,13 +38,17 @@ import fr.sncf.osrd.infra.api.tracks.undirected.SwitchPort;
 import fr.sncf.osrd.infra.api.tracks.undirected.TrackEdge;
 import fr.sncf.osrd.infra.api.tracks.undirected.TrackInfra;
 import fr.sncf.osrd.infra.api.tracks.undirected.TrackNode;
+import fr.sncf.osrd.railjson.parser.RJSInfraStreamReader;
 import fr.sncf.osrd.railjson.schema.common.graph.EdgeEndpoint;
 import fr.sncf.osrd.railjson.schema.geom.RJSLineString;
 import fr.sncf.osrd.railjson.schema.infra.RJSInfra;
+import fr.sncf.osrd.railjson.schema.infra.RJSOperationalPoint;
 import fr.sncf.osrd.railjson.schema.infra.RJSSwitch;
 import fr.sncf.osrd.railjson.schema.infra.RJSSwitchType;
 import fr.sncf.osrd.railjson.schema.infra.RJSTrackSection;
+import fr.sncf.osrd.railjson.schema.infra.trackobjects.RJSBufferStop;
 import fr.sncf.osrd.railjson.schema.infra.trackobjects.RJSRouteWaypoint;
+import fr.sncf.osrd.railjson.schema.infra.trackobjects.RJSTrainDetector;
 import fr.sncf.osrd.railjson.schema.infra.trackranges.RJSElectrification;
 import fr.sncf.osrd.railjson.schema.infra.trackranges.RJSLoadingGaugeLimit;
 import fr.sncf.osrd.railjson.schema.infra.trackranges.RJSNeutralSection;
@@ -75,8 +79,18 @@ public class UndirectedInfraBuilder {
     private final Multimap<String, OperationalPoint> operationalPointsPerTrack = ArrayListMultimap.create();
     private final DiagnosticRecorder diagnosticRecorder;
 
+    // The infra objects can be added in any order, they are linked together when building the infra
+    private final ArrayList<RJSSwitchType> switchTypes = new ArrayList<>();
+    private final ArrayList<RJSSwitch> switches = new ArrayList<>();
+    private final ArrayList<TrackSectionImpl> trackSections = new ArrayList<>();
+    private final ArrayList<RJSTrainDetector> detectors = new ArrayList<>();
+    private final ArrayList<RJSBufferStop> bufferStops = new ArrayList<>();
+    private final ArrayList<RJSSpeedSection> speedSections = new ArrayList<>();
+    private final ArrayList<RJSElectrification> electrifications = new ArrayList<>();
+    private final ArrayList<RJSNeutralSection> neutralSections = new ArrayList<>();
+
     /** Constructor */
-    private UndirectedInfraBuilder(DiagnosticRecorder diagnosticRecorder) {
+    public UndirectedInfraBuilder(DiagnosticRecorder diagnosticRecorder) {
         this.diagnosticRecorder = diagnosticRecorder;
         builder = NetworkBuilder.directed().immutable();
     }
@@ -132,49 +146,122 @@ public class UndirectedInfraBuilder {
 
     /** Parse the railjson to build an infra */
     private TrackInfra parse(RJSInfra infra) {
-        // Loads operational points
-        for (var op : infra.operationalPoints) {
-            for (var part : op.parts) {
-                var newOp = new OperationalPoint(part.position, op.id);
-                operationalPointsPerTrack.put(part.track, newOp);
-            }
-        }
+        infra.operationalPoints.forEach(this::addOperationalPoint);
+        if (infra.switchTypes != null) infra.switchTypes.forEach(this::addSwitchType);
+        infra.switches.forEach(this::addSwitch);
+        infra.trackSections.forEach(this::addTrackSection);
+        infra.detectors.forEach(this::addDetector);
+        infra.bufferStops.forEach(this::addBufferStop);
+        infra.speedSections.forEach(this::addSpeedSection);
+        infra.electrifications.forEach(this::addElectrification);
+        if (infra.neutralSections != null) infra.neutralSections.forEach(this::addNeutralSection);
+        return build();
+    }
+
+    /**
+     * Returns the handlers which add the objects of a streamed railjson infra to this builder. Routes and signals are
+     * left to the caller.
+     */
+    public RJSInfraStreamReader.Handlers streamHandlers() {
+        return new RJSInfraStreamReader.Handlers()
+                .on(RJSOperationalPoint.class, this::addOperationalPoint)
+                .on(RJSSwitchType.class, this::addSwitchType)
+                .on(RJSSwitch.class, this::addSwitch)
+                .on(RJSTrackSection.class, this::addTrackSection)
+                .on(RJSTrainDetector.class, this::addDetector)
+                .on(RJSBufferStop.class, this::addBufferStop)
+                .on(RJSSpeedSection.class, this::addSpeedSection)
+                .on(RJSElectrification.class, this::addElectrification)
+                .on(RJSNeutralSection.class, this::addNeutralSection);
+    }
+
+    /** Adds the parts of an operational point to the tracks they are on */
+    public void addOperationalPoint(RJSOperationalPoint op) {
+        for (var part : op.parts) operationalPointsPerTrack.put(part.track, new OperationalPoint(part.position, op.id));
+    }
+
+    /** Adds a switch type, which takes precedence over the builtin type of the same name */
+    public void addSwitchType(RJSSwitchType switchType) {
+        switchTypes.add(switchType);
+    }
+
+    /** Adds a switch */
+    public void addSwitch(RJSSwitch rjsSwitch) {
+        switches.add(rjsSwitch);
+    }
+
+    /** Adds a track section. Its geometry and profiles are converted right away */
+    public void addTrackSection(RJSTrackSection track) {
+        var newTrack = makeTrackSection(track);
+        trackSections.add(newTrack);
+        detectorLists.put(newTrack, new ArrayList<>());
+    }
+
+    /** Adds a detector */
+    public void addDetector(RJSTrainDetector detector) {
+        detectors.add(detector);
+    }
+
+    /** Adds a buffer stop */
+    public void addBufferStop(RJSBufferStop bufferStop) {
+        bufferStops.add(bufferStop);
+    }
+
+    /** Adds a speed section */
+    public void addSpeedSection(RJSSpeedSection speedSection) {
+        speedSections.add(speedSection);
+    }
+
+    /** Adds an electrification */
+    public void addElectrification(RJSElectrification electrification) {
+        electrifications.add(electrification);
+    }
+
+    /** Adds a neutral section */
+    public void addNeutralSection(RJSNeutralSection neutralSection) {
+        neutralSections.add(neutralSection);
+    }
 
+    /** Links all the added objects together, and builds the infra */
+    public TrackInfra build() {
         // Creates switches
         var switchTypeMap = new HashMap<String, RJSSwitchType>();
-        for (var rjsSwitchType : getswitchTypes(infra.switchTypes)) switchTypeMap.put(rjsSwitchType.id, rjsSwitchType);
-        var switches = new ImmutableMap.Builder<String, Switch>();
-        for (var s : infra.switches) {
-            switches.put(s.id, parseSwitch(s, switchTypeMap));
+        for (var rjsSwitchType : getswitchTypes(switchTypes)) switchTypeMap.put(rjsSwitchType.id, rjsSwitchType);
+        var switchMap = new ImmutableMap.Builder<String, Switch>();
+        for (var s : switches) {
+            switchMap.put(s.id, parseSwitch(s, switchTypeMap));
         }
 
+        // Registers the tracks in the graph, once the switches have claimed their endpoints
         var trackSectionsByID = new HashMap<String, TrackSectionImpl>();
-        for (var track : infra.trackSections) {
-            var newTrack = makeTrackSection(track);
-            trackSectionsByID.put(newTrack.getID(), newTrack);
-            detectorLists.put(newTrack, new ArrayList<>());
+        for (var track : trackSections) {
+            var begin = getOrCreateNode(track.getID(), EdgeEndpoint.BEGIN);
+            var end = getOrCreateNode(track.getID(), EdgeEndpoint.END);
+            track.operationalPoints = ImmutableSet.copyOf(operationalPointsPerTrack.get(track.getID()));
+            builder.addEdge(begin, end, track);
+            trackSectionsByID.put(track.getID(), track);
         }
 
-        for (var detector : infra.detectors) {
+        for (var detector : detectors) {
             makeWaypoint(trackSectionsByID, detector, false);
         }
-        for (var bufferStop : infra.bufferStops) {
+        for (var bufferStop : bufferStops) {
             makeWaypoint(trackSectionsByID, bufferStop, true);
         }
 
         for (var entry : detectorLists.entrySet()) {
             var track = entry.getKey();
-            var detectors = entry.getValue();
-            detectors.sort(Comparator.comparingDouble(Detector::getOffset));
-            track.detectors = ImmutableList.copyOf(detectors);
+            var trackDetectors = entry.getValue();
+            trackDetectors.sort(Comparator.comparingDouble(Detector::getOffset));
+            track.detectors = ImmutableList.copyOf(trackDetectors);
         }
 
-        addSpeedSections(infra.speedSections, trackSectionsByID);
+        addSpeedSections(speedSections, trackSectionsByID);
 
-        loadElectrifications(infra.electrifications, trackSectionsByID);
-        loadNeutralSections(infra.neutralSections, trackSectionsByID);
+        loadElectrifications(electrifications, trackSectionsByID);
+        loadNeutralSections(neutralSections, trackSectionsByID);
 
-        return TrackInfraImpl.from(switches.build(), builder.build());
+        return TrackInfraImpl.from(switchMap.build(), builder.build());
     }
 
     private void loadElectrifications(
@@ -269,18 +356,15 @@ public class UndirectedInfraBuilder {
         detectors.add(newWaypoint);
     }
 
-    /** Creates a track section and registers it in the graph */
+    /** Creates a track section, which is registered in the graph when building the infra */
     private TrackSectionImpl makeTrackSection(RJSTrackSection track) {
-        var begin = getOrCreateNode(track.id, EdgeEndpoint.BEGIN);
-        var end = getOrCreateNode(track.id, EdgeEndpoint.END);
         var edge = new TrackSectionImpl(
                 track.length,
                 track.id,
-                ImmutableSet.copyOf(operationalPointsPerTrack.get(track.id)),
+                ImmutableSet.of(),
                 parseLineString(track.geo),
                 parseLineString(track.sch),
                 buildLoadingGaugeLimits(track.loadingGaugeLimits));
-        builder.addEdge(begin, end, edge);
         edge.curves = makeCurves(track);
         edge.slopes = makeSlopes(track);
         return edge;
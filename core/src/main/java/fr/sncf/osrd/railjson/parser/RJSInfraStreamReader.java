@@ -0,0 +1,281 @@
+package fr.sncf.osrd.railjson.parser;
+
+import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonQualifier;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
+import fr.sncf.osrd.railjson.schema.common.ID;
+import fr.sncf.osrd.railjson.schema.geom.RJSLineString;
+import fr.sncf.osrd.railjson.schema.infra.RJSInfra;
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import okio.BufferedSource;
+
+/**
+ * Reads a RailJSON infra from a stream, with a lower memory footprint than {@link RJSInfra#adapter}.
+ *
+ * <p>The top level object is read key by key, and each collection is decoded one element at a time. Elements of the
+ * types which have a handler are passed to it as soon as they are decoded, and are not kept in the returned infra.
+ * While reading:
+ *
+ * <ul>
+ *   <li>identical strings are shared, which matters as the same track section, detector and route ids are repeated
+ *       across most objects
+ *   <li>line string coordinates are stored as packed double arrays instead of lists of boxed doubles
+ * </ul>
+ *
+ * The top level keys are the serialized fields of {@link RJSInfra}, any other key is an error. A reader is meant to
+ * be used for a single infra, as it keeps the shared strings alive.
+ */
+public final class RJSInfraStreamReader {
+    private static final int MAX_POOLED_STRING_LENGTH = 64;
+
+    /** The fields of RJSInfra, by JSON name, as serialized by its Moshi adapter */
+    private static final Map<String, Field> INFRA_FIELDS = infraFields();
+
+    private static final Type COORDINATES_TYPE =
+            Types.newParameterizedType(List.class, Types.newParameterizedType(List.class, Double.class));
+
+    /** Marks line string coordinates, which are decoded as packed double arrays */
+    @Retention(RetentionPolicy.RUNTIME)
+    @JsonQualifier
+    private @interface PackedPoints {}
+
+    /** The consumers of streamed infra objects, by object type */
+    public static final class Handlers {
+        private final HashMap<Class<?>, Consumer<Object>> handlers = new HashMap<>();
+
+        /** Passes each decoded object of the given type to the handler, instead of adding it to the infra */
+        @SuppressWarnings("unchecked")
+        public <T> Handlers on(Class<T> type, Consumer<? super T> handler) {
+            handlers.put(type, object -> handler.accept((T) object));
+            return this;
+        }
+
+        private Consumer<Object> get(Class<?> type) {
+            return handlers.get(type);
+        }
+    }
+
+    private final HashMap<String, String> stringPool = new HashMap<>();
+    private final Moshi moshi;
+    private final Handlers handlers;
+
+    private RJSInfraStreamReader(Handlers handlers) {
+        this.handlers = handlers;
+        moshi = new Moshi.Builder()
+                .add(String.class, new PooledStringAdapter())
+                .add(COORDINATES_TYPE, PackedPoints.class, new PackedPointsAdapter())
+                .add(RJSLineString.class, new LineStringAdapter())
+                .add(ID.Adapter.FACTORY)
+                .build();
+    }
+
+    /** Reads a RailJSON infra from the given source. The source isn't closed. */
+    public static RJSInfra read(BufferedSource source) throws IOException {
+        return read(source, new Handlers());
+    }
+
+    /**
+     * Reads a RailJSON infra from the given source, passing the objects which have a handler to it. The collections
+     * of these objects are left empty in the returned infra. The source isn't closed.
+     */
+    public static RJSInfra read(BufferedSource source, Handlers handlers) throws IOException {
+        try (var reader = JsonReader.of(source)) {
+            return new RJSInfraStreamReader(handlers).readInfra(reader);
+        }
+    }
+
+    private static Map<String, Field> infraFields() {
+        var res = new HashMap<String, Field>();
+        for (var field : RJSInfra.class.getDeclaredFields()) {
+            var modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) continue;
+            var json = field.getAnnotation(Json.class);
+            res.put(json == null ? field.getName() : json.name(), field);
+        }
+        return res;
+    }
+
+    private RJSInfra readInfra(JsonReader reader) throws IOException {
+        var infra = new RJSInfra();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            var name = reader.nextName();
+            var field = INFRA_FIELDS.get(name);
+            if (field == null) throw new JsonDataException("unknown infra field " + name + " at " + reader.getPath());
+            try {
+                field.set(infra, readField(reader, field));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        reader.endObject();
+        if (reader.peek() != JsonReader.Token.END_DOCUMENT)
+            throw new JsonDataException("unexpected data after the end of the infra at " + reader.getPath());
+        return infra;
+    }
+
+    private Object readField(JsonReader reader, Field field) throws IOException {
+        var type = field.getGenericType();
+        if (!Collection.class.isAssignableFrom(field.getType()) || !(type instanceof ParameterizedType parameterized))
+            return moshi.adapter(type).fromJson(reader);
+        var elementType = parameterized.getActualTypeArguments()[0];
+        Consumer<Object> handler = null;
+        if (elementType instanceof Class<?> elementClass) handler = handlers.get(elementClass);
+        return readList(reader, elementType, handler);
+    }
+
+    /**
+     * Decodes a JSON array one element at a time. If there's a handler, elements are passed to it and the returned
+     * list is empty.
+     */
+    private List<Object> readList(JsonReader reader, Type elementType, Consumer<Object> handler) throws IOException {
+        if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+        JsonAdapter<Object> adapter = moshi.adapter(elementType);
+        var res = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            var element = adapter.fromJson(reader);
+            if (handler != null) handler.accept(element);
+            else res.add(element);
+        }
+        reader.endArray();
+        res.trimToSize();
+        return res;
+    }
+
+    /** Returns the shared instance of short strings, which are most likely identifiers */
+    private String pooled(String value) {
+        if (value.length() > MAX_POOLED_STRING_LENGTH) return value;
+        var existing = stringPool.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    private final class PooledStringAdapter extends JsonAdapter<String> {
+        @Override
+        public String fromJson(JsonReader reader) throws IOException {
+            if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+            return pooled(reader.nextString());
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, String value) throws IOException {
+            writer.value(value);
+        }
+    }
+
+    /** Decodes line strings, so that only their coordinates are packed */
+    private final class LineStringAdapter extends JsonAdapter<RJSLineString> {
+        @Override
+        public RJSLineString fromJson(JsonReader reader) throws IOException {
+            if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+            JsonAdapter<List<List<Double>>> coordinatesAdapter = moshi.adapter(COORDINATES_TYPE, PackedPoints.class);
+            String type = null;
+            List<List<Double>> coordinates = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                var name = reader.nextName();
+                switch (name) {
+                    case "type" -> type = pooled(reader.nextString());
+                    case "coordinates" -> coordinates = coordinatesAdapter.fromJson(reader);
+                    default -> throw new JsonDataException(
+                            "unknown line string field " + name + " at " + reader.getPath());
+                }
+            }
+            reader.endObject();
+            return new RJSLineString(type, coordinates);
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, RJSLineString value) throws IOException {
+            if (value == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.beginObject();
+            writer.name("type").value(value.type);
+            writer.name("coordinates");
+            moshi.adapter(COORDINATES_TYPE, PackedPoints.class).toJson(writer, value.coordinates);
+            writer.endObject();
+        }
+    }
+
+    /** Decodes a list of points, each point being a list backed by a primitive array */
+    private static final class PackedPointsAdapter extends JsonAdapter<List<List<Double>>> {
+        @Override
+        public List<List<Double>> fromJson(JsonReader reader) throws IOException {
+            if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+            var res = new ArrayList<List<Double>>();
+            reader.beginArray();
+            while (reader.hasNext()) res.add(readPoint(reader));
+            reader.endArray();
+            res.trimToSize();
+            return res;
+        }
+
+        private static List<Double> readPoint(JsonReader reader) throws IOException {
+            var values = new double[2];
+            var size = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (size == values.length) values = Arrays.copyOf(values, size * 2);
+                values[size++] = reader.nextDouble();
+            }
+            reader.endArray();
+            if (size != values.length) values = Arrays.copyOf(values, size);
+            return new PackedDoubleList(values);
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, List<List<Double>> value) throws IOException {
+            if (value == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.beginArray();
+            for (var point : value) {
+                writer.beginArray();
+                for (var v : point) writer.value(v);
+                writer.endArray();
+            }
+            writer.endArray();
+        }
+    }
+
+    private static final class PackedDoubleList extends AbstractList<Double> implements RandomAccess {
+        private final double[] values;
+
+        PackedDoubleList(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Double get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
@@ -12,7 +12,7 @@ public class RJSParser {
     public static RJSInfra parseRailJSONFromFile(String path) throws IOException {
         try (var fileSource = Okio.source(Path.of(path));
                 var bufferedSource = Okio.buffer(fileSource)) {
-            var rjsRoot = RJSInfra.adapter.fromJson(bufferedSource);
+            var rjsRoot = RJSInfraStreamReader.read(bufferedSource);
             assert rjsRoot != null;
             return rjsRoot;
         }
@@ -13,9 +13,23 @@ public class EnvelopeStopWrapper implements EnvelopeTimeInterpolate {
     public final EnvelopeTimeInterpolate envelope;
     public final List<TrainStop> stops;
 
+    // The total time at the end of each stop
+    private final double[] stopEndTimes;
+    // The sum of the durations of the stops before each stop
+    private final double[] previousStopDurations;
+
     public EnvelopeStopWrapper(EnvelopeTimeInterpolate envelope, List<TrainStop> stops) {
         this.envelope = envelope;
         this.stops = stops;
+        stopEndTimes = new double[stops.size()];
+        previousStopDurations = new double[stops.size()];
+        double stopTime = 0;
+        for (int i = 0; i < stops.size(); i++) {
+            var stop = stops.get(i);
+            previousStopDurations[i] = stopTime;
+            stopTime += stop.duration;
+            stopEndTimes[i] = envelope.interpolateTotalTime(stop.position) + stopTime;
+        }
     }
 
     @Override
@@ -38,6 +52,29 @@ public class EnvelopeStopWrapper implements EnvelopeTimeInterpolate {
         return interpolateTotalTime(position);
     }
 
+    /** When the time is during a stop, the stop position is returned */
+    @Override
+    public double interpolatePositionFromTime(double time) {
+        // Finds the first stop which ends at or after the given time. Stop end times are sorted.
+        int lower = 0;
+        int upper = stops.size();
+        while (lower < upper) {
+            int mid = (lower + upper) >>> 1;
+            if (stopEndTimes[mid] < time) lower = mid + 1;
+            else upper = mid;
+        }
+        if (lower == stops.size()) return envelope.interpolatePositionFromTime(time - totalStopDuration());
+        var stop = stops.get(lower);
+        if (time >= stopEndTimes[lower] - stop.duration) return stop.position;
+        return envelope.interpolatePositionFromTime(time - previousStopDurations[lower]);
+    }
+
+    private double totalStopDuration() {
+        if (stops.isEmpty()) return 0;
+        var last = stops.size() - 1;
+        return previousStopDurations[last] + stops.get(last).duration;
+    }
+
     @Override
     public double getBeginPos() {
         return envelope.getBeginPos();
@@ -88,9 +88,11 @@ fun run(
     val trainLength = schedule.rollingStock.length
     var speeds = ArrayList<ResultSpeed>()
     var headPositions = ArrayList<ResultPosition>()
+    // Envelope points are visited in increasing position order
+    val trackLocator = trainPath.getTrackLocator()
     for (point in envelopeWithStops.iteratePoints()) {
         speeds.add(ResultSpeed(point.time, point.speed, point.position))
-        headPositions.add(ResultPosition.from(point.time, point.position, trainPath, rawInfra))
+        headPositions.add(ResultPosition.from(point.time, point.position, trackLocator, rawInfra))
     }
 
     // Simplify data
@@ -115,26 +115,34 @@ private fun computeSignalAspectChangeEvents(
 
     val signalAspectChangeEvents =
         pathSignals.associateBy({ it }, { mutableListOf<SignalAspectChangeEvent>() })
+    val pathSignalsBySignal = pathSignals.groupBy { it.signal }
+
+    // Only the signals upstream of each updated zone are evaluated again
+    val evaluator =
+        simulator.evaluateIncrementally(
+            rawInfra,
+            loadedSignalInfra,
+            blockInfra,
+            blockPath,
+            routes,
+            blockPath.size,
+            zoneStates,
+            ZoneStatus.CLEAR
+        )
+    var firstUpdate = true
     for (event in zoneUpdates) {
-        if (!zoneToPathIndexMap.containsKey(event.zone)) continue
-        if (event.isEntry) zoneStates[zoneToPathIndexMap[event.zone]!!] = ZoneStatus.OCCUPIED
-        else zoneStates[zoneToPathIndexMap[event.zone]!!] = ZoneStatus.CLEAR
+        val zoneIndex = zoneToPathIndexMap[event.zone] ?: continue
+        val zoneStatus = if (event.isEntry) ZoneStatus.OCCUPIED else ZoneStatus.CLEAR
+        val changedSignals = evaluator.setZoneStatus(zoneIndex, zoneStatus)
 
-        val simulatedSignalStates =
-            simulator.evaluate(
-                rawInfra,
-                loadedSignalInfra,
-                blockInfra,
-                blockPath,
-                routes,
-                blockPath.size,
-                zoneStates,
-                ZoneStatus.CLEAR
-            )
-        val simulatedAspects = simulatedSignalStates.mapValues { it.value.getEnum("aspect") }
-        for (pathSignal in pathSignals) {
+        // Signals with a restrictive aspect on a clear path change at the first update
+        val updatedPathSignals =
+            if (firstUpdate) pathSignals
+            else changedSignals.flatMap { pathSignalsBySignal[it] ?: listOf() }
+        firstUpdate = false
+        for (pathSignal in updatedPathSignals) {
             val signal = pathSignal.signal
-            val aspect = simulatedAspects[signal] ?: continue
+            val aspect = evaluator.getState(signal)?.getEnum("aspect") ?: continue
             if (signalAspects[signal]!! == aspect) continue
             signalAspectChangeEvents[pathSignal]!!.add(
                 SignalAspectChangeEvent(aspect, Math.round(event.time * 1000))
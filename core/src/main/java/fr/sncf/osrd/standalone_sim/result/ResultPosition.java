@@ -4,7 +4,7 @@ import static fr.sncf.osrd.utils.units.Distance.fromMeters;
 
 import com.squareup.moshi.Json;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import fr.sncf.osrd.sim_infra.api.PathProperties;
+import fr.sncf.osrd.sim_infra.api.PathTrackLocator;
 import fr.sncf.osrd.sim_infra.api.RawSignalingInfra;
 import fr.sncf.osrd.utils.units.Distance;
 
@@ -27,9 +27,10 @@ public class ResultPosition {
         this.offset = offset;
     }
 
-    /** Create a ResultPosition */
-    public static ResultPosition from(double time, double pathOffset, PathProperties path, RawSignalingInfra rawInfra) {
-        var location = path.getTrackLocationAtOffset(fromMeters(pathOffset));
+    /** Create a ResultPosition, using a track locator of the train path */
+    public static ResultPosition from(
+            double time, double pathOffset, PathTrackLocator trackLocator, RawSignalingInfra rawInfra) {
+        var location = trackLocator.getTrackLocationAtOffset(fromMeters(pathOffset));
         return new ResultPosition(
                 time,
                 pathOffset,
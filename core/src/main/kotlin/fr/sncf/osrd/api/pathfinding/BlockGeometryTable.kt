@@ -0,0 +1,107 @@
+package fr.sncf.osrd.api.pathfinding
+
+import fr.sncf.osrd.geom.Point
+import fr.sncf.osrd.sim_infra.api.Block
+import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.sim_infra.api.BlockInfra
+import fr.sncf.osrd.sim_infra.api.RawSignalingInfra
+import fr.sncf.osrd.utils.units.Offset
+import kotlin.math.sqrt
+
+/**
+ * The geometry of every block of an infra, indexed by block id. The geometry of a block is only
+ * projected the first time it is needed, and then kept for the lifetime of the infra as primitive
+ * arrays of coordinates and cumulative lengths.
+ *
+ * Blocks are immutable, and their geometry doesn't depend on the query: concurrent requests may
+ * both project the same block, but always store the same result. Geometries only have final
+ * fields, which makes them safe to publish without synchronization.
+ */
+class BlockGeometryTable(
+    private val blockInfra: BlockInfra,
+    private val rawInfra: RawSignalingInfra
+) {
+    /**
+     * The points of a block, as longitudes, latitudes and distances from the first point, along
+     * with the length of the block in millimeters
+     */
+    private class Geometry(
+        val xs: DoubleArray,
+        val ys: DoubleArray,
+        val cumulativeLengths: DoubleArray,
+        val blockLength: Long
+    )
+
+    val blockCount = blockInfra.blocks.size.toInt()
+
+    private val geometries = arrayOfNulls<Geometry>(blockCount)
+
+    /** Converts an offset on a block into a geo point */
+    fun getPoint(block: BlockId, offset: Offset<Block>): Point {
+        val geometry = getGeometry(block)
+        val index = getFractionalIndex(geometry, offset)
+        return Point(interpolate(geometry.xs, index), interpolate(geometry.ys, index))
+    }
+
+    /**
+     * Returns the smallest distance in meters between an offset on a block and the given points,
+     * given as longitudes and latitudes. No object is allocated for the location on the block.
+     */
+    fun minDistanceAsMeters(
+        block: BlockId,
+        offset: Offset<Block>,
+        xs: DoubleArray,
+        ys: DoubleArray
+    ): Double {
+        val geometry = getGeometry(block)
+        val index = getFractionalIndex(geometry, offset)
+        val x = interpolate(geometry.xs, index)
+        val y = interpolate(geometry.ys, index)
+        var res = Double.POSITIVE_INFINITY
+        for (i in xs.indices) res = minOf(res, Point.distanceAsMeters(x, y, xs[i], ys[i]))
+        return res
+    }
+
+    private fun getGeometry(block: BlockId): Geometry {
+        val index = block.index.toInt()
+        var geometry = geometries[index]
+        if (geometry == null) {
+            val points = makePathProps(blockInfra, rawInfra, block).getGeo().points
+            val xs = DoubleArray(points.size) { points[it].x }
+            val ys = DoubleArray(points.size) { points[it].y }
+            val cumulativeLengths = DoubleArray(points.size)
+            for (i in 1 until points.size) {
+                val dx = xs[i] - xs[i - 1]
+                val dy = ys[i] - ys[i - 1]
+                cumulativeLengths[i] = cumulativeLengths[i - 1] + sqrt(dx * dx + dy * dy)
+            }
+            val blockLength = blockInfra.getBlockLength(block).distance.millimeters
+            geometry = Geometry(xs, ys, cumulativeLengths, blockLength)
+            geometries[index] = geometry
+        }
+        return geometry
+    }
+
+    /**
+     * Returns the position of an offset among the points of the block, as the index of the point
+     * before it plus the ratio of the way to the next point. Offsets are interpolated linearly
+     * along the geometry, as [fr.sncf.osrd.geom.LineString.interpolateNormalized] does.
+     */
+    private fun getFractionalIndex(geometry: Geometry, offset: Offset<Block>): Double {
+        val lengths = geometry.cumulativeLengths
+        val distance =
+            offset.distance.millimeters.toDouble() / geometry.blockLength * lengths.last()
+        var i = lengths.binarySearch(distance)
+        if (i < 0) i = -i - 2
+        i = i.coerceIn(0, lengths.size - 2)
+        val ratio = (distance - lengths[i]) / (lengths[i + 1] - lengths[i])
+        // if ratio is undefined, both points are the same
+        if (ratio.isNaN()) return i.toDouble()
+        return i + ratio.coerceIn(0.0, 1.0)
+    }
+
+    private fun interpolate(values: DoubleArray, index: Double): Double {
+        val i = minOf(index.toInt(), values.size - 2)
+        return values[i] + (index - i) * (values[i + 1] - values[i])
+    }
+}
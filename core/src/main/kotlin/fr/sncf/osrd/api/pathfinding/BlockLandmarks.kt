@@ -0,0 +1,237 @@
+package fr.sncf.osrd.api.pathfinding
+
+import fr.sncf.osrd.graph.AStarHeuristicId
+import fr.sncf.osrd.graph.IntMinHeap
+import fr.sncf.osrd.graph.PathfindingEdgeLocationId
+import fr.sncf.osrd.sim_infra.api.Block
+import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.sim_infra.api.BlockInfra
+import fr.sncf.osrd.sim_infra.api.RawSignalingInfra
+import fr.sncf.osrd.sim_infra.utils.getBlockExit
+import fr.sncf.osrd.utils.units.Offset
+
+/**
+ * Shortest distances between a few landmark blocks and every other block of an infra, along the
+ * block graph. With the triangle inequality, they give a lower bound of the distance between any
+ * two blocks (ALT: A*, landmarks, triangle inequality), which is usually much tighter than the geo
+ * distance on meshed networks.
+ *
+ * Distances are measured between block starts, and stored in meters rounded down to keep the
+ * tables small. Lower bounds account for this rounding, and stay admissible.
+ */
+class BlockLandmarks
+private constructor(
+    /** The landmark blocks */
+    val landmarks: IntArray,
+    /** For each landmark, the distance from its start to the start of each block */
+    private val distancesFromLandmark: Array<IntArray>,
+    /** For each landmark, the distance from the start of each block to its start */
+    private val distancesToLandmark: Array<IntArray>,
+) {
+    /** The number of blocks in each distance table */
+    val blockCount: Int
+        get() = distancesFromLandmark.firstOrNull()?.size ?: 0
+
+    /**
+     * Returns a lower bound of the distance from the start of a block to the start of another, in
+     * millimeters.
+     */
+    fun lowerBound(from: BlockId, to: BlockId): Double {
+        val fromIndex = from.index.toInt()
+        val toIndex = to.index.toInt()
+        if (fromIndex == toIndex) return 0.0
+        var res = 0
+        for (i in landmarks.indices) {
+            // d(from, to) >= d(from, landmark) - d(to, landmark)
+            val fromToLandmark = distancesToLandmark[i][fromIndex]
+            val toToLandmark = distancesToLandmark[i][toIndex]
+            if (fromToLandmark != UNREACHABLE && toToLandmark != UNREACHABLE)
+                res = maxOf(res, fromToLandmark - toToLandmark)
+            // d(from, to) >= d(landmark, to) - d(landmark, from)
+            val landmarkToFrom = distancesFromLandmark[i][fromIndex]
+            val landmarkToTo = distancesFromLandmark[i][toIndex]
+            if (landmarkToFrom != UNREACHABLE && landmarkToTo != UNREACHABLE)
+                res = maxOf(res, landmarkToTo - landmarkToFrom)
+        }
+        // each distance is rounded down by less than a meter
+        if (res <= 1) return 0.0
+        return (res - 1) * 1000.0
+    }
+
+    companion object {
+        private const val UNREACHABLE = Int.MAX_VALUE
+
+        /**
+         * Picks landmarks spread over the infra, and computes their distances to every block. Each
+         * landmark is the block furthest away from the previous ones.
+         */
+        @JvmStatic
+        fun compute(
+            blockInfra: BlockInfra,
+            rawInfra: RawSignalingInfra,
+            landmarkCount: Int
+        ): BlockLandmarks {
+            val graph = BlockAdjacency.from(blockInfra, rawInfra)
+            val blockCount = graph.lengths.size
+            val landmarks = ArrayList<Int>()
+            val distancesFromLandmark = ArrayList<IntArray>()
+            val distancesToLandmark = ArrayList<IntArray>()
+            if (blockCount > 0) {
+                // the first landmark is the block furthest away from an arbitrary block
+                var nextLandmark = furthestBlock(graph.shortestDistances(0, forward = true))
+                val minDistances = IntArray(blockCount) { UNREACHABLE }
+                while (landmarks.size < landmarkCount && nextLandmark >= 0) {
+                    landmarks.add(nextLandmark)
+                    val fromLandmark = graph.shortestDistances(nextLandmark, forward = true)
+                    distancesFromLandmark.add(fromLandmark)
+                    distancesToLandmark.add(graph.shortestDistances(nextLandmark, forward = false))
+                    for (block in 0 until blockCount) {
+                        if (fromLandmark[block] != UNREACHABLE)
+                            minDistances[block] = minOf(minDistances[block], fromLandmark[block])
+                    }
+                    nextLandmark = furthestBlock(minDistances)
+                }
+            }
+            return BlockLandmarks(
+                landmarks.toIntArray(),
+                distancesFromLandmark.toTypedArray(),
+                distancesToLandmark.toTypedArray()
+            )
+        }
+
+        /**
+         * Returns the reachable block with the highest non-zero distance, or -1 if there is none.
+         * Landmarks are at a distance of zero of themselves, so they're never picked twice.
+         */
+        private fun furthestBlock(distances: IntArray): Int {
+            var res = -1
+            for (block in distances.indices) {
+                val distance = distances[block]
+                if (distance == UNREACHABLE || distance == 0) continue
+                if (res == -1 || distance > distances[res]) res = block
+            }
+            return res
+        }
+    }
+
+    /**
+     * The block graph, as compressed arrays: the successors of block i are the items of successors
+     * from successorStarts[i] to successorStarts[i + 1], and the same goes for predecessors.
+     */
+    private class BlockAdjacency(
+        val lengths: LongArray,
+        val successorStarts: IntArray,
+        val successors: IntArray,
+        val predecessorStarts: IntArray,
+        val predecessors: IntArray,
+    ) {
+        /**
+         * Runs a Dijkstra from or to the start of a block, and returns the distances between block
+         * starts in meters, rounded down.
+         */
+        fun shortestDistances(origin: Int, forward: Boolean): IntArray {
+            val distances = DoubleArray(lengths.size) { Double.POSITIVE_INFINITY }
+            val heap = IntMinHeap()
+            distances[origin] = 0.0
+            heap.push(origin, 0.0)
+            while (!heap.isEmpty()) {
+                val distance = heap.peekPriority()
+                val block = heap.pop()
+                if (distance > distances[block]) continue
+                val starts = if (forward) successorStarts else predecessorStarts
+                val neighbors = if (forward) successors else predecessors
+                for (i in starts[block] until starts[block + 1]) {
+                    val neighbor = neighbors[i]
+                    // going forward, the length of the current block is traveled, and going
+                    // backward, the length of the previous block
+                    val length = if (forward) lengths[block] else lengths[neighbor]
+                    val neighborDistance = distance + length
+                    if (neighborDistance < distances[neighbor]) {
+                        distances[neighbor] = neighborDistance
+                        heap.push(neighbor, neighborDistance)
+                    }
+                }
+            }
+            return IntArray(distances.size) {
+                val distance = distances[it]
+                if (distance == Double.POSITIVE_INFINITY) UNREACHABLE
+                else (distance / 1000).toLong().coerceAtMost(UNREACHABLE - 1L).toInt()
+            }
+        }
+
+        companion object {
+            fun from(blockInfra: BlockInfra, rawInfra: RawSignalingInfra): BlockAdjacency {
+                val blockCount = blockInfra.blocks.size.toInt()
+                val lengths = LongArray(blockCount)
+                val successorLists = Array(blockCount) { IntArray(0) }
+                val predecessorCounts = IntArray(blockCount + 1)
+                for (block in 0 until blockCount) {
+                    val blockId = BlockId(block.toUInt())
+                    lengths[block] = blockInfra.getBlockLength(blockId).distance.millimeters
+                    val exit = blockInfra.getBlockExit(rawInfra, blockId)
+                    val next = blockInfra.getBlocksStartingAtDetector(exit)
+                    successorLists[block] = IntArray(next.size) { next[it].index.toInt() }
+                    for (successor in successorLists[block]) predecessorCounts[successor + 1]++
+                }
+
+                val successorStarts = IntArray(blockCount + 1)
+                for (block in 0 until blockCount)
+                    successorStarts[block + 1] = successorStarts[block] + successorLists[block].size
+                val successors = IntArray(successorStarts[blockCount])
+                for (block in 0 until blockCount)
+                    successorLists[block].copyInto(successors, successorStarts[block])
+
+                for (block in 0 until blockCount)
+                    predecessorCounts[block + 1] += predecessorCounts[block]
+                val predecessorStarts = predecessorCounts
+                val predecessors = IntArray(predecessorStarts[blockCount])
+                val insertPositions = predecessorStarts.copyOf()
+                for (block in 0 until blockCount) {
+                    for (successor in successorLists[block])
+                        predecessors[insertPositions[successor]++] = block
+                }
+                return BlockAdjacency(
+                    lengths,
+                    successorStarts,
+                    successors,
+                    predecessorStarts,
+                    predecessors
+                )
+            }
+        }
+    }
+}
+
+/**
+ * Estimates the remaining distance to the closest target location using landmarks. The estimation
+ * is a lower bound of the distance along the block graph, so it can be combined with the geo
+ * estimation by taking the highest of both.
+ */
+class LandmarkDistanceEstimator(
+    private val landmarks: BlockLandmarks,
+    private val targets: Collection<PathfindingEdgeLocationId<Block>>,
+    private val remainingDistance: Double
+) : AStarHeuristicId<Block> {
+    override fun apply(edge: BlockId, offset: Offset<Block>): Double {
+        var res = Double.POSITIVE_INFINITY
+        for (target in targets) {
+            // from the start of the block, the path goes through the given offset first
+            val fromBlockStart =
+                landmarks.lowerBound(edge, target.edge) + target.offset.distance.millimeters
+            res = minOf(res, maxOf(0.0, fromBlockStart - offset.distance.millimeters))
+        }
+        return res + remainingDistance
+    }
+
+    companion object {
+        /** Returns a lower bound of the distance between two steps, in millimeters */
+        fun minDistanceBetweenSteps(
+            landmarks: BlockLandmarks,
+            step1: Collection<PathfindingEdgeLocationId<Block>>,
+            step2: Collection<PathfindingEdgeLocationId<Block>>
+        ): Double {
+            val estimator = LandmarkDistanceEstimator(landmarks, step2, 0.0)
+            return step1.minOf { estimator.apply(it.edge, it.offset) }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package fr.sncf.osrd.api.pathfinding
+
+import fr.sncf.osrd.graph.BlockRangeCache
+import fr.sncf.osrd.graph.PathfindingConstraint
+import fr.sncf.osrd.graph.PathfindingEdgeLocationId
+import fr.sncf.osrd.reporting.exceptions.ErrorType
+import fr.sncf.osrd.reporting.exceptions.OSRDError
+import fr.sncf.osrd.sim_infra.api.Block
+import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.sim_infra.api.BlockInfra
+import fr.sncf.osrd.sim_infra.api.RawSignalingInfra
+import fr.sncf.osrd.sim_infra.utils.getBlockExit
+
+/**
+ * Finds out why no path could be found with the given constraints, with a single search over the
+ * paths which ignore them. Each path keeps track of the constraints it violates, as a bitmask of
+ * the constraint indices.
+ *
+ * Returns the error of the first constraint violated by every path, which is the one which would
+ * still prevent finding a path if it was the only constraint. If no path exists at all, or if
+ * paths only fail because of a combination of constraints, a generic error is returned.
+ */
+fun diagnosePathfindingFailure(
+    blockInfra: BlockInfra,
+    rawInfra: RawSignalingInfra,
+    waypoints: List<Collection<PathfindingEdgeLocationId<Block>>>,
+    constraints: List<PathfindingConstraint<Block>>,
+    constraintErrors: Map<Class<*>, ErrorType>,
+    timeout: Double
+): ErrorType {
+    assert(constraints.size < Int.SIZE_BITS)
+    val finalViolations =
+        ConstraintDiagnosis(blockInfra, rawInfra, waypoints, constraints, timeout).run()
+    if (finalViolations.isEmpty()) return ErrorType.PathfindingGenericError
+    for ((i, constraint) in constraints.withIndex()) {
+        if (finalViolations.all { (it and (1 shl i)) != 0 })
+            return constraintErrors[constraint.javaClass] ?: ErrorType.PathfindingGenericError
+    }
+    return ErrorType.PathfindingGenericError
+}
+
+private class ConstraintDiagnosis(
+    private val blockInfra: BlockInfra,
+    private val rawInfra: RawSignalingInfra,
+    waypoints: List<Collection<PathfindingEdgeLocationId<Block>>>,
+    constraints: List<PathfindingConstraint<Block>>,
+    private val timeout: Double
+) {
+    private val blockCount = blockInfra.blocks.size.toInt()
+    private val stepCount = waypoints.size
+
+    /** The blocked ranges of each constraint, kept apart to know which one blocks a range */
+    private val constraintRanges = constraints.map { BlockRangeCache(blockInfra, listOf(it)) }
+    private val blockLengths = BlockRangeCache(blockInfra, listOf())
+
+    /**
+     * Waypoints, as parallel arrays of blocks, offsets and steps. The waypoints of each step start
+     * at the index given by [firstWaypoints].
+     */
+    private val waypointBlocks = IntArray(waypoints.sumOf { it.size })
+    private val waypointOffsets = LongArray(waypointBlocks.size)
+    private val waypointSteps = IntArray(waypointBlocks.size)
+    private val firstWaypoints = IntArray(stepCount + 1)
+
+    /**
+     * Locations are identified by an int: `reachedSteps * blockCount + block` for the start of a
+     * block, and `stepCount * blockCount + waypoint` for a waypoint. One more location gathers the
+     * paths which reach the last step.
+     */
+    private val waypointLocationStart = stepCount * blockCount
+    private val finalLocation = waypointLocationStart + waypointBlocks.size
+
+    /**
+     * For each location, the violated constraints of the paths which got there, as linked lists of
+     * masks: [maskHeads] gives the first item of each location, [maskNexts] the next item or -1.
+     * Paths which violate a superset of the constraints of another path aren't kept.
+     */
+    private val maskHeads = IntArray(finalLocation + 1) { -1 }
+    private var maskValues = IntArray(INITIAL_CAPACITY)
+    private var maskNexts = IntArray(INITIAL_CAPACITY)
+    private var maskCount = 0
+
+    /** Pending locations and their violations, as a FIFO queue in parallel arrays */
+    private var pendingLocations = IntArray(INITIAL_CAPACITY)
+    private var pendingViolations = IntArray(INITIAL_CAPACITY)
+    private var pendingStart = 0
+    private var pendingEnd = 0
+
+    init {
+        var waypoint = 0
+        for ((step, locations) in waypoints.withIndex()) {
+            firstWaypoints[step] = waypoint
+            for (location in locations) {
+                waypointBlocks[waypoint] = location.edge.index.toInt()
+                waypointOffsets[waypoint] = location.offset.distance.millimeters
+                waypointSteps[waypoint] = step
+                waypoint++
+            }
+        }
+        firstWaypoints[stepCount] = waypoint
+    }
+
+    /** Returns the constraints violated by the paths which reach the last step */
+    fun run(): List<Int> {
+        for (origin in firstWaypoints[0] until firstWaypoints[1]) {
+            val offset = waypointOffsets[origin]
+            visit(
+                waypointLocationStart + origin,
+                getViolations(waypointBlocks[origin], offset, offset)
+            )
+        }
+        val startTime = System.nanoTime()
+        var iterations = 0
+        while (pendingStart < pendingEnd) {
+            // reading the clock is expensive compared to a step, it's only done once in a while
+            if (
+                iterations++ % TIMEOUT_CHECK_INTERVAL == 0 &&
+                    (System.nanoTime() - startTime) / 1e9 >= timeout
+            )
+                throw OSRDError(ErrorType.PathfindingTimeoutError)
+            val location = pendingLocations[pendingStart]
+            val violations = pendingViolations[pendingStart]
+            pendingStart++
+            val block: Int
+            val offset: Long
+            val reachedSteps: Int
+            if (location < waypointLocationStart) {
+                block = location % blockCount
+                offset = 0
+                reachedSteps = location / blockCount
+            } else {
+                val waypoint = location - waypointLocationStart
+                block = waypointBlocks[waypoint]
+                offset = waypointOffsets[waypoint]
+                reachedSteps = waypointSteps[waypoint]
+            }
+            if (reachedSteps == stepCount - 1) {
+                addMinimal(finalLocation, violations)
+                continue
+            }
+            val targets = firstWaypoints[reachedSteps + 1] until firstWaypoints[reachedSteps + 2]
+            for (target in targets) {
+                val targetOffset = waypointOffsets[target]
+                if (waypointBlocks[target] != block || targetOffset < offset) continue
+                visit(
+                    waypointLocationStart + target,
+                    violations or getViolations(block, offset, targetOffset)
+                )
+            }
+            val blockLength = blockLengths.getBlockLength(block)
+            val endViolations = violations or getViolations(block, offset, blockLength)
+            val exit = blockInfra.getBlockExit(rawInfra, BlockId(block.toUInt()))
+            val neighbors = blockInfra.getBlocksStartingAtDetector(exit)
+            for (i in 0 until neighbors.size) {
+                val neighbor = neighbors[i].index.toInt()
+                visit(reachedSteps * blockCount + neighbor, endViolations)
+            }
+        }
+        val res = mutableListOf<Int>()
+        var mask = maskHeads[finalLocation]
+        while (mask != -1) {
+            res.add(maskValues[mask])
+            mask = maskNexts[mask]
+        }
+        return res
+    }
+
+    private fun visit(location: Int, violations: Int) {
+        if (!addMinimal(location, violations)) return
+        if (pendingEnd == pendingLocations.size) {
+            pendingLocations = pendingLocations.copyOf(pendingEnd * 2)
+            pendingViolations = pendingViolations.copyOf(pendingEnd * 2)
+        }
+        pendingLocations[pendingEnd] = location
+        pendingViolations[pendingEnd] = violations
+        pendingEnd++
+    }
+
+    /**
+     * Adds the violations to the masks of the location unless another mask is a subset of them,
+     * and removes the masks they're a subset of. Returns true if they were added.
+     */
+    private fun addMinimal(location: Int, violations: Int): Boolean {
+        var mask = maskHeads[location]
+        while (mask != -1) {
+            if ((maskValues[mask] and violations) == maskValues[mask]) return false
+            mask = maskNexts[mask]
+        }
+        var prev = -1
+        mask = maskHeads[location]
+        while (mask != -1) {
+            val next = maskNexts[mask]
+            if ((maskValues[mask] and violations) == violations) {
+                if (prev == -1) maskHeads[location] = next else maskNexts[prev] = next
+            } else {
+                prev = mask
+            }
+            mask = next
+        }
+        if (maskCount == maskValues.size) {
+            maskValues = maskValues.copyOf(maskCount * 2)
+            maskNexts = maskNexts.copyOf(maskCount * 2)
+        }
+        maskValues[maskCount] = violations
+        maskNexts[maskCount] = maskHeads[location]
+        maskHeads[location] = maskCount
+        maskCount++
+        return true
+    }
+
+    /**
+     * Returns the constraints which prevent going from one offset of the block to another. This
+     * follows the pathfinding rules: a range is blocked if it starts in a blocked range, or if it
+     * can only be partially covered.
+     */
+    private fun getViolations(block: Int, start: Long, end: Long): Int {
+        var res = 0
+        for ((i, ranges) in constraintRanges.withIndex()) {
+            if (ranges.filterEnd(block, start, end) != end) res = res or (1 shl i)
+        }
+        return res
+    }
+
+    companion object {
+        private const val INITIAL_CAPACITY = 256
+        private const val TIMEOUT_CHECK_INTERVAL = 1024
+    }
+}
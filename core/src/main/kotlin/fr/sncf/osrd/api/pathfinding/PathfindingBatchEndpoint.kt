@@ -0,0 +1,276 @@
+package fr.sncf.osrd.api.pathfinding
+
+import fr.sncf.osrd.api.ExceptionHandler
+import fr.sncf.osrd.api.FullInfra
+import fr.sncf.osrd.api.InfraManager
+import fr.sncf.osrd.api.pathfinding.constraints.initConstraints
+import fr.sncf.osrd.api.pathfinding.request.PathfindingBatchRequest
+import fr.sncf.osrd.api.pathfinding.request.PathfindingBatchRequest.PathfindingItinerary
+import fr.sncf.osrd.api.pathfinding.request.PathfindingWaypoint
+import fr.sncf.osrd.api.pathfinding.response.PathfindingResult
+import fr.sncf.osrd.graph.AStarHeuristicId
+import fr.sncf.osrd.graph.PathfindingConstraint
+import fr.sncf.osrd.graph.PathfindingEdgeLocationId
+import fr.sncf.osrd.railjson.parser.RJSRollingStockParser
+import fr.sncf.osrd.railjson.schema.common.graph.EdgeDirection
+import fr.sncf.osrd.railjson.schema.rollingstock.RJSLoadingGaugeType
+import fr.sncf.osrd.reporting.exceptions.OSRDError
+import fr.sncf.osrd.reporting.warnings.DiagnosticRecorderImpl
+import fr.sncf.osrd.sim_infra.api.Block
+import fr.sncf.osrd.train.RollingStock
+import io.sentry.Sentry
+import java.io.ByteArrayInputStream
+import java.io.InputStream
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.RejectedExecutionHandler
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import org.takes.Request
+import org.takes.Response
+import org.takes.Take
+import org.takes.rq.RqPrint
+import org.takes.rs.RsText
+import org.takes.rs.RsWithHeader
+import org.takes.rs.RsWithStatus
+import org.takes.rs.RsWithType
+
+private typealias StepLocations = List<Collection<PathfindingEdgeLocationId<Block>>>
+
+/**
+ * Finds paths for many itineraries on the same infra. Itineraries are grouped by the capabilities
+ * of their rolling stocks, so that each group shares its constraints, and waypoints and heuristics
+ * are shared between identical itineraries. Searches run on a bounded thread pool.
+ *
+ * The response is a stream of JSON lines, one per itinerary, sent with chunked transfer encoding as
+ * soon as each search completes: `{"index": <itinerary index>, "result": <pathfinding result>}`,
+ * or `"error"` instead of `"result"` if no path could be found.
+ *
+ * Searches are submitted as the response is read, and each request only has a few searches queued
+ * or waiting to be sent at once. The pool work queue is bounded too: once full, submitting a search
+ * waits for room in the queue.
+ */
+class PathfindingBatchEndpoint(private val infraManager: InfraManager, threads: Int) : Take {
+    /** The maximum number of searches of a request which are running or whose result isn't sent */
+    private val maxPendingSearches = threads * 2
+
+    private val executor =
+        ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            ArrayBlockingQueue(threads * QUEUED_SEARCHES_PER_THREAD),
+            { runnable ->
+                val thread = Thread(runnable, "batch-pathfinding")
+                thread.isDaemon = true
+                thread
+            },
+            // wait for the queue to have room, instead of rejecting the search
+            RejectedExecutionHandler { runnable, pool -> pool.queue.put(runnable) }
+        )
+
+    /** The properties of a rolling stock which pathfinding constraints depend on */
+    private data class StockCapabilities(
+        /** The electrification modes of the rolling stock, or null if it's thermal */
+        val modes: Set<String>?,
+        val loadingGauge: RJSLoadingGaugeType,
+        val signalingSystems: List<String>,
+    ) {
+        constructor(
+            stock: RollingStock
+        ) : this(
+            if (stock.isThermal) null else stock.modeNames,
+            stock.loadingGaugeType,
+            stock.supportedSignalingSystems.toList()
+        )
+    }
+
+    private data class WaypointKey(
+        val trackSection: String,
+        val offset: Double,
+        val direction: EdgeDirection
+    ) {
+        constructor(
+            waypoint: PathfindingWaypoint
+        ) : this(waypoint.trackSection, waypoint.offset, waypoint.direction)
+    }
+
+    override fun act(req: Request): Response {
+        return try {
+            val body = RqPrint(req).printBody()
+            val request =
+                PathfindingBatchRequest.adapter.fromJson(body)
+                    ?: return RsWithStatus(RsText("missing request body"), 400)
+            val infra =
+                infraManager.getInfra(
+                    request.infra,
+                    request.expectedVersion,
+                    DiagnosticRecorderImpl(false)
+                )
+            val run = BatchRun(infra, request.timeout)
+            run.prepare(request.itineraries)
+            val response =
+                RsWithHeader(
+                    RsWithType(RsWithStatus(200), "application/x-ndjson"),
+                    "Transfer-Encoding",
+                    "chunked"
+                )
+            RsWithChunkedBody(response, ChunkedResultStream(run, request.itineraries.size))
+        } catch (ex: Throwable) {
+            ExceptionHandler.handle(ex)
+        }
+    }
+
+    /** The state shared by the searches of one request */
+    private inner class BatchRun(
+        private val infra: FullInfra,
+        private val timeout: Double?,
+    ) {
+        private val waypoints = ConcurrentHashMap<List<List<WaypointKey>>, StepLocations>()
+        private val heuristics = ConcurrentHashMap<StepLocations, List<AStarHeuristicId<Block>>>()
+
+        /** The searches which aren't submitted yet, each returning a result line */
+        private val waiting = ArrayDeque<() -> ByteArray>()
+
+        /** The result lines of the submitted searches, bounded by the number of pending searches */
+        private val lines: BlockingQueue<ByteArray> = ArrayBlockingQueue(maxPendingSearches)
+
+        /** The number of submitted searches whose line isn't taken yet, only used by the reader */
+        private var pending = 0
+
+        /** Groups the itineraries by capability class, in the order their searches are submitted */
+        fun prepare(itineraries: List<PathfindingItinerary>) {
+            val groups =
+                LinkedHashMap<Set<StockCapabilities>, MutableList<Pair<Int, List<RollingStock>>>>()
+            for ((index, itinerary) in itineraries.withIndex()) {
+                try {
+                    val rollingStocks =
+                        itinerary.rollingStocks.map { RJSRollingStockParser.parse(it) }
+                    val capabilities = rollingStocks.map { StockCapabilities(it) }.toSet()
+                    groups.getOrPut(capabilities) { ArrayList() }.add(Pair(index, rollingStocks))
+                } catch (ex: Throwable) {
+                    val line = errorLine(index, ex)
+                    waiting.add { line }
+                }
+            }
+            for (group in groups.values) {
+                // all the rolling stocks of the group have the same constraints, which are only
+                // built once. If it fails, each itinerary of the group gets the error.
+                val constraints = lazy { runCatching { initConstraints(infra, group[0].second) } }
+                for ((index, _) in group) {
+                    waiting.add { findPath(index, itineraries[index], constraints) }
+                }
+            }
+        }
+
+        /** Submits the waiting searches the bounds allow, and waits for the next result line */
+        fun takeLine(): ByteArray {
+            while (pending < maxPendingSearches && waiting.isNotEmpty()) {
+                val search = waiting.removeFirst()
+                executor.execute { lines.put(search()) }
+                pending++
+            }
+            val line = lines.take()
+            pending--
+            return line
+        }
+
+        private fun findPath(
+            index: Int,
+            itinerary: PathfindingItinerary,
+            groupConstraints: Lazy<Result<List<PathfindingConstraint<Block>>>>
+        ): ByteArray {
+            return try {
+                val constraints = groupConstraints.value.getOrThrow()
+                val recorder = DiagnosticRecorderImpl(false)
+                val waypointKey =
+                    itinerary.waypoints.map { step -> step.map { WaypointKey(it) } }
+                val stepLocations =
+                    waypoints.computeIfAbsent(waypointKey) {
+                        itinerary.waypoints.map { step -> findWaypointBlocks(infra, step.toList()) }
+                    }
+                val stepHeuristics =
+                    heuristics.computeIfAbsent(stepLocations) { makeHeuristics(infra, it) }
+                val path =
+                    computePaths(
+                        infra,
+                        ArrayList(stepLocations),
+                        constraints,
+                        stepHeuristics,
+                        timeout
+                    )
+                val res = convertPathfindingResult(infra.blockInfra, infra.rawInfra, path, recorder)
+                validatePathfindingResult(res, itinerary.waypoints, infra.rawInfra)
+                val result = PathfindingResult.adapterResult.toJson(res)
+                "{\"index\":$index,\"result\":$result}\n".toByteArray()
+            } catch (ex: Throwable) {
+                errorLine(index, ex)
+            }
+        }
+
+        private fun errorLine(index: Int, ex: Throwable): ByteArray {
+            Sentry.captureException(ex)
+            val error = OSRDError.adapter.toJson(ExceptionHandler.toOSRDError(ex))
+            return "{\"index\":$index,\"error\":$error}\n".toByteArray()
+        }
+    }
+
+    /**
+     * The chunked encoding of the result lines, one chunk per line, in the order the searches
+     * complete. Lines are only waited for when the stream is read.
+     */
+    private class ChunkedResultStream(private val run: BatchRun, private var remaining: Int) :
+        InputStream() {
+        private var current = ByteArrayInputStream(ByteArray(0))
+        private var ended = false
+
+        /** Returns false once the last chunk is read */
+        private fun ensureAvailable(): Boolean {
+            if (current.available() > 0) return true
+            if (ended) return false
+            if (remaining == 0) {
+                current = ByteArrayInputStream("0\r\n\r\n".toByteArray())
+                ended = true
+                return true
+            }
+            remaining--
+            val line = run.takeLine()
+            val header = "${Integer.toHexString(line.size)}\r\n".toByteArray()
+            current = ByteArrayInputStream(header + line + "\r\n".toByteArray())
+            return true
+        }
+
+        override fun read(): Int {
+            if (!ensureAvailable()) return -1
+            return current.read()
+        }
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int {
+            if (len == 0) return 0
+            if (!ensureAvailable()) return -1
+            return current.read(b, off, len)
+        }
+    }
+
+    /**
+     * A response with an already encoded body, whose length isn't known. Unlike RsWithBody, it
+     * doesn't add a Content-Length header, which would require reading the whole body first.
+     */
+    private class RsWithChunkedBody(private val head: Response, private val body: InputStream) :
+        Response {
+        override fun head(): Iterable<String> {
+            return head.head()
+        }
+
+        override fun body(): InputStream {
+            return body
+        }
+    }
+
+    companion object {
+        /** The size of the pool work queue, relative to the number of threads */
+        private const val QUEUED_SEARCHES_PER_THREAD = 4
+    }
+}
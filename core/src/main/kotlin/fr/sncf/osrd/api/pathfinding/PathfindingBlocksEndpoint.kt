@@ -59,7 +59,8 @@ class PathfindingBlocksEndpoint(private val infraManager: InfraManager) : Take {
                     }
                     .toList()
             val timeout = request.timeout
-            val path = runPathfinding(infra, reqWaypoints, rollingStocks, timeout)
+            val path =
+                runPathfinding(infra, reqWaypoints, rollingStocks, timeout, request.bidirectional)
             val res = convertPathfindingResult(infra.blockInfra, infra.rawInfra, path, recorder)
             validatePathfindingResult(res, reqWaypoints, infra.rawInfra)
             RsJson(RsWithBody(PathfindingResult.adapterResult.toJson(res)))
@@ -194,12 +195,14 @@ private fun isWaypointOnTrack(
 
 /** Runs the pathfinding with the infra and rolling stocks already parsed */
 @JvmName("runPathfinding")
+@JvmOverloads
 @Throws(OSRDError::class)
 fun runPathfinding(
     infra: FullInfra,
     reqWaypoints: Array<Array<PathfindingWaypoint>>,
     rollingStocks: Collection<RollingStock>?,
-    timeout: Double?
+    timeout: Double?,
+    bidirectional: Boolean = false
 ): PathfindingResultId<Block> {
     // Parse the waypoints
     val waypoints = ArrayList<Collection<PathfindingEdgeLocationId<Block>>>()
@@ -209,6 +212,7 @@ fun runPathfinding(
         waypoints.add(allStarts)
     }
     val constraints = initConstraints(infra, rollingStocks!!)
+    if (bidirectional) return computeBidirectionalPaths(infra, waypoints, constraints, timeout)
     val remainingDistanceEstimators = makeHeuristics(infra, waypoints)
 
     // Compute the paths from the entry waypoint to the exit waypoint
@@ -225,8 +229,7 @@ fun makeHeuristics(
     for (i in 0 until waypoints.size - 2) {
         stepMinDistance[i] =
             RemainingDistanceEstimator.minDistanceBetweenSteps(
-                infra.blockInfra,
-                infra.rawInfra,
+                infra.blockGeometry,
                 waypoints[i + 1],
                 waypoints[i + 2]
             )
@@ -241,19 +244,52 @@ fun makeHeuristics(
     val remainingDistanceEstimators = ArrayList<AStarHeuristicId<Block>>()
     for (i in 0 until waypoints.size - 1) {
         remainingDistanceEstimators.add(
-            RemainingDistanceEstimator(
-                infra.blockInfra,
-                infra.rawInfra,
+            RemainingDistanceEstimator(infra.blockGeometry, waypoints[i + 1], stepMinDistance[i])
+        )
+    }
+
+    // Both estimations are lower bounds of the remaining distance, so the highest one can be used
+    val landmarks = infra.landmarks.get() ?: return remainingDistanceEstimators
+    val landmarkEstimators = makeLandmarkHeuristics(landmarks, waypoints)
+    val res = ArrayList<AStarHeuristicId<Block>>()
+    for (i in remainingDistanceEstimators.indices) {
+        val geoEstimator = remainingDistanceEstimators[i]
+        val landmarkEstimator = landmarkEstimators[i]
+        res.add(
+            AStarHeuristic { block, offset ->
+                maxOf(geoEstimator.apply(block, offset), landmarkEstimator.apply(block, offset))
+            }
+        )
+    }
+    return res
+}
+
+/** Initialize the heuristics based on landmarks, whose estimations follow the block graph */
+fun makeLandmarkHeuristics(
+    landmarks: BlockLandmarks,
+    waypoints: List<Collection<PathfindingEdgeLocationId<Block>>>
+): ArrayList<AStarHeuristicId<Block>> {
+    val stepMinDistance = DoubleArray(waypoints.size - 1)
+    for (i in 0 until waypoints.size - 2) {
+        stepMinDistance[i] =
+            LandmarkDistanceEstimator.minDistanceBetweenSteps(
+                landmarks,
                 waypoints[i + 1],
-                stepMinDistance[i]
+                waypoints[i + 2]
             )
-        )
     }
-    return remainingDistanceEstimators
+    for (i in stepMinDistance.size - 2 downTo 0) {
+        stepMinDistance[i] += stepMinDistance[i + 1]
+    }
+    val res = ArrayList<AStarHeuristicId<Block>>()
+    for (i in 0 until waypoints.size - 1) {
+        res.add(LandmarkDistanceEstimator(landmarks, waypoints[i + 1], stepMinDistance[i]))
+    }
+    return res
 }
 
 @Throws(OSRDError::class)
-private fun computePaths(
+internal fun computePaths(
     infra: FullInfra,
     waypoints: ArrayList<Collection<PathfindingEdgeLocationId<Block>>>,
     constraints: List<PathfindingConstraint<Block>>,
@@ -261,9 +297,8 @@ private fun computePaths(
     timeout: Double?
 ): PathfindingResultId<Block> {
     val pathFound =
-        Pathfinding(GraphAdapter(infra.blockInfra, infra.rawInfra))
+        BlockPathfinding(infra.blockInfra, infra.rawInfra)
             .setTimeout(timeout)
-            .setEdgeToLength { block: BlockId -> infra.blockInfra.getBlockLength(block) }
             .setRemainingDistanceEstimator(remainingDistanceEstimators)
             .addBlockedRangeOnEdges(constraints)
             .runPathfinding(waypoints)
@@ -272,27 +307,40 @@ private fun computePaths(
     }
 
     // Handling errors
-    // Check if pathfinding failed due to constraints
-    val possiblePathWithoutErrorNoConstraints =
-        Pathfinding<DirDetectorId, BlockId, Block>(GraphAdapter(infra.blockInfra, infra.rawInfra))
-            .setEdgeToLength { block -> infra.blockInfra.getBlockLength(block) }
-            .setRemainingDistanceEstimator(remainingDistanceEstimators)
-            .runPathfinding(waypoints)
-    if (possiblePathWithoutErrorNoConstraints != null) {
-        for (currentConstraint in constraints) {
-            Pathfinding(GraphAdapter(infra.blockInfra, infra.rawInfra))
-                .setTimeout(timeout)
-                .setEdgeToLength { block: BlockId -> infra.blockInfra.getBlockLength(block) }
-                .addBlockedRangeOnEdges(currentConstraint)
-                .setRemainingDistanceEstimator(remainingDistanceEstimators)
-                .runPathfinding(waypoints)
-                ?: throw OSRDError(
-                    PathfindingBlocksEndpoint.constraintErrors[currentConstraint.javaClass]
-                )
-        }
-    }
-    // It didn’t fail due to a constraint, no path exists
-    throw OSRDError(ErrorType.PathfindingGenericError)
+    // Check if pathfinding failed due to constraints, with a single search ignoring them
+    throw OSRDError(
+        diagnosePathfindingFailure(
+            infra.blockInfra,
+            infra.rawInfra,
+            waypoints,
+            constraints,
+            PathfindingBlocksEndpoint.constraintErrors,
+            timeout ?: Pathfinding.TIMEOUT
+        )
+    )
+}
+
+@Throws(OSRDError::class)
+private fun computeBidirectionalPaths(
+    infra: FullInfra,
+    waypoints: ArrayList<Collection<PathfindingEdgeLocationId<Block>>>,
+    constraints: List<PathfindingConstraint<Block>>,
+    timeout: Double?
+): PathfindingResultId<Block> {
+    return BidirectionalBlockPathfinding(infra.blockInfra, infra.rawInfra)
+        .setTimeout(timeout)
+        .addBlockedRangeOnEdges(constraints)
+        .runPathfinding(waypoints)
+        ?: throw OSRDError(
+            diagnosePathfindingFailure(
+                infra.blockInfra,
+                infra.rawInfra,
+                waypoints,
+                constraints,
+                PathfindingBlocksEndpoint.constraintErrors,
+                timeout ?: Pathfinding.TIMEOUT
+            )
+        )
 }
 
 /**
@@ -81,11 +81,12 @@ private fun makeUserDefinedWaypoints(
     val res = ArrayList<PathWaypointResult>()
     var lengthPrevBlocks: Offset<Path> = Offset(0.meters)
     val startFirstRange = rawPath.ranges[0].start
+    val trackLocator = path.getTrackLocator()
     for (blockRange in rawPath.ranges) {
         for (waypoint in userDefinedWaypointsPerBlock.getOrDefault(blockRange.edge, ArrayList())) {
             if (blockRange.start <= waypoint && waypoint <= blockRange.end) {
                 val pathOffset = lengthPrevBlocks + waypoint.distance - startFirstRange.distance
-                res.add(makePendingUserDefinedWaypoint(infra, path, pathOffset))
+                res.add(makePendingUserDefinedWaypoint(infra, trackLocator, pathOffset))
             }
         }
         lengthPrevBlocks += blockInfra.getBlockLength(blockRange.edge).distance
@@ -124,10 +125,10 @@ private fun makePendingOPWaypoint(
 /** Creates a pending waypoint from a path and its offset */
 private fun makePendingUserDefinedWaypoint(
     infra: RawSignalingInfra,
-    path: PathProperties,
+    trackLocator: PathTrackLocator,
     pathOffset: Offset<Path>
 ): PathWaypointResult {
-    val (trackId, offset) = path.getTrackLocationAtOffset(pathOffset)
+    val (trackId, offset) = trackLocator.getTrackLocationAtOffset(pathOffset)
     val trackName = infra.getTrackSectionName(trackId)
     val location = PathWaypointLocation(trackName, offset.distance.meters)
     return PathWaypointResult(location, pathOffset.distance.meters, false, null)
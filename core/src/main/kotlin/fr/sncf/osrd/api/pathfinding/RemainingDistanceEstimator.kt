@@ -13,22 +13,35 @@ import fr.sncf.osrd.utils.units.Offset
 /**
  * This is a function object that estimates the remaining distance to the closest target point,
  * using geo data. It is used as heuristic for A*.
+ *
+ * Most steps start at the beginning of a block, so the estimation at the start of each block is
+ * computed once and kept in an array indexed by block id.
  */
 class RemainingDistanceEstimator(
-    private val blockInfra: BlockInfra,
-    private val rawInfra: RawSignalingInfra,
+    private val blockGeometry: BlockGeometryTable,
     edgeLocations: Collection<PathfindingEdgeLocationId<Block>>,
     remainingDistance: Double
 ) : AStarHeuristicId<Block> {
-    private val targets: MutableCollection<Point>
+    /** Longitudes and latitudes of the target points */
+    private val targetXs: DoubleArray
+    private val targetYs: DoubleArray
     private val remainingDistance: Double
 
+    /** For each block, the distance from its start to the closest target, or NaN if unknown */
+    private var blockStartDistances: DoubleArray? = null
+
+    constructor(
+        blockInfra: BlockInfra,
+        rawInfra: RawSignalingInfra,
+        edgeLocations: Collection<PathfindingEdgeLocationId<Block>>,
+        remainingDistance: Double
+    ) : this(BlockGeometryTable(blockInfra, rawInfra), edgeLocations, remainingDistance)
+
     /** Constructor */
     init {
-        targets = ArrayList()
+        val targets = ArrayList<Point>()
         for (edgeLocation in edgeLocations) {
-            val point =
-                blockOffsetToPoint(blockInfra, rawInfra, edgeLocation.edge, edgeLocation.offset)
+            val point = blockGeometry.getPoint(edgeLocation.edge, edgeLocation.offset)
             // Avoid adding duplicate geo points to the target list
             if (
                 targets.stream().noneMatch { target: Point? ->
@@ -38,14 +51,29 @@ class RemainingDistanceEstimator(
                 targets.add(point)
             }
         }
+        targetXs = DoubleArray(targets.size) { targets[it].x }
+        targetYs = DoubleArray(targets.size) { targets[it].y }
         this.remainingDistance = remainingDistance
     }
 
     override fun apply(edge: BlockId, offset: Offset<Block>): Double {
-        var resMeters = Double.POSITIVE_INFINITY
-        val point = blockOffsetToPoint(blockInfra, rawInfra, edge, offset)
-        for (target in targets) resMeters =
-            java.lang.Double.min(resMeters, point.distanceAsMeters(target))
+        if (offset.distance.millimeters != 0L) return estimate(edge, offset)
+        var distances = blockStartDistances
+        if (distances == null) {
+            distances = DoubleArray(blockGeometry.blockCount) { Double.NaN }
+            blockStartDistances = distances
+        }
+        val index = edge.index.toInt()
+        var res = distances[index]
+        if (res.isNaN()) {
+            res = estimate(edge, offset)
+            distances[index] = res
+        }
+        return res
+    }
+
+    private fun estimate(edge: BlockId, offset: Offset<Block>): Double {
+        val resMeters = blockGeometry.minDistanceAsMeters(edge, offset, targetXs, targetYs)
 
         // The costs are doubles to be able to weight them, but we still use millimeters as base
         // unit
@@ -56,43 +84,17 @@ class RemainingDistanceEstimator(
         /** Targets closer than this threshold will be merged together */
         private const val DISTANCE_THRESHOLD = 1.0
 
-        /** Converts a block and offset from its start into a geo point */
-        private fun blockOffsetToPoint(
-            blockInfra: BlockInfra,
-            rawInfra: RawSignalingInfra,
-            blockIdx: BlockId,
-            pointOffset: Offset<Block>
-        ): Point {
-            val path = makePathProps(blockInfra, rawInfra, blockIdx)
-            val lineString = path.getGeo()
-            val normalizedOffset = pointOffset.distance.meters / path.getLength().distance.meters
-            return lineString.interpolateNormalized(normalizedOffset)
-        }
-
         /**
          * Compute the minimum geo distance between two steps. Expected to be used when
          * instantiating the heuristic, to estimate the remaining total distance for any step.
          */
         fun minDistanceBetweenSteps(
-            blockInfra: BlockInfra,
-            rawInfra: RawSignalingInfra,
+            blockGeometry: BlockGeometryTable,
             step1: Collection<PathfindingEdgeLocationId<Block>>,
             step2: Collection<PathfindingEdgeLocationId<Block>>
         ): Double {
-            val step1Points =
-                step1
-                    .stream()
-                    .map { loc: PathfindingEdgeLocationId<Block> ->
-                        blockOffsetToPoint(blockInfra, rawInfra, loc.edge, loc.offset)
-                    }
-                    .toList()
-            val step2Points =
-                step2
-                    .stream()
-                    .map { loc: PathfindingEdgeLocationId<Block> ->
-                        blockOffsetToPoint(blockInfra, rawInfra, loc.edge, loc.offset)
-                    }
-                    .toList()
+            val step1Points = step1.map { loc -> blockGeometry.getPoint(loc.edge, loc.offset) }
+            val step2Points = step2.map { loc -> blockGeometry.getPoint(loc.edge, loc.offset) }
             var res = Double.POSITIVE_INFINITY
             for (point1 in step1Points) {
                 for (point2 in step2Points) {
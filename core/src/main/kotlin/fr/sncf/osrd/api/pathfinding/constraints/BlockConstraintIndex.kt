@@ -0,0 +1,96 @@
+package fr.sncf.osrd.api.pathfinding.constraints
+
+import fr.sncf.osrd.api.pathfinding.makePathProps
+import fr.sncf.osrd.graph.Pathfinding
+import fr.sncf.osrd.sim_infra.api.*
+import fr.sncf.osrd.utils.DistanceRangeMap
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * The blocked ranges of each block, for each class of rolling stock capabilities, shared by all the
+ * requests on an infra. Rolling stocks with the same capabilities, such as the same set of
+ * electrification modes or the same loading gauge, have the same blocked ranges: they're computed
+ * the first time a block is explored by a rolling stock of this class, and then only looked up.
+ *
+ * The path properties of a block are only built once, whatever the number of classes.
+ */
+class BlockConstraintIndex(
+    private val blockInfra: BlockInfra,
+    private val rawInfra: RawSignalingInfra
+) {
+    /** The properties of a block which may block some rolling stocks */
+    class BlockProperties(
+        val electrification: DistanceRangeMap<String>,
+        val neutralSections: DistanceRangeMap<NeutralSection>,
+        val loadingGauge: DistanceRangeMap<LoadingGaugeConstraint>,
+    )
+
+    /**
+     * The blocked ranges of each block for one class of rolling stocks, or null if they're not
+     * computed yet. Blocks can be filled concurrently, but always with the same value.
+     */
+    private class ClassIndex(blockCount: Int) {
+        val blockedRanges = AtomicReferenceArray<Collection<Pathfinding.Range<Block>>>(blockCount)
+    }
+
+    private val blockCount = blockInfra.blocks.size.toInt()
+    private val blockProperties = AtomicReferenceArray<BlockProperties>(blockCount)
+    private val electrificationClasses = ConcurrentHashMap<Set<String>, ClassIndex>()
+    private val loadingGaugeClasses = ConcurrentHashMap<LoadingGaugeTypeId, ClassIndex>()
+
+    /** Returns the properties of the block used by constraints */
+    fun getBlockProperties(block: BlockId): BlockProperties {
+        val index = block.index.toInt()
+        var res = blockProperties.get(index)
+        if (res == null) {
+            val path = makePathProps(blockInfra, rawInfra, block)
+            res =
+                BlockProperties(
+                    path.getElectrification(),
+                    path.getNeutralSections(),
+                    path.getLoadingGauge()
+                )
+            blockProperties.set(index, res)
+        }
+        return res
+    }
+
+    /** Returns the blocked ranges of the block for electric rolling stocks with the given modes */
+    fun getElectrificationBlockedRanges(
+        modeNames: Set<String>,
+        block: BlockId,
+        compute: (BlockProperties) -> Collection<Pathfinding.Range<Block>>
+    ): Collection<Pathfinding.Range<Block>> {
+        val classIndex =
+            electrificationClasses.computeIfAbsent(modeNames) { ClassIndex(blockCount) }
+        return getBlockedRanges(classIndex, block, compute)
+    }
+
+    /** Returns the blocked ranges of the block for rolling stocks with the given loading gauge */
+    fun getLoadingGaugeBlockedRanges(
+        loadingGauge: LoadingGaugeTypeId,
+        block: BlockId,
+        compute: (BlockProperties) -> Collection<Pathfinding.Range<Block>>
+    ): Collection<Pathfinding.Range<Block>> {
+        val classIndex =
+            loadingGaugeClasses.computeIfAbsent(loadingGauge) { ClassIndex(blockCount) }
+        return getBlockedRanges(classIndex, block, compute)
+    }
+
+    private inline fun getBlockedRanges(
+        classIndex: ClassIndex,
+        block: BlockId,
+        compute: (BlockProperties) -> Collection<Pathfinding.Range<Block>>
+    ): Collection<Pathfinding.Range<Block>> {
+        val index = block.index.toInt()
+        var res = classIndex.blockedRanges.get(index)
+        if (res == null) {
+            val blockedRanges = compute(getBlockProperties(block))
+            // most blocks aren't blocked, they all share the same empty list
+            res = if (blockedRanges.isEmpty()) listOf() else blockedRanges.toList()
+            classIndex.blockedRanges.set(index, res)
+        }
+        return res
+    }
+}
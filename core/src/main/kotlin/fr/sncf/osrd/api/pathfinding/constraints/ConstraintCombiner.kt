@@ -24,9 +24,19 @@ fun initConstraints(
 ): List<PathfindingConstraint<Block>> {
 
     val loadingGaugeConstraints =
-        LoadingGaugeConstraints(fullInfra.blockInfra, fullInfra.rawInfra, rollingStockList)
+        LoadingGaugeConstraints(
+            fullInfra.blockInfra,
+            fullInfra.rawInfra,
+            rollingStockList,
+            fullInfra.constraintIndex
+        )
     val electrificationConstraints =
-        ElectrificationConstraints(fullInfra.blockInfra, fullInfra.rawInfra, rollingStockList)
+        ElectrificationConstraints(
+            fullInfra.blockInfra,
+            fullInfra.rawInfra,
+            rollingStockList,
+            fullInfra.constraintIndex
+        )
     val signalisationSystemConstraints =
         makeSignalingSystemConstraints(
             fullInfra.blockInfra,
@@ -3,7 +3,6 @@ package fr.sncf.osrd.api.pathfinding.constraints
 import com.google.common.collect.Range
 import com.google.common.collect.RangeSet
 import com.google.common.collect.TreeRangeSet
-import fr.sncf.osrd.api.pathfinding.makePathProps
 import fr.sncf.osrd.graph.Pathfinding
 import fr.sncf.osrd.graph.PathfindingConstraint
 import fr.sncf.osrd.sim_infra.api.*
@@ -16,32 +15,38 @@ import java.util.stream.Collectors
 data class ElectrificationConstraints(
     val blockInfra: BlockInfra,
     val rawInfra: RawSignalingInfra,
-    val rollingStocks: Collection<RollingStock>
+    val rollingStocks: Collection<RollingStock>,
+    val constraintIndex: BlockConstraintIndex = BlockConstraintIndex(blockInfra, rawInfra)
 ) : PathfindingConstraint<Block> {
     override fun apply(edge: BlockId): MutableCollection<Pathfinding.Range<Block>> {
         val res = HashSet<Pathfinding.Range<Block>>()
-        val path = makePathProps(blockInfra, rawInfra, edge)
-        for (stock in rollingStocks) res.addAll(getBlockedRanges(stock, path))
+        for (stock in rollingStocks) {
+            if (stock.isThermal) continue
+            // rolling stocks with the same modes have the same blocked ranges
+            res.addAll(
+                constraintIndex.getElectrificationBlockedRanges(stock.modeNames, edge) {
+                    getBlockedRanges(stock.modeNames, it)
+                }
+            )
+        }
         return res
     }
 
     companion object {
         /**
-         * Returns the sections of the given block that can't be used by the given rolling stock
-         * because it needs electrified tracks and isn't compatible with the electrifications in
-         * some range
+         * Returns the sections of the given block that can't be used by an electric rolling stock
+         * with the given modes, because it isn't compatible with the electrifications in some range
          */
         private fun getBlockedRanges(
-            stock: RollingStock,
-            path: PathProperties
+            modeNames: Set<String>,
+            block: BlockConstraintIndex.BlockProperties
         ): Set<Pathfinding.Range<Block>> {
-            if (stock.isThermal) return setOf()
             val res = HashSet<Pathfinding.Range<Block>>()
-            val voltages = path.getElectrification()
-            val neutralSections = rangeSetFromMap(path.getNeutralSections())
+            val voltages = block.electrification
+            val neutralSections = rangeSetFromMap(block.neutralSections)
             for ((lower, upper, value) in voltages) {
                 if (lower == upper) continue
-                if (!stock.modeNames.contains(value)) {
+                if (!modeNames.contains(value)) {
                     val voltageInterval = Range.open(lower, upper)
                     val blockingRanges =
                         neutralSections.complement().subRangeSet(voltageInterval).asRanges()
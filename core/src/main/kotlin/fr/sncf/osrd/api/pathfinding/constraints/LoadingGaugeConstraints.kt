@@ -1,6 +1,5 @@
 package fr.sncf.osrd.api.pathfinding.constraints
 
-import fr.sncf.osrd.api.pathfinding.makePathProps
 import fr.sncf.osrd.graph.Pathfinding
 import fr.sncf.osrd.graph.PathfindingConstraint
 import fr.sncf.osrd.sim_infra.api.*
@@ -12,26 +11,36 @@ import java.util.stream.Collectors
 data class LoadingGaugeConstraints(
     val blockInfra: BlockInfra,
     val infra: RawSignalingInfra,
-    val rollingStocks: Collection<RollingStock>
+    val rollingStocks: Collection<RollingStock>,
+    val constraintIndex: BlockConstraintIndex = BlockConstraintIndex(blockInfra, infra)
 ) : PathfindingConstraint<Block> {
     override fun apply(edge: BlockId): Collection<Pathfinding.Range<Block>> {
         val res = HashSet<Pathfinding.Range<Block>>()
-        val path = makePathProps(blockInfra, infra, edge)
-        for (stock in rollingStocks) res.addAll(getBlockedRanges(stock, path))
+        for (stock in rollingStocks) {
+            val loadingGauge = LoadingGaugeTypeId(stock.loadingGaugeType.ordinal.toUInt())
+            // rolling stocks with the same loading gauge have the same blocked ranges
+            res.addAll(
+                constraintIndex.getLoadingGaugeBlockedRanges(loadingGauge, edge) {
+                    getBlockedRanges(loadingGauge, it)
+                }
+            )
+        }
         return res
     }
 
-    /** Returns the sections of the given block that can't be used by the given rolling stock */
+    /**
+     * Returns the sections of the given block that can't be used by a rolling stock with the given
+     * loading gauge
+     */
     private fun getBlockedRanges(
-        stock: RollingStock,
-        path: PathProperties
+        loadingGauge: LoadingGaugeTypeId,
+        block: BlockConstraintIndex.BlockProperties
     ): Collection<Pathfinding.Range<Block>> {
-        return path
-            .getLoadingGauge()
+        return block.loadingGauge
             .asList()
             .stream()
             .filter { (_, _, value): DistanceRangeMap.RangeMapEntry<LoadingGaugeConstraint> ->
-                !value.isCompatibleWith(LoadingGaugeTypeId(stock.loadingGaugeType.ordinal.toUInt()))
+                !value.isCompatibleWith(loadingGauge)
             }
             .map { (lower, upper): DistanceRangeMap.RangeMapEntry<LoadingGaugeConstraint> ->
                 Pathfinding.Range(Offset<Block>(lower), Offset<Block>(upper))
@@ -0,0 +1,40 @@
+package fr.sncf.osrd.api.pathfinding.request
+
+import com.squareup.moshi.Json
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.kotlin.reflect.KotlinJsonAdapterFactory
+import fr.sncf.osrd.railjson.schema.rollingstock.RJSRollingResistance
+import fr.sncf.osrd.railjson.schema.rollingstock.RJSRollingStock
+
+class PathfindingBatchRequest
+/** Create a new batch pathfinding request */
+(
+    /** The itineraries to find paths for, all on the same infrastructure */
+    var itineraries: List<PathfindingItinerary>,
+    /** The infrastructure identifier */
+    var infra: String,
+    /** expectedVersion The expected infrastructure version */
+    @Json(name = "expected_version") var expectedVersion: String,
+    /** The timeout of each pathfinding, in seconds */
+    var timeout: Double?
+) {
+    class PathfindingItinerary(
+        /**
+         * A list of locations the path must to through. A location is a group of points. The path
+         * only has to go through a single point per location.
+         */
+        var waypoints: Array<Array<PathfindingWaypoint>>,
+        /** List of rolling stocks that must be able to use this path */
+        @Json(name = "rolling_stocks") var rollingStocks: List<RJSRollingStock>,
+    )
+
+    companion object {
+        val adapter: JsonAdapter<PathfindingBatchRequest> =
+            Moshi.Builder()
+                .add(KotlinJsonAdapterFactory())
+                .add(RJSRollingResistance.adapter)
+                .build()
+                .adapter(PathfindingBatchRequest::class.java)
+    }
+}
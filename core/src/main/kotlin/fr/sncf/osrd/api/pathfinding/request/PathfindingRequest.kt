@@ -21,7 +21,12 @@ class PathfindingRequest
     @Json(name = "expected_version") var expectedVersion: String,
     /** List of rolling stocks that must be able to use this path */
     @Json(name = "rolling_stocks") var rollingStocks: List<RJSRollingStock>,
-    var timeout: Double?
+    var timeout: Double?,
+    /**
+     * Search from both ends of the path at once, which visits fewer blocks on long itineraries. The
+     * path found has the same length.
+     */
+    var bidirectional: Boolean = false
 ) {
 
     companion object {
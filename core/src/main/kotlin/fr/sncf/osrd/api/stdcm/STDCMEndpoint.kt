@@ -1,5 +1,9 @@
 package fr.sncf.osrd.api.stdcm
 
+import com.squareup.moshi.Json
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.kotlin.reflect.KotlinJsonAdapterFactory
 import fr.sncf.osrd.api.ExceptionHandler
 import fr.sncf.osrd.api.FullInfra
 import fr.sncf.osrd.api.InfraManager
@@ -11,6 +15,7 @@ import fr.sncf.osrd.envelope_sim_infra.MRSP
 import fr.sncf.osrd.graph.Pathfinding
 import fr.sncf.osrd.railjson.parser.RJSRollingStockParser
 import fr.sncf.osrd.railjson.parser.RJSStandaloneTrainScheduleParser
+import fr.sncf.osrd.railjson.schema.rollingstock.RJSRollingStock
 import fr.sncf.osrd.reporting.exceptions.ErrorType
 import fr.sncf.osrd.reporting.exceptions.OSRDError
 import fr.sncf.osrd.reporting.warnings.DiagnosticRecorderImpl
@@ -19,12 +24,16 @@ import fr.sncf.osrd.standalone_sim.result.ResultTrain
 import fr.sncf.osrd.standalone_sim.result.StandaloneSimResult
 import fr.sncf.osrd.standalone_sim.run
 import fr.sncf.osrd.stdcm.STDCMStep
+import fr.sncf.osrd.stdcm.graph.BlockEnvelopeCache
+import fr.sncf.osrd.stdcm.graph.BlockSimulationContext
 import fr.sncf.osrd.stdcm.graph.findPath
 import fr.sncf.osrd.stdcm.preprocessing.implementation.makeBlockAvailability
 import fr.sncf.osrd.train.RollingStock
 import fr.sncf.osrd.train.RollingStock.Comfort
 import fr.sncf.osrd.train.StandaloneTrainSchedule
 import fr.sncf.osrd.train.TrainStop
+import java.security.MessageDigest
+import java.util.HexFormat
 import org.takes.Request
 import org.takes.Response
 import org.takes.Take
@@ -34,7 +43,12 @@ import org.takes.rs.RsText
 import org.takes.rs.RsWithBody
 import org.takes.rs.RsWithStatus
 
-class STDCMEndpoint(private val infraManager: InfraManager) : Take {
+class STDCMEndpoint
+@JvmOverloads
+constructor(
+    private val infraManager: InfraManager,
+    private val envelopeCache: BlockEnvelopeCache? = null
+) : Take {
     @Throws(OSRDError::class)
     override fun act(req: Request): Response {
         val recorder = DiagnosticRecorderImpl(false)
@@ -80,7 +94,8 @@ class STDCMEndpoint(private val infraManager: InfraManager) : Take {
                     request.maximumRunTime,
                     tag,
                     standardAllowance,
-                    Pathfinding.TIMEOUT
+                    Pathfinding.TIMEOUT,
+                    getSharedEnvelopes(request, infra, comfort, tag)
                 )
             if (res == null) {
                 val error = OSRDError(ErrorType.PathfindingGenericError)
@@ -115,6 +130,90 @@ class STDCMEndpoint(private val infraManager: InfraManager) : Take {
             ExceptionHandler.handle(ex)
         }
     }
+
+    /**
+     * Returns the part of the shared envelope cache matching this request, or null if envelopes
+     * can't be shared. This happens when the infra version is unknown, which may be the case if the
+     * infra was reloaded while the request started.
+     */
+    private fun getSharedEnvelopes(
+        request: STDCMRequest,
+        infra: FullInfra,
+        comfort: Comfort?,
+        tag: String?
+    ): BlockEnvelopeCache.ContextView? {
+        if (envelopeCache == null) return null
+        val cacheEntry = infraManager.getInfraCache(request.infra) ?: return null
+        val infraVersion = cacheEntry.version
+        if (infraVersion == null || cacheEntry.infra !== infra) return null
+        val context =
+            BlockSimulationContext(
+                request.infra,
+                infraVersion,
+                fingerprint(request.rollingStock),
+                comfort,
+                tag,
+                request.timeStep
+            )
+        return envelopeCache.forContext(context)
+    }
+}
+
+/** Reports the counters of the envelope cache shared by STDCM requests */
+class STDCMCacheStatsEndpoint(private val envelopeCache: BlockEnvelopeCache?) : Take {
+    override fun act(req: Request): Response {
+        return try {
+            val stats = envelopeCache?.getStats() ?: BlockEnvelopeCache.Stats(0, 0, 0, 0, 0, 0, 0)
+            RsJson(RsWithBody(statsAdapter.toJson(SerializedEnvelopeCacheStats.from(stats))))
+        } catch (ex: Throwable) {
+            ExceptionHandler.handle(ex)
+        }
+    }
+
+    class SerializedEnvelopeCacheStats(
+        val hits: Long,
+        val misses: Long,
+        val evictions: Long,
+        val size: Int,
+        /** The estimated heap size of the cached envelopes, in bytes */
+        @Json(name = "estimated_size") val estimatedSize: Long,
+        /** The heap size the cached envelopes may use, in bytes */
+        val budget: Long,
+        /** The time spent simulating blocks which weren't cached, in milliseconds */
+        @Json(name = "simulation_time") val simulationTime: Long,
+        /** The estimated simulation time saved by the cache, in milliseconds */
+        @Json(name = "saved_time") val savedTime: Long
+    ) {
+        companion object {
+            fun from(stats: BlockEnvelopeCache.Stats): SerializedEnvelopeCacheStats {
+                return SerializedEnvelopeCacheStats(
+                    stats.hits,
+                    stats.misses,
+                    stats.evictions,
+                    stats.size,
+                    stats.estimatedSize,
+                    stats.budget,
+                    stats.simulationTimeMs,
+                    stats.savedTimeMs
+                )
+            }
+        }
+    }
+
+    companion object {
+        val statsAdapter: JsonAdapter<SerializedEnvelopeCacheStats> =
+            Moshi.Builder()
+                .add(KotlinJsonAdapterFactory())
+                .build()
+                .adapter(SerializedEnvelopeCacheStats::class.java)
+    }
+}
+
+/** Identifies the whole description of a rolling stock, so that edited versions aren't mixed up */
+private fun fingerprint(rollingStock: RJSRollingStock): String {
+    val json = RJSRollingStock.adapter.toJson(rollingStock)
+    val digest = MessageDigest.getInstance("SHA-256").digest(json.toByteArray(Charsets.UTF_8))
+    return HexFormat.of().formatHex(digest)
 }
 
 private fun parseSteps(infra: FullInfra, steps: List<STDCMRequest.STDCMStep>): List<STDCMStep> {
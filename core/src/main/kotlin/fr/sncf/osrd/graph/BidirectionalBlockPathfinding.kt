@@ -0,0 +1,365 @@
+package fr.sncf.osrd.graph
+
+import fr.sncf.osrd.reporting.exceptions.ErrorType
+import fr.sncf.osrd.reporting.exceptions.OSRDError
+import fr.sncf.osrd.sim_infra.api.Block
+import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.sim_infra.api.BlockInfra
+import fr.sncf.osrd.sim_infra.api.RawSignalingInfra
+import fr.sncf.osrd.sim_infra.utils.getBlockEntry
+import fr.sncf.osrd.sim_infra.utils.getBlockExit
+import fr.sncf.osrd.utils.units.Distance
+import fr.sncf.osrd.utils.units.Offset
+
+/**
+ * A bidirectional Dijkstra on the block graph, which explores forward from the start and backward
+ * from the destination until both searches meet. It finds paths of the same cost as
+ * [BlockPathfinding], with the same blocked ranges and intermediate waypoints, while visiting fewer
+ * blocks on long itineraries.
+ *
+ * The search runs on a layered graph: layer k holds the paths which went through k waypoints. Its
+ * nodes are the block starts of each layer and the waypoint locations, and its edge costs are the
+ * ones of the steps of [BlockPathfinding]. Remaining distance heuristics aren't used, as they only
+ * estimate the distance in one direction.
+ */
+class BidirectionalBlockPathfinding(
+    private val blockInfra: BlockInfra,
+    private val rawInfra: RawSignalingInfra
+) {
+    private val constraints = ArrayList<PathfindingConstraint<Block>>()
+    private var timeout = Pathfinding.TIMEOUT
+
+    /** Adds functors used to determine which ranges are blocked on a block */
+    fun addBlockedRangeOnEdges(
+        f: Collection<PathfindingConstraint<Block>>
+    ): BidirectionalBlockPathfinding {
+        constraints.addAll(f)
+        return this
+    }
+
+    /** Sets the pathfinding's timeout */
+    fun setTimeout(timeout: Double?): BidirectionalBlockPathfinding {
+        if (timeout != null) this.timeout = timeout
+        return this
+    }
+
+    /**
+     * Runs the pathfinding, returning a path as a list of (block, start offset, end offset). Each
+     * target is given as a collection of location. It finds the shortest path from start to end,
+     * going through at least one location of each every intermediate target in order.
+     */
+    fun runPathfinding(
+        targets: List<Collection<PathfindingEdgeLocationId<Block>>>
+    ): PathfindingResultId<Block>? {
+        if (targets.size < 2)
+            return BlockPathfinding(blockInfra, rawInfra)
+                .addBlockedRangeOnEdges(constraints)
+                .setTimeout(timeout)
+                .runPathfinding(targets)
+        return Search(targets).run()
+    }
+
+    /**
+     * One search on the layered graph. Nodes are identified by ints: the start of block b in layer
+     * k is `k * blockCount + b`, and waypoint location p is `pointBase + p`.
+     */
+    private inner class Search(targets: List<Collection<PathfindingEdgeLocationId<Block>>>) {
+        private val blockCount = blockInfra.blocks.size.toInt()
+        private val blockRanges = BlockRangeCache(blockInfra, constraints)
+
+        /** The number of waypoints after the start, and of layers of block starts */
+        private val layerCount = targets.size - 1
+        private val pointBase = layerCount * blockCount
+
+        // Waypoint locations, from all the steps
+        private val pointLocations = targets.flatten()
+        private val pointCount = pointLocations.size
+        private val pointLayers = IntArray(pointCount)
+        private val pointBlocks = IntArray(pointCount)
+        private val pointOffsets = LongArray(pointCount)
+
+        /** For each layer, the waypoint locations of the step on each block */
+        private val pointsByBlock = Array(targets.size) { HashMap<Int, IntArray>() }
+
+        private val forward = Side()
+        private val backward = Side()
+
+        /** The cost of the best path found so far, and the node where its two halves meet */
+        private var bestCost = Double.POSITIVE_INFINITY
+        private var meetingNode = -1
+
+        init {
+            var point = 0
+            for ((layer, step) in targets.withIndex()) {
+                val layerPoints = HashMap<Int, ArrayList<Int>>()
+                for (location in step) {
+                    pointLayers[point] = layer
+                    pointBlocks[point] = location.edge.index.toInt()
+                    pointOffsets[point] = location.offset.distance.millimeters
+                    layerPoints.getOrPut(pointBlocks[point]) { ArrayList() }.add(point)
+                    point++
+                }
+                for ((block, points) in layerPoints)
+                    pointsByBlock[layer][block] = points.toIntArray()
+            }
+        }
+
+        /** The labels of one direction of the search */
+        private inner class Side {
+            /** The distance to each node from this side's origins, allocated layer by layer */
+            private val entryDistances = arrayOfNulls<DoubleArray>(layerCount)
+            private val entryParents = arrayOfNulls<IntArray>(layerCount)
+            private val pointDistances = DoubleArray(pointCount) { Double.POSITIVE_INFINITY }
+            private val pointParents = IntArray(pointCount) { -1 }
+            val queue = IntMinHeap()
+
+            fun getDistance(node: Int): Double {
+                if (node >= pointBase) return pointDistances[node - pointBase]
+                val distances = entryDistances[node / blockCount] ?: return Double.POSITIVE_INFINITY
+                return distances[node % blockCount]
+            }
+
+            fun getParent(node: Int): Int {
+                if (node >= pointBase) return pointParents[node - pointBase]
+                return entryParents[node / blockCount]!![node % blockCount]
+            }
+
+            /** Sets the distance of the node if it's shorter, and queues it. */
+            fun update(node: Int, distance: Double, parent: Int, other: Side) {
+                if (distance >= getDistance(node)) return
+                if (node >= pointBase) {
+                    pointDistances[node - pointBase] = distance
+                    pointParents[node - pointBase] = parent
+                } else {
+                    val layer = node / blockCount
+                    if (entryDistances[layer] == null) {
+                        entryDistances[layer] = DoubleArray(blockCount) { Double.POSITIVE_INFINITY }
+                        entryParents[layer] = IntArray(blockCount) { -1 }
+                    }
+                    entryDistances[layer]!![node % blockCount] = distance
+                    entryParents[layer]!![node % blockCount] = parent
+                }
+                queue.push(node, distance)
+                val pathCost = distance + other.getDistance(node)
+                if (pathCost < bestCost) {
+                    bestCost = pathCost
+                    meetingNode = node
+                }
+            }
+
+            /** Removes outdated queue entries, and returns the distance of the closest node */
+            fun peekDistance(): Double {
+                while (!queue.isEmpty()) {
+                    if (queue.peekPriority() <= getDistance(queue.peekValue()))
+                        return queue.peekPriority()
+                    queue.pop()
+                }
+                return Double.POSITIVE_INFINITY
+            }
+        }
+
+        fun run(): PathfindingResultId<Block>? {
+            for (point in 0 until pointCount) {
+                val block = pointBlocks[point]
+                val offset = pointOffsets[point]
+                if (pointLayers[point] == 0 && blockRanges.filterEnd(block, offset, offset) >= 0)
+                    forward.update(pointBase + point, 0.0, -1, backward)
+                if (pointLayers[point] == layerCount)
+                    backward.update(pointBase + point, 0.0, -1, forward)
+            }
+
+            val startTime = System.nanoTime()
+            var iterations = 0
+            while (true) {
+                if (
+                    iterations++ % TIMEOUT_CHECK_INTERVAL == 0 &&
+                        (System.nanoTime() - startTime) / 1e9 >= timeout
+                )
+                    throw OSRDError(ErrorType.PathfindingTimeoutError)
+                val forwardDistance = forward.peekDistance()
+                val backwardDistance = backward.peekDistance()
+                // no path through an unsettled node can be shorter than the best one
+                if (forwardDistance + backwardDistance >= bestCost) break
+                if (forwardDistance == Double.POSITIVE_INFINITY) break
+                if (backwardDistance == Double.POSITIVE_INFINITY) break
+
+                // expand the side with the fewest queued nodes
+                if (forward.queue.size <= backward.queue.size) {
+                    val node = forward.queue.pop()
+                    forEachSuccessor(node) { next, cost ->
+                        forward.update(next, forwardDistance + cost, node, backward)
+                    }
+                } else {
+                    val node = backward.queue.pop()
+                    forEachPredecessor(node) { prev, cost ->
+                        backward.update(prev, backwardDistance + cost, node, forward)
+                    }
+                }
+            }
+            if (meetingNode == -1) return null
+            return buildResult()
+        }
+
+        private fun entryNode(layer: Int, block: Int): Int {
+            return layer * blockCount + block
+        }
+
+        /** Returns true if the block can be entered, that is if its start isn't blocked */
+        private fun canEnter(block: Int): Boolean {
+            return blockRanges.filterEnd(block, 0, blockRanges.getBlockLength(block)) >= 0
+        }
+
+        /** Calls the function on each next node, with the cost of the edge leading to it */
+        private inline fun forEachSuccessor(node: Int, f: (Int, Double) -> Unit) {
+            if (node < pointBase) {
+                val layer = node / blockCount
+                val block = node % blockCount
+                val length = blockRanges.getBlockLength(block)
+                val reachableEnd = blockRanges.filterEnd(block, 0, length)
+                // waypoints found on a whole block step cost the step length, and then their offset
+                for (point in pointsByBlock[layer + 1][block] ?: EMPTY) {
+                    val offset = pointOffsets[point]
+                    if (blockRanges.filterEnd(block, 0, offset) == offset)
+                        f(pointBase + point, (reachableEnd + offset).toDouble())
+                }
+                if (reachableEnd == length) {
+                    forEachNextBlock(block) { next -> f(entryNode(layer, next), length.toDouble()) }
+                }
+                return
+            }
+            val point = node - pointBase
+            val layer = pointLayers[point]
+            if (layer == layerCount) return
+            val block = pointBlocks[point]
+            val start = pointOffsets[point]
+            val length = blockRanges.getBlockLength(block)
+            val reachableEnd = blockRanges.filterEnd(block, start, length)
+            if (reachableEnd < 0) return
+            for (nextPoint in pointsByBlock[layer + 1][block] ?: EMPTY) {
+                val offset = pointOffsets[nextPoint]
+                if (offset < start || blockRanges.filterEnd(block, start, offset) != offset)
+                    continue
+                f(pointBase + nextPoint, waypointCost(layer, start, reachableEnd, offset))
+            }
+            if (reachableEnd == length) {
+                forEachNextBlock(block) { next ->
+                    f(entryNode(layer, next), (length - start).toDouble())
+                }
+            }
+        }
+
+        /** Calls the function on each previous node, with the cost of the edge leading from it */
+        private inline fun forEachPredecessor(node: Int, f: (Int, Double) -> Unit) {
+            if (node < pointBase) {
+                val layer = node / blockCount
+                val block = node % blockCount
+                forEachPreviousBlock(block) { prev ->
+                    val length = blockRanges.getBlockLength(prev)
+                    if (blockRanges.filterEnd(prev, 0, length) == length)
+                        f(entryNode(layer, prev), length.toDouble())
+                    for (point in pointsByBlock[layer][prev] ?: EMPTY) {
+                        val offset = pointOffsets[point]
+                        if (blockRanges.filterEnd(prev, offset, length) == length)
+                            f(pointBase + point, (length - offset).toDouble())
+                    }
+                }
+                return
+            }
+            val point = node - pointBase
+            val layer = pointLayers[point]
+            if (layer == 0) return
+            val block = pointBlocks[point]
+            val offset = pointOffsets[point]
+            val length = blockRanges.getBlockLength(block)
+            if (blockRanges.filterEnd(block, 0, offset) == offset) {
+                val reachableEnd = blockRanges.filterEnd(block, 0, length)
+                f(entryNode(layer - 1, block), (reachableEnd + offset).toDouble())
+            }
+            for (prevPoint in pointsByBlock[layer - 1][block] ?: EMPTY) {
+                val start = pointOffsets[prevPoint]
+                if (start > offset || blockRanges.filterEnd(block, start, offset) != offset)
+                    continue
+                val reachableEnd = blockRanges.filterEnd(block, start, length)
+                f(pointBase + prevPoint, waypointCost(layer - 1, start, reachableEnd, offset))
+            }
+        }
+
+        /**
+         * Returns the cost of going from a waypoint of the given layer to a waypoint of the next
+         * one on the same block. From the start, waypoints are found by the first step, which
+         * doesn't cover any distance. Other waypoints are found by the step going until the end of
+         * the block, whose length is counted too.
+         */
+        private fun waypointCost(layer: Int, start: Long, reachableEnd: Long, end: Long): Double {
+            if (layer == 0) return (end - start).toDouble()
+            return ((reachableEnd - start) + (end - start)).toDouble()
+        }
+
+        private inline fun forEachNextBlock(block: Int, f: (Int) -> Unit) {
+            val exit = blockInfra.getBlockExit(rawInfra, BlockId(block.toUInt()))
+            val nextBlocks = blockInfra.getBlocksStartingAtDetector(exit)
+            for (i in 0 until nextBlocks.size) {
+                val next = nextBlocks[i].index.toInt()
+                if (canEnter(next)) f(next)
+            }
+        }
+
+        private inline fun forEachPreviousBlock(block: Int, f: (Int) -> Unit) {
+            if (!canEnter(block)) return
+            val entry = blockInfra.getBlockEntry(rawInfra, BlockId(block.toUInt()))
+            val prevBlocks = blockInfra.getBlocksEndingAtDetector(entry)
+            for (i in 0 until prevBlocks.size) f(prevBlocks[i].index.toInt())
+        }
+
+        /** Builds the result from the nodes of the best path, merging ranges on the same block */
+        private fun buildResult(): PathfindingResultId<Block> {
+            val nodes = ArrayList<Int>()
+            var node = meetingNode
+            while (node != -1) {
+                nodes.add(node)
+                node = forward.getParent(node)
+            }
+            nodes.reverse()
+            node = backward.getParent(meetingNode)
+            while (node != -1) {
+                nodes.add(node)
+                node = backward.getParent(node)
+            }
+
+            val ranges = ArrayList<PathfindingEdgeRangeId<Block>>()
+            val waypoints = ArrayList<PathfindingEdgeLocationId<Block>>()
+            var block = -1
+            var start = 0L
+            for ((i, pathNode) in nodes.withIndex()) {
+                if (pathNode < pointBase) {
+                    // the previous block is left at its end
+                    ranges.add(makeRange(block, start, blockRanges.getBlockLength(block)))
+                    block = pathNode % blockCount
+                    start = 0L
+                    continue
+                }
+                val point = pathNode - pointBase
+                waypoints.add(pointLocations[point])
+                if (i == 0) {
+                    block = pointBlocks[point]
+                    start = pointOffsets[point]
+                }
+                if (i == nodes.size - 1) ranges.add(makeRange(block, start, pointOffsets[point]))
+            }
+            return Pathfinding.Result(ranges, waypoints)
+        }
+
+        private fun makeRange(block: Int, start: Long, end: Long): PathfindingEdgeRangeId<Block> {
+            return Pathfinding.EdgeRange(
+                BlockId(block.toUInt()),
+                Offset(Distance(start)),
+                Offset(Distance(end))
+            )
+        }
+    }
+
+    companion object {
+        private const val TIMEOUT_CHECK_INTERVAL = 1024
+        private val EMPTY = IntArray(0)
+    }
+}
@@ -0,0 +1,347 @@
+package fr.sncf.osrd.graph
+
+import fr.sncf.osrd.reporting.exceptions.ErrorType
+import fr.sncf.osrd.reporting.exceptions.OSRDError
+import fr.sncf.osrd.sim_infra.api.Block
+import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.sim_infra.api.BlockInfra
+import fr.sncf.osrd.sim_infra.api.RawSignalingInfra
+import fr.sncf.osrd.sim_infra.utils.getBlockExit
+import fr.sncf.osrd.utils.units.Distance
+import fr.sncf.osrd.utils.units.Offset
+
+/**
+ * A pathfinding on the block graph, which follows the same rules as [Pathfinding] with the default
+ * edge range cost, but keeps its state in primitive arrays indexed by block and by step instead of
+ * allocating objects for each step.
+ * - steps are stored in parallel arrays, and refer to their previous step by index
+ * - the queue is a binary heap of step indices
+ * - the steps covering whole blocks, which are the vast majority, are marked as visited in an array
+ *   indexed by block. Other steps, which start or end at a waypoint or a blocked range, use a map.
+ * - the blocked ranges of each block are only computed once per search
+ */
+class BlockPathfinding(
+    private val blockInfra: BlockInfra,
+    private val rawInfra: RawSignalingInfra
+) {
+    /** A step which doesn't cover a whole block */
+    private data class PartialRange(val block: Int, val start: Long, val end: Long)
+
+    private val blockCount = blockInfra.blocks.size.toInt()
+    private val constraints = ArrayList<PathfindingConstraint<Block>>()
+    private var estimateRemainingDistance: List<AStarHeuristicId<Block>> = listOf()
+    private var timeout = Pathfinding.TIMEOUT
+
+    // Step storage, indexed by step
+    private var stepCount = 0
+    private var stepBlocks = IntArray(INITIAL_CAPACITY)
+    private var stepStarts = LongArray(INITIAL_CAPACITY)
+    private var stepEnds = LongArray(INITIAL_CAPACITY)
+    private var stepPrevs = IntArray(INITIAL_CAPACITY)
+    private var stepReachedTargets = IntArray(INITIAL_CAPACITY)
+    private var stepDistances = DoubleArray(INITIAL_CAPACITY)
+    /** The last waypoint reached by each step, as an index in the waypoint lists, or -1 */
+    private var stepWaypoints = IntArray(INITIAL_CAPACITY)
+
+    /**
+     * Waypoints reached by steps, as linked lists: each item refers to the waypoint reached before,
+     * in the same step, or -1
+     */
+    private val waypointLocations = ArrayList<PathfindingEdgeLocationId<Block>>()
+    private var waypointPrevs = IntArray(INITIAL_CAPACITY)
+
+    private val queue = IntMinHeap(INITIAL_CAPACITY)
+
+    /** For each block, 1 + the max number of reached targets of the visited steps covering it */
+    private val wholeBlockSeen = IntArray(blockCount)
+    private val partialRangeSeen = HashMap<PartialRange, Int>()
+
+    private val blockRanges = BlockRangeCache(blockInfra, constraints)
+
+    /** Targets of each step, as parallel arrays of blocks and offsets */
+    private var targetBlocks: Array<IntArray> = arrayOf()
+    private var targetOffsets: Array<LongArray> = arrayOf()
+    private var targetLocations: List<List<PathfindingEdgeLocationId<Block>>> = listOf()
+
+    /** Sets functors used to estimate the remaining distance for A* */
+    fun setRemainingDistanceEstimator(f: List<AStarHeuristicId<Block>>): BlockPathfinding {
+        estimateRemainingDistance = f
+        return this
+    }
+
+    /** Adds functors used to determine which ranges are blocked on a block */
+    fun addBlockedRangeOnEdges(f: Collection<PathfindingConstraint<Block>>): BlockPathfinding {
+        constraints.addAll(f)
+        return this
+    }
+
+    /** Sets the pathfinding's timeout */
+    fun setTimeout(timeout: Double?): BlockPathfinding {
+        if (timeout != null) this.timeout = timeout
+        return this
+    }
+
+    /**
+     * Runs the pathfinding, returning a path as a list of (block, start offset, end offset). Each
+     * target is given as a collection of location. It finds the shortest path from start to end,
+     * going through at least one location of each every intermediate target in order. An instance
+     * can only run one pathfinding.
+     */
+    fun runPathfinding(
+        targets: List<Collection<PathfindingEdgeLocationId<Block>>>
+    ): PathfindingResultId<Block>? {
+        assert(stepCount == 0) { "a block pathfinding can only be run once" }
+        targetLocations = targets.drop(1).map { it.toList() }
+        targetBlocks =
+            Array(targetLocations.size) { step ->
+                IntArray(targetLocations[step].size) {
+                    targetLocations[step][it].edge.index.toInt()
+                }
+            }
+        targetOffsets =
+            Array(targetLocations.size) { step ->
+                LongArray(targetLocations[step].size) {
+                    targetLocations[step][it].offset.distance.millimeters
+                }
+            }
+        val nTargets = targetLocations.size
+        for (location in targets[0]) {
+            val block = location.edge.index.toInt()
+            val offset = location.offset.distance.millimeters
+            registerStep(block, offset, offset, -1, 0.0, 0, addWaypoint(location, -1))
+        }
+
+        val startTime = System.nanoTime()
+        var iterations = 0
+        while (true) {
+            // reading the clock is expensive compared to a step, it's only done once in a while
+            if (
+                iterations++ % TIMEOUT_CHECK_INTERVAL == 0 &&
+                    (System.nanoTime() - startTime) / 1e9 >= timeout
+            )
+                throw OSRDError(ErrorType.PathfindingTimeoutError)
+            if (queue.isEmpty()) return null
+            val step = queue.pop()
+            val block = stepBlocks[step]
+            val start = stepStarts[step]
+            val end = stepEnds[step]
+            val reachedTargets = stepReachedTargets[step]
+            if (!markSeen(block, start, end, reachedTargets)) continue
+            if (reachedTargets >= nTargets) return buildResult(step)
+
+            // Check if the next target is reached in this step, only if the step doesn't already
+            // reach a step
+            var waypointOnRange = false
+            val prev = stepPrevs[step]
+            if (prev == -1 || reachedTargets == stepReachedTargets[prev]) {
+                val blocks = targetBlocks[reachedTargets]
+                val offsets = targetOffsets[reachedTargets]
+                for (i in blocks.indices) {
+                    if (blocks[i] != block || start > offsets[i]) continue
+                    waypointOnRange = true
+                    // Adds a new step precisely on the stop location, unless it's blocked
+                    if (blockRanges.filterEnd(block, start, offsets[i]) != offsets[i]) continue
+                    val target = targetLocations[reachedTargets][i]
+                    registerStep(
+                        block,
+                        start,
+                        offsets[i],
+                        prev,
+                        stepDistances[step],
+                        reachedTargets + 1,
+                        addWaypoint(target, stepWaypoints[step])
+                    )
+                }
+            }
+            val blockLength = blockRanges.getBlockLength(block)
+            if (!waypointOnRange && end == blockLength) {
+                // We reach the end of the block: we visit neighbors
+                val exit = blockInfra.getBlockExit(rawInfra, BlockId(block.toUInt()))
+                val neighbors = blockInfra.getBlocksStartingAtDetector(exit)
+                for (i in 0 until neighbors.size) {
+                    val neighbor = neighbors[i].index.toInt()
+                    registerStep(
+                        neighbor,
+                        0,
+                        blockRanges.getBlockLength(neighbor),
+                        step,
+                        stepDistances[step],
+                        reachedTargets,
+                        -1
+                    )
+                }
+            } else {
+                // We don't reach the end of the block (intermediate target): we add a new step
+                // until the end
+                registerStep(block, end, blockLength, step, stepDistances[step], reachedTargets, -1)
+            }
+        }
+    }
+
+    /**
+     * Marks the range as visited with the given number of reached targets. Returns false if it was
+     * already visited with at least as many reached targets.
+     */
+    private fun markSeen(block: Int, start: Long, end: Long, reachedTargets: Int): Boolean {
+        if (start == 0L && end == blockRanges.getBlockLength(block)) {
+            if (wholeBlockSeen[block] > reachedTargets) return false
+            wholeBlockSeen[block] = reachedTargets + 1
+            return true
+        }
+        val range = PartialRange(block, start, end)
+        if (partialRangeSeen.getOrDefault(range, -1) >= reachedTargets) return false
+        partialRangeSeen[range] = reachedTargets
+        return true
+    }
+
+    /** Registers one step, adding it to the queue unless its start is blocked */
+    private fun registerStep(
+        block: Int,
+        start: Long,
+        end: Long,
+        prev: Int,
+        prevDistance: Double,
+        reachedTargets: Int,
+        waypoint: Int
+    ) {
+        val filteredEnd = blockRanges.filterEnd(block, start, end)
+        if (filteredEnd < 0) return
+        val totalDistance = prevDistance + (filteredEnd - start)
+        var distanceLeftEstimation = 0.0
+        if (reachedTargets < estimateRemainingDistance.size)
+            distanceLeftEstimation =
+                estimateRemainingDistance[reachedTargets].apply(
+                    BlockId(block.toUInt()),
+                    Offset(Distance(start))
+                )
+
+        if (stepCount == stepBlocks.size) growSteps()
+        val step = stepCount++
+        stepBlocks[step] = block
+        stepStarts[step] = start
+        stepEnds[step] = filteredEnd
+        stepPrevs[step] = prev
+        stepReachedTargets[step] = reachedTargets
+        stepDistances[step] = totalDistance
+        stepWaypoints[step] = waypoint
+        // If the weights are equal, we prioritize the highest number of reached targets
+        queue.push(step, totalDistance + distanceLeftEstimation, -reachedTargets)
+    }
+
+    private fun addWaypoint(location: PathfindingEdgeLocationId<Block>, prev: Int): Int {
+        val res = waypointLocations.size
+        if (res == waypointPrevs.size) waypointPrevs = waypointPrevs.copyOf(res * 2)
+        waypointLocations.add(location)
+        waypointPrevs[res] = prev
+        return res
+    }
+
+    private fun growSteps() {
+        val newSize = stepBlocks.size * 2
+        stepBlocks = stepBlocks.copyOf(newSize)
+        stepStarts = stepStarts.copyOf(newSize)
+        stepEnds = stepEnds.copyOf(newSize)
+        stepPrevs = stepPrevs.copyOf(newSize)
+        stepReachedTargets = stepReachedTargets.copyOf(newSize)
+        stepDistances = stepDistances.copyOf(newSize)
+        stepWaypoints = stepWaypoints.copyOf(newSize)
+    }
+
+    /** Builds the result, iterating over the previous steps and merging ranges */
+    private fun buildResult(lastStep: Int): PathfindingResultId<Block> {
+        val orderedSteps = ArrayList<Int>()
+        var step = lastStep
+        while (step != -1) {
+            orderedSteps.add(step)
+            step = stepPrevs[step]
+        }
+        orderedSteps.reverse()
+        val ranges = ArrayList<PathfindingEdgeRangeId<Block>>()
+        val waypoints = ArrayList<PathfindingEdgeLocationId<Block>>()
+        var lastBlock = -1
+        for (i in orderedSteps) {
+            val block = stepBlocks[i]
+            val end = Offset<Block>(Distance(stepEnds[i]))
+            if (block != lastBlock) {
+                // If we start a new block, add a new range to the result
+                val start = Offset<Block>(Distance(stepStarts[i]))
+                ranges.add(Pathfinding.EdgeRange(BlockId(block.toUInt()), start, end))
+            } else {
+                // Otherwise, extend the previous range
+                val lastIndex = ranges.size - 1
+                val lastRange = ranges[lastIndex]
+                ranges[lastIndex] = Pathfinding.EdgeRange(lastRange.edge, lastRange.start, end)
+            }
+            lastBlock = block
+            val stepWaypointsStart = waypoints.size
+            var waypoint = stepWaypoints[i]
+            while (waypoint != -1) {
+                waypoints.add(stepWaypointsStart, waypointLocations[waypoint])
+                waypoint = waypointPrevs[waypoint]
+            }
+        }
+        return Pathfinding.Result(ranges, waypoints)
+    }
+
+    companion object {
+        private const val INITIAL_CAPACITY = 256
+        private const val TIMEOUT_CHECK_INTERVAL = 1024
+    }
+}
+
+/**
+ * The blocked ranges and lengths of the blocks explored by a block pathfinding, computed once per
+ * search and stored in arrays indexed by block
+ */
+internal class BlockRangeCache(
+    private val blockInfra: BlockInfra,
+    private val constraints: List<PathfindingConstraint<Block>>
+) {
+    private val blockCount = blockInfra.blocks.size.toInt()
+
+    /** The blocked ranges of each block, as (start, end) pairs, or null if not computed yet */
+    private val blockedRanges = arrayOfNulls<LongArray>(blockCount)
+    private val blockLengths = LongArray(blockCount) { -1 }
+
+    /**
+     * Returns the end of the range which can be reached without going through a blocked range, or
+     * -1 if its start is blocked
+     */
+    fun filterEnd(block: Int, start: Long, end: Long): Long {
+        val ranges = getBlockedRanges(block)
+        var res = end
+        for (i in 0 until ranges.size / 2) {
+            val blockedStart = ranges[2 * i]
+            val blockedEnd = ranges[2 * i + 1]
+            if (blockedEnd < start) continue
+            if (blockedStart <= start) return -1
+            res = minOf(res, blockedStart)
+        }
+        return res
+    }
+
+    fun getBlockLength(block: Int): Long {
+        var res = blockLengths[block]
+        if (res < 0) {
+            res = blockInfra.getBlockLength(BlockId(block.toUInt())).distance.millimeters
+            blockLengths[block] = res
+        }
+        return res
+    }
+
+    private fun getBlockedRanges(block: Int): LongArray {
+        var res = blockedRanges[block]
+        if (res == null) {
+            val blockId = BlockId(block.toUInt())
+            val ranges = HashSet<Pathfinding.Range<Block>>()
+            for (constraint in constraints) ranges.addAll(constraint.apply(blockId))
+            res = LongArray(ranges.size * 2)
+            for ((i, range) in ranges.withIndex()) {
+                res[2 * i] = range.start.distance.millimeters
+                res[2 * i + 1] = range.end.distance.millimeters
+            }
+            blockedRanges[block] = res
+        }
+        return res
+    }
+}
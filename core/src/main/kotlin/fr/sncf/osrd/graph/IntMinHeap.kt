@@ -0,0 +1,103 @@
+package fr.sncf.osrd.graph
+
+/**
+ * A binary min-heap of int values ordered by double priorities, stored in primitive arrays. Values
+ * may be added several times with different priorities: callers are expected to skip outdated
+ * entries when they are popped, as a Dijkstra search would. Entries with the same priority are
+ * ordered by their tie breaker, lowest first.
+ */
+class IntMinHeap(initialCapacity: Int = 16) {
+    private var priorities = DoubleArray(maxOf(initialCapacity, 1))
+    private var tieBreakers = IntArray(maxOf(initialCapacity, 1))
+    private var values = IntArray(maxOf(initialCapacity, 1))
+
+    var size = 0
+        private set
+
+    fun isEmpty(): Boolean {
+        return size == 0
+    }
+
+    /** Adds a value with the given priority */
+    fun push(value: Int, priority: Double, tieBreaker: Int = 0) {
+        if (size == values.size) {
+            priorities = priorities.copyOf(size * 2)
+            tieBreakers = tieBreakers.copyOf(size * 2)
+            values = values.copyOf(size * 2)
+        }
+        var i = size++
+        // move the new entry up until its parent comes first
+        while (i > 0) {
+            val parent = (i - 1) / 2
+            if (!isBefore(priority, tieBreaker, priorities[parent], tieBreakers[parent])) break
+            moveEntry(parent, i)
+            i = parent
+        }
+        priorities[i] = priority
+        tieBreakers[i] = tieBreaker
+        values[i] = value
+    }
+
+    /** Returns the priority of the smallest entry. The heap must not be empty. */
+    fun peekPriority(): Double {
+        assert(size > 0)
+        return priorities[0]
+    }
+
+    /** Returns the value of the smallest entry. The heap must not be empty. */
+    fun peekValue(): Int {
+        assert(size > 0)
+        return values[0]
+    }
+
+    /** Removes the smallest entry, and returns its value. The heap must not be empty. */
+    fun pop(): Int {
+        assert(size > 0)
+        val res = values[0]
+        size--
+        if (size > 0) {
+            val lastPriority = priorities[size]
+            val lastTieBreaker = tieBreakers[size]
+            val lastValue = values[size]
+            // move the last entry down from the root until it comes before its children
+            var i = 0
+            while (true) {
+                var child = 2 * i + 1
+                if (child >= size) break
+                if (child + 1 < size && isBefore(child + 1, child)) child++
+                if (!isBefore(priorities[child], tieBreakers[child], lastPriority, lastTieBreaker))
+                    break
+                moveEntry(child, i)
+                i = child
+            }
+            priorities[i] = lastPriority
+            tieBreakers[i] = lastTieBreaker
+            values[i] = lastValue
+        }
+        return res
+    }
+
+    private fun isBefore(i: Int, j: Int): Boolean {
+        return isBefore(priorities[i], tieBreakers[i], priorities[j], tieBreakers[j])
+    }
+
+    private fun isBefore(
+        priority: Double,
+        tieBreaker: Int,
+        otherPriority: Double,
+        otherTieBreaker: Int
+    ): Boolean {
+        if (priority != otherPriority) return priority < otherPriority
+        return tieBreaker < otherTieBreaker
+    }
+
+    private fun moveEntry(from: Int, to: Int) {
+        priorities[to] = priorities[from]
+        tieBreakers[to] = tieBreakers[from]
+        values[to] = values[from]
+    }
+
+    fun clear() {
+        size = 0
+    }
+}
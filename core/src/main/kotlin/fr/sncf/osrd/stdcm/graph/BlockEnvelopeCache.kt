@@ -0,0 +1,157 @@
+package fr.sncf.osrd.stdcm.graph
+
+import fr.sncf.osrd.envelope.Envelope
+import fr.sncf.osrd.train.RollingStock.Comfort
+
+/**
+ * Identifies everything a block simulation depends on, besides the block parameters themselves.
+ * The rolling stock is identified by a fingerprint of its whole description, so that two versions
+ * of the same rolling stock don't share envelopes.
+ */
+data class BlockSimulationContext(
+    val infraId: String,
+    val infraVersion: String,
+    val rollingStockFingerprint: String,
+    val comfort: Comfort?,
+    val tag: String?,
+    val timeStep: Double
+)
+
+// Rough retained heap sizes, in bytes, used to weigh the cached envelopes. An entry holds its key
+// (context and block parameters) and a linked hash map node. Each envelope part holds its position,
+// speed and time delta arrays, plus the cumulative times computed lazily.
+private const val ENTRY_SIZE = 300L
+private const val ENVELOPE_SIZE = 100L
+private const val ENVELOPE_PART_SIZE = 150L
+private const val ENVELOPE_POINT_SIZE = 32L
+
+/** Estimates the heap size retained by a cache entry, in bytes */
+fun estimateEntrySize(envelope: Envelope?): Long {
+    if (envelope == null) return ENTRY_SIZE
+    var size = ENTRY_SIZE + ENVELOPE_SIZE
+    for (i in 0 until envelope.size()) {
+        size += ENVELOPE_PART_SIZE + envelope.get(i).pointCount() * ENVELOPE_POINT_SIZE
+    }
+    return size
+}
+
+/**
+ * Process-wide cache of block envelopes, shared by all STDCM requests. Most requests run the same
+ * few rolling stocks on the same infra, so the max effort envelopes of the blocks they explore are
+ * mostly the same from one request to the next.
+ *
+ * Entries are weighed by the estimated size of their envelope, as block envelopes range from a few
+ * points to thousands. They are evicted in least recently used order once the total exceeds the
+ * budget, in bytes. Envelopes are computed outside the lock: two requests missing the same entry at
+ * the same time may both run the simulation, which only wastes a bit of time.
+ */
+class BlockEnvelopeCache(val budget: Long) {
+    private data class Key(
+        val context: BlockSimulationContext,
+        val params: BlockSimulationParameters
+    )
+
+    private class Entry(val envelope: Envelope?, val size: Long)
+
+    private val entries = LinkedHashMap<Key, Entry>(16, 0.75f, true)
+
+    private var estimatedSize = 0L
+    private var hits = 0L
+    private var misses = 0L
+    private var evictions = 0L
+    private var simulationTimeNanos = 0L
+
+    /** Returns the cached envelope, or computes and caches it. The envelope may be null. */
+    fun getOrCompute(
+        context: BlockSimulationContext,
+        params: BlockSimulationParameters,
+        simulate: () -> Envelope?
+    ): Envelope? {
+        val key = Key(context, params)
+        synchronized(this) {
+            val entry = entries[key]
+            if (entry != null) {
+                hits++
+                return entry.envelope
+            }
+            misses++
+        }
+        val startTime = System.nanoTime()
+        val envelope = simulate()
+        val duration = System.nanoTime() - startTime
+        val entry = Entry(envelope, estimateEntrySize(envelope))
+        synchronized(this) {
+            simulationTimeNanos += duration
+            val replaced = entries.put(key, entry)
+            if (replaced != null) estimatedSize -= replaced.size
+            estimatedSize += entry.size
+            evictEntries()
+        }
+        return envelope
+    }
+
+    /** Evicts the least recently used entries until the cache fits in its budget */
+    private fun evictEntries() {
+        val iterator = entries.values.iterator()
+        while (estimatedSize > budget && iterator.hasNext()) {
+            estimatedSize -= iterator.next().size
+            iterator.remove()
+            evictions++
+        }
+    }
+
+    /** Returns a view of the cache for a given simulation context */
+    fun forContext(context: BlockSimulationContext): ContextView {
+        return ContextView(this, context)
+    }
+
+    @Synchronized
+    fun getStats(): Stats {
+        return Stats(
+            hits,
+            misses,
+            evictions,
+            entries.size,
+            estimatedSize,
+            budget,
+            simulationTimeNanos / 1_000_000
+        )
+    }
+
+    @Synchronized
+    fun clear() {
+        entries.clear()
+        estimatedSize = 0
+    }
+
+    /** The part of the cache relevant to a single STDCM request */
+    class ContextView(
+        private val cache: BlockEnvelopeCache,
+        private val context: BlockSimulationContext
+    ) {
+        fun getOrCompute(
+            params: BlockSimulationParameters,
+            simulate: () -> Envelope?
+        ): Envelope? {
+            return cache.getOrCompute(context, params, simulate)
+        }
+    }
+
+    /**
+     * Counters of the cache since it was created. estimatedSize and budget are in bytes.
+     * simulationTimeMs is the time spent simulating the blocks which weren't cached.
+     */
+    data class Stats(
+        val hits: Long,
+        val misses: Long,
+        val evictions: Long,
+        val size: Int,
+        val estimatedSize: Long,
+        val budget: Long,
+        val simulationTimeMs: Long
+    ) {
+        /** Estimates the simulation time saved by cache hits, assuming they cost as misses do */
+        val savedTimeMs: Long
+            get() = if (misses == 0L) 0 else simulationTimeMs * hits / misses
+    }
+}
@@ -31,11 +31,12 @@ class STDCMGraph(
     minScheduleTimeStart: Double,
     steps: List<STDCMStep>,
     tag: String?,
-    standardAllowance: AllowanceValue?
+    standardAllowance: AllowanceValue?,
+    sharedEnvelopes: BlockEnvelopeCache.ContextView? = null
 ) : Graph<STDCMNode, STDCMEdge, STDCMEdge> {
     val rawInfra = fullInfra.rawInfra!!
     val blockInfra = fullInfra.blockInfra!!
-    var stdcmSimulations: STDCMSimulations = STDCMSimulations()
+    var stdcmSimulations: STDCMSimulations = STDCMSimulations(sharedEnvelopes)
     val steps: List<STDCMStep>
     val delayManager: DelayManager
     val allowanceManager: AllowanceManager
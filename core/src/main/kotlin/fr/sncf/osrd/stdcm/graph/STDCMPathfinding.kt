@@ -21,6 +21,7 @@ import fr.sncf.osrd.utils.units.meters
 /**
  * Given an infra, a rolling stock and a collection of unavailable time for each block, find a path
  * made of a sequence of block ranges with a matching envelope. Returns null if no path is found.
+ * Block envelopes are looked up in sharedEnvelopes first when it is set.
  */
 fun findPath(
     fullInfra: FullInfra,
@@ -34,7 +35,8 @@ fun findPath(
     maxRunTime: Double,
     tag: String?,
     standardAllowance: AllowanceValue?,
-    pathfindingTimeout: Double
+    pathfindingTimeout: Double,
+    sharedEnvelopes: BlockEnvelopeCache.ContextView? = null
 ): STDCMResult? {
     assert(steps.size >= 2) { "Not enough steps have been set to find a path" }
     val graph =
@@ -48,7 +50,8 @@ fun findPath(
             startTime,
             steps,
             tag,
-            standardAllowance
+            standardAllowance,
+            sharedEnvelopes
         )
 
     // Initialize the A* heuristic
@@ -34,8 +34,11 @@ import fr.sncf.osrd.utils.units.Distance.Companion.fromMeters
 import fr.sncf.osrd.utils.units.Offset
 import fr.sncf.osrd.utils.units.meters
 
-/** This class contains all the methods used to simulate the train behavior. */
-class STDCMSimulations {
+/**
+ * This class contains all the methods used to simulate the train behavior. Block envelopes are
+ * memoized for the duration of the request, and in the process-wide shared cache when one is given.
+ */
+class STDCMSimulations(private val sharedEnvelopes: BlockEnvelopeCache.ContextView? = null) {
     private var simulatedEnvelopes: HashMap<BlockSimulationParameters, Envelope?> = HashMap()
 
     /**
@@ -54,7 +57,7 @@ class STDCMSimulations {
         return if (simulatedEnvelopes.containsKey(blockParams)) {
             simulatedEnvelopes[blockParams]
         } else {
-            val simulatedEnvelope =
+            val simulate = {
                 simulateBlock(
                     rawInfra,
                     infraExplorer,
@@ -66,6 +69,10 @@ class STDCMSimulations {
                     blockParams.stop,
                     trainTag
                 )
+            }
+            val simulatedEnvelope =
+                if (sharedEnvelopes != null) sharedEnvelopes.getOrCompute(blockParams, simulate)
+                else simulate()
             simulatedEnvelopes[blockParams] = simulatedEnvelope
             simulatedEnvelope
         }
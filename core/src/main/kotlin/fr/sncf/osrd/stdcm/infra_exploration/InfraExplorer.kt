@@ -11,10 +11,10 @@ import fr.sncf.osrd.sim_infra.api.*
 import fr.sncf.osrd.sim_infra.utils.PathPropertiesView
 import fr.sncf.osrd.sim_infra.utils.getRouteBlocks
 import fr.sncf.osrd.sim_infra.utils.routesOnBlock
-import fr.sncf.osrd.utils.AppendOnlyLinkedList
-import fr.sncf.osrd.utils.appendOnlyLinkedListOf
+import fr.sncf.osrd.utils.PersistentVector
 import fr.sncf.osrd.utils.indexing.StaticIdxList
 import fr.sncf.osrd.utils.indexing.mutableStaticIdxArrayListOf
+import fr.sncf.osrd.utils.persistentVectorOf
 import fr.sncf.osrd.utils.units.Distance
 import fr.sncf.osrd.utils.units.Length
 import fr.sncf.osrd.utils.units.Offset
@@ -81,7 +81,7 @@ interface InfraExplorer {
     fun getPredecessorLength(): Length<Path>
 
     /** Returns all the blocks before the current one */
-    fun getPredecessorBlocks(): AppendOnlyLinkedList<BlockId>
+    fun getPredecessorBlocks(): PersistentVector<BlockId>
 
     /** Returns all the blocks after the current one */
     fun getLookahead(): StaticIdxList<Block>
@@ -120,8 +120,8 @@ fun initInfraExplorer(
             InfraExplorerImpl(
                 rawInfra,
                 blockInfra,
-                appendOnlyLinkedListOf(),
-                appendOnlyLinkedListOf(),
+                persistentVectorOf(),
+                persistentVectorOf(),
                 incrementalPath,
                 blockToPathProperties,
                 endBlocks = endBlocks,
@@ -136,8 +136,8 @@ fun initInfraExplorer(
 private class InfraExplorerImpl(
     private val rawInfra: RawInfra,
     private val blockInfra: BlockInfra,
-    private var blocks: AppendOnlyLinkedList<BlockId>,
-    private var routes: AppendOnlyLinkedList<RouteId>,
+    private var blocks: PersistentVector<BlockId>,
+    private var routes: PersistentVector<RouteId>,
     private var incrementalPath: IncrementalPath,
     private var pathPropertiesCache: MutableMap<BlockId, PathProperties>,
     private var currentIndex: Int = 0,
@@ -213,7 +213,7 @@ private class InfraExplorerImpl(
         return predecessorLength
     }
 
-    override fun getPredecessorBlocks(): AppendOnlyLinkedList<BlockId> {
+    override fun getPredecessorBlocks(): PersistentVector<BlockId> {
         return blocks.subList(currentIndex)
     }
 
@@ -14,7 +14,7 @@ import fr.sncf.osrd.sim_infra.api.BlockId
 import fr.sncf.osrd.sim_infra.api.Path
 import fr.sncf.osrd.standalone_sim.result.ResultTrain
 import fr.sncf.osrd.train.RollingStock
-import fr.sncf.osrd.utils.appendOnlyLinkedListOf
+import fr.sncf.osrd.utils.persistentVectorOf
 import fr.sncf.osrd.utils.units.Length
 import fr.sncf.osrd.utils.units.Offset
 
@@ -88,7 +88,7 @@ fun initInfraExplorerWithEnvelope(
         .map { explorer ->
             InfraExplorerWithEnvelopeImpl(
                 explorer,
-                appendOnlyLinkedListOf(),
+                persistentVectorOf(),
                 SpacingRequirementAutomaton(
                     fullInfra.rawInfra,
                     fullInfra.loadedSignalInfra,
@@ -111,7 +111,7 @@ fun InfraExplorer.withEnvelope(
 ): InfraExplorerWithEnvelope {
     return InfraExplorerWithEnvelopeImpl(
         this,
-        appendOnlyLinkedListOf(EnvelopeConcat.LocatedEnvelope(envelope, 0.0, 0.0)),
+        persistentVectorOf(EnvelopeConcat.LocatedEnvelope(envelope, 0.0, 0.0)),
         SpacingRequirementAutomaton(
             fullInfra.rawInfra,
             fullInfra.loadedSignalInfra,
@@ -10,7 +10,7 @@ import fr.sncf.osrd.envelope_sim.PhysicsRollingStock
 import fr.sncf.osrd.sim_infra.api.Path
 import fr.sncf.osrd.standalone_sim.result.ResultTrain.SpacingRequirement
 import fr.sncf.osrd.stdcm.preprocessing.interfaces.BlockAvailabilityInterface
-import fr.sncf.osrd.utils.AppendOnlyLinkedList
+import fr.sncf.osrd.utils.PersistentVector
 import fr.sncf.osrd.utils.units.Distance
 import fr.sncf.osrd.utils.units.Length
 import fr.sncf.osrd.utils.units.Offset
@@ -19,13 +19,14 @@ import java.lang.ref.SoftReference
 
 data class InfraExplorerWithEnvelopeImpl(
     private val infraExplorer: InfraExplorer,
-    private val envelopes: AppendOnlyLinkedList<LocatedEnvelope>,
+    private val envelopes: PersistentVector<LocatedEnvelope>,
     private val spacingRequirementAutomaton: SpacingRequirementAutomaton,
     private val rollingStock: PhysicsRollingStock,
 
     // Soft references tell the JVM that the values may be cleared when running out of memory
     private var spacingRequirementsCache: SoftReference<List<SpacingRequirement>>? = null,
-    private var envelopeCache: SoftReference<EnvelopeTimeInterpolate>? = null,
+    // The concatenation only refers to the shared envelope list, it can be kept as is
+    private var envelopeCache: EnvelopeTimeInterpolate? = null,
 ) : InfraExplorer by infraExplorer, InfraExplorerWithEnvelope {
 
     override fun cloneAndExtendLookahead(): Collection<InfraExplorerWithEnvelope> {
@@ -36,15 +37,16 @@ data class InfraExplorerWithEnvelopeImpl(
                 spacingRequirementAutomaton.clone(),
                 rollingStock,
                 spacingRequirementsCache,
+                envelopeCache,
             )
         }
     }
 
     override fun getFullEnvelope(): EnvelopeTimeInterpolate {
-        val cached = envelopeCache?.get()
+        val cached = envelopeCache
         if (cached != null) return cached
-        val res = EnvelopeConcat.fromLocated(envelopes.toList())
-        envelopeCache = SoftReference(res)
+        val res = EnvelopeConcat.fromLocated(envelopes.asList())
+        envelopeCache = res
         return res
     }
 
@@ -89,25 +91,20 @@ data class InfraExplorerWithEnvelopeImpl(
 
     override fun getFullSpacingRequirements(): List<SpacingRequirement> {
         val simulationComplete = getIncrementalPath().pathComplete && getLookahead().size == 0
-        // We need a new automaton to get the resource uses over the whole path, and not just since
-        // the last update
-        val newAutomaton =
-            SpacingRequirementAutomaton(
-                spacingRequirementAutomaton.rawInfra,
-                spacingRequirementAutomaton.loadedSignalInfra,
-                spacingRequirementAutomaton.blockInfra,
-                spacingRequirementAutomaton.simulator,
-                IncrementalRequirementEnvelopeAdapter(
-                    rollingStock,
-                    getFullEnvelope(),
-                    simulationComplete
-                ),
-                getIncrementalPath(),
+        // Requirements completed by previous updates are reused, only the rest of the path is
+        // evaluated. The update is done on a copy of the automaton, to leave the requirements
+        // "since the last update" unchanged.
+        val automaton = spacingRequirementAutomaton.clone()
+        automaton.incrementalPath = getIncrementalPath()
+        automaton.callbacks =
+            IncrementalRequirementEnvelopeAdapter(
+                rollingStock,
+                getFullEnvelope(),
+                simulationComplete
             )
-        val res =
-            newAutomaton.processPathUpdate() as? SpacingRequirements
-                ?: throw BlockAvailabilityInterface.NotEnoughLookaheadError()
-        return res.requirements
+        if (automaton.processPathUpdate() !is SpacingRequirements)
+            throw BlockAvailabilityInterface.NotEnoughLookaheadError()
+        return automaton.getAllRequirements()
     }
 
     override fun moveForward(): InfraExplorerWithEnvelope {
@@ -128,7 +125,8 @@ data class InfraExplorerWithEnvelopeImpl(
             envelopes.shallowCopy(),
             spacingRequirementAutomaton.clone(),
             rollingStock,
-            spacingRequirementsCache
+            spacingRequirementsCache,
+            envelopeCache
         )
     }
 }
@@ -4,7 +4,6 @@ import fr.sncf.osrd.api.FullInfra
 import fr.sncf.osrd.conflicts.IncrementalConflictDetector
 import fr.sncf.osrd.conflicts.TrainRequirements
 import fr.sncf.osrd.conflicts.incrementalConflictDetector
-import fr.sncf.osrd.envelope_utils.DoubleBinarySearch
 import fr.sncf.osrd.sim_infra.api.Path
 import fr.sncf.osrd.standalone_sim.result.ResultTrain.SpacingRequirement
 import fr.sncf.osrd.stdcm.infra_exploration.InfraExplorerWithEnvelope
@@ -70,9 +69,7 @@ data class BlockAvailability(
         }
     }
 
-    /**
-     * Turns a time into an offset on an envelope with a binary search. Can be optimized if needed.
-     */
+    /** Turns a time into an offset on an envelope */
     private fun getEnvelopeOffsetFromTime(
         explorer: InfraExplorerWithEnvelope,
         time: Double
@@ -80,16 +77,10 @@ data class BlockAvailability(
         if (time < 0.0) return Offset(0.meters)
         val envelope = explorer.getFullEnvelope()
         if (time > envelope.totalTime) return explorer.getSimulatedLength()
-        val search = DoubleBinarySearch(envelope.beginPos, envelope.endPos, time, 2.0, false)
-
-        // The iteration limit avoids infinite loops when accessing times when the train is stopped
-        var i = 0
-        var value = 0.0
-        while (i++ < 20 && !search.complete()) {
-            value = search.input
-            search.feedback(envelope.interpolateTotalTimeClamp(search.input))
-        }
-        return explorer.getIncrementalPath().fromTravelledPath(Offset(Distance.fromMeters(value)))
+        val position = envelope.interpolatePositionFromTime(time)
+        return explorer
+            .getIncrementalPath()
+            .fromTravelledPath(Offset(Distance.fromMeters(position)))
     }
 }
 
@@ -0,0 +1,41 @@
+package fr.sncf.osrd.api;
+
+import static fr.sncf.osrd.envelope_sim.MaxEffortEnvelopeBuilder.makeSimpleMaxEffortEnvelope;
+import static fr.sncf.osrd.envelope_sim.SimpleContextBuilder.makeSimpleContext;
+import static fr.sncf.osrd.utils.takes.TakesUtils.readBodyResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import fr.sncf.osrd.envelope_sim.allowances.MarecoAllowance;
+import fr.sncf.osrd.envelope_sim.allowances.utils.AllowanceRange;
+import fr.sncf.osrd.envelope_sim.allowances.utils.AllowanceValue;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.takes.rq.RqFake;
+
+public class AllowanceStatsTest {
+    @Test
+    public void allowanceSearchesAreCounted() throws IOException {
+        var before = runAllowanceStats();
+
+        var length = 10_000;
+        var context = makeSimpleContext(length, 0);
+        var base = makeSimpleMaxEffortEnvelope(context, 44.4, new double[] {length});
+        var ranges = List.of(new AllowanceRange(0, length, new AllowanceValue.Percentage(10)));
+        new MarecoAllowance(0, length, 1, ranges).apply(base, context);
+
+        var after = runAllowanceStats();
+        assertEquals(before.sections + 1, after.sections);
+        assertTrue(after.iterations > before.iterations);
+        assertEquals(before.failures, after.failures);
+    }
+
+    private static AllowanceStatsEndpoint.SerializedAllowanceStats runAllowanceStats() throws IOException {
+        var rawResponse = readBodyResponse(new AllowanceStatsEndpoint().act(new RqFake("GET", "/allowance_stats")));
+        var response = AllowanceStatsEndpoint.adapter.fromJson(rawResponse);
+        assertNotNull(response);
+        return response;
+    }
+}
@@ -20,7 +20,7 @@ public class ApiTest {
 
     ElectricalProfileSetManager electricalProfileSetManager = null;
 
-    private static OkHttpClient mockHttpClient(String regex) throws IOException {
+    static OkHttpClient mockHttpClient(String regex) throws IOException {
         final OkHttpClient okHttpClient = mock(OkHttpClient.class);
         final Call remoteCall = mock(Call.class);
 
@@ -59,7 +59,11 @@ public class ApiTest {
     /** Setup infra handler mock */
     @BeforeEach
     public void setUp() throws IOException {
-        infraManager = new InfraManager("http://test.com/", "", mockHttpClient(".*/infra/(.*)/railjson.*"), true);
+        infraManager = new InfraManager(
+                "http://test.com/",
+                "",
+                mockHttpClient(".*/infra/(.*)/railjson.*"),
+                InfraManager.Options.DEFAULT.withLoadIfMissing(true));
         electricalProfileSetManager = new ElectricalProfileSetManager(
                 "http://test.com/", "", mockHttpClient(".*/electrical_profile_set/(.*)/"));
     }
@@ -1,12 +1,18 @@
 package fr.sncf.osrd.api;
 
+import static fr.sncf.osrd.api.InfraSizeEstimationKt.estimateRetainedSize;
 import static fr.sncf.osrd.utils.takes.TakesUtils.readBodyResponse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import fr.sncf.osrd.reporting.exceptions.OSRDError;
 import fr.sncf.osrd.reporting.warnings.DiagnosticRecorderImpl;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 import org.takes.rq.RqFake;
 
@@ -37,4 +43,58 @@ public class InfraCacheStatusTest extends ApiTest {
         var response = res.get("tiny_infra/infra.json");
         assertEquals(InfraManager.InfraStatus.CACHED, response.status);
     }
+
+    @Test
+    public void leastRecentlyUsedInfraIsEvicted() throws Exception {
+        var recorder = new DiagnosticRecorderImpl(false);
+        var options = InfraManager.Options.DEFAULT.withLoadIfMissing(true).withCacheBudget(1);
+        var boundedManager =
+                new InfraManager("http://test.com/", "", mockHttpClient(".*/infra/(.*)/railjson.*"), options);
+        boundedManager.load("tiny_infra/infra.json", "1", recorder);
+        boundedManager.load("small_infra/infra.json", "1", recorder);
+
+        assertNull(boundedManager.getInfraCache("tiny_infra/infra.json"));
+        var smallInfraEntry = boundedManager.getInfraCache("small_infra/infra.json");
+        assertEquals(InfraManager.InfraStatus.CACHED, smallInfraEntry.status);
+        assertTrue(smallInfraEntry.estimatedSize > 0);
+
+        boundedManager.load("small_infra/infra.json", "1", recorder);
+        var stats = boundedManager.getCacheStats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.evictions());
+    }
+
+    @Test
+    public void getInfraCountsMisses() throws Exception {
+        var recorder = new DiagnosticRecorderImpl(false);
+        var manager = new InfraManager(
+                "http://test.com/", "", mockHttpClient(".*/infra/(.*)/railjson.*"), InfraManager.Options.DEFAULT);
+        assertThrows(OSRDError.class, () -> manager.getInfra("tiny_infra/infra.json", "1", recorder));
+        manager.load("tiny_infra/infra.json", "1", recorder);
+        assertNotNull(manager.getInfra("tiny_infra/infra.json", "1", recorder));
+        assertThrows(OSRDError.class, () -> manager.getInfra("tiny_infra/infra.json", "2", recorder));
+
+        var stats = manager.getCacheStats();
+        assertEquals(1, stats.hits());
+        // the missing infra, the load and the obsolete version
+        assertEquals(3, stats.misses());
+    }
+
+    @Test
+    public void landmarksCountInEstimatedSize() throws Exception {
+        var recorder = new DiagnosticRecorderImpl(false);
+        var options = InfraManager.Options.DEFAULT.withLandmarkCount(2);
+        var manager = new InfraManager("http://test.com/", "", mockHttpClient(".*/infra/(.*)/railjson.*"), options);
+        var infra = manager.load("small_infra/infra.json", "1", recorder);
+        var entry = manager.getInfraCache("small_infra/infra.json");
+        var infraSize = estimateRetainedSize(infra);
+
+        // landmarks are computed in the background, their size is added once they are published
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (entry.estimatedSize == infraSize && System.nanoTime() < deadline) Thread.sleep(10);
+        var landmarks = infra.landmarks().get();
+        assertNotNull(landmarks);
+        assertEquals(infraSize + estimateRetainedSize(landmarks), entry.estimatedSize);
+    }
 }
@@ -2,8 +2,16 @@ package fr.sncf.osrd.api;
 
 import static fr.sncf.osrd.utils.takes.TakesUtils.readHeadResponse;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import fr.sncf.osrd.reporting.exceptions.OSRDError;
+import fr.sncf.osrd.reporting.warnings.DiagnosticRecorderImpl;
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.takes.rq.RqFake;
@@ -19,4 +27,46 @@ public class InfraLoadingTest extends ApiTest {
                 new InfraLoadEndpoint(infraManager).act(new RqFake("POST", "/infra_load", requestBody)));
         assertTrue(list.get(0).contains(expectedStatusCode));
     }
+
+    @Test
+    public void concurrentLoadsShareTheSameFuture() throws Exception {
+        var recorder = new DiagnosticRecorderImpl(false);
+        var first = infraManager.loadAsync("small_infra/infra.json", "1", recorder);
+        var second = infraManager.loadAsync("small_infra/infra.json", "1", recorder);
+        // the second call either joins the ongoing load or hits the cache
+        assertSame(first.get(), second.get());
+        assertSame(first.get(), infraManager.load("small_infra/infra.json", "1", recorder));
+        assertEquals(1, infraManager.getCacheStats().misses());
+    }
+
+    @Test
+    public void noWaitLoadReturnsAccepted() throws Exception {
+        // hold the download until the first response is checked
+        var downloadAllowed = new CountDownLatch(1);
+        var client = mockHttpClient(".*/infra/(.*)/railjson.*");
+        var blockingClient = mock(OkHttpClient.class);
+        when(blockingClient.newCall(any())).thenAnswer(invocation -> {
+            downloadAllowed.await();
+            return client.newCall(invocation.getArgument(0));
+        });
+        var manager = new InfraManager("http://test.com/", "", blockingClient, InfraManager.Options.DEFAULT);
+
+        var request = new InfraLoadEndpoint.InfraLoadRequest("small_infra/infra.json", "1", true);
+        var requestBody = InfraLoadEndpoint.adapterRequest.toJson(request);
+        var list = readHeadResponse(new InfraLoadEndpoint(manager).act(new RqFake("POST", "/infra_load", requestBody)));
+        assertEquals("HTTP/1.1 202 Accepted", list.get(0));
+
+        // other endpoints ask the client to retry while the infra is loading
+        var error = assertThrows(
+                OSRDError.class,
+                () -> manager.getInfra("small_infra/infra.json", "1", new DiagnosticRecorderImpl(false)));
+        list = readHeadResponse(ExceptionHandler.toResponse(error));
+        assertEquals("HTTP/1.1 503 Service Unavailable", list.get(0));
+        assertTrue(list.contains("Retry-After: " + ExceptionHandler.RETRY_AFTER_SECONDS));
+
+        downloadAllowed.countDown();
+        manager.load("small_infra/infra.json", "1", new DiagnosticRecorderImpl(false));
+        list = readHeadResponse(new InfraLoadEndpoint(manager).act(new RqFake("POST", "/infra_load", requestBody)));
+        assertEquals("HTTP/1.1 204 No Content", list.get(0));
+    }
 }
@@ -0,0 +1,112 @@
+package fr.sncf.osrd.api
+
+import fr.sncf.osrd.sim_infra.api.*
+import fr.sncf.osrd.utils.Helpers
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import kotlin.test.assertEquals
+import org.junit.jupiter.api.Test
+
+class InfraSnapshotCodecTest {
+    @Test
+    fun restoredInfraMatchesBuiltInfra() {
+        val infra = Helpers.fullInfraFromRJS(Helpers.getExampleInfra("small_infra/infra.json"))
+        val bytes = ByteArrayOutputStream()
+        writeInfraSnapshot(DataOutputStream(bytes), infra, 1)
+        val input = DataInputStream(ByteArrayInputStream(bytes.toByteArray()))
+        val restored = readInfraSnapshot(input, makeSignalingSimulator(), 1)
+
+        val raw = infra.rawInfra
+        val restoredRaw = restored.rawInfra
+        assertEquals(raw.trackNodes.size, restoredRaw.trackNodes.size)
+        for (trackNode in raw.trackNodes) {
+            assertEquals(raw.getTrackNodeName(trackNode), restoredRaw.getTrackNodeName(trackNode))
+            assertEquals(raw.getTrackNodeDelay(trackNode), restoredRaw.getTrackNodeDelay(trackNode))
+            for (port in raw.getTrackNodePorts(trackNode)) {
+                assertEquals(
+                    raw.getPortConnection(trackNode, port),
+                    restoredRaw.getPortConnection(trackNode, port)
+                )
+            }
+        }
+        assertEquals(raw.trackSections.size, restoredRaw.trackSections.size)
+        for (track in raw.trackSections) {
+            assertEquals(raw.getTrackSectionName(track), restoredRaw.getTrackSectionName(track))
+            val chunks = raw.getTrackSectionChunks(track)
+            assertEquals(chunks.toList(), restoredRaw.getTrackSectionChunks(track).toList())
+            for (chunk in chunks) {
+                assertEquals(raw.getTrackFromChunk(chunk), restoredRaw.getTrackFromChunk(chunk))
+                assertEquals(raw.getTrackChunkLength(chunk), restoredRaw.getTrackChunkLength(chunk))
+                assertEquals(
+                    raw.getTrackChunkGeom(chunk).points,
+                    restoredRaw.getTrackChunkGeom(chunk).points
+                )
+                assertEquals(
+                    raw.getTrackChunkElectrificationVoltage(chunk).asList(),
+                    restoredRaw.getTrackChunkElectrificationVoltage(chunk).asList()
+                )
+                assertEquals(
+                    raw.getTrackChunkOperationalPointParts(chunk).toList(),
+                    restoredRaw.getTrackChunkOperationalPointParts(chunk).toList()
+                )
+                for (dirChunk in listOf(chunk.increasing, chunk.decreasing)) {
+                    assertEquals(
+                        raw.getTrackChunkSlope(dirChunk).asList(),
+                        restoredRaw.getTrackChunkSlope(dirChunk).asList()
+                    )
+                    assertEquals(
+                        raw.getTrackChunkSpeedSections(dirChunk, "MA100").asList(),
+                        restoredRaw.getTrackChunkSpeedSections(dirChunk, "MA100").asList()
+                    )
+                    assertEquals(
+                        raw.getRoutesOnTrackChunk(dirChunk).toList(),
+                        restoredRaw.getRoutesOnTrackChunk(dirChunk).toList()
+                    )
+                }
+            }
+        }
+
+        assertEquals(raw.zones.size, restoredRaw.zones.size)
+        for (zone in raw.zones) assertEquals(raw.getZoneName(zone), restoredRaw.getZoneName(zone))
+        assertEquals(raw.zonePaths.size, restoredRaw.zonePaths.size)
+        assertEquals(raw.routes.size, restoredRaw.routes.size)
+        for (route in raw.routes) {
+            assertEquals(raw.getRouteName(route), restoredRaw.getRouteName(route))
+            assertEquals(raw.getRouteLength(route), restoredRaw.getRouteLength(route))
+            assertEquals(raw.getRoutePath(route).toList(), restoredRaw.getRoutePath(route).toList())
+            assertEquals(
+                raw.getChunksOnRoute(route).toList(),
+                restoredRaw.getChunksOnRoute(route).toList()
+            )
+        }
+
+        val signals = infra.loadedSignalInfra
+        val restoredSignals = restored.loadedSignalInfra
+        assertEquals(signals.logicalSignals.size, restoredSignals.logicalSignals.size)
+        for (signal in signals.logicalSignals) {
+            assertEquals(signals.getSettings(signal), restoredSignals.getSettings(signal))
+            assertEquals(signals.getParameters(signal), restoredSignals.getParameters(signal))
+            assertEquals(
+                signals.getDrivers(signal).toList(),
+                restoredSignals.getDrivers(signal).toList()
+            )
+        }
+
+        val blocks = infra.blockInfra
+        val restoredBlocks = restored.blockInfra
+        assertEquals(blocks.blocks.size, restoredBlocks.blocks.size)
+        for (block in blocks.blocks) {
+            assertEquals(
+                blocks.getBlockPath(block).toList(),
+                restoredBlocks.getBlockPath(block).toList()
+            )
+            assertEquals(
+                blocks.getBlockSignals(block).toList(),
+                restoredBlocks.getBlockSignals(block).toList()
+            )
+            assertEquals(blocks.getBlockLength(block), restoredBlocks.getBlockLength(block))
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package fr.sncf.osrd.api;
+
+import static fr.sncf.osrd.api.SignalingSimulatorKt.makeSignalingSimulator;
+import static fr.sncf.osrd.utils.Helpers.fullInfraFromRJS;
+import static fr.sncf.osrd.utils.Helpers.getExampleInfra;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import fr.sncf.osrd.reporting.warnings.DiagnosticRecorderImpl;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class InfraSnapshotTest {
+    private static final String INFRA_ID = "tiny_infra/infra.json";
+
+    @Test
+    public void restartedManagerRestoresSnapshot(@TempDir Path snapshotDir) throws Exception {
+        var store = new InfraSnapshotStore(snapshotDir);
+        var options = InfraManager.Options.DEFAULT.withLoadIfMissing(true).withSnapshotStore(store);
+        var recorder = new DiagnosticRecorderImpl(false);
+        var downloadingManager =
+                new InfraManager("http://test.com/", "", ApiTest.mockHttpClient(".*/infra/(.*)/railjson.*"), options);
+        downloadingManager.load(INFRA_ID, "1", recorder);
+        assertTrue(store.contains(INFRA_ID, "1"));
+
+        // the restarted manager must not make any request, and skips all the loading stages
+        var offlineClient = mock(OkHttpClient.class);
+        var restartedManager = new InfraManager("http://test.com/", "", offlineClient, options);
+        assertNotNull(restartedManager.load(INFRA_ID, "1", recorder));
+        var entry = restartedManager.getInfraCache(INFRA_ID);
+        assertEquals(InfraManager.InfraStatus.CACHED, entry.status);
+        assertEquals(InfraManager.InfraStatus.DOWNLOADING, entry.lastStatus);
+        assertEquals("1", entry.version);
+        verifyNoInteractions(offlineClient);
+    }
+
+    @Test
+    public void unknownVersionIsDownloaded(@TempDir Path snapshotDir) throws Exception {
+        var store = new InfraSnapshotStore(snapshotDir);
+        var options = InfraManager.Options.DEFAULT.withLoadIfMissing(true).withSnapshotStore(store);
+        var manager =
+                new InfraManager("http://test.com/", "", ApiTest.mockHttpClient(".*/infra/(.*)/railjson.*"), options);
+        store.save(INFRA_ID, "1", fullInfraFromRJS(getExampleInfra(INFRA_ID)));
+
+        // without an expected version, the snapshot may be stale: the infra is downloaded and snapshotted again
+        manager.load(INFRA_ID, null, new DiagnosticRecorderImpl(false));
+        var entry = manager.getInfraCache(INFRA_ID);
+        assertEquals(InfraManager.InfraStatus.BUILDING_BLOCKS, entry.lastStatus);
+        assertEquals("1", entry.version);
+        assertTrue(store.contains(INFRA_ID, "1"));
+    }
+
+    @Test
+    public void brokenSnapshotIsDiscarded(@TempDir Path snapshotDir) throws Exception {
+        var store = new InfraSnapshotStore(snapshotDir);
+        store.save(INFRA_ID, "1", fullInfraFromRJS(getExampleInfra(INFRA_ID)));
+        try (var files = Files.list(snapshotDir)) {
+            Files.write(files.findFirst().orElseThrow(), new byte[] {1, 2, 3});
+        }
+
+        var options = InfraManager.Options.DEFAULT.withLoadIfMissing(true).withSnapshotStore(store);
+        var manager =
+                new InfraManager("http://test.com/", "", ApiTest.mockHttpClient(".*/infra/(.*)/railjson.*"), options);
+        assertNotNull(manager.load(INFRA_ID, "1", new DiagnosticRecorderImpl(false)));
+        assertEquals(InfraManager.InfraStatus.BUILDING_BLOCKS, manager.getInfraCache(INFRA_ID).lastStatus);
+        // the snapshot is written again once the infra is built
+        assertNotNull(store.load(INFRA_ID, "1", makeSignalingSimulator()));
+    }
+
+    @Test
+    public void newVersionReplacesOldSnapshot(@TempDir Path snapshotDir) throws Exception {
+        var store = new InfraSnapshotStore(snapshotDir);
+        var infra = fullInfraFromRJS(getExampleInfra(INFRA_ID));
+        store.save(INFRA_ID, "1", infra);
+        store.save(INFRA_ID, "2", infra);
+        assertFalse(store.contains(INFRA_ID, "1"));
+        assertTrue(store.contains(INFRA_ID, "2"));
+        assertNotNull(store.load(INFRA_ID, "2", makeSignalingSimulator()));
+    }
+}
@@ -0,0 +1,74 @@
+package fr.sncf.osrd.conflicts
+
+import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict
+import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict.ConflictType
+import fr.sncf.osrd.standalone_sim.result.ResultTrain.RoutingRequirement
+import fr.sncf.osrd.standalone_sim.result.ResultTrain.RoutingZoneRequirement
+import fr.sncf.osrd.standalone_sim.result.ResultTrain.SpacingRequirement
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+import org.junit.jupiter.api.Test
+
+class BatchConflictDetectorTest {
+    private data class ComparableConflict(
+        val type: ConflictType,
+        val trainIds: List<Long>,
+        val startTime: Double,
+        val endTime: Double
+    )
+
+    private fun comparable(conflicts: List<Conflict>): List<ComparableConflict> {
+        return conflicts.map {
+            ComparableConflict(
+                it.conflictType,
+                it.trainIds.distinct().sorted(),
+                it.startTime,
+                it.endTime
+            )
+        }
+    }
+
+    /** Trains going through a few zones, some of them with switches in different positions */
+    private fun makeTimetable(random: Random): List<TrainRequirements> {
+        return (0L until 300L).map { trainId ->
+            var time = random.nextInt(0, 10_000).toDouble()
+            val firstZone = random.nextInt(0, 20)
+            val spacing = ArrayList<SpacingRequirement>()
+            val routing = ArrayList<RoutingRequirement>()
+            for (zone in firstZone until firstZone + 5) {
+                val duration = random.nextInt(10, 100).toDouble()
+                spacing.add(SpacingRequirement("zone$zone", time, time + duration, true))
+                val switches = if (zone % 3 == 0) mapOf("sw$zone" to "${trainId % 2}") else mapOf()
+                val zoneReq =
+                    RoutingZoneRequirement("zone$zone", "d$zone", "d${zone + 1}", switches, time)
+                routing.add(RoutingRequirement("route$zone", time - 20, listOf(zoneReq)))
+                time += duration
+            }
+            TrainRequirements(trainId, spacing, routing)
+        }
+    }
+
+    @Test
+    fun sameConflictsAsIncrementalDetector() {
+        val timetable = makeTimetable(Random(7))
+        val expected =
+            comparable(mergeConflicts(incrementalConflictDetector(timetable).checkConflicts()))
+        val conflicts = comparable(BatchConflictDetector(timetable).detectConflicts())
+        assertTrue(conflicts.any { it.type == ConflictType.SPACING })
+        assertTrue(conflicts.any { it.type == ConflictType.ROUTING })
+        assertEquals(expected.toSet(), conflicts.toSet())
+        assertEquals(expected.size, conflicts.size)
+    }
+
+    @Test
+    fun resultOrderIsDeterministic() {
+        val timetable = makeTimetable(Random(8))
+        val sequential = comparable(BatchConflictDetector(timetable, false).detectConflicts())
+        for (i in 0 until 5) {
+            val parallel = comparable(BatchConflictDetector(timetable).detectConflicts())
+            assertEquals(sequential, parallel)
+        }
+        assertEquals(sequential.sortedBy { it.startTime }, sequential)
+    }
+}
@@ -0,0 +1,128 @@
+package fr.sncf.osrd.conflicts
+
+import fr.sncf.osrd.conflicts.IncrementalConflictDetectorImpl.SpacingZoneRequirement
+import fr.sncf.osrd.standalone_sim.result.ResultTrain.SpacingRequirement
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import org.junit.jupiter.api.Test
+
+class RequirementIndexTest {
+    private fun randomRequirements(random: Random, count: Int): List<SpacingZoneRequirement> {
+        return (0 until count).map {
+            val begin = random.nextInt(0, 1000).toDouble()
+            SpacingZoneRequirement(it.toLong(), begin, begin + random.nextInt(0, 50))
+        }
+    }
+
+    @Test
+    fun queriesMatchFullScans() {
+        val random = Random(42)
+        val requirements = randomRequirements(random, 200)
+        val index = RequirementIndex(requirements)
+        val evenTrains = { req: SpacingZoneRequirement -> req.trainId % 2 == 0L }
+        for (i in 0 until 1000) {
+            val begin = random.nextInt(-50, 1050).toDouble()
+            val end = begin + random.nextInt(0, 50)
+
+            val overlapping = requirements.filter { it.endTime > begin && it.beginTime < end }
+            assertEquals(
+                overlapping.maxOfOrNull { it.endTime } ?: Double.NEGATIVE_INFINITY,
+                index.maxOverlappingEndTime(begin, end) { true }
+            )
+            assertEquals(
+                overlapping.filter(evenTrains).maxOfOrNull { it.endTime }
+                    ?: Double.NEGATIVE_INFINITY,
+                index.maxOverlappingEndTime(begin, end, evenTrains)
+            )
+
+            val next = requirements.filter { it.beginTime >= end && evenTrains(it) }
+            assertEquals(
+                next.minOfOrNull { it.beginTime } ?: Double.POSITIVE_INFINITY,
+                index.nextBeginTime(end, evenTrains)
+            )
+        }
+    }
+
+    @Test
+    fun clusterContainsAllIndirectOverlaps() {
+        // 0 and 1 overlap, 2 is separate
+        val requirements =
+            listOf(
+                SpacingZoneRequirement(0, 0.0, 10.0),
+                SpacingZoneRequirement(1, 5.0, 20.0),
+                SpacingZoneRequirement(2, 20.0, 30.0),
+            )
+        val index = RequirementIndex(requirements)
+        val newRequirement = SpacingZoneRequirement(-1, 15.0, 18.0)
+        assertEquals(
+            listOf(requirements[0], requirements[1], newRequirement),
+            index.clusterWith(newRequirement)
+        )
+        val lastRequirement = SpacingZoneRequirement(-1, 25.0, 40.0)
+        assertEquals(listOf(requirements[2], lastRequirement), index.clusterWith(lastRequirement))
+    }
+
+    @Test
+    fun incrementalChecksMatchTimetableWideDetection() {
+        val random = Random(0)
+        val timetable =
+            randomRequirements(random, 100).map {
+                TrainRequirements(
+                    it.trainId,
+                    listOf(SpacingRequirement("zone", it.beginTime, it.endTime, true)),
+                    listOf()
+                )
+            }
+        val detector = IncrementalConflictDetectorImpl(timetable)
+        for (i in 0 until 200) {
+            val begin = random.nextInt(0, 1000).toDouble()
+            val requirement = SpacingRequirement("zone", begin, begin + 20, true)
+            val conflicts = detector.checkSpacingRequirement(requirement)
+
+            // trains conflicting with the new one, according to a detection on the whole timetable
+            val newTrain = TrainRequirements(-1, listOf(requirement), listOf())
+            val expected =
+                incrementalConflictDetector(timetable + newTrain)
+                    .checkConflicts()
+                    .filter { -1L in it.trainIds }
+                    .flatMap { conflict -> conflict.trainIds.filter { it != -1L } }
+                    .toSet()
+            assertEquals(expected, conflicts.flatMap { it.trainIds }.toSet())
+        }
+    }
+
+    @Test
+    fun clustersOverlappingMatchFullScans() {
+        val random = Random(12)
+        val requirements = randomRequirements(random, 100)
+        val index = RequirementIndex(requirements)
+        // split the sorted requirements into clusters
+        val clusters = ArrayList<IntRange>()
+        var clusterBegin = 0
+        var maxEnd = Double.NEGATIVE_INFINITY
+        for ((i, req) in index.items.withIndex()) {
+            if (i > 0 && maxEnd <= req.beginTime) {
+                clusters.add(clusterBegin until i)
+                clusterBegin = i
+            }
+            maxEnd = maxOf(maxEnd, req.endTime)
+        }
+        clusters.add(clusterBegin until index.size)
+
+        for (i in 0 until 1000) {
+            val begin = random.nextInt(-50, 1050).toDouble()
+            val end = begin + random.nextInt(1, 50)
+            val overlapping =
+                clusters.filter { cluster ->
+                    cluster.any {
+                        val req = index.items[it]
+                        req.beginTime < end && req.endTime > begin
+                    }
+                }
+            val expected =
+                if (overlapping.isEmpty()) IntRange.EMPTY
+                else overlapping.first().first..overlapping.last().last
+            assertEquals(expected, index.clustersOverlapping(begin, end))
+        }
+    }
+}
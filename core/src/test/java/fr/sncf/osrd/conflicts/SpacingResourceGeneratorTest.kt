@@ -193,6 +193,9 @@ class SpacingResourceGeneratorTest {
         val expectedMap = mutableMapOf<String, SpacingRequirement>()
         for (expected in resourceUseOnSingleCall) expectedMap[expected.zone] = expected
         assertEquals(expectedMap, usePerZone)
+
+        // The requirements kept by the automaton over all updates also match
+        assertEquals(resourceUseOnSingleCall, automaton.getAllRequirements())
     }
 
     @Test
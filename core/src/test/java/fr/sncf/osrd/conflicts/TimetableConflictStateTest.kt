@@ -0,0 +1,134 @@
+package fr.sncf.osrd.conflicts
+
+import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict
+import fr.sncf.osrd.api.ConflictDetectionEndpoint.ConflictDetectionResult.Conflict.ConflictType
+import fr.sncf.osrd.standalone_sim.result.ResultTrain.RoutingRequirement
+import fr.sncf.osrd.standalone_sim.result.ResultTrain.RoutingZoneRequirement
+import fr.sncf.osrd.standalone_sim.result.ResultTrain.SpacingRequirement
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+import org.junit.jupiter.api.Test
+
+class TimetableConflictStateTest {
+    private fun makeTrain(trainId: Long, departureTime: Double): TrainRequirements {
+        val spacing =
+            (0 until 3).map {
+                val beginTime = departureTime + it * 60
+                SpacingRequirement("zone$it", beginTime, beginTime + 90, true)
+            }
+        return TrainRequirements(trainId, spacing, listOf())
+    }
+
+    /** A train going through a zone with a switch, which it needs in the given position */
+    private fun makeRoutingTrain(
+        trainId: Long,
+        departureTime: Double,
+        switchPosition: String
+    ): TrainRequirements {
+        val zoneReq =
+            RoutingZoneRequirement(
+                "switch_zone",
+                "d1",
+                "d2",
+                mapOf("switch" to switchPosition),
+                departureTime + 60
+            )
+        val routing = RoutingRequirement("route", departureTime, listOf(zoneReq))
+        return TrainRequirements(trainId, listOf(), listOf(routing))
+    }
+
+    private fun summary(conflicts: List<Conflict>) =
+        conflicts.map { Triple(it.trainIds.toSet(), it.startTime, it.endTime) }.toSet()
+
+    @Test
+    fun onlyChangedConflictsAreReturned() {
+        val state = TimetableConflictState()
+        var changes = state.update(listOf(makeTrain(0, 0.0), makeTrain(1, 1000.0)), listOf())
+        assertTrue(changes.added.isEmpty())
+
+        // move the second train onto the first one
+        changes = state.update(listOf(makeTrain(1, 30.0)), listOf())
+        assertEquals(1, changes.added.size)
+        assertEquals(setOf(0L, 1L), changes.added[0].trainIds.toSet())
+        assertTrue(changes.removed.isEmpty())
+
+        // a train far away doesn't change the existing conflicts
+        changes = state.update(listOf(makeTrain(2, 5000.0)), listOf())
+        assertTrue(changes.added.isEmpty())
+        assertTrue(changes.removed.isEmpty())
+        assertEquals(3, state.trainCount)
+
+        // removing the second train removes the conflict
+        changes = state.update(listOf(), listOf(1L))
+        assertTrue(changes.added.isEmpty())
+        assertEquals(1, changes.removed.size)
+        assertTrue(state.getConflicts().isEmpty())
+    }
+
+    @Test
+    fun updatesMatchFullDetection() {
+        val random = Random(3)
+        val state = TimetableConflictState()
+        val trains = HashMap<Long, TrainRequirements>()
+        for (i in 0 until 200) {
+            val trainId = random.nextLong(30)
+            if (random.nextInt(4) == 0) {
+                trains.remove(trainId)
+                state.update(listOf(), listOf(trainId))
+            } else {
+                val train = makeTrain(trainId, random.nextInt(0, 3000).toDouble())
+                trains[trainId] = train
+                state.update(listOf(train), listOf())
+            }
+            assertEquals(
+                summary(detectConflicts(trains.values.toList())),
+                summary(state.getConflicts())
+            )
+        }
+    }
+
+    @Test
+    fun routingConflictsFollowSwitchPositions() {
+        val state = TimetableConflictState()
+        val trains = listOf(makeRoutingTrain(0, 0.0, "A"), makeRoutingTrain(1, 30.0, "A"))
+        var changes = state.update(trains, listOf())
+        assertTrue(changes.added.isEmpty())
+
+        // the second train now needs the switch in another position while the first one uses it
+        changes = state.update(listOf(makeRoutingTrain(1, 30.0, "B")), listOf())
+        assertEquals(1, changes.added.size)
+        assertEquals(ConflictType.ROUTING, changes.added[0].conflictType)
+        assertEquals(setOf(0L, 1L), changes.added[0].trainIds.toSet())
+        assertTrue(changes.removed.isEmpty())
+
+        // once the second train leaves after the first one, the conflict is gone
+        changes = state.update(listOf(makeRoutingTrain(1, 200.0, "B")), listOf())
+        assertTrue(changes.added.isEmpty())
+        assertEquals(1, changes.removed.size)
+        assertTrue(state.getConflicts().isEmpty())
+    }
+
+    @Test
+    fun routingUpdatesMatchFullDetection() {
+        val random = Random(5)
+        val state = TimetableConflictState()
+        val trains = HashMap<Long, TrainRequirements>()
+        for (i in 0 until 200) {
+            val trainId = random.nextLong(30)
+            if (random.nextInt(4) == 0) {
+                trains.remove(trainId)
+                state.update(listOf(), listOf(trainId))
+            } else {
+                val departureTime = random.nextInt(0, 3000).toDouble()
+                val train = makeRoutingTrain(trainId, departureTime, "${random.nextInt(2)}")
+                trains[trainId] = train
+                state.update(listOf(train), listOf())
+            }
+            assertEquals(
+                summary(detectConflicts(trains.values.toList())),
+                summary(state.getConflicts())
+            )
+        }
+    }
+}
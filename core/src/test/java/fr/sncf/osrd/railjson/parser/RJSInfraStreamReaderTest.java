@@ -0,0 +1,100 @@
+package fr.sncf.osrd.railjson.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.squareup.moshi.JsonDataException;
+import fr.sncf.osrd.infra.api.tracks.undirected.Detector;
+import fr.sncf.osrd.infra.implementation.tracks.undirected.UndirectedInfraBuilder;
+import fr.sncf.osrd.railjson.schema.infra.RJSInfra;
+import fr.sncf.osrd.railjson.schema.infra.RJSTrackSection;
+import fr.sncf.osrd.reporting.warnings.DiagnosticRecorderImpl;
+import fr.sncf.osrd.utils.Helpers;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import okio.Buffer;
+import okio.Okio;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class RJSInfraStreamReaderTest {
+    @ParameterizedTest
+    @ValueSource(strings = {"tiny_infra/infra.json", "small_infra/infra.json", "circle_infra/infra.json"})
+    public void streamReaderMatchesAdapter(String infraPath) throws IOException, URISyntaxException {
+        var expected = Helpers.getExampleInfra(infraPath);
+        RJSInfra streamed;
+        try (var source = Okio.buffer(Okio.source(Helpers.getResourcePath("infras/" + infraPath)))) {
+            streamed = RJSInfraStreamReader.read(source);
+        }
+        assertEquals(RJSInfra.adapter.toJson(expected), RJSInfra.adapter.toJson(streamed));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small_infra/infra.json"})
+    public void identifiersAreShared(String infraPath) throws IOException {
+        RJSInfra infra;
+        try (var source = Okio.buffer(Okio.source(Helpers.getResourcePath("infras/" + infraPath)))) {
+            infra = RJSInfraStreamReader.read(source);
+        }
+        var firstDetector = infra.detectors.get(0);
+        var track = infra.trackSections.stream()
+                .filter(t -> t.id.equals(firstDetector.track))
+                .findFirst()
+                .orElseThrow();
+        assertSame(track.id, firstDetector.track);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small_infra/infra.json"})
+    public void handlersReceiveStreamedObjects(String infraPath) throws IOException, URISyntaxException {
+        var expected = Helpers.getExampleInfra(infraPath);
+        var tracks = new ArrayList<RJSTrackSection>();
+        RJSInfra streamed;
+        try (var source = Okio.buffer(Okio.source(Helpers.getResourcePath("infras/" + infraPath)))) {
+            streamed = RJSInfraStreamReader.read(
+                    source, new RJSInfraStreamReader.Handlers().on(RJSTrackSection.class, tracks::add));
+        }
+        assertTrue(streamed.trackSections.isEmpty());
+        assertEquals(
+                expected.trackSections.stream().map(t -> t.id).toList(),
+                tracks.stream().map(t -> t.id).toList());
+        assertEquals(expected.routes.size(), streamed.routes.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small_infra/infra.json"})
+    public void streamedTrackInfraMatchesParsedInfra(String infraPath) throws IOException, URISyntaxException {
+        var rjsInfra = Helpers.getExampleInfra(infraPath);
+        var expected = UndirectedInfraBuilder.parseInfra(rjsInfra, new DiagnosticRecorderImpl(true));
+        var builder = new UndirectedInfraBuilder(new DiagnosticRecorderImpl(true));
+        try (var source = Okio.buffer(Okio.source(Helpers.getResourcePath("infras/" + infraPath)))) {
+            RJSInfraStreamReader.read(source, builder.streamHandlers());
+        }
+        var streamed = builder.build();
+        assertEquals(expected.getSwitches().keySet(), streamed.getSwitches().keySet());
+        assertEquals(expected.getTrackGraph().nodes().size(), streamed.getTrackGraph().nodes().size());
+        assertEquals(expected.getDetectorMap().keySet(), streamed.getDetectorMap().keySet());
+        for (var rjsTrack : rjsInfra.trackSections) {
+            var track = expected.getTrackSection(rjsTrack.id);
+            var streamedTrack = streamed.getTrackSection(rjsTrack.id);
+            assertEquals(track.getLength(), streamedTrack.getLength());
+            assertEquals(track.getOperationalPoints(), streamedTrack.getOperationalPoints());
+            assertEquals(
+                    track.getDetectors().stream().map(Detector::getID).toList(),
+                    streamedTrack.getDetectors().stream().map(Detector::getID).toList());
+            assertEquals(track.getSpeedSections(), streamedTrack.getSpeedSections());
+        }
+    }
+
+    @Test
+    public void unknownFieldsAreRejected() {
+        var json = "{\"version\": \"3\", \"track_section\": []}";
+        var source = new Buffer().writeUtf8(json);
+        var error = assertThrows(JsonDataException.class, () -> RJSInfraStreamReader.read(source));
+        assertTrue(error.getMessage().contains("track_section"));
+    }
+}
@@ -43,4 +43,20 @@ public class EnvelopeStopWrapperTests {
                         new EnvelopeTimeInterpolate.EnvelopePoint(8 + 10, 1, 6)),
                 envelopeStopWrapper.iteratePoints());
     }
+
+    @Test
+    public void interpolatePositionFromTimeWithStops() {
+        var envelopeFloor = Envelope.make(EnvelopeTestUtils.generateTimes(
+                new double[] {0, 1, 2, 3, 4, 5, 6}, new double[] {1, 1, 1, 0, 1, 1, 1}));
+        var envelopeStopWrapper =
+                new EnvelopeStopWrapper(envelopeFloor, List.of(new TrainStop(1.5, 0), new TrainStop(3, 10)));
+        Assertions.assertEquals(1, envelopeStopWrapper.interpolatePositionFromTime(1), 1e-6);
+        Assertions.assertEquals(2, envelopeStopWrapper.interpolatePositionFromTime(2), 1e-6);
+        // The position stays at the stop during the whole stop duration
+        Assertions.assertEquals(3, envelopeStopWrapper.interpolatePositionFromTime(4), 1e-6);
+        Assertions.assertEquals(3, envelopeStopWrapper.interpolatePositionFromTime(10), 1e-6);
+        Assertions.assertEquals(3, envelopeStopWrapper.interpolatePositionFromTime(14), 1e-6);
+        Assertions.assertEquals(4, envelopeStopWrapper.interpolatePositionFromTime(16), 1e-6);
+        Assertions.assertEquals(6, envelopeStopWrapper.interpolatePositionFromTime(18), 1e-6);
+    }
 }
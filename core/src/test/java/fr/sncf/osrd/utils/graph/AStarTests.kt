@@ -1,5 +1,7 @@
 package fr.sncf.osrd.utils.graph
 
+import fr.sncf.osrd.api.pathfinding.BlockLandmarks
+import fr.sncf.osrd.api.pathfinding.LandmarkDistanceEstimator
 import fr.sncf.osrd.api.pathfinding.RemainingDistanceEstimator
 import fr.sncf.osrd.graph.AStarHeuristic
 import fr.sncf.osrd.graph.GraphAdapter
@@ -56,4 +58,46 @@ class AStarTests {
             .runPathfinding(listOf<Set<PathfindingEdgeLocationId<Block>>>(origin, destination))
         Assertions.assertTrue(seenWithHeuristic.size < seenWithoutHeuristic.size)
     }
+
+    /** The landmark heuristic finds a path as short as Dijkstra does, visiting less blocks */
+    @Test
+    fun landmarkHeuristicFindsShortestPath() {
+        val infra = fullInfraFromRJS(getExampleInfra("small_infra/infra.json"))
+        val landmarks = BlockLandmarks.compute(infra.blockInfra, infra.rawInfra, 4)
+        val origin = listOf(convertRouteLocation(infra, "rt.DA2->DA5", Offset(0.meters)))
+        val destination =
+            listOf(convertRouteLocation(infra, "rt.DH2->buffer_stop.7", Offset(0.meters)))
+        val estimator = LandmarkDistanceEstimator(landmarks, destination, 0.0)
+        val seenWithHeuristic = HashSet<BlockId>()
+        val seenWithoutHeuristic = HashSet<BlockId>()
+        val pathWithHeuristic =
+            Pathfinding(GraphAdapter(infra.blockInfra, infra.rawInfra))
+                .setEdgeToLength { blockId -> infra.blockInfra.getBlockLength(blockId) }
+                .setRemainingDistanceEstimator(
+                    listOf(
+                        AStarHeuristic { block, offset ->
+                            seenWithHeuristic.add(block)
+                            estimator.apply(block, offset)
+                        }
+                    )
+                )
+                .runPathfinding(listOf(origin, destination))!!
+        val pathWithoutHeuristic =
+            Pathfinding(GraphAdapter(infra.blockInfra, infra.rawInfra))
+                .setEdgeToLength { blockId -> infra.blockInfra.getBlockLength(blockId) }
+                .setRemainingDistanceEstimator(
+                    listOf(
+                        AStarHeuristic { block, _ ->
+                            seenWithoutHeuristic.add(block)
+                            0.0
+                        }
+                    )
+                )
+                .runPathfinding(listOf(origin, destination))!!
+        Assertions.assertEquals(
+            pathWithoutHeuristic.ranges.sumOf { (it.end - it.start).millimeters },
+            pathWithHeuristic.ranges.sumOf { (it.end - it.start).millimeters }
+        )
+        Assertions.assertTrue(seenWithHeuristic.size < seenWithoutHeuristic.size)
+    }
 }
@@ -0,0 +1,68 @@
+package fr.sncf.osrd.pathfinding
+
+import fr.sncf.osrd.api.FullInfra
+import fr.sncf.osrd.api.pathfinding.BlockLandmarks
+import fr.sncf.osrd.graph.GraphAdapter
+import fr.sncf.osrd.graph.IntMinHeap
+import fr.sncf.osrd.graph.Pathfinding
+import fr.sncf.osrd.graph.Pathfinding.EdgeLocation
+import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.utils.Helpers
+import fr.sncf.osrd.utils.units.Offset
+import fr.sncf.osrd.utils.units.meters
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+import org.junit.jupiter.api.Test
+
+class BlockLandmarksTest {
+    @Test
+    fun lowerBoundsAreAdmissible() {
+        val infra = Helpers.smallInfra
+        val landmarks = BlockLandmarks.compute(infra.blockInfra, infra.rawInfra, 4)
+        assertEquals(4, landmarks.landmarks.size)
+        assertEquals(4, landmarks.landmarks.distinct().size)
+
+        val blockSpace = infra.blockInfra.blocks
+        val blocks = (0 until blockSpace.size.toInt()).map { blockSpace[it] }
+        var tightBounds = 0
+        for (from in blocks.take(20)) {
+            for (to in blocks) {
+                val lowerBound = landmarks.lowerBound(from, to)
+                val distance = shortestDistance(infra, from, to) ?: continue
+                assertTrue(lowerBound <= distance, "$lowerBound > $distance from $from to $to")
+                if (lowerBound > 0.5 * distance) tightBounds++
+            }
+        }
+        assertTrue(tightBounds > 0)
+    }
+
+    @Test
+    fun heapPopsInPriorityOrder() {
+        val random = Random(42)
+        val heap = IntMinHeap(1)
+        val priorities = (0 until 1000).map { random.nextDouble() }
+        for ((value, priority) in priorities.withIndex()) heap.push(value, priority)
+        val popped = ArrayList<Double>()
+        while (!heap.isEmpty()) {
+            val priority = heap.peekPriority()
+            assertEquals(priorities[heap.pop()], priority)
+            popped.add(priority)
+        }
+        assertEquals(priorities.sorted(), popped)
+    }
+
+    /** Returns the distance between the starts of two blocks, in millimeters */
+    private fun shortestDistance(infra: FullInfra, from: BlockId, to: BlockId): Double? {
+        val res =
+            Pathfinding(GraphAdapter(infra.blockInfra, infra.rawInfra))
+                .setEdgeToLength { block -> infra.blockInfra.getBlockLength(block) }
+                .runPathfinding(
+                    listOf(
+                        listOf(EdgeLocation(from, Offset(0.meters))),
+                        listOf(EdgeLocation(to, Offset(0.meters)))
+                    )
+                ) ?: return null
+        return res.ranges.sumOf { (it.end - it.start).millimeters }.toDouble()
+    }
+}
@@ -0,0 +1,94 @@
+package fr.sncf.osrd.pathfinding
+
+import fr.sncf.osrd.api.FullInfra
+import fr.sncf.osrd.api.pathfinding.constraints.ElectrificationConstraints
+import fr.sncf.osrd.graph.BidirectionalBlockPathfinding
+import fr.sncf.osrd.graph.BlockPathfinding
+import fr.sncf.osrd.graph.GraphAdapter
+import fr.sncf.osrd.graph.Pathfinding
+import fr.sncf.osrd.graph.Pathfinding.EdgeLocation
+import fr.sncf.osrd.graph.PathfindingConstraint
+import fr.sncf.osrd.graph.PathfindingEdgeLocationId
+import fr.sncf.osrd.graph.PathfindingResultId
+import fr.sncf.osrd.sim_infra.api.Block
+import fr.sncf.osrd.train.TestTrains
+import fr.sncf.osrd.utils.Helpers
+import fr.sncf.osrd.utils.units.Distance
+import fr.sncf.osrd.utils.units.Offset
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import org.junit.jupiter.api.Test
+
+class BlockPathfindingTest {
+    @Test
+    fun sameResultsAsGenericPathfinding() {
+        checkSameResults { infra, steps, constraints ->
+            BlockPathfinding(infra.blockInfra, infra.rawInfra)
+                .addBlockedRangeOnEdges(constraints)
+                .runPathfinding(steps)
+        }
+    }
+
+    @Test
+    fun bidirectionalSearchFindsSamePaths() {
+        checkSameResults { infra, steps, constraints ->
+            BidirectionalBlockPathfinding(infra.blockInfra, infra.rawInfra)
+                .addBlockedRangeOnEdges(constraints)
+                .runPathfinding(steps)
+        }
+    }
+
+    /** Compares the paths found on random itineraries with the ones of the generic pathfinding */
+    private fun checkSameResults(
+        runPathfinding:
+            (
+                FullInfra,
+                List<Collection<PathfindingEdgeLocationId<Block>>>,
+                List<PathfindingConstraint<Block>>
+            ) -> PathfindingResultId<Block>?
+    ) {
+        val infra = Helpers.smallInfra
+        val constraints =
+            listOf(
+                ElectrificationConstraints(
+                    infra.blockInfra,
+                    infra.rawInfra,
+                    listOf(TestTrains.FAST_ELECTRIC_TRAIN)
+                )
+            )
+        val random = Random(42)
+        val blocks = infra.blockInfra.blocks
+        fun randomLocation(): PathfindingEdgeLocationId<Block> {
+            val block = blocks[random.nextInt(blocks.size.toInt())]
+            val length = infra.blockInfra.getBlockLength(block).distance.millimeters
+            return EdgeLocation(block, Offset(Distance(random.nextLong(length + 1))))
+        }
+        for (i in 0 until 100) {
+            val steps =
+                (0 until random.nextInt(2, 5)).map {
+                    (0 until random.nextInt(1, 3)).map { randomLocation() }.toSet()
+                }
+            for (stepConstraints in listOf(listOf(), constraints)) {
+                val expected = runGenericPathfinding(infra, steps, stepConstraints)
+                val res = runPathfinding(infra, steps, stepConstraints)
+                assertEquals(expected?.let { length(it) }, res?.let { length(it) })
+                assertEquals(expected?.waypoints, res?.waypoints)
+            }
+        }
+    }
+
+    private fun runGenericPathfinding(
+        infra: FullInfra,
+        steps: List<Collection<PathfindingEdgeLocationId<Block>>>,
+        constraints: List<PathfindingConstraint<Block>>
+    ): PathfindingResultId<Block>? {
+        return Pathfinding(GraphAdapter(infra.blockInfra, infra.rawInfra))
+            .setEdgeToLength { block -> infra.blockInfra.getBlockLength(block) }
+            .addBlockedRangeOnEdges(constraints)
+            .runPathfinding(steps)
+    }
+
+    private fun length(result: PathfindingResultId<Block>): Long {
+        return result.ranges.sumOf { (it.end - it.start).millimeters }
+    }
+}
@@ -0,0 +1,125 @@
+package fr.sncf.osrd.pathfinding
+
+import com.google.common.collect.ImmutableSet
+import fr.sncf.osrd.api.pathfinding.PathfindingBlocksEndpoint
+import fr.sncf.osrd.api.pathfinding.constraints.initConstraints
+import fr.sncf.osrd.api.pathfinding.diagnosePathfindingFailure
+import fr.sncf.osrd.graph.Pathfinding
+import fr.sncf.osrd.graph.PathfindingConstraint
+import fr.sncf.osrd.graph.PathfindingEdgeLocationId
+import fr.sncf.osrd.infra.implementation.tracks.undirected.LoadingGaugeConstraintImpl
+import fr.sncf.osrd.railjson.schema.rollingstock.RJSLoadingGaugeType
+import fr.sncf.osrd.reporting.exceptions.ErrorType
+import fr.sncf.osrd.sim_infra.api.Block
+import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.train.TestTrains
+import fr.sncf.osrd.utils.DummyInfra
+import fr.sncf.osrd.utils.units.Offset
+import fr.sncf.osrd.utils.units.meters
+import kotlin.test.assertEquals
+import org.junit.jupiter.api.Test
+
+class ConstraintDiagnosisTest {
+    /*       c1
+            ^  \
+           /    v
+    a --> b     d --> e
+           \    ^
+            v  /
+             c2
+     */
+    private val infra = DummyInfra()
+    private val start = infra.addBlock("a", "b")
+    private val upperEntry = infra.addBlock("b", "c1")
+    private val lowerEntry = infra.addBlock("b", "c2")
+    private val upperExit = infra.addBlock("c1", "d")
+    private val lowerExit = infra.addBlock("c2", "d")
+    private val end = infra.addBlock("d", "e")
+
+    // the trains used in the tests are electric and have a G1 loading gauge
+    private val blockedGauge = LoadingGaugeConstraintImpl(ImmutableSet.of(RJSLoadingGaugeType.G1))
+
+    init {
+        for (block in infra.blockPool) block.voltage = "25000V"
+    }
+
+    @Test
+    fun electrificationBlocksEveryPath() {
+        infra.blockPool[upperExit.index.toInt()].voltage = ""
+        infra.blockPool[lowerEntry.index.toInt()].voltage = ""
+        val constraints = makeConstraints()
+
+        assertEquals(ErrorType.PathfindingElectrificationError, diagnose(constraints))
+        val electrification = constraints[1]
+        assertEquals(setOf(fullBlockRange()), blockedRanges(electrification, upperExit))
+        assertEquals(setOf(fullBlockRange()), blockedRanges(electrification, lowerEntry))
+        for (block in listOf(start, upperEntry, lowerExit, end))
+            assertEquals(setOf(), blockedRanges(electrification, block))
+        for (block in listOf(start, upperEntry, lowerEntry, upperExit, lowerExit, end))
+            assertEquals(setOf(), blockedRanges(constraints[0], block))
+    }
+
+    @Test
+    fun loadingGaugeBlocksEveryPath() {
+        // both branches end up on the last block, which is only partly used by the path
+        infra.blockPool[end.index.toInt()].loadingGaugeConstraint = blockedGauge
+        val constraints = makeConstraints()
+
+        assertEquals(ErrorType.PathfindingGaugeError, diagnose(constraints, Offset(50.meters)))
+        val loadingGauge = constraints[0]
+        assertEquals(setOf(fullBlockRange()), blockedRanges(loadingGauge, end))
+        for (block in listOf(start, upperEntry, lowerEntry, upperExit, lowerExit))
+            assertEquals(setOf(), blockedRanges(loadingGauge, block))
+        for (block in listOf(start, upperEntry, lowerEntry, upperExit, lowerExit, end))
+            assertEquals(setOf(), blockedRanges(constraints[1], block))
+    }
+
+    @Test
+    fun combinedConstraintsGiveGenericError() {
+        // each branch is blocked by a different constraint: none of them would fail on its own
+        infra.blockPool[upperEntry.index.toInt()].voltage = ""
+        infra.blockPool[lowerExit.index.toInt()].loadingGaugeConstraint = blockedGauge
+        val constraints = makeConstraints()
+
+        assertEquals(ErrorType.PathfindingGenericError, diagnose(constraints))
+        assertEquals(setOf(fullBlockRange()), blockedRanges(constraints[1], upperEntry))
+        assertEquals(setOf(), blockedRanges(constraints[1], lowerExit))
+        assertEquals(setOf(fullBlockRange()), blockedRanges(constraints[0], lowerExit))
+        assertEquals(setOf(), blockedRanges(constraints[0], upperEntry))
+    }
+
+    /** Returns the loading gauge, electrification and signaling constraints, in this order */
+    private fun makeConstraints(): List<PathfindingConstraint<Block>> {
+        return initConstraints(infra.fullInfra(), listOf(TestTrains.FAST_ELECTRIC_TRAIN))
+    }
+
+    private fun diagnose(
+        constraints: List<PathfindingConstraint<Block>>,
+        endOffset: Offset<Block> = Offset(100.meters)
+    ): ErrorType {
+        val waypoints =
+            listOf(
+                listOf(PathfindingEdgeLocationId(start, Offset<Block>(0.meters))),
+                listOf(PathfindingEdgeLocationId(end, endOffset))
+            )
+        return diagnosePathfindingFailure(
+            infra,
+            infra,
+            waypoints,
+            constraints,
+            PathfindingBlocksEndpoint.constraintErrors,
+            Pathfinding.TIMEOUT
+        )
+    }
+
+    private fun fullBlockRange(): Pathfinding.Range<Block> {
+        return Pathfinding.Range(Offset(0.meters), Offset(100.meters))
+    }
+
+    private fun blockedRanges(
+        constraint: PathfindingConstraint<Block>,
+        block: BlockId
+    ): Set<Pathfinding.Range<Block>> {
+        return constraint.apply(block).toSet()
+    }
+}
@@ -1,8 +1,11 @@
 package fr.sncf.osrd.pathfinding
 
 import fr.sncf.osrd.api.ApiTest
+import fr.sncf.osrd.api.pathfinding.PathfindingBatchEndpoint
 import fr.sncf.osrd.api.pathfinding.PathfindingBlocksEndpoint
 import fr.sncf.osrd.api.pathfinding.convertPathfindingResult
+import fr.sncf.osrd.api.pathfinding.request.PathfindingBatchRequest
+import fr.sncf.osrd.api.pathfinding.request.PathfindingBatchRequest.PathfindingItinerary
 import fr.sncf.osrd.api.pathfinding.request.PathfindingRequest
 import fr.sncf.osrd.api.pathfinding.request.PathfindingWaypoint
 import fr.sncf.osrd.api.pathfinding.response.CurveChartPointResult
@@ -45,6 +48,7 @@ import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.Arguments
 import org.junit.jupiter.params.provider.MethodSource
 import org.takes.rq.RqFake
+import org.takes.rs.RsPrint
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class PathfindingTest : ApiTest() {
@@ -243,6 +247,71 @@ class PathfindingTest : ApiTest() {
             })
     }
 
+    @Test
+    fun batchPathfinding() {
+        val waypointStart = PathfindingWaypoint("ne.micro.foo_b", 50.0, EdgeDirection.START_TO_STOP)
+        val waypointEnd = PathfindingWaypoint("ne.micro.bar_a", 100.0, EdgeDirection.START_TO_STOP)
+        val waypoints =
+            arrayOf(
+                makeBidirectionalEndPoint(waypointStart),
+                makeBidirectionalEndPoint(waypointEnd)
+            )
+        val noPathStart = PathfindingWaypoint("ne.micro.foo_b", 12.0, EdgeDirection.STOP_TO_START)
+        val noPathEnd = PathfindingWaypoint("ne.micro.foo_b", 13.0, EdgeDirection.STOP_TO_START)
+        val noPathWaypoints = arrayOf(arrayOf(noPathStart), arrayOf(noPathEnd))
+        val itineraries =
+            listOf(
+                PathfindingItinerary(waypoints, listOf()),
+                PathfindingItinerary(noPathWaypoints, listOf()),
+                PathfindingItinerary(waypoints, listOf()),
+            )
+        val requestBody =
+            PathfindingBatchRequest.adapter.toJson(
+                PathfindingBatchRequest(itineraries, "tiny_infra/infra.json", "1", null)
+            )
+        val response =
+            PathfindingBatchEndpoint(infraManager, 1)
+                .act(RqFake("POST", "/pathfinding/batch", requestBody))
+        // the response as it is sent, with its head and chunked body
+        val printed = RsPrint(response).print()
+        val head = printed.substringBefore("\r\n\r\n").split("\r\n")
+        assertEquals("HTTP/1.1 200 OK", head[0])
+        assertThat(head)
+            .contains("Content-Type: application/x-ndjson", "Transfer-Encoding: chunked")
+        assertThat(head).noneMatch { it.startsWith("Content-Length") }
+
+        // each line is sent in its own chunk. With a single thread, the searches complete in the
+        // order of the itineraries
+        val lines = readChunks(printed.substringAfter("\r\n\r\n"))
+        for (line in lines) assertThat(line).endsWith("\n").containsOnlyOnce("\n")
+        assertEquals(
+            listOf(0, 1, 2),
+            lines.map { it.substringAfter("\"index\":").substringBefore(",").toInt() }
+        )
+        for (index in listOf(0, 2)) {
+            val path = lines[index].substringAfter("\"result\":").trimEnd().dropLast(1)
+            assertThat(PathfindingResult.adapterResult.fromJson(path)!!.length).isEqualTo(10250.0)
+        }
+        assertThat(lines[1]).contains("\"error\":")
+    }
+
+    /** Returns the chunks of a body sent with chunked transfer encoding */
+    private fun readChunks(body: String): List<String> {
+        val res = ArrayList<String>()
+        var rest = body
+        while (true) {
+            val size = rest.substringBefore("\r\n").toInt(16)
+            rest = rest.substringAfter("\r\n")
+            if (size == 0) {
+                assertEquals("\r\n", rest)
+                return res
+            }
+            res.add(rest.substring(0, size))
+            assertEquals("\r\n", rest.substring(size, size + 2))
+            rest = rest.substring(size + 2)
+        }
+    }
+
     @Test
     @Throws(IOException::class)
     fun missingTrackTest() {
@@ -17,6 +17,7 @@ import fr.sncf.osrd.utils.units.meters
 import java.util.stream.Stream
 import org.junit.jupiter.api.Assertions
 import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.TestInstance
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.Arguments
@@ -53,6 +54,22 @@ class RemainingDistanceEstimatorTest {
         Assertions.assertEquals(expectedDistance, estimator.apply(block!!, blockOffset))
     }
 
+    @Test
+    fun blockStartEstimationsAreCached() {
+        val infra = smallInfra!!
+        val targets = listOf(EdgeLocation(block, path!!.getLength()))
+        val estimator = RemainingDistanceEstimator(infra.blockGeometry, targets, 0.0)
+        for (otherBlock in infra.blockInfra.blocks) {
+            val expected =
+                RemainingDistanceEstimator(infra.blockInfra, infra.rawInfra, targets, 0.0)
+                    .apply(otherBlock, Offset(0.meters))
+            // the second call reads the cached value
+            for (i in 0 until 2) {
+                Assertions.assertEquals(expected, estimator.apply(otherBlock, Offset(0.meters)))
+            }
+        }
+    }
+
     @SuppressFBWarnings(
         value = ["UPM_UNCALLED_PRIVATE_METHOD"],
         justification = "called implicitly by MethodSource"
@@ -1,5 +1,6 @@
 package fr.sncf.osrd.pathfinding.constraints
 
+import fr.sncf.osrd.api.pathfinding.constraints.BlockConstraintIndex
 import fr.sncf.osrd.api.pathfinding.constraints.ElectrificationConstraints
 import fr.sncf.osrd.graph.Pathfinding
 import fr.sncf.osrd.sim_infra.api.Block
@@ -13,6 +14,7 @@ import fr.sncf.osrd.utils.units.meters
 import java.util.stream.Stream
 import org.assertj.core.api.AssertionsForClassTypes
 import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.TestInstance
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.Arguments
@@ -45,6 +47,21 @@ class ElectrificationConstraintsTest {
         AssertionsForClassTypes.assertThat(blockedRanges).isEqualTo(expectedBlockedRanges)
     }
 
+    @Test
+    fun sharedIndexGivesSameBlockedRanges() {
+        val infra = Helpers.smallInfra
+        val index = BlockConstraintIndex(infra.blockInfra, infra.rawInfra)
+        val trains = listOf(TestTrains.FAST_ELECTRIC_TRAIN)
+        // the second constraint only looks up the ranges computed by the first one
+        val first = ElectrificationConstraints(infra.blockInfra, infra.rawInfra, trains, index)
+        val second = ElectrificationConstraints(infra.blockInfra, infra.rawInfra, trains, index)
+        for (block in infra.blockInfra.blocks) {
+            val expected = electrificationConstraints!!.apply(block)
+            AssertionsForClassTypes.assertThat(first.apply(block)).isEqualTo(expected)
+            AssertionsForClassTypes.assertThat(second.apply(block)).isEqualTo(expected)
+        }
+    }
+
     fun testDeadSectionArgs(): Stream<Arguments> {
         return Stream.of( // No corresponding electrification ranges without dead sections
             Arguments.of(
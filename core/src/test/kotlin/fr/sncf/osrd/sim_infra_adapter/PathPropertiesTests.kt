@@ -9,17 +9,22 @@ import fr.sncf.osrd.railjson.schema.infra.RJSOperationalPoint
 import fr.sncf.osrd.railjson.schema.infra.trackranges.*
 import fr.sncf.osrd.railjson.schema.rollingstock.RJSLoadingGaugeType
 import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.sim_infra.api.PathTrackLocator
+import fr.sncf.osrd.sim_infra.api.increasing
 import fr.sncf.osrd.train.TestTrains.MAX_SPEED
 import fr.sncf.osrd.utils.Direction
 import fr.sncf.osrd.utils.DistanceRangeMap
 import fr.sncf.osrd.utils.Helpers
 import fr.sncf.osrd.utils.indexing.StaticIdx
 import fr.sncf.osrd.utils.pathFromTracks
+import fr.sncf.osrd.utils.units.Distance
 import fr.sncf.osrd.utils.units.Offset
 import fr.sncf.osrd.utils.units.meters
 import fr.sncf.osrd.utils.units.metersPerSecond
 import kotlin.math.absoluteValue
+import kotlin.random.Random
 import kotlin.test.assertEquals
+import kotlin.test.assertSame
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
 
@@ -456,6 +461,87 @@ class PathPropertiesTests {
                     )
                 )
             )
+
+        // Speed limits are cached per train tag
+        assertSame(speedLimits, path.getSpeedLimits("trainTag"))
+        assertThat(path.getSpeedLimits(null).asList())
+            .containsExactlyElementsOf(
+                listOf(
+                    DistanceRangeMap.RangeMapEntry(0.meters, 400.meters, 30.0.metersPerSecond),
+                    DistanceRangeMap.RangeMapEntry(
+                        400.meters,
+                        1_820.meters,
+                        MAX_SPEED.metersPerSecond
+                    )
+                )
+            )
+
+        // Train tags without specific limits on a chunk share its default limits
+        val rawInfra = infra.rawInfra
+        for (chunk in rawInfra.getTrackSectionChunks(rawInfra.getTrackSectionFromName("TA0")!!)) {
+            val dirChunk = chunk.increasing
+            val defaultLimits = rawInfra.getTrackChunkSpeedSections(dirChunk, null)
+            assertSame(defaultLimits, rawInfra.getTrackChunkSpeedSections(dirChunk, "other"))
+        }
+    }
+
+    @Test
+    fun testTrackLocator() {
+        /*
+                TA0                 TA1
+        |------------------|-------------------|
+        0        1         2         3        3.95  km
+
+            |----------------------------->         path forward (.5 to 3.5km)
+                 <-------------------|              path backward (3 to 1km)
+         */
+        val infra = Helpers.smallInfra.rawInfra
+        val path =
+            pathFromTracks(
+                infra,
+                listOf("TA0", "TA1"),
+                Direction.INCREASING,
+                500.meters,
+                3_500.meters
+            )
+        val pathBackward =
+            pathFromTracks(
+                infra,
+                listOf("TA1", "TA0"),
+                Direction.DECREASING,
+                950.meters,
+                2_950.meters
+            )
+        fun locate(locator: PathTrackLocator, offset: Distance): Pair<String, Distance> {
+            val location = locator.getTrackLocationAtOffset(Offset(offset))
+            return Pair(infra.getTrackSectionName(location.trackId), location.offset.distance)
+        }
+
+        val locator = path.getTrackLocator()
+        assertEquals(Pair("TA0", 500.meters), locate(locator, 0.meters))
+        assertEquals(Pair("TA0", 2_000.meters), locate(locator, 1_500.meters))
+        assertEquals(Pair("TA1", 500.meters), locate(locator, 2_000.meters))
+        assertEquals(Pair("TA1", 1_500.meters), locate(locator, 3_000.meters))
+        assertEquals(Pair("TA0", 1_000.meters), locate(locator, 500.meters))
+
+        val backwardLocator = pathBackward.getTrackLocator()
+        assertEquals(Pair("TA1", 1_000.meters), locate(backwardLocator, 0.meters))
+        assertEquals(Pair("TA1", 0.meters), locate(backwardLocator, 1_000.meters))
+        assertEquals(Pair("TA0", 1_000.meters), locate(backwardLocator, 2_000.meters))
+
+        // Ordered and random queries give the same locations as direct lookups
+        val random = Random(42)
+        for (p in listOf(path, pathBackward)) {
+            val pathLocator = p.getTrackLocator()
+            val length = p.getLength().distance.millimeters
+            val offsets =
+                (0 until 100).map { Distance(random.nextLong(length + 1)) }.sorted() +
+                    (0 until 100).map { Distance(random.nextLong(length + 1)) }
+            for (offset in offsets) {
+                val expected = p.getTrackLocationAtOffset(Offset(offset))
+                assertEquals(expected, pathLocator.getTrackLocationAtOffset(Offset(offset)))
+            }
+        }
     }
 
     /** Assert that line strings are equal, with a certain tolerance for double values */
@@ -1,11 +1,13 @@
 package fr.sncf.osrd.sim_infra_adapter
 
+import fr.sncf.osrd.api.makeSignalingSimulator
 import fr.sncf.osrd.signaling.impl.MockSigSystemManager
 import fr.sncf.osrd.signaling.impl.SignalingSimulatorImpl
 import fr.sncf.osrd.sim_infra.api.SigParametersSchema
 import fr.sncf.osrd.sim_infra.api.SigSettingsSchema
 import fr.sncf.osrd.utils.Helpers
 import kotlin.test.Test
+import kotlin.test.assertEquals
 
 class SignalLoadingTest {
     private val balSigSystemManager =
@@ -36,4 +38,35 @@ class SignalLoadingTest {
         val loadedSignalInfra = simulator.loadSignals(infra)
         simulator.buildBlocks(infra, loadedSignalInfra)
     }
+
+    @Test
+    fun parallelLoadingMatchesSequentialLoading() {
+        val rjsInfra = Helpers.getExampleInfra("small_infra/infra.json")
+        val infra = adaptRawInfra(Helpers.infraFromRJS(rjsInfra))
+
+        val sequential = makeSignalingSimulator(false)
+        val sequentialSignals = sequential.loadSignals(infra)
+        val sequentialBlocks = sequential.buildBlocks(infra, sequentialSignals)
+
+        val parallel = makeSignalingSimulator(true)
+        val parallelSignals = parallel.loadSignals(infra)
+        val parallelBlocks = parallel.buildBlocks(infra, parallelSignals)
+
+        assertEquals(sequentialSignals.logicalSignals.size, parallelSignals.logicalSignals.size)
+        for (signal in sequentialSignals.logicalSignals) {
+            assertEquals(
+                sequentialSignals.getSignalingSystem(signal),
+                parallelSignals.getSignalingSystem(signal)
+            )
+            assertEquals(sequentialSignals.getDrivers(signal), parallelSignals.getDrivers(signal))
+        }
+        assertEquals(sequentialBlocks.blocks.size, parallelBlocks.blocks.size)
+        for (block in sequentialBlocks.blocks) {
+            assertEquals(sequentialBlocks.getBlockPath(block), parallelBlocks.getBlockPath(block))
+            assertEquals(
+                sequentialBlocks.getBlockSignals(block),
+                parallelBlocks.getBlockSignals(block)
+            )
+        }
+    }
 }
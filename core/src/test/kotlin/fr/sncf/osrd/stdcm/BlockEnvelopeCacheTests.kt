@@ -0,0 +1,101 @@
+package fr.sncf.osrd.stdcm
+
+import fr.sncf.osrd.envelope.Envelope
+import fr.sncf.osrd.envelope.part.EnvelopePart
+import fr.sncf.osrd.envelope_sim.EnvelopeProfile
+import fr.sncf.osrd.graph.Pathfinding.EdgeLocation
+import fr.sncf.osrd.stdcm.graph.BlockEnvelopeCache
+import fr.sncf.osrd.stdcm.graph.BlockSimulationContext
+import fr.sncf.osrd.stdcm.graph.BlockSimulationParameters
+import fr.sncf.osrd.stdcm.graph.estimateEntrySize
+import fr.sncf.osrd.train.RollingStock.Comfort
+import fr.sncf.osrd.utils.DummyInfra
+import fr.sncf.osrd.utils.units.Offset
+import fr.sncf.osrd.utils.units.meters
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+import org.junit.jupiter.api.Test
+
+class BlockEnvelopeCacheTests {
+    private val context =
+        BlockSimulationContext("infra", "1", "rolling_stock", Comfort.STANDARD, "", 2.0)
+
+    /** Runs the same request twice, the second run should only use cached envelopes */
+    @Test
+    fun envelopesAreSharedBetweenRequests() {
+        /*
+        a --> b --> c --> d
+         */
+        val infra = DummyInfra()
+        val firstBlock = infra.addBlock("a", "b")
+        infra.addBlock("b", "c")
+        val lastBlock = infra.addBlock("c", "d")
+        val cache = BlockEnvelopeCache(1L shl 20)
+        val builder =
+            STDCMPathfindingBuilder()
+                .setInfra(infra.fullInfra())
+                .setStartLocations(setOf(EdgeLocation(firstBlock, Offset(0.meters))))
+                .setEndLocations(setOf(EdgeLocation(lastBlock, Offset(50.meters))))
+                .setSharedEnvelopes(cache.forContext(context))
+
+        val firstResult = builder.run()!!
+        val statsAfterFirstRun = cache.getStats()
+        assertEquals(0, statsAfterFirstRun.hits)
+
+        val secondResult = builder.run()!!
+        val statsAfterSecondRun = cache.getStats()
+        assertEquals(statsAfterFirstRun.misses, statsAfterSecondRun.misses)
+        assertEquals(statsAfterFirstRun.misses, statsAfterSecondRun.hits)
+        assertEquals(firstResult.envelope.totalTime, secondResult.envelope.totalTime)
+    }
+
+    @Test
+    fun leastRecentlyUsedEntriesAreEvicted() {
+        val infra = DummyInfra()
+        val block = infra.addBlock("a", "b")
+        val cache = BlockEnvelopeCache(2 * estimateEntrySize(null))
+        val params =
+            (0..2).map { BlockSimulationParameters(block, it.toDouble(), Offset(0.meters), null) }
+        for (p in params) cache.getOrCompute(context, p) { null }
+        // The first entry was evicted, and is simulated again
+        var simulated = false
+        val envelope =
+            cache.getOrCompute(context, params[0]) {
+                simulated = true
+                null
+            }
+        assertNull(envelope)
+        assertTrue(simulated)
+        assertEquals(2, cache.getStats().evictions)
+        assertEquals(2, cache.getStats().size)
+    }
+
+    @Test
+    fun largeEnvelopesEvictMoreEntries() {
+        val infra = DummyInfra()
+        val block = infra.addBlock("a", "b")
+        val cache = BlockEnvelopeCache(4 * estimateEntrySize(null))
+        val params =
+            (0..4).map { BlockSimulationParameters(block, it.toDouble(), Offset(0.meters), null) }
+        for (p in params.subList(0, 4)) cache.getOrCompute(context, p) { null }
+        assertEquals(4, cache.getStats().size)
+
+        // An envelope with many points weighs as much as several small entries
+        val positions = DoubleArray(20) { it * 10.0 }
+        val speeds = DoubleArray(20) { 10.0 }
+        val envelope =
+            Envelope.make(
+                EnvelopePart.generateTimes(
+                    listOf(EnvelopeProfile.CONSTANT_SPEED),
+                    positions,
+                    speeds
+                )
+            )
+        assertTrue(estimateEntrySize(envelope) > 2 * estimateEntrySize(null))
+        cache.getOrCompute(context, params[4]) { envelope }
+        val stats = cache.getStats()
+        assertTrue(stats.evictions >= 3)
+        assertTrue(stats.estimatedSize <= stats.budget)
+    }
+}
@@ -8,6 +8,7 @@ import fr.sncf.osrd.graph.Pathfinding
 import fr.sncf.osrd.graph.PathfindingEdgeLocationId
 import fr.sncf.osrd.sim_infra.api.Block
 import fr.sncf.osrd.sim_infra.api.BlockId
+import fr.sncf.osrd.stdcm.graph.BlockEnvelopeCache
 import fr.sncf.osrd.stdcm.graph.findPath
 import fr.sncf.osrd.stdcm.preprocessing.DummyBlockAvailability
 import fr.sncf.osrd.stdcm.preprocessing.OccupancySegment
@@ -42,6 +43,7 @@ class STDCMPathfindingBuilder {
     private var tag = ""
     private var standardAllowance: AllowanceValue? = null
     private var blockAvailability: BlockAvailabilityInterface? = null
+    private var sharedEnvelopes: BlockEnvelopeCache.ContextView? = null
     // endregion OPTIONAL
     // region SETTERS
     /** Sets the infra to be used */
@@ -151,6 +153,14 @@ class STDCMPathfindingBuilder {
         this.blockAvailability = availability
         return this
     }
+
+    /** Sets the envelope cache shared between runs. Defaults to null (no shared cache) */
+    fun setSharedEnvelopes(
+        sharedEnvelopes: BlockEnvelopeCache.ContextView?
+    ): STDCMPathfindingBuilder {
+        this.sharedEnvelopes = sharedEnvelopes
+        return this
+    }
     // endregion SETTERS
     /** Runs the pathfinding request with the given parameters */
     fun run(): STDCMResult? {
@@ -174,7 +184,8 @@ class STDCMPathfindingBuilder {
             maxRunTime,
             tag,
             standardAllowance,
-            pathfindingTimeout
+            pathfindingTimeout,
+            sharedEnvelopes
         )
     }
 }
@@ -1,5 +1,8 @@
 package fr.sncf.osrd.stdcm.preprocessing
 
+import fr.sncf.osrd.conflicts.IncrementalRequirementEnvelopeAdapter
+import fr.sncf.osrd.conflicts.SpacingRequirementAutomaton
+import fr.sncf.osrd.conflicts.SpacingRequirements
 import fr.sncf.osrd.envelope.Envelope
 import fr.sncf.osrd.envelope.part.EnvelopePart
 import fr.sncf.osrd.envelope_sim.EnvelopeProfile
@@ -22,6 +25,7 @@ import fr.sncf.osrd.utils.units.Offset
 import fr.sncf.osrd.utils.units.meters
 import kotlin.Double.Companion.POSITIVE_INFINITY
 import kotlin.test.assertEquals
+import kotlin.test.assertNotEquals
 import kotlin.test.assertNotNull
 import kotlin.test.assertTrue
 import org.junit.jupiter.api.BeforeEach
@@ -621,4 +625,68 @@ class BlockAvailabilityTests {
             ) as BlockAvailabilityInterface.Unavailable
         assertEquals(120.0, res.duration)
     }
+
+    /**
+     * Test that the full requirements match a single evaluation over the whole path, when the
+     * explorer is updated one block at a time and when it's cloned in the middle of the path
+     */
+    @Test
+    fun testFullRequirementsAfterIncrementalUpdates() {
+        val explorer = makeExplorer(5, 0)
+        var cloned: InfraExplorerWithEnvelope? = null
+        for (i in blocks.indices) {
+            explorer.addEnvelope(constantSpeedEnvelope(blockLengths[i], 30.0))
+            cloned?.addEnvelope(constantSpeedEnvelope(blockLengths[i], 20.0))
+            for (updated in listOfNotNull(explorer, cloned)) {
+                // Updates the automaton like a block availability check would
+                updated.getSpacingRequirements()
+                assertEquals(
+                    singleEvaluationRequirements(updated),
+                    updated.getFullSpacingRequirements()
+                )
+            }
+            if (i == 1) cloned = explorer.clone()
+            if (i < blocks.size - 1) {
+                explorer.moveForward()
+                cloned?.moveForward()
+            }
+        }
+        assertTrue { explorer.getFullSpacingRequirements().all { it.isComplete } }
+        assertNotEquals(
+            explorer.getFullSpacingRequirements(),
+            cloned!!.getFullSpacingRequirements()
+        )
+    }
+
+    private fun constantSpeedEnvelope(length: Offset<Block>, speed: Double): Envelope {
+        return Envelope.make(
+            EnvelopePart.generateTimes(
+                listOf(EnvelopeProfile.CONSTANT_SPEED),
+                doubleArrayOf(0.0, length.distance.meters),
+                doubleArrayOf(speed, speed)
+            )
+        )
+    }
+
+    /** Evaluates the requirements over the whole path with a new automaton */
+    private fun singleEvaluationRequirements(
+        explorer: InfraExplorerWithEnvelope
+    ): List<SpacingRequirement> {
+        val simulationComplete =
+            explorer.getIncrementalPath().pathComplete && explorer.getLookahead().size == 0
+        val automaton =
+            SpacingRequirementAutomaton(
+                infra.rawInfra,
+                infra.loadedSignalInfra,
+                infra.blockInfra,
+                infra.signalingSimulator,
+                IncrementalRequirementEnvelopeAdapter(
+                    REALISTIC_FAST_TRAIN,
+                    explorer.getFullEnvelope(),
+                    simulationComplete
+                ),
+                explorer.getIncrementalPath()
+            )
+        return (automaton.processPathUpdate() as SpacingRequirements).requirements
+    }
 }
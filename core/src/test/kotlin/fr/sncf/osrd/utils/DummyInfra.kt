@@ -82,6 +82,7 @@ class DummyInfra : RawInfra, BlockInfra {
         var voltage: String = "",
         var neutralSectionForward: NeutralSection? = null,
         var neutralSectionBackward: NeutralSection? = null,
+        var loadingGaugeConstraint: LoadingGaugeConstraint? = null,
     )
 
     // region inherited
@@ -373,7 +374,9 @@ class DummyInfra : RawInfra, BlockInfra {
     override fun getTrackChunkLoadingGaugeConstraints(
         trackChunk: TrackChunkId
     ): DistanceRangeMap<LoadingGaugeConstraint> {
-        return DistanceRangeMapImpl()
+        val desc = blockPool[trackChunk.index]
+        val constraint = desc.loadingGaugeConstraint ?: return DistanceRangeMapImpl()
+        return makeRangeMap(desc.length, constraint)
     }
 
     override fun getTrackChunkElectrificationVoltage(